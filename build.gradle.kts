@@ -3,6 +3,7 @@ plugins {
     id("org.springframework.boot") version "3.5.5"
     id("io.spring.dependency-management") version "1.1.7"
     jacoco
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.eubican.practices"
@@ -55,6 +56,13 @@ tasks.test {
     finalizedBy(tasks.jacocoTestReport)
 }
 
+jmh {
+    warmupIterations = 2
+    iterations = 3
+    fork = 1
+    profilers = listOf("gc")
+}
+
 jacoco {
     toolVersion = "0.8.12"
 }
@@ -0,0 +1,87 @@
+package com.eubican.practices.brokerage.oms.benchmark;
+
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic of placing a BUY: notional = price * size, funds check, usable to reserved
+ * move and size sync, once on the {@link BigDecimal} path the service used to take and once on
+ * {@link FixedPoint}.
+ * <p>
+ * Run with {@code gradle jmh}; the gc profiler reports the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FixedPointBenchmark {
+
+    private BigDecimal price;
+
+    private BigDecimal size;
+
+    private BigDecimal usable;
+
+    private BigDecimal reserved;
+
+    private FixedPoint fixedPrice;
+
+    private FixedPoint fixedSize;
+
+    private FixedPoint fixedUsable;
+
+    private FixedPoint fixedReserved;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        price = BigDecimal.valueOf(random.nextLong(1_0000, 1_000_0000), 4);
+        size = BigDecimal.valueOf(random.nextLong(1_000000, 1_000_000000), 6);
+        usable = new BigDecimal("1000000000.000000");
+        reserved = new BigDecimal("0.000000");
+
+        fixedPrice = FixedPoint.of(price, FixedPoint.PRICE_SCALE);
+        fixedSize = FixedPoint.of(size, FixedPoint.SIZE_SCALE);
+        fixedUsable = FixedPoint.of(usable, FixedPoint.AMOUNT_SCALE);
+        fixedReserved = FixedPoint.of(reserved, FixedPoint.AMOUNT_SCALE);
+    }
+
+    @Benchmark
+    public BigDecimal reserveBigDecimal() {
+        BigDecimal needed = price.multiply(size);
+        if (usable.compareTo(needed) < 0) {
+            throw new IllegalStateException();
+        }
+        BigDecimal newUsable = usable.subtract(needed).setScale(6, RoundingMode.HALF_UP);
+        BigDecimal newReserved = reserved.add(needed).setScale(6, RoundingMode.HALF_UP);
+        return newUsable.add(newReserved).setScale(6, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long reserveFixedPoint() {
+        FixedPoint needed = fixedPrice.multiply(fixedSize, FixedPoint.AMOUNT_SCALE);
+        if (fixedUsable.isLessThan(needed)) {
+            throw new IllegalStateException();
+        }
+        FixedPoint newUsable = fixedUsable.subtract(needed);
+        FixedPoint newReserved = fixedReserved.add(needed);
+        return newUsable.add(newReserved).units();
+    }
+
+    @Benchmark
+    public FixedPoint convertAtBoundary() {
+        // entity -> domain -> entity round trip paid once per command
+        return FixedPoint.of(FixedPoint.of(usable, FixedPoint.AMOUNT_SCALE).toBigDecimal(), FixedPoint.AMOUNT_SCALE);
+    }
+}
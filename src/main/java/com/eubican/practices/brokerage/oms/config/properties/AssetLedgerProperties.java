@@ -0,0 +1,19 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.asset-ledger")
+public class AssetLedgerProperties {
+    private boolean writeBehind = false; // default value
+    private boolean conditionalUpdates = true; // default value
+    private Duration flushTimeout = Duration.ofSeconds(5); // default value
+    private Duration flushRetryDelay = Duration.ofMillis(100); // default value
+    private int maxFlushAttempts = 5; // default value
+    private int maxPositions = 100_000; // default value
+}
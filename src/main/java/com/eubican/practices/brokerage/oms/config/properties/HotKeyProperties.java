@@ -0,0 +1,19 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.hot-keys")
+public class HotKeyProperties {
+    private boolean enabled = true; // default value
+    private int capacity = 256; // default value
+    private Duration decayInterval = Duration.ofMinutes(1); // default value
+    private long conflictThreshold = 20; // default value
+    private boolean serializeHotKeys = false; // default value
+    private Duration serializeTimeout = Duration.ofMillis(200); // default value
+}
@@ -0,0 +1,15 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.idempotency")
+public class IdempotencyProperties {
+    private int maxEntries = 100_000; // default value
+    private Duration ttl = Duration.ofMinutes(10); // default value
+}
@@ -0,0 +1,18 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.journal")
+public class JournalProperties {
+    private boolean enabled = false; // default value
+    private Path directory = Path.of("data", "journal"); // default value
+    private DataSize segmentSize = DataSize.ofMegabytes(64); // default value
+    private int snapshotEvery = 10_000; // default value
+}
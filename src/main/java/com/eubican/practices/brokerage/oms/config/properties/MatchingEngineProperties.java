@@ -0,0 +1,21 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * The order books live in the heap of the instance that owns them and only see the orders placed,
+ * canceled and matched through that instance. Enable the engine on exactly one instance: two
+ * engines never learn about each other's resting orders.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.matching-engine")
+public class MatchingEngineProperties {
+    private boolean enabled = false; // default value
+    private int recoveryPageSize = 1000; // default value
+    private Duration withdrawnRetention = Duration.ofMinutes(1); // default value
+}
@@ -0,0 +1,18 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.open-orders")
+public class OpenOrderStoreProperties {
+    private boolean enabled = false; // default value
+    private Path directory = Path.of("data", "open-orders"); // default value
+    private int initialCapacity = 1 << 20; // default value
+    private Duration withdrawnRetention = Duration.ofMinutes(1); // default value
+}
@@ -4,9 +4,17 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "application.order-service")
 public class OrderServiceProperties {
+    private String concurrencyStrategy = "optimistic"; // default value, or pessimistic
     private int optimisticLockMaxRetries = 3; // default value
+    private Duration optimisticBackoffInitial = Duration.ofMillis(2); // default value
+    private Duration optimisticBackoffMax = Duration.ofMillis(50); // default value
+    private int batchMatchChunkSize = 1000; // default value
+    private int bulkSubmitChunkSize = 500; // default value
+    private int exportFetchSize = 1000; // default value
 }
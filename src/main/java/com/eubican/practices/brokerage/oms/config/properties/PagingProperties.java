@@ -0,0 +1,18 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.paging")
+public class PagingProperties {
+    private int countCacheMaxEntries = 10_000; // default value
+    private Duration countCacheRefreshAfter = Duration.ofSeconds(30); // default value
+    private Duration countCacheTtl = Duration.ofMinutes(10); // default value
+    private int countRefreshThreads = 2; // default value
+    private int countRefreshQueueCapacity = 1_000; // default value
+}
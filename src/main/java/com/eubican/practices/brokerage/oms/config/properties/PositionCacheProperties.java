@@ -0,0 +1,17 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.position-cache")
+public class PositionCacheProperties {
+    private boolean enabled = true; // default value
+    private DataSize maxWeight = DataSize.ofMegabytes(16); // default value
+    private Duration ttl = Duration.ofMinutes(5); // default value
+}
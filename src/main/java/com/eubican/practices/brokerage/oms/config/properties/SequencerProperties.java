@@ -0,0 +1,14 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.sequencer")
+public class SequencerProperties {
+    private boolean enabled = false; // default value
+    private int lanes = 8; // default value
+    private int queueCapacity = 10_000; // default value
+}
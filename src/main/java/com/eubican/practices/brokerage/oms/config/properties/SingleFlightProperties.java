@@ -0,0 +1,14 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.single-flight")
+public class SingleFlightProperties {
+    private Set<String> endpoints = Set.of(); // default value
+}
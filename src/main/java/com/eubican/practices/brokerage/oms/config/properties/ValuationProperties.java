@@ -0,0 +1,15 @@
+package com.eubican.practices.brokerage.oms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "application.valuation")
+public class ValuationProperties {
+    private int parallelism = 0; // default value
+    private int fetchSize = 10_000; // default value
+    private int customersPerTask = 4_096; // default value
+    private int topCustomers = 100; // default value
+}
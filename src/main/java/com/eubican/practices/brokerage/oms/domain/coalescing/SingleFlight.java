@@ -0,0 +1,112 @@
+package com.eubican.practices.brokerage.oms.domain.coalescing;
+
+import com.eubican.practices.brokerage.oms.config.properties.SingleFlightProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical reads into one: the first caller for a key runs the read, callers
+ * arriving while it is in flight wait for and share its result or exception. Nothing is kept once
+ * the read completes, so a result is never older than the read that produced it.
+ * <p>
+ * Endpoints opt in through {@code application.single-flight.endpoints}; the others always run their
+ * own read. Callers should coalesce before opening a transaction, so waiting callers do not hold a
+ * pooled connection.
+ */
+@Component
+public class SingleFlight {
+
+    public static final String ASSET = "asset";
+
+    public static final String ORDERS = "orders";
+
+    private final SingleFlightProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public SingleFlight(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled(String endpoint) {
+        return properties.getEndpoints().contains(endpoint);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String endpoint, Object arguments, Supplier<T> read) {
+        if (!isEnabled(endpoint)) {
+            return read.get();
+        }
+
+        Key key = new Key(endpoint, arguments);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            meters(endpoint).collapsed().increment();
+            return (T) await(inFlight);
+        }
+
+        meters(endpoint).executed().increment();
+        try {
+            T result = read.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    public int inFlight() {
+        return flights.size();
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    private Meters meters(String endpoint) {
+        return meters.computeIfAbsent(endpoint, e -> new Meters(
+                Counter.builder("oms.single-flight.calls")
+                        .description("Reads that ran against the database")
+                        .tag("endpoint", e)
+                        .tag("outcome", "executed")
+                        .register(meterRegistry),
+                Counter.builder("oms.single-flight.calls")
+                        .description("Reads answered by an identical read already in flight")
+                        .tag("endpoint", e)
+                        .tag("outcome", "collapsed")
+                        .register(meterRegistry)
+        ));
+    }
+
+    private record Key(String endpoint, Object arguments) {
+    }
+
+    private record Meters(Counter executed, Counter collapsed) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.eubican.practices.brokerage.oms.domain.concurrency;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Asset row a balance command is going to change. Sorting by customer then asset name gives the
+ * global lock order used by {@link PessimisticConcurrencyStrategy}.
+ */
+public record AssetLock(UUID customerId, String assetName) implements Comparable<AssetLock> {
+
+    private static final Comparator<AssetLock> LOCK_ORDER =
+            Comparator.comparing(AssetLock::customerId).thenComparing(AssetLock::assetName);
+
+    public static AssetLock of(UUID customerId, String assetName) {
+        return new AssetLock(customerId, assetName);
+    }
+
+    @Override
+    public int compareTo(AssetLock other) {
+        return LOCK_ORDER.compare(this, other);
+    }
+}
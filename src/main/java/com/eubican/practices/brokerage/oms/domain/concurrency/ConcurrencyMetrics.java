@@ -0,0 +1,56 @@
+package com.eubican.practices.brokerage.oms.domain.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+
+/**
+ * Meters shared by the {@link ConcurrencyStrategy} implementations.
+ */
+final class ConcurrencyMetrics {
+
+    private final Counter attempts;
+
+    private final Counter conflicts;
+
+    private final Counter exhausted;
+
+    private final Timer wait;
+
+    ConcurrencyMetrics(MeterRegistry meterRegistry, String strategy) {
+        this.attempts = Counter.builder("oms.concurrency.attempts")
+                .description("Balance commands attempted, retries included")
+                .tag("strategy", strategy)
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("oms.concurrency.conflicts")
+                .description("Attempts that lost a race on an asset row")
+                .tag("strategy", strategy)
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("oms.concurrency.exhausted")
+                .description("Commands that gave up after the last retry")
+                .tag("strategy", strategy)
+                .register(meterRegistry);
+        this.wait = Timer.builder("oms.concurrency.wait")
+                .description("Time spent backing off or waiting for row locks")
+                .tag("strategy", strategy)
+                .register(meterRegistry);
+    }
+
+    void attempt() {
+        attempts.increment();
+    }
+
+    void conflict() {
+        conflicts.increment();
+    }
+
+    void exhausted() {
+        exhausted.increment();
+    }
+
+    void waited(long nanos) {
+        wait.record(Duration.ofNanos(nanos));
+    }
+}
@@ -0,0 +1,32 @@
+package com.eubican.practices.brokerage.oms.domain.concurrency;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * How a balance-mutating unit of work is protected against concurrent changes to the same asset
+ * rows. Selected per deployment with {@code application.order-service.concurrency-strategy}.
+ * <p>
+ * {@link #execute} runs inside the caller's transaction; implementations report attempts, conflicts and time
+ * spent waiting under {@code oms.concurrency.*}, tagged with the strategy name.
+ */
+public interface ConcurrencyStrategy {
+
+    String name();
+
+    /**
+     * Runs {@code work}, which changes the given asset rows, to completion or fails with the last
+     * conflict.
+     */
+    void execute(Collection<AssetLock> assets, Runnable work);
+
+    /**
+     * Runs a whole transactional {@code command}. Strategies that recover from conflicts by
+     * retrying re-run it in a fresh transaction, so it must be called outside of one: a transaction
+     * that hit a conflict is rollback-only and cannot be retried from within.
+     */
+    default <T> T retrying(Supplier<T> command) {
+        return command.get();
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.eubican.practices.brokerage.oms.domain.concurrency;
+
+import com.eubican.practices.brokerage.oms.config.properties.SequencerProperties;
+import com.eubican.practices.brokerage.oms.domain.exception.ApplicationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs balance-mutating commands on a fixed set of single-threaded lanes, picked by hashing the
+ * customer id, so commands of one customer execute one after another instead of racing on the
+ * {@code @Version} of their asset rows.
+ * <p>
+ * When disabled every command runs on the calling thread.
+ */
+@Slf4j
+@Component
+public class CustomerSequencer {
+
+    private final SequencerProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private volatile List<Lane> lanes;
+
+    public CustomerSequencer(SequencerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void execute(UUID customerId, Runnable command) {
+        execute(customerId, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    public <T> T execute(UUID customerId, Supplier<T> command) {
+        if (!isEnabled() || customerId == null) {
+            return command.get();
+        }
+        return execute(laneFor(customerId.hashCode()), customerId, command);
+    }
+
+    /**
+     * Same as {@link #execute(UUID, Supplier)} for a caller that only holds the {@link UUID#hashCode()}
+     * of the customer id, which is all it takes to pick the lane.
+     */
+    public <T> T execute(int customerHash, Supplier<T> command) {
+        if (!isEnabled()) {
+            return command.get();
+        }
+        return execute(laneFor(customerHash), customerHash, command);
+    }
+
+    private <T> T execute(Lane lane, Object customer, Supplier<T> command) {
+        if (Thread.currentThread().getName().equals(lane.name())) {
+            // already sequenced, e.g. a command issued from another command of the same customer
+            return command.get();
+        }
+
+        Future<T> future;
+        try {
+            future = lane.executor().submit(new DelegatingSecurityContextCallable<>(() -> lane.timer().record(command)));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Sequencer lane {} is full, rejecting command for customer {}", lane.name(), customer);
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending commands, retry later");
+        }
+        lane.submitted().increment();
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for command");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public List<LaneStats> stats() {
+        List<Lane> current = lanes;
+        if (current == null) {
+            return List.of();
+        }
+        return current.stream()
+                .map(lane -> new LaneStats(
+                        lane.index(),
+                        lane.executor().getQueue().size(),
+                        (long) lane.submitted().count(),
+                        lane.executor().getCompletedTaskCount(),
+                        lane.timer().mean(TimeUnit.MICROSECONDS)
+                ))
+                .toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        List<Lane> current = lanes;
+        if (current != null) {
+            current.forEach(lane -> lane.executor().shutdown());
+        }
+    }
+
+    private Lane laneFor(int customerHash) {
+        List<Lane> current = lanes;
+        if (current == null) {
+            current = startLanes();
+        }
+        return current.get(Math.floorMod(customerHash, current.size()));
+    }
+
+    private synchronized List<Lane> startLanes() {
+        if (lanes != null) {
+            return lanes;
+        }
+        int count = Math.max(1, properties.getLanes());
+        List<Lane> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = "sequencer-lane-" + i;
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(properties.getQueueCapacity()),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            String lane = String.valueOf(i);
+            Gauge.builder("oms.sequencer.queue.depth", executor, e -> e.getQueue().size())
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            Counter submitted = Counter.builder("oms.sequencer.commands")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            Timer timer = Timer.builder("oms.sequencer.execution")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            created.add(new Lane(i, name, executor, submitted, timer));
+        }
+        log.info("Started {} sequencer lanes", count);
+        lanes = List.copyOf(created);
+        return lanes;
+    }
+
+    public record LaneStats(int lane, int queueDepth, long submitted, long completed, double meanExecutionMicros) {
+    }
+
+    private record Lane(int index, String name, ThreadPoolExecutor executor, Counter submitted, Timer timer) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.eubican.practices.brokerage.oms.domain.concurrency;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving summary over a fixed number of counters. A key that is not tracked while the
+ * summary is full takes over the counter with the smallest count and inherits that count as its
+ * overestimate, so every key seen more often than {@code total / capacity} times stays tracked.
+ */
+final class HeavyHitters {
+
+    private final int capacity;
+
+    private final Map<AssetLock, Slot> slots;
+
+    HeavyHitters(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.slots = new HashMap<>(this.capacity * 2);
+    }
+
+    synchronized void add(AssetLock key) {
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            slot.count++;
+            return;
+        }
+        if (slots.size() < capacity) {
+            slots.put(key, new Slot(1, 0));
+            return;
+        }
+        Map.Entry<AssetLock, Slot> smallest = null;
+        for (Map.Entry<AssetLock, Slot> entry : slots.entrySet()) {
+            if (smallest == null || entry.getValue().count < smallest.getValue().count) {
+                smallest = entry;
+            }
+        }
+        long floor = smallest.getValue().count;
+        slots.remove(smallest.getKey());
+        slots.put(key, new Slot(floor + 1, floor));
+    }
+
+    // lower bound of the count, so a key does not look hot because of the counter it took over
+    synchronized long guaranteed(AssetLock key) {
+        Slot slot = slots.get(key);
+        return slot == null ? 0 : slot.count - slot.error;
+    }
+
+    synchronized List<HotKey> top(int limit) {
+        return slots.entrySet().stream()
+                .map(e -> new HotKey(e.getKey().customerId(), e.getKey().assetName(), e.getValue().count, e.getValue().error))
+                .sorted(Comparator.comparingLong(HotKey::count).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    synchronized List<HotKey> atLeast(long threshold) {
+        return top(slots.size()).stream()
+                .filter(key -> key.count() - key.overestimate() >= threshold)
+                .toList();
+    }
+
+    // halves every counter so old bursts fade out; keys that reach zero free their counter
+    synchronized void decay() {
+        slots.values().removeIf(slot -> {
+            slot.count >>= 1;
+            slot.error >>= 1;
+            return slot.count == 0;
+        });
+    }
+
+    synchronized int size() {
+        return slots.size();
+    }
+
+    private static final class Slot {
+
+        long count;
+
+        long error;
+
+        Slot(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
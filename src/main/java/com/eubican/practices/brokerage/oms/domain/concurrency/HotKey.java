@@ -0,0 +1,10 @@
+package com.eubican.practices.brokerage.oms.domain.concurrency;
+
+import java.util.UUID;
+
+/**
+ * Estimated count of an asset row in a {@link HotKeyTracker} summary. The true count lies between
+ * {@code count - overestimate} and {@code count}.
+ */
+public record HotKey(UUID customerId, String assetName, long count, long overestimate) {
+}
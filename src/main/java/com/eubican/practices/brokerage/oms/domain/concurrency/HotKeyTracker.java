@@ -0,0 +1,187 @@
+package com.eubican.practices.brokerage.oms.domain.concurrency;
+
+import com.eubican.practices.brokerage.oms.config.properties.HotKeyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks which asset rows see the most balance commands and the most version conflicts, in two
+ * bounded {@link HeavyHitters} summaries that are halved every {@code decay-interval}. A row with
+ * at least {@code conflict-threshold} conflicts in the summary is hot.
+ * <p>
+ * With {@code serialize-hot-keys} on, commands touching a hot row queue on a per-row lock held
+ * until their transaction completes, so they stop burning retries against each other while
+ * commands on every other row keep running optimistically. A command that cannot get the lock
+ * within {@code serialize-timeout} runs unserialized; the row version still guards it.
+ */
+@Slf4j
+@Component
+public class HotKeyTracker {
+
+    private final HotKeyProperties properties;
+
+    private final HeavyHitters commands;
+
+    private final HeavyHitters conflicts;
+
+    private final ConcurrentMap<AssetLock, ReentrantLock> serialLocks = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastDecay = new AtomicLong(System.nanoTime());
+
+    private final Counter serialized;
+
+    private final Counter serializeTimeouts;
+
+    public HotKeyTracker(HotKeyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.commands = new HeavyHitters(properties.getCapacity());
+        this.conflicts = new HeavyHitters(properties.getCapacity());
+        Gauge.builder("oms.hotkeys.tracked", commands, HeavyHitters::size)
+                .description("Asset rows tracked by command rate")
+                .tag("summary", "commands")
+                .register(meterRegistry);
+        Gauge.builder("oms.hotkeys.tracked", conflicts, HeavyHitters::size)
+                .description("Asset rows tracked by conflicts")
+                .tag("summary", "conflicts")
+                .register(meterRegistry);
+        Gauge.builder("oms.hotkeys.hot", this, tracker -> tracker.hotKeys().size())
+                .description("Asset rows at or above the conflict threshold")
+                .register(meterRegistry);
+        this.serialized = Counter.builder("oms.hotkeys.serialized")
+                .description("Commands that queued on the lock of a hot asset row")
+                .register(meterRegistry);
+        this.serializeTimeouts = Counter.builder("oms.hotkeys.serialize.timeouts")
+                .description("Commands that ran unserialized after waiting for a hot asset row")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isSerializing() {
+        return properties.isEnabled() && properties.isSerializeHotKeys();
+    }
+
+    public long conflictThreshold() {
+        return properties.getConflictThreshold();
+    }
+
+    public void recordCommand(Collection<AssetLock> assets) {
+        if (!isEnabled()) {
+            return;
+        }
+        decayIfDue();
+        assets.forEach(commands::add);
+    }
+
+    public void recordConflict(Collection<AssetLock> assets) {
+        if (!isEnabled()) {
+            return;
+        }
+        decayIfDue();
+        assets.forEach(conflicts::add);
+    }
+
+    public boolean isHot(AssetLock asset) {
+        return isEnabled() && conflicts.guaranteed(asset) >= properties.getConflictThreshold();
+    }
+
+    public List<HotKey> hotKeys() {
+        return conflicts.atLeast(properties.getConflictThreshold());
+    }
+
+    public List<HotKey> topByConflicts(int limit) {
+        return conflicts.top(limit);
+    }
+
+    public List<HotKey> topByCommands(int limit) {
+        return commands.top(limit);
+    }
+
+    public void serialize(Collection<AssetLock> assets, Runnable work) {
+        if (!isSerializing()) {
+            work.run();
+            return;
+        }
+        List<ReentrantLock> acquired = new ArrayList<>();
+        // taken in lock order so commands sharing several hot rows cannot wait on each other in a cycle
+        for (AssetLock asset : new TreeSet<>(assets)) {
+            if (!isHot(asset)) {
+                continue;
+            }
+            ReentrantLock lock = serialLocks.computeIfAbsent(asset, key -> new ReentrantLock(true));
+            if (lock.isHeldByCurrentThread()) {
+                continue;
+            }
+            if (tryLock(lock)) {
+                serialized.increment();
+                acquired.add(lock);
+            } else {
+                serializeTimeouts.increment();
+                log.debug("Running command on hot asset row {} unserialized", asset);
+            }
+        }
+
+        if (acquired.isEmpty()) {
+            work.run();
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                work.run();
+            } finally {
+                acquired.forEach(ReentrantLock::unlock);
+            }
+            return;
+        }
+        // a conflict surfaces when the transaction flushes, so the rows stay locked until it completes
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                acquired.forEach(ReentrantLock::unlock);
+            }
+        });
+        work.run();
+    }
+
+    private void decayIfDue() {
+        long last = lastDecay.get();
+        long now = System.nanoTime();
+        if (now - last < properties.getDecayInterval().toNanos() || !lastDecay.compareAndSet(last, now)) {
+            return;
+        }
+        decay();
+    }
+
+    public void decay() {
+        commands.decay();
+        conflicts.decay();
+        // a lock that is dropped while a command still waits on it only lets one command through unserialized
+        serialLocks.entrySet().removeIf(e -> !e.getValue().isLocked() && !isHot(e.getKey()));
+    }
+
+    private boolean tryLock(ReentrantLock lock) {
+        try {
+            return lock.tryLock(properties.getSerializeTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.eubican.practices.brokerage.oms.domain.concurrency;
+
+import com.eubican.practices.brokerage.oms.config.properties.OrderServiceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Relies on the {@code @Version} of the asset rows and re-runs a command that loses a race in a new
+ * transaction, up to {@code optimistic-lock-max-retries} attempts. Between attempts it sleeps for an
+ * exponentially growing, fully jittered delay, holding no connection, so that colliding commands
+ * spread out instead of retrying in step. Commands on rows the {@link HotKeyTracker} flags as hot
+ * are serialized per row instead. A conflict, which usually surfaces only when the attempt's transaction
+ * flushes, is charged to every asset row the attempt's commands touched.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "application.order-service", name = "concurrency-strategy", havingValue = "optimistic", matchIfMissing = true)
+public class OptimisticConcurrencyStrategy implements ConcurrencyStrategy {
+
+    private final OrderServiceProperties properties;
+
+    private final HotKeyTracker hotKeys;
+
+    private final ConcurrencyMetrics metrics;
+
+    // the asset rows the commands of the running attempt touched
+    private final ThreadLocal<Set<AssetLock>> attempted = new ThreadLocal<>();
+
+    public OptimisticConcurrencyStrategy(OrderServiceProperties properties, HotKeyTracker hotKeys, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hotKeys = hotKeys;
+        this.metrics = new ConcurrencyMetrics(meterRegistry, name());
+    }
+
+    @Override
+    public String name() {
+        return "optimistic";
+    }
+
+    @Override
+    public void execute(Collection<AssetLock> assets, Runnable work) {
+        metrics.attempt();
+        Set<AssetLock> touched = attempted.get();
+        if (touched != null) {
+            touched.addAll(assets);
+        }
+        hotKeys.recordCommand(assets);
+        hotKeys.serialize(assets, work);
+    }
+
+    @Override
+    public <T> T retrying(Supplier<T> command) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // the outermost caller owns the transaction and the retry
+            return command.get();
+        }
+        int maxAttempts = Math.max(1, properties.getOptimisticLockMaxRetries());
+        Set<AssetLock> touched = new HashSet<>();
+        attempted.set(touched);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                touched.clear();
+                try {
+                    return command.get();
+                } catch (OptimisticLockingFailureException ex) {
+                    metrics.conflict();
+                    hotKeys.recordConflict(touched);
+                    if (attempt >= maxAttempts) {
+                        metrics.exhausted();
+                        log.warn("Giving up after {} conflicting attempts", attempt);
+                        throw ex;
+                    }
+                    backoff(attempt);
+                }
+            }
+        } finally {
+            attempted.remove();
+        }
+    }
+
+    private void backoff(int attempt) {
+        long initial = properties.getOptimisticBackoffInitial().toNanos();
+        long max = properties.getOptimisticBackoffMax().toNanos();
+        if (initial <= 0 || max <= 0) {
+            return;
+        }
+        long ceiling = Math.min(max, initial << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        long started = System.nanoTime();
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            metrics.waited(System.nanoTime() - started);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.eubican.practices.brokerage.oms.domain.concurrency;
+
+import com.eubican.practices.brokerage.oms.persistence.repository.AssetJpaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Takes {@code SELECT ... FOR UPDATE} locks on every asset row the work is going to change before
+ * running it once. Locks are always acquired in {@link AssetLock} order, so two commands touching
+ * an overlapping set of rows, e.g. the cash and share rows of a buyer and a seller matched against
+ * each other, queue behind each other instead of deadlocking.
+ * <p>
+ * Rows that do not exist yet are skipped; they are created by the work itself and guarded by the
+ * unique index on customer and asset name.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "application.order-service", name = "concurrency-strategy", havingValue = "pessimistic")
+public class PessimisticConcurrencyStrategy implements ConcurrencyStrategy {
+
+    private final AssetJpaRepository assetRepository;
+
+    private final HotKeyTracker hotKeys;
+
+    private final ConcurrencyMetrics metrics;
+
+    public PessimisticConcurrencyStrategy(AssetJpaRepository assetRepository, HotKeyTracker hotKeys, MeterRegistry meterRegistry) {
+        this.assetRepository = assetRepository;
+        this.hotKeys = hotKeys;
+        this.metrics = new ConcurrencyMetrics(meterRegistry, name());
+    }
+
+    @Override
+    public String name() {
+        return "pessimistic";
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void execute(Collection<AssetLock> assets, Runnable work) {
+        metrics.attempt();
+        hotKeys.recordCommand(assets);
+        long started = System.nanoTime();
+        try {
+            for (AssetLock asset : new TreeSet<>(assets)) {
+                assetRepository.lockByCustomerIdAndAssetName(asset.customerId(), asset.assetName());
+            }
+        } catch (PessimisticLockingFailureException ex) {
+            // lock timeouts and deadlock victims are this strategy's conflicts
+            metrics.conflict();
+            hotKeys.recordConflict(assets);
+            throw ex;
+        } finally {
+            metrics.waited(System.nanoTime() - started);
+        }
+        log.debug("Locked asset rows {}", assets);
+        work.run();
+    }
+}
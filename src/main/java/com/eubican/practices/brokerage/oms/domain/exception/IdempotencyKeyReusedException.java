@@ -0,0 +1,11 @@
+package com.eubican.practices.brokerage.oms.domain.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class IdempotencyKeyReusedException extends ApplicationException {
+
+    public IdempotencyKeyReusedException() {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used with a different request");
+    }
+
+}
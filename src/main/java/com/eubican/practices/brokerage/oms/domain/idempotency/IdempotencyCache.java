@@ -0,0 +1,110 @@
+package com.eubican.practices.brokerage.oms.domain.idempotency;
+
+import com.eubican.practices.brokerage.oms.config.properties.IdempotencyProperties;
+import com.eubican.practices.brokerage.oms.domain.exception.IdempotencyKeyReusedException;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Results of recently completed idempotent commands, so a retried request can be answered without
+ * touching the database.
+ * <p>
+ * Bounded to {@code application.idempotency.max-entries}; entries leave in insertion order when
+ * the cache is full and are ignored once older than {@code application.idempotency.ttl}. A miss
+ * only means the caller has to fall back to the keys stored with the orders. A result can be kept
+ * with a hash of the request that produced it; asking for it with another hash fails with
+ * {@link IdempotencyKeyReusedException}.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyCache {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private final IdempotencyProperties properties;
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Queue<Key> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public <T> Optional<T> get(Key key, Class<T> type) {
+        return get(key, null, type);
+    }
+
+    /**
+     * @param requestHash hash of the request being retried, compared with the one the result was kept with
+     */
+    public <T> Optional<T> get(Key key, String requestHash, Class<T> type) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key, entry);
+            return Optional.empty();
+        }
+        if (!Objects.equals(requestHash, entry.requestHash())) {
+            throw new IdempotencyKeyReusedException();
+        }
+        return type.isInstance(entry.value()) ? Optional.of(type.cast(entry.value())) : Optional.empty();
+    }
+
+    public void put(Key key, Object value) {
+        put(key, null, value);
+    }
+
+    public void put(Key key, String requestHash, Object value) {
+        long now = System.nanoTime();
+        if (entries.put(key, new Entry(value, requestHash, now + properties.getTtl().toNanos())) == null) {
+            insertionOrder.add(key);
+        }
+        evict(now);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        int maxEntries = Math.max(1, properties.getMaxEntries());
+        Key oldest;
+        while ((oldest = insertionOrder.peek()) != null) {
+            Entry entry = entries.get(oldest);
+            boolean stale = entry == null || entry.isExpired(now);
+            if (!stale && entries.size() <= maxEntries) {
+                return;
+            }
+            Key polled = insertionOrder.poll();
+            if (polled != null) {
+                entries.remove(polled);
+            }
+        }
+    }
+
+    /**
+     * @param operation the command the key was sent with, e.g. {@code create}
+     * @param scope     who the key belongs to: the customer of a create, the caller of a cancel
+     * @param target    the order a cancel or match was aimed at, {@code null} for a create
+     */
+    public record Key(String operation, String scope, Object target, String idempotencyKey) {
+        public Key {
+            if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > Order.IDEMPOTENCY_KEY_MAX_LENGTH) {
+                throw new IllegalArgumentException(HEADER + " must be 1 to " + Order.IDEMPOTENCY_KEY_MAX_LENGTH + " characters");
+            }
+        }
+    }
+
+    private record Entry(Object value, String requestHash, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos > 0;
+        }
+    }
+}
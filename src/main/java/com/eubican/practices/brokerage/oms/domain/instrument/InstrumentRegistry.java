@@ -0,0 +1,112 @@
+package com.eubican.practices.brokerage.oms.domain.instrument;
+
+import com.eubican.practices.brokerage.oms.domain.model.Instrument;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.persistence.entity.InstrumentEntity;
+import com.eubican.practices.brokerage.oms.persistence.repository.AssetJpaRepository;
+import com.eubican.practices.brokerage.oms.persistence.repository.InstrumentJpaRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory copy of the active rows of the {@code instrument} table.
+ * <p>
+ * Lookups go against an immutable snapshot, by symbol through a hash map and by id through an
+ * array, so they never touch the database. {@link #refresh()} swaps in a new snapshot built from
+ * the table; in-flight lookups keep using the previous one. The snapshot also carries an n-gram
+ * lookup of every listed symbol, delisted ones included, and of every symbol held in the {@code asset}
+ * table, so substring searches expand to a list of symbols without scanning the {@code orders} table.
+ * Orders are only accepted for listed symbols, so together these cover the symbols of every order.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InstrumentRegistry {
+
+    private final InstrumentJpaRepository instrumentRepository;
+
+    private final AssetJpaRepository assetRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @PostConstruct
+    void load() {
+        refresh();
+    }
+
+    public int refresh() {
+        Map<String, Instrument> bySymbol = new HashMap<>();
+        int maxId = 0;
+        for (InstrumentEntity entity : instrumentRepository.findByActiveTrue()) {
+            if (entity.getId() <= 0 || entity.getTickSize().signum() <= 0 || entity.getLotSize().signum() <= 0) {
+                log.warn("Skipping instrument {} with invalid id, tick or lot size", entity.getSymbol());
+                continue;
+            }
+            Instrument instrument = Instrument.from(entity);
+            bySymbol.put(instrument.symbol(), instrument);
+            maxId = Math.max(maxId, instrument.id());
+        }
+
+        Instrument[] byId = new Instrument[maxId + 1];
+        bySymbol.values().forEach(instrument -> byId[instrument.id()] = instrument);
+
+        Set<String> searchable = new HashSet<>(bySymbol.keySet());
+        searchable.addAll(instrumentRepository.findAllSymbols());
+        searchable.addAll(assetRepository.findDistinctAssetNames());
+
+        snapshot = new Snapshot(Map.copyOf(bySymbol), byId, SymbolIndex.of(searchable));
+        log.info("Loaded {} instruments", bySymbol.size());
+        return bySymbol.size();
+    }
+
+    public Optional<Instrument> find(String symbol) {
+        return symbol == null ? Optional.empty() : Optional.ofNullable(snapshot.bySymbol().get(symbol));
+    }
+
+    public Optional<Instrument> find(int id) {
+        Instrument[] byId = snapshot.byId();
+        return id > 0 && id < byId.length ? Optional.ofNullable(byId[id]) : Optional.empty();
+    }
+
+    public Instrument require(String symbol) {
+        return find(symbol).orElseThrow(() -> {
+            log.warn("Unknown instrument {}", symbol);
+            return new IllegalArgumentException("Unknown instrument " + symbol);
+        });
+    }
+
+    /**
+     * Checks that the order's symbol is a known instrument and that its price and size are
+     * multiples of the instrument's tick and lot size.
+     */
+    public Instrument validate(Order order) {
+        Instrument instrument = require(order.getAssetName());
+        instrument.checkIncrements(order.getLimitPrice(), order.getQuantity());
+        return instrument;
+    }
+
+    /**
+     * Symbols of the listed and delisted instruments and of the held assets as of the last refresh that contain
+     * {@code fragment}, ignoring case. Symbols are returned as stored.
+     */
+    public Set<String> symbolsContaining(String fragment) {
+        return fragment == null ? Set.of() : snapshot.symbolIndex().containing(fragment);
+    }
+
+    public Collection<Instrument> instruments() {
+        return snapshot.bySymbol().values();
+    }
+
+    private record Snapshot(Map<String, Instrument> bySymbol, Instrument[] byId, SymbolIndex symbolIndex) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), new Instrument[1], SymbolIndex.EMPTY);
+    }
+}
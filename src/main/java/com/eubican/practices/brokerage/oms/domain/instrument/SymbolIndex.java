@@ -0,0 +1,68 @@
+package com.eubican.practices.brokerage.oms.domain.instrument;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * N-gram lookup of instrument symbols for substring search.
+ * <p>
+ * Every substring of up to {@link #GRAM} characters maps to the symbols containing it, so short
+ * fragments are answered by one lookup. Longer fragments start from the rarest of their
+ * {@code GRAM}-grams and check the few candidates for the whole fragment. Matching ignores case.
+ */
+final class SymbolIndex {
+
+    static final SymbolIndex EMPTY = new SymbolIndex(Map.of());
+
+    private static final int GRAM = 3;
+
+    private final Map<String, Set<String>> byGram;
+
+    private SymbolIndex(Map<String, Set<String>> byGram) {
+        this.byGram = byGram;
+    }
+
+    static SymbolIndex of(Collection<String> symbols) {
+        Map<String, Set<String>> byGram = new HashMap<>();
+        for (String symbol : symbols) {
+            String key = normalize(symbol);
+            for (int length = 1; length <= GRAM; length++) {
+                for (int start = 0; start + length <= key.length(); start++) {
+                    byGram.computeIfAbsent(key.substring(start, start + length), gram -> new HashSet<>()).add(symbol);
+                }
+            }
+        }
+        return new SymbolIndex(byGram.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> Set.copyOf(entry.getValue()))));
+    }
+
+    Set<String> containing(String fragment) {
+        String key = normalize(fragment);
+        if (key.isEmpty()) {
+            return Set.of();
+        }
+        if (key.length() <= GRAM) {
+            return byGram.getOrDefault(key, Set.of());
+        }
+
+        Set<String> candidates = null;
+        for (int start = 0; start + GRAM <= key.length(); start++) {
+            Set<String> symbols = byGram.getOrDefault(key.substring(start, start + GRAM), Set.of());
+            if (candidates == null || symbols.size() < candidates.size()) {
+                candidates = symbols;
+            }
+        }
+        return candidates.stream()
+                .filter(symbol -> normalize(symbol).contains(key))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+}
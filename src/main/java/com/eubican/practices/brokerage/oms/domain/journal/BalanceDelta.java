@@ -0,0 +1,17 @@
+package com.eubican.practices.brokerage.oms.domain.journal;
+
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+
+/**
+ * Change an event made to one asset balance of the event's customer, at balance precision.
+ */
+public record BalanceDelta(String assetName, FixedPoint size, FixedPoint usable, FixedPoint reserved) {
+
+    public static BalanceDelta of(String assetName, FixedPoint usable, FixedPoint reserved) {
+        return new BalanceDelta(assetName, usable.add(reserved), usable, reserved);
+    }
+
+    public BalanceDelta plus(BalanceDelta other) {
+        return new BalanceDelta(assetName, size.add(other.size), usable.add(other.usable), reserved.add(other.reserved));
+    }
+}
@@ -0,0 +1,152 @@
+package com.eubican.practices.brokerage.oms.domain.journal;
+
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of journal records: {@code [int length][int crc32c][payload]}, where a length of 0
+ * marks the end of the written part of a segment.
+ */
+final class JournalCodec {
+
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final OrderEvent.Type[] TYPES = OrderEvent.Type.values();
+
+    private static final OrderSide[] SIDES = OrderSide.values();
+
+    private JournalCodec() {
+    }
+
+    static byte[] encode(OrderEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(out, event);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static OrderEvent decode(byte[] payload) {
+        try {
+            return read(new DataInputStream(new ByteArrayInputStream(payload)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static void writeFrame(ByteBuffer target, byte[] payload) {
+        target.putInt(payload.length);
+        target.putInt(checksum(payload, payload.length));
+        target.put(payload);
+    }
+
+    /**
+     * Reads the record at the buffer's position and moves past it. Returns {@code null} and leaves
+     * the position alone at the end of the data or at a torn or corrupt record.
+     */
+    static byte[] readFrame(ByteBuffer source) {
+        int start = source.position();
+        if (source.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = source.getInt(start);
+        int crc = source.getInt(start + Integer.BYTES);
+        if (length <= 0 || length > source.remaining() - HEADER_BYTES) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        source.get(start + HEADER_BYTES, payload);
+        if (checksum(payload, length) != crc) {
+            return null;
+        }
+        source.position(start + HEADER_BYTES + length);
+        return payload;
+    }
+
+    static int checksum(byte[] bytes, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    static void write(DataOutput out, OrderEvent event) throws IOException {
+        out.writeLong(event.sequence());
+        out.writeLong(event.timestamp().getEpochSecond());
+        out.writeInt(event.timestamp().getNano());
+        out.writeByte(event.type().ordinal());
+        write(out, event.orderId());
+        write(out, event.customerId());
+        out.writeUTF(event.assetName());
+        out.writeByte(event.side().ordinal());
+        write(out, event.size());
+        write(out, event.price());
+        out.writeByte(event.deltas().size());
+        for (BalanceDelta delta : event.deltas()) {
+            write(out, delta);
+        }
+    }
+
+    static OrderEvent read(DataInput in) throws IOException {
+        long sequence = in.readLong();
+        Instant timestamp = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        OrderEvent.Type type = TYPES[in.readByte()];
+        UUID orderId = readUuid(in);
+        UUID customerId = readUuid(in);
+        String assetName = in.readUTF();
+        OrderSide side = SIDES[in.readByte()];
+        FixedPoint size = readFixedPoint(in);
+        FixedPoint price = readFixedPoint(in);
+        int count = in.readUnsignedByte();
+        List<BalanceDelta> deltas = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            deltas.add(readDelta(in));
+        }
+        return new OrderEvent(sequence, timestamp, type, orderId, customerId, assetName, side, size, price, deltas);
+    }
+
+    static void write(DataOutput out, BalanceDelta delta) throws IOException {
+        out.writeUTF(delta.assetName());
+        write(out, delta.size());
+        write(out, delta.usable());
+        write(out, delta.reserved());
+    }
+
+    static BalanceDelta readDelta(DataInput in) throws IOException {
+        return new BalanceDelta(in.readUTF(), readFixedPoint(in), readFixedPoint(in), readFixedPoint(in));
+    }
+
+    static void write(DataOutput out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void write(DataOutput out, FixedPoint value) throws IOException {
+        out.writeLong(value.units());
+        out.writeByte(value.scale());
+    }
+
+    private static FixedPoint readFixedPoint(DataInput in) throws IOException {
+        return FixedPoint.ofUnits(in.readLong(), in.readByte());
+    }
+}
@@ -0,0 +1,126 @@
+package com.eubican.practices.brokerage.oms.domain.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fixed-size journal file mapped into memory, named after the sequence of its first event.
+ * Appends go to the page cache through the mapping and reach the disk when the kernel writes the
+ * pages back or the segment is {@link #force() forced}.
+ */
+@Slf4j
+final class JournalSegment implements AutoCloseable {
+
+    private static final Pattern NAME = Pattern.compile("journal-(\\d{19})\\.seg");
+
+    private final Path path;
+
+    private final long firstSequence;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(Path path, long firstSequence, int size) throws IOException {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int size) throws IOException {
+        return new JournalSegment(directory.resolve(String.format("journal-%019d.seg", firstSequence)), firstSequence, size);
+    }
+
+    /**
+     * Maps an existing segment for appending, positioned after its last intact record; anything
+     * after that, such as a record torn by a crash, is zeroed so it can never be read back.
+     */
+    static JournalSegment reopen(Path path, Consumer<OrderEvent> sink) throws IOException {
+        int size = (int) Files.size(path);
+        JournalSegment segment = new JournalSegment(path, firstSequence(path), size);
+        MappedByteBuffer buffer = segment.buffer;
+        scan(buffer, sink);
+        int end = buffer.position();
+        if (end + JournalCodec.HEADER_BYTES <= size && buffer.getInt(end) != 0) {
+            log.warn("Discarding torn journal tail of {} at offset {}", path.getFileName(), end);
+            for (int i = end; i < size; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Reads every intact record of a segment that is not being appended to.
+     */
+    static void read(Path path, Consumer<OrderEvent> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), sink);
+        }
+    }
+
+    static boolean isSegment(Path path) {
+        return NAME.matcher(path.getFileName().toString()).matches();
+    }
+
+    static long firstSequence(Path path) {
+        Matcher matcher = NAME.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(path + " is not a journal segment");
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * Returns false without writing anything when the record does not fit into the rest of the segment.
+     */
+    boolean append(byte[] payload) {
+        // keeps room for the zero length that terminates the data
+        if (buffer.remaining() < JournalCodec.HEADER_BYTES + payload.length + Integer.BYTES) {
+            return false;
+        }
+        JournalCodec.writeFrame(buffer, payload);
+        return true;
+    }
+
+    /**
+     * Does nothing once the segment is closed, which forced it already.
+     */
+    synchronized void force() {
+        if (channel.isOpen()) {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private static void scan(ByteBuffer buffer, Consumer<OrderEvent> sink) {
+        byte[] payload;
+        while ((payload = JournalCodec.readFrame(buffer)) != null) {
+            sink.accept(JournalCodec.decode(payload));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.eubican.practices.brokerage.oms.domain.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-memory state folded from the journal: the orders that are still open and, per customer and
+ * asset, the net balance change made by order flow.
+ * <p>
+ * Transactions append their events once they commit, so the CANCELED or MATCHED event of an order
+ * can land before its CREATED event. Such an order is remembered as closed for a minute of event
+ * time and its late CREATED event is dropped instead of reopening it.
+ */
+public final class JournalState {
+
+    private static final Duration LATE_CREATE_WINDOW = Duration.ofMinutes(1);
+
+    private long lastSequence;
+
+    private final Map<UUID, OrderEvent> openOrders = new LinkedHashMap<>();
+
+    // orders closed before their CREATED event was appended, by the time they were closed
+    private final Map<UUID, Instant> closedEarly = new LinkedHashMap<>();
+
+    private final Map<Position, BalanceDelta> balanceChanges = new HashMap<>();
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * CREATED event of every order that has not been canceled or matched, oldest first.
+     */
+    public Map<UUID, OrderEvent> openOrders() {
+        return Collections.unmodifiableMap(openOrders);
+    }
+
+    public Optional<BalanceDelta> balanceChange(UUID customerId, String assetName) {
+        return Optional.ofNullable(balanceChanges.get(new Position(customerId, assetName)));
+    }
+
+    void apply(OrderEvent event) {
+        switch (event.type()) {
+            case CREATED -> {
+                if (closedEarly.remove(event.orderId()) == null) {
+                    openOrders.put(event.orderId(), event);
+                }
+            }
+            case CANCELED, MATCHED -> {
+                if (openOrders.remove(event.orderId()) == null) {
+                    closedEarly.put(event.orderId(), event.timestamp());
+                }
+            }
+            case RESERVED -> {
+                // balances only
+            }
+        }
+        purgeClosedEarly(event.timestamp());
+        for (BalanceDelta delta : event.deltas()) {
+            balanceChanges.merge(new Position(event.customerId(), delta.assetName()), delta, BalanceDelta::plus);
+        }
+        lastSequence = event.sequence();
+    }
+
+    private void purgeClosedEarly(Instant now) {
+        Instant expired = now.minus(LATE_CREATE_WINDOW);
+        Iterator<Map.Entry<UUID, Instant>> oldest = closedEarly.entrySet().iterator();
+        while (oldest.hasNext() && oldest.next().getValue().isBefore(expired)) {
+            oldest.remove();
+        }
+    }
+
+    JournalState copy() {
+        JournalState copy = new JournalState();
+        copy.lastSequence = lastSequence;
+        copy.openOrders.putAll(openOrders);
+        copy.closedEarly.putAll(closedEarly);
+        copy.balanceChanges.putAll(balanceChanges);
+        return copy;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(lastSequence);
+        out.writeInt(openOrders.size());
+        for (OrderEvent created : openOrders.values()) {
+            JournalCodec.write(out, created);
+        }
+        out.writeInt(balanceChanges.size());
+        for (Map.Entry<Position, BalanceDelta> change : balanceChanges.entrySet()) {
+            JournalCodec.write(out, change.getKey().customerId());
+            JournalCodec.write(out, change.getValue());
+        }
+        out.writeInt(closedEarly.size());
+        for (Map.Entry<UUID, Instant> closed : closedEarly.entrySet()) {
+            JournalCodec.write(out, closed.getKey());
+            out.writeLong(closed.getValue().getEpochSecond());
+            out.writeInt(closed.getValue().getNano());
+        }
+    }
+
+    static JournalState readFrom(DataInput in) throws IOException {
+        JournalState state = new JournalState();
+        state.lastSequence = in.readLong();
+        for (int i = in.readInt(); i > 0; i--) {
+            OrderEvent created = JournalCodec.read(in);
+            state.openOrders.put(created.orderId(), created);
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            UUID customerId = JournalCodec.readUuid(in);
+            BalanceDelta change = JournalCodec.readDelta(in);
+            state.balanceChanges.put(new Position(customerId, change.assetName()), change);
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            UUID orderId = JournalCodec.readUuid(in);
+            state.closedEarly.put(orderId, Instant.ofEpochSecond(in.readLong(), in.readInt()));
+        }
+        return state;
+    }
+
+    private record Position(UUID customerId, String assetName) {
+    }
+}
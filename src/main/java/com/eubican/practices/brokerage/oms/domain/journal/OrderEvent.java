@@ -0,0 +1,95 @@
+package com.eubican.practices.brokerage.oms.domain.journal;
+
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One step in the life of an order as written to the {@link OrderJournal}. The sequence is
+ * assigned when the event is appended; events built by the factories carry 0 until then.
+ */
+public record OrderEvent(long sequence,
+                         Instant timestamp,
+                         Type type,
+                         UUID orderId,
+                         UUID customerId,
+                         String assetName,
+                         OrderSide side,
+                         FixedPoint size,
+                         FixedPoint price,
+                         List<BalanceDelta> deltas
+) {
+
+    public enum Type {
+        CREATED,
+        RESERVED,
+        CANCELED,
+        MATCHED
+    }
+
+    public OrderEvent {
+        deltas = List.copyOf(deltas);
+    }
+
+    /**
+     * Stamped with the creation time of the order, so the books rebuilt from the journal keep time priority.
+     */
+    public static OrderEvent created(Order order) {
+        return new OrderEvent(0, order.getCreatedAt(), Type.CREATED, order.getId(), order.getCustomerId(),
+                order.getAssetName(), order.getSide(), order.getQuantity(), order.getLimitPrice(), List.of());
+    }
+
+    public static OrderEvent reserved(Order order) {
+        FixedPoint amount = reservedAmount(order);
+        return of(Type.RESERVED, order, order.getLimitPrice(),
+                List.of(BalanceDelta.of(reservedAsset(order), negate(amount), amount)));
+    }
+
+    public static OrderEvent canceled(Order order) {
+        FixedPoint amount = reservedAmount(order);
+        return of(Type.CANCELED, order, order.getLimitPrice(),
+                List.of(BalanceDelta.of(reservedAsset(order), amount, negate(amount))));
+    }
+
+    /**
+     * Settlement of the order at {@code executionPrice}, mirroring what matching does to the balances:
+     * a BUY consumes its reserved TRY, gets back what it saved under its limit and receives the asset,
+     * a SELL consumes its reserved asset and receives the proceeds in TRY.
+     */
+    public static OrderEvent matched(Order order, FixedPoint executionPrice) {
+        FixedPoint zero = FixedPoint.zero(FixedPoint.AMOUNT_SCALE);
+        FixedPoint size = order.getQuantity();
+        FixedPoint traded = executionPrice.multiply(size, FixedPoint.AMOUNT_SCALE);
+        List<BalanceDelta> deltas = OrderSide.BUY == order.getSide()
+                ? List.of(BalanceDelta.of("TRY", order.notional().subtract(traded), negate(order.notional())),
+                          BalanceDelta.of(order.getAssetName(), size, zero))
+                : List.of(BalanceDelta.of(order.getAssetName(), zero, negate(size)),
+                          BalanceDelta.of("TRY", traded, zero));
+        return of(Type.MATCHED, order, executionPrice, deltas);
+    }
+
+    public OrderEvent withSequence(long sequence) {
+        return new OrderEvent(sequence, timestamp, type, orderId, customerId, assetName, side, size, price, deltas);
+    }
+
+    private static OrderEvent of(Type type, Order order, FixedPoint price, List<BalanceDelta> deltas) {
+        return new OrderEvent(0, Instant.now(), type, order.getId(), order.getCustomerId(), order.getAssetName(),
+                order.getSide(), order.getQuantity(), price, deltas);
+    }
+
+    private static String reservedAsset(Order order) {
+        return OrderSide.BUY == order.getSide() ? "TRY" : order.getAssetName();
+    }
+
+    private static FixedPoint reservedAmount(Order order) {
+        return OrderSide.BUY == order.getSide() ? order.notional() : order.getQuantity();
+    }
+
+    private static FixedPoint negate(FixedPoint value) {
+        return FixedPoint.zero(value.scale()).subtract(value);
+    }
+}
@@ -0,0 +1,396 @@
+package com.eubican.practices.brokerage.oms.domain.journal;
+
+import com.eubican.practices.brokerage.oms.config.properties.JournalProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only record of order lifecycle events in memory-mapped segments under
+ * {@code application.journal.directory}, with a snapshot of the folded {@link JournalState} written
+ * in the background every {@code application.journal.snapshot-every} events.
+ * <p>
+ * Events recorded inside a transaction are appended in one batch once it commits, so the journal
+ * holds committed changes only. Batches of different transactions may land in either order, which
+ * {@link JournalState} tolerates. On startup the state is rebuilt from the newest readable snapshot
+ * plus the events after it, and the matching engine rebuilds its books from it; segments are kept as
+ * the audit trail.
+ * <p>
+ * A batch that cannot be appended leaves a gap, so the journal marks itself dirty with a marker file,
+ * stops appending and reports DOWN until the marker is removed, e.g. after archiving the directory.
+ */
+@Slf4j
+@Component
+public class OrderJournal {
+
+    // transaction resource collecting the events recorded by the current transaction
+    private static final Object PENDING_EVENTS = new Object();
+
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    private static final String DIRTY_MARKER = "DIRTY";
+
+    private final JournalProperties properties;
+
+    private final ExecutorService snapshotWriter = newSnapshotWriter();
+
+    // serializes snapshot files, which are written outside the append lock
+    private final Object snapshotLock = new Object();
+
+    private JournalState state = new JournalState();
+
+    private JournalSegment active;
+
+    private long sinceSnapshot;
+
+    private boolean snapshotQueued;
+
+    private volatile boolean dirty;
+
+    public OrderJournal(JournalProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Whether events were lost, so the journal no longer matches the database.
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @PostConstruct
+    public synchronized void recover() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Path directory = properties.getDirectory();
+            Files.createDirectories(directory);
+            if (Files.exists(directory.resolve(DIRTY_MARKER))) {
+                dirty = true;
+                log.error("Order journal in {} is marked dirty, not appending until the {} marker is removed", directory, DIRTY_MARKER);
+            }
+            state = latestSnapshot(directory);
+            long snapshotSequence = state.lastSequence();
+
+            List<Path> segments = segments(directory);
+            long[] replayed = new long[1];
+            Consumer<OrderEvent> tail = event -> {
+                if (event.sequence() > state.lastSequence()) {
+                    state.apply(event);
+                    replayed[0]++;
+                }
+            };
+            for (int i = 0; i < segments.size() - 1; i++) {
+                // a segment followed by one that starts at or before the snapshot is covered by it
+                if (JournalSegment.firstSequence(segments.get(i + 1)) > snapshotSequence + 1) {
+                    JournalSegment.read(segments.get(i), tail);
+                }
+            }
+            active = segments.isEmpty()
+                    ? JournalSegment.create(directory, snapshotSequence + 1, segmentSize())
+                    : JournalSegment.reopen(segments.getLast(), tail);
+            sinceSnapshot = replayed[0];
+            log.info("Recovered order journal at sequence {} with {} open orders, {} events replayed after snapshot {}",
+                    state.lastSequence(), state.openOrders().size(), replayed[0], snapshotSequence);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not recover the order journal", ex);
+        }
+    }
+
+    /**
+     * Appends the event once the surrounding transaction commits, or right away outside one.
+     */
+    @SuppressWarnings("unchecked")
+    public void record(OrderEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(List.of(event));
+            return;
+        }
+        List<OrderEvent> pending = (List<OrderEvent>) TransactionSynchronizationManager.getResource(PENDING_EVENTS);
+        if (pending == null) {
+            List<OrderEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(PENDING_EVENTS, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        append(events);
+                    } catch (RuntimeException ex) {
+                        // the database already holds the change, so the request must not fail over the journal
+                        log.error("Could not journal {} committed order events", events.size(), ex);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_EVENTS);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    synchronized void append(List<OrderEvent> events) {
+        if (dirty) {
+            return;
+        }
+        if (active == null) {
+            throw new IllegalStateException("Order journal is not open");
+        }
+        try {
+            write(events);
+        } catch (RuntimeException ex) {
+            markDirty();
+            throw ex;
+        }
+        if (sinceSnapshot >= properties.getSnapshotEvery() && !snapshotQueued) {
+            queueSnapshot();
+        }
+    }
+
+    private void write(List<OrderEvent> events) {
+        for (OrderEvent event : events) {
+            OrderEvent sequenced = event.withSequence(state.lastSequence() + 1);
+            byte[] payload = JournalCodec.encode(sequenced);
+            if (!active.append(payload)) {
+                roll(sequenced.sequence());
+                if (!active.append(payload)) {
+                    throw new IllegalStateException("Journal record of " + payload.length + " bytes does not fit into a segment");
+                }
+            }
+            state.apply(sequenced);
+            sinceSnapshot++;
+        }
+    }
+
+    // only the copy is taken under the append lock, forcing and writing happen on the snapshot thread
+    private void queueSnapshot() {
+        JournalState copy = state.copy();
+        JournalSegment segment = active;
+        try {
+            snapshotWriter.execute(() -> {
+                try {
+                    writeSnapshot(copy, segment);
+                } catch (RuntimeException ex) {
+                    log.warn("Could not write an order journal snapshot at sequence {}", copy.lastSequence(), ex);
+                } finally {
+                    synchronized (this) {
+                        snapshotQueued = false;
+                    }
+                }
+            });
+            snapshotQueued = true;
+            sinceSnapshot = 0;
+        } catch (RejectedExecutionException ex) {
+            log.debug("Order journal is closing, skipping the snapshot at sequence {}", copy.lastSequence());
+        }
+    }
+
+    private void markDirty() {
+        dirty = true;
+        try {
+            Files.writeString(properties.getDirectory().resolve(DIRTY_MARKER), "gap after sequence " + state.lastSequence());
+        } catch (IOException ex) {
+            log.error("Could not write the order journal {} marker", DIRTY_MARKER, ex);
+        }
+        log.error("Order journal marked dirty after sequence {}, no further events are appended", state.lastSequence());
+    }
+
+    /**
+     * Feeds every journaled event from {@code fromSequence} on to the sink, oldest first, and
+     * returns how many there were.
+     */
+    public synchronized long replay(long fromSequence, Consumer<OrderEvent> sink) {
+        if (active == null) {
+            return 0;
+        }
+        long[] replayed = new long[1];
+        try {
+            List<Path> segments = segments(properties.getDirectory());
+            for (int i = 0; i < segments.size(); i++) {
+                if (i + 1 < segments.size() && JournalSegment.firstSequence(segments.get(i + 1)) <= fromSequence) {
+                    continue;
+                }
+                JournalSegment.read(segments.get(i), event -> {
+                    if (event.sequence() >= fromSequence) {
+                        sink.accept(event);
+                        replayed[0]++;
+                    }
+                });
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not replay the order journal", ex);
+        }
+        return replayed[0];
+    }
+
+    /**
+     * Copy of the state folded from all journaled events.
+     */
+    public synchronized JournalState state() {
+        return state.copy();
+    }
+
+    public void snapshot() {
+        JournalState copy;
+        JournalSegment segment;
+        synchronized (this) {
+            if (active == null) {
+                return;
+            }
+            copy = state.copy();
+            segment = active;
+            sinceSnapshot = 0;
+        }
+        writeSnapshot(copy, segment);
+    }
+
+    // segment is the one the last event of the state was appended to
+    private void writeSnapshot(JournalState state, JournalSegment segment) {
+        Path directory = properties.getDirectory();
+        long sequence = state.lastSequence();
+        synchronized (snapshotLock) {
+            try {
+                // the snapshot must not cover events the page cache could still lose
+                segment.force();
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(bytes)) {
+                    state.writeTo(out);
+                }
+                byte[] body = bytes.toByteArray();
+                ByteBuffer file = ByteBuffer.allocate(Integer.BYTES + body.length);
+                file.putInt(JournalCodec.checksum(body, body.length)).put(body);
+
+                Path temp = directory.resolve(snapshotName(sequence) + ".tmp");
+                Files.write(temp, file.array());
+                Files.move(temp, directory.resolve(snapshotName(sequence)), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                List<Path> snapshots = snapshots(directory);
+                for (Path old : snapshots.subList(0, Math.max(0, snapshots.size() - SNAPSHOTS_KEPT))) {
+                    Files.deleteIfExists(old);
+                }
+                log.debug("Order journal snapshot written at sequence {}", sequence);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not write an order journal snapshot", ex);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshotWriter.shutdown();
+        try {
+            // queued snapshots still force the active segment
+            if (!snapshotWriter.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Order journal snapshot still running at shutdown");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        closeSegment();
+    }
+
+    private synchronized void closeSegment() {
+        if (active == null) {
+            return;
+        }
+        try {
+            active.close();
+        } catch (IOException ex) {
+            log.warn("Could not close order journal segment {}", active.path(), ex);
+        }
+        active = null;
+    }
+
+    private void roll(long firstSequence) {
+        try {
+            active.close();
+            active = JournalSegment.create(properties.getDirectory(), firstSequence, segmentSize());
+            log.debug("Order journal rolled to segment {}", active.path().getFileName());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not roll the order journal", ex);
+        }
+    }
+
+    private static ExecutorService newSnapshotWriter() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private int segmentSize() {
+        return (int) Math.min(Integer.MAX_VALUE, properties.getSegmentSize().toBytes());
+    }
+
+    // newest snapshot whose checksum holds, or empty state when there is none
+    private static JournalState latestSnapshot(Path directory) throws IOException {
+        List<Path> snapshots = snapshots(directory);
+        for (Path snapshot : snapshots.reversed()) {
+            ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+            if (file.remaining() >= Integer.BYTES) {
+                int crc = file.getInt();
+                byte[] body = new byte[file.remaining()];
+                file.get(body);
+                if (JournalCodec.checksum(body, body.length) == crc) {
+                    return JournalState.readFrom(new DataInputStream(new ByteArrayInputStream(body)));
+                }
+            }
+            log.warn("Skipping corrupt order journal snapshot {}", snapshot.getFileName());
+        }
+        return new JournalState();
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment)
+                    .sorted(Comparator.comparingLong(JournalSegment::firstSequence))
+                    .toList();
+        }
+    }
+
+    private static List<Path> snapshots(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("snapshot-\\d{19}\\.snap"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String snapshotName(long sequence) {
+        return String.format("snapshot-%019d.snap", sequence);
+    }
+}
@@ -0,0 +1,156 @@
+package com.eubican.practices.brokerage.oms.domain.matching;
+
+import com.eubican.practices.brokerage.oms.config.properties.MatchingEngineProperties;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderEvent;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderJournal;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps one {@link OrderBook} per asset holding the PENDING orders.
+ * <p>
+ * Books only ever reflect committed state: new orders rest and withdrawn orders leave the book
+ * after the surrounding transaction commits, and a counterparty claimed by a transaction that
+ * rolls back is put back in its original place. A withdrawal that commits before the add of the same
+ * order keeps that order out of the book, see {@link OrderBook#withdraw(UUID)}.
+ * <p>
+ * The books are local to this instance, so the engine must run on a single instance only; it is off by default.
+ * <p>
+ * On startup the books are rebuilt from the open orders of the {@link OrderJournal} when it is clean and
+ * agrees with the number of PENDING rows, and from the {@code orders} table otherwise.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MatchingEngine implements SmartInitializingSingleton {
+
+    private final OrderJpaRepository orderRepository;
+
+    private final MatchingEngineProperties properties;
+
+    private final OrderJournal journal;
+
+    private final ConcurrentMap<String, OrderBook> books = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!isEnabled()) {
+            log.info("Matching engine is disabled, skipping order book recovery");
+            return;
+        }
+        if (!recoverFromJournal()) {
+            recoverFromDatabase();
+        }
+    }
+
+    private boolean recoverFromJournal() {
+        if (!journal.isEnabled() || journal.isDirty()) {
+            return false;
+        }
+        Map<UUID, OrderEvent> open = journal.state().openOrders();
+        long pending = orderRepository.countByStatus(OrderStatus.PENDING);
+        if (open.size() != pending) {
+            log.warn("Order journal holds {} open orders but the database {} PENDING ones, recovering from the database",
+                    open.size(), pending);
+            return false;
+        }
+        for (OrderEvent created : open.values()) {
+            bookFor(created.assetName()).add(OrderBookEntry.from(created));
+        }
+        log.info("Recovered {} open orders from the order journal into {} order books", open.size(), books.size());
+        return true;
+    }
+
+    private void recoverFromDatabase() {
+        // page through the PENDING orders so recovery never holds more than one page of rows
+        Limit page = Limit.of(properties.getRecoveryPageSize());
+        Instant createdAt = Instant.EPOCH;
+        UUID id = new UUID(0, 0);
+        long recovered = 0;
+        List<OrderView> rows;
+        do {
+            rows = orderRepository.findViewsByStatusAfter(OrderStatus.PENDING, createdAt, id, page);
+            for (OrderView row : rows) {
+                bookFor(row.assetName()).add(OrderBookEntry.from(row));
+            }
+            if (!rows.isEmpty()) {
+                createdAt = rows.getLast().createdAt();
+                id = rows.getLast().id();
+                recovered += rows.size();
+            }
+        } while (rows.size() == page.max());
+        log.info("Recovered {} PENDING orders into {} order books", recovered, books.size());
+    }
+
+    public Optional<OrderBook> book(String assetName) {
+        return Optional.ofNullable(books.get(assetName));
+    }
+
+    /**
+     * Takes the best crossing counterparty for the incoming order out of its book.
+     * Callers must either settle it or hand it back through {@link #restoreOnRollback(String, OrderBookEntry)}.
+     */
+    public Optional<OrderBookEntry> claimCounterparty(Order incoming) {
+        return bookFor(incoming.getAssetName()).pollCrossing(OrderBookEntry.from(incoming));
+    }
+
+    public void restoreOnRollback(String assetName, OrderBookEntry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (STATUS_COMMITTED != status) {
+                    bookFor(assetName).add(entry);
+                }
+            }
+        });
+    }
+
+    public void rest(Order order) {
+        afterCommit(() -> bookFor(order.getAssetName()).add(OrderBookEntry.from(order)));
+    }
+
+    public void withdraw(String assetName, UUID orderId) {
+        afterCommit(() -> bookFor(assetName).withdraw(orderId));
+    }
+
+    private OrderBook bookFor(String assetName) {
+        return books.computeIfAbsent(assetName, name -> new OrderBook(name, properties.getWithdrawnRetention()));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
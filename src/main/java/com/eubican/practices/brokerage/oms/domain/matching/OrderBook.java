@@ -0,0 +1,136 @@
+package com.eubican.practices.brokerage.oms.domain.matching;
+
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Limit order book of a single asset. Both sides are kept in price-time priority:
+ * bids by descending price, asks by ascending price, ties broken by creation time.
+ * <p>
+ * Orders are all-or-none, so an incoming order only crosses a resting order of the
+ * same size that belongs to a different customer.
+ * <p>
+ * Adds and withdrawals arrive after their transactions commit, so a withdrawal can overtake the add
+ * of the same order. Such withdrawals are remembered for a while and the late add is dropped.
+ */
+public final class OrderBook {
+
+    private static final Comparator<OrderBookEntry> TIME_PRIORITY =
+            Comparator.comparing(OrderBookEntry::createdAt).thenComparing(OrderBookEntry::orderId);
+
+    @Getter
+    private final String assetName;
+
+    private final NavigableSet<OrderBookEntry> bids =
+            new TreeSet<>(Comparator.comparing(OrderBookEntry::price).reversed().thenComparing(TIME_PRIORITY));
+
+    private final NavigableSet<OrderBookEntry> asks =
+            new TreeSet<>(Comparator.comparing(OrderBookEntry::price).thenComparing(TIME_PRIORITY));
+
+    private final Map<UUID, OrderBookEntry> byId = new HashMap<>();
+
+    // withdrawn order ids that were not in the book, with the System.nanoTime() they were withdrawn at
+    private final LinkedHashMap<UUID, Long> withdrawn = new LinkedHashMap<>();
+
+    private final long withdrawnRetentionNanos;
+
+    public OrderBook(String assetName) {
+        this(assetName, Duration.ofMinutes(1));
+    }
+
+    public OrderBook(String assetName, Duration withdrawnRetention) {
+        this.assetName = assetName;
+        this.withdrawnRetentionNanos = withdrawnRetention.toNanos();
+    }
+
+    public synchronized void add(OrderBookEntry entry) {
+        if (withdrawn.remove(entry.orderId()) != null) {
+            return;
+        }
+        if (byId.putIfAbsent(entry.orderId(), entry) == null) {
+            sideOf(entry.side()).add(entry);
+        }
+    }
+
+    public synchronized Optional<OrderBookEntry> remove(UUID orderId) {
+        OrderBookEntry entry = byId.remove(orderId);
+        if (entry != null) {
+            sideOf(entry.side()).remove(entry);
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * Takes a canceled or matched order out of the book, and keeps it out should its add still be on the way.
+     */
+    public synchronized Optional<OrderBookEntry> withdraw(UUID orderId) {
+        Optional<OrderBookEntry> removed = remove(orderId);
+        long now = System.nanoTime();
+        expireWithdrawn(now);
+        if (removed.isEmpty()) {
+            withdrawn.put(orderId, now);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes and returns the best resting order the incoming one can be matched against.
+     */
+    public synchronized Optional<OrderBookEntry> pollCrossing(OrderBookEntry incoming) {
+        NavigableSet<OrderBookEntry> opposite = OrderSide.BUY == incoming.side() ? asks : bids;
+        Iterator<OrderBookEntry> it = opposite.iterator();
+        while (it.hasNext()) {
+            OrderBookEntry resting = it.next();
+            if (!crosses(incoming, resting)) {
+                break;
+            }
+            if (resting.customerId().equals(incoming.customerId())
+                    || resting.size().compareTo(incoming.size()) != 0) {
+                continue;
+            }
+            it.remove();
+            byId.remove(resting.orderId());
+            return Optional.of(resting);
+        }
+        return Optional.empty();
+    }
+
+    public synchronized Optional<OrderBookEntry> bestBid() {
+        return Optional.ofNullable(bids.isEmpty() ? null : bids.first());
+    }
+
+    public synchronized Optional<OrderBookEntry> bestAsk() {
+        return Optional.ofNullable(asks.isEmpty() ? null : asks.first());
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private void expireWithdrawn(long now) {
+        Iterator<Long> it = withdrawn.values().iterator();
+        while (it.hasNext() && now - it.next() > withdrawnRetentionNanos) {
+            it.remove();
+        }
+    }
+
+    private NavigableSet<OrderBookEntry> sideOf(OrderSide side) {
+        return OrderSide.BUY == side ? bids : asks;
+    }
+
+    private static boolean crosses(OrderBookEntry incoming, OrderBookEntry resting) {
+        int cmp = incoming.price().compareTo(resting.price());
+        return OrderSide.BUY == incoming.side() ? cmp >= 0 : cmp <= 0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.eubican.practices.brokerage.oms.domain.matching;
+
+import com.eubican.practices.brokerage.oms.domain.journal.OrderEvent;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public record OrderBookEntry(
+        UUID orderId,
+        UUID customerId,
+        OrderSide side,
+        BigDecimal size,
+        BigDecimal price,
+        Instant createdAt
+) {
+    public static OrderBookEntry from(Order order) {
+        return new OrderBookEntry(
+                order.getId(),
+                order.getCustomerId(),
+                order.getSide(),
+                order.getSize(),
+                order.getPrice(),
+                order.getCreatedAt()
+        );
+    }
+
+    public static OrderBookEntry from(OrderEvent created) {
+        return new OrderBookEntry(
+                created.orderId(),
+                created.customerId(),
+                created.side(),
+                created.size().toBigDecimal(),
+                created.price().toBigDecimal(),
+                created.timestamp()
+        );
+    }
+
+    public static OrderBookEntry from(OrderView view) {
+        return new OrderBookEntry(
+                view.id(),
+                view.customerId(),
+                view.side(),
+                view.size(),
+                view.price(),
+                view.createdAt()
+        );
+    }
+}
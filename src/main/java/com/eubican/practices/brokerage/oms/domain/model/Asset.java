@@ -1,8 +1,8 @@
 package com.eubican.practices.brokerage.oms.domain.model;
 
 import com.eubican.practices.brokerage.oms.persistence.entity.AssetEntity;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.util.Objects;
@@ -17,32 +17,48 @@ public final class Asset {
 
     private final String assetName;
 
-    @Setter
-    private BigDecimal size;
+    // balances are kept as fixed-point amounts and exposed as BigDecimal only at the boundary
+    @Getter(AccessLevel.NONE)
+    private FixedPoint size;
 
-    @Setter
-    private BigDecimal usable;
+    @Getter(AccessLevel.NONE)
+    private FixedPoint usable;
 
-    @Setter
-    private BigDecimal reserved;
+    @Getter(AccessLevel.NONE)
+    private FixedPoint reserved;
+
+    private final Long version;
 
     private Asset(UUID id,
                   UUID customerId,
                   String assetName,
                   BigDecimal size,
                   BigDecimal usable,
-                  BigDecimal reserved
+                  BigDecimal reserved,
+                  Long version
     ) {
         this.id = id;
         this.customerId = Objects.requireNonNull(customerId, "customerId");
         this.assetName = Objects.requireNonNull(assetName, "assetName");
-        this.size = Objects.requireNonNull(size, "size");
-        this.usable = Objects.requireNonNull(usable, "usable");
-        this.reserved = Objects.requireNonNull(reserved, "reserved");
+        this.size = amount(Objects.requireNonNull(size, "size"));
+        this.usable = amount(Objects.requireNonNull(usable, "usable"));
+        this.reserved = amount(Objects.requireNonNull(reserved, "reserved"));
+        this.version = version;
     }
 
     public static Asset from(UUID customerId, String assetName, BigDecimal size, BigDecimal usable, BigDecimal reserved) {
-        return new Asset(null, customerId, assetName, size, usable, reserved);
+        return new Asset(null, customerId, assetName, size, usable, reserved, null);
+    }
+
+    public static Asset from(UUID id,
+                             UUID customerId,
+                             String assetName,
+                             BigDecimal size,
+                             BigDecimal usable,
+                             BigDecimal reserved,
+                             Long version
+    ) {
+        return new Asset(id, customerId, assetName, size, usable, reserved, version);
     }
 
     public static Asset from(AssetEntity entity) {
@@ -52,16 +68,85 @@ public final class Asset {
                 entity.getAssetName(),
                 entity.getSize(),
                 entity.getUsable(),
-                entity.getReserved()
+                entity.getReserved(),
+                entity.getVersion()
         );
     }
 
+    public BigDecimal getSize() {
+        return size.toBigDecimal();
+    }
+
+    public void setSize(BigDecimal size) {
+        this.size = amount(size);
+    }
+
+    public BigDecimal getUsable() {
+        return usable.toBigDecimal();
+    }
+
+    public void setUsable(BigDecimal usable) {
+        this.usable = amount(usable);
+    }
+
+    public BigDecimal getReserved() {
+        return reserved.toBigDecimal();
+    }
+
+    public void setReserved(BigDecimal reserved) {
+        this.reserved = amount(reserved);
+    }
+
     public boolean hasInsufficientFunds(BigDecimal needed) {
-        return usable.compareTo(needed) < 0;
+        return usable.toBigDecimal().compareTo(needed) < 0;
+    }
+
+    public boolean hasInsufficientFunds(FixedPoint needed) {
+        return usable.isLessThan(needed);
     }
 
     public boolean verifyReserved(BigDecimal needed) {
-        return reserved.compareTo(needed) < 0;
+        return reserved.toBigDecimal().compareTo(needed) < 0;
+    }
+
+    public boolean verifyReserved(FixedPoint needed) {
+        return reserved.isLessThan(needed);
+    }
+
+    /**
+     * Moves {@code amount} from usable to reserved.
+     */
+    public void reserve(FixedPoint amount) {
+        usable = usable.subtract(amount);
+        reserved = reserved.add(amount);
+        syncSize();
+    }
+
+    /**
+     * Moves {@code amount} from reserved back to usable.
+     */
+    public void release(FixedPoint amount) {
+        reserved = reserved.subtract(amount);
+        usable = usable.add(amount);
+        syncSize();
+    }
+
+    public void consumeReserved(FixedPoint amount) {
+        reserved = reserved.subtract(amount);
+        syncSize();
+    }
+
+    public void credit(FixedPoint amount) {
+        usable = usable.add(amount);
+        syncSize();
+    }
+
+    private void syncSize() {
+        size = usable.add(reserved);
+    }
+
+    private static FixedPoint amount(BigDecimal value) {
+        return FixedPoint.round(value, FixedPoint.AMOUNT_SCALE);
     }
 
 }
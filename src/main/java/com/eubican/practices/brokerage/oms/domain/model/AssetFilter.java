@@ -0,0 +1,30 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Asset part of an order query. Symbols are upper case, so the value is normalized to match them
+ * as stored. A {@link AssetMatch#CONTAINS} filter has to be expanded to the known symbols it
+ * matches before it can be turned into a predicate.
+ */
+public record AssetFilter(AssetMatch match, String value, Set<String> symbols) {
+
+    /**
+     * @return the filter, or {@code null} when no asset name is given
+     */
+    public static AssetFilter of(String assetName, AssetMatch match) {
+        if (assetName == null || assetName.isBlank()) {
+            return null;
+        }
+        return new AssetFilter(match == null ? AssetMatch.CONTAINS : match, assetName.trim().toUpperCase(Locale.ROOT), null);
+    }
+
+    public AssetFilter expandedTo(Set<String> symbols) {
+        return new AssetFilter(match, value, Set.copyOf(symbols));
+    }
+
+    public boolean needsExpansion() {
+        return match == AssetMatch.CONTAINS && symbols == null;
+    }
+}
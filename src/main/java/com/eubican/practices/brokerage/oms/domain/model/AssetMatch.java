@@ -0,0 +1,13 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+/**
+ * How an order filter matches the asset symbol.
+ */
+public enum AssetMatch {
+    /** The symbol itself. */
+    EXACT,
+    /** Symbols starting with the value. */
+    PREFIX,
+    /** Symbols containing the value, ignoring case, looked up in the instrument registry first. */
+    CONTAINS
+}
@@ -0,0 +1,21 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Read-only row of a customer's asset list, selected without loading {@code AssetEntity} instances.
+ */
+public record AssetView(
+        UUID customerId,
+        String assetName,
+        BigDecimal size,
+        BigDecimal usable,
+        BigDecimal reserved,
+        Long version
+) {
+    public static AssetView of(Asset asset) {
+        return new AssetView(asset.getCustomerId(), asset.getAssetName(), asset.getSize(), asset.getUsable(), asset.getReserved(),
+                asset.getVersion());
+    }
+}
@@ -0,0 +1,20 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+import java.util.List;
+
+public record BatchMatchReport(
+        List<BatchMatchResult> results,
+        long elapsedMillis
+) {
+    public long matched() {
+        return results.stream().filter(BatchMatchResult::matched).count();
+    }
+
+    public long rejected() {
+        return results.size() - matched();
+    }
+
+    public double ordersPerSecond() {
+        return results.size() * 1000.0 / Math.max(elapsedMillis, 1);
+    }
+}
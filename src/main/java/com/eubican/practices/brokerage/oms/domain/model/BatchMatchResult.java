@@ -0,0 +1,17 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+import java.util.UUID;
+
+public record BatchMatchResult(
+        UUID orderId,
+        boolean matched,
+        String reason
+) {
+    public static BatchMatchResult matched(UUID orderId) {
+        return new BatchMatchResult(orderId, true, null);
+    }
+
+    public static BatchMatchResult rejected(UUID orderId, String reason) {
+        return new BatchMatchResult(orderId, false, reason);
+    }
+}
@@ -0,0 +1,163 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Decimal value stored as a {@code long} count of {@code 10^-scale} units.
+ * <p>
+ * Used for order sizes ({@link #SIZE_SCALE}), prices ({@link #PRICE_SCALE}) and balances or
+ * notional amounts ({@link #AMOUNT_SCALE}) so that the arithmetic of placing, cancelling and
+ * settling an order stays on primitives. Conversions from and to {@link BigDecimal} happen only at
+ * the JPA and JSON boundary and are exact; every operation throws {@link ArithmeticException}
+ * instead of silently overflowing.
+ */
+public final class FixedPoint implements Comparable<FixedPoint> {
+
+    public static final int SIZE_SCALE = 6;
+
+    public static final int PRICE_SCALE = 4;
+
+    public static final int AMOUNT_SCALE = 6;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L
+    };
+
+    private final long units;
+
+    private final int scale;
+
+    private FixedPoint(long units, int scale) {
+        this.units = units;
+        this.scale = scale;
+    }
+
+    public static FixedPoint ofUnits(long units, int scale) {
+        checkScale(scale);
+        return new FixedPoint(units, scale);
+    }
+
+    public static FixedPoint zero(int scale) {
+        return ofUnits(0L, scale);
+    }
+
+    /**
+     * Exact conversion; fails if {@code value} has more than {@code scale} decimals or does not fit.
+     */
+    public static FixedPoint of(BigDecimal value, int scale) {
+        checkScale(scale);
+        if (value.scale() > scale) {
+            throw new ArithmeticException(value + " has more than " + scale + " decimals");
+        }
+        return new FixedPoint(value.movePointRight(scale).longValueExact(), scale);
+    }
+
+    /**
+     * Converts {@code value} rounding half-up to {@code scale} decimals, the way balances are
+     * normalised before they are stored.
+     */
+    public static FixedPoint round(BigDecimal value, int scale) {
+        if (value.scale() <= scale) {
+            return of(value, scale);
+        }
+        return of(value.setScale(scale, RoundingMode.HALF_UP), scale);
+    }
+
+    public long units() {
+        return units;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    public FixedPoint add(FixedPoint other) {
+        requireSameScale(other);
+        return new FixedPoint(Math.addExact(units, other.units), scale);
+    }
+
+    public FixedPoint subtract(FixedPoint other) {
+        requireSameScale(other);
+        return new FixedPoint(Math.subtractExact(units, other.units), scale);
+    }
+
+    /**
+     * Multiplies the two values and rounds the product half-up to {@code resultScale} decimals.
+     */
+    public FixedPoint multiply(FixedPoint other, int resultScale) {
+        checkScale(resultScale);
+        int productScale = scale + other.scale;
+        long high = Math.multiplyHigh(units, other.units);
+        long low = units * other.units;
+        if (high != (low >> 63) || Math.abs(productScale - resultScale) >= POWERS_OF_TEN.length) {
+            // does not fit in 64 bits before rescaling, take the slow exact path
+            BigDecimal product = toBigDecimal().multiply(other.toBigDecimal());
+            return of(product.setScale(resultScale, RoundingMode.HALF_UP), resultScale);
+        }
+        return new FixedPoint(rescale(low, productScale, resultScale), resultScale);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    @Override
+    public int compareTo(FixedPoint other) {
+        requireSameScale(other);
+        return Long.compare(units, other.units);
+    }
+
+    public boolean isLessThan(FixedPoint other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FixedPoint other && units == other.units && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(units) + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private static long rescale(long value, int fromScale, int toScale) {
+        if (fromScale == toScale) {
+            return value;
+        }
+        if (fromScale < toScale) {
+            return Math.multiplyExact(value, POWERS_OF_TEN[toScale - fromScale]);
+        }
+        long divisor = POWERS_OF_TEN[fromScale - toScale];
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        // half-up: round away from zero when the dropped part is at least half of the divisor
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(value);
+        }
+        return quotient;
+    }
+
+    private void requireSameScale(FixedPoint other) {
+        if (scale != other.scale) {
+            throw new IllegalArgumentException("Scale mismatch: " + scale + " vs " + other.scale);
+        }
+    }
+
+    private static void checkScale(int scale) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unsupported scale " + scale);
+        }
+    }
+}
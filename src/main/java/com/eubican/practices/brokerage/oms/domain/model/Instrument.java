@@ -0,0 +1,32 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+import com.eubican.practices.brokerage.oms.persistence.entity.InstrumentEntity;
+
+/**
+ * Tradable symbol with its compact id and trading increments. Instances are shared by the
+ * {@code InstrumentRegistry}, so two orders on the same symbol refer to the same object.
+ */
+public record Instrument(
+        int id,
+        String symbol,
+        FixedPoint tickSize,
+        FixedPoint lotSize
+) {
+    public static Instrument from(InstrumentEntity entity) {
+        return new Instrument(
+                entity.getId(),
+                entity.getSymbol().intern(),
+                FixedPoint.of(entity.getTickSize(), FixedPoint.PRICE_SCALE),
+                FixedPoint.of(entity.getLotSize(), FixedPoint.SIZE_SCALE)
+        );
+    }
+
+    public void checkIncrements(FixedPoint price, FixedPoint size) {
+        if (price.units() % tickSize.units() != 0) {
+            throw new IllegalArgumentException("price must be a multiple of " + tickSize + " for " + symbol);
+        }
+        if (size.units() % lotSize.units() != 0) {
+            throw new IllegalArgumentException("size must be a multiple of " + lotSize + " for " + symbol);
+        }
+    }
+}
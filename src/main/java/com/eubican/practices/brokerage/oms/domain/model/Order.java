@@ -4,13 +4,19 @@ import com.eubican.practices.brokerage.oms.persistence.entity.OrderEntity;
 import lombok.Getter;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.Objects;
 import java.util.UUID;
 
 @Getter
 public final class Order {
+
+    public static final int IDEMPOTENCY_KEY_MAX_LENGTH = 64;
+
     private final UUID id;
 
     private final UUID customerId;
@@ -23,10 +29,16 @@ public final class Order {
 
     private final BigDecimal price;
 
+    private final FixedPoint quantity;
+
+    private final FixedPoint limitPrice;
+
     private final OrderStatus status;
 
     private final Instant createdAt;
 
+    private final String idempotencyKey;
+
     private Order(UUID id,
                   UUID customerId,
                   String assetName,
@@ -34,18 +46,22 @@ public final class Order {
                   BigDecimal size,
                   BigDecimal price,
                   OrderStatus status,
-                  Instant createdAt
+                  Instant createdAt,
+                  String idempotencyKey
     ) {
         this.id = Objects.requireNonNull(id, "id");
         this.customerId = Objects.requireNonNull(customerId, "customerId");
         this.assetName = requireAsset(assetName);
         this.side = Objects.requireNonNull(side, "side");
 
-        this.size = normalizeShareSize(requirePositive(requireScaleAtMost(size, 6, "size"), "size"));
-        this.price = normalizePrice(requirePositive(requireScaleAtMost(price, 4, "price"), "price"));
+        this.quantity = toFixedPoint(requirePositive(requireScaleAtMost(size, FixedPoint.SIZE_SCALE, "size"), "size"), FixedPoint.SIZE_SCALE, "size");
+        this.limitPrice = toFixedPoint(requirePositive(requireScaleAtMost(price, FixedPoint.PRICE_SCALE, "price"), "price"), FixedPoint.PRICE_SCALE, "price");
+        this.size = quantity.toBigDecimal();
+        this.price = limitPrice.toBigDecimal();
 
         this.status = Objects.requireNonNull(status, "status");
         this.createdAt = Objects.requireNonNull(createdAt, "createdAt");
+        this.idempotencyKey = requireIdempotencyKey(idempotencyKey);
     }
 
     public static Order from(UUID customerId,
@@ -62,10 +78,41 @@ public final class Order {
                 size,
                 price,
                 OrderStatus.PENDING,
-                Instant.now()
+                Instant.now(),
+                null
         );
     }
 
+    /**
+     * Same as {@link #from(UUID, String, OrderSide, BigDecimal, BigDecimal)} for a symbol already
+     * resolved through the instrument registry; also enforces the instrument's tick and lot size.
+     */
+    public static Order from(UUID customerId,
+                             Instrument instrument,
+                             OrderSide side,
+                             BigDecimal size,
+                             BigDecimal price
+    ) {
+        Order order = from(customerId, instrument.symbol(), side, size, price);
+        instrument.checkIncrements(order.getLimitPrice(), order.getQuantity());
+        return order;
+    }
+
+    /**
+     * PENDING order rebuilt from a copy kept outside the {@code orders} table, such as the open order store.
+     */
+    public static Order pending(UUID id,
+                                UUID customerId,
+                                String assetName,
+                                OrderSide side,
+                                FixedPoint quantity,
+                                FixedPoint limitPrice,
+                                Instant createdAt
+    ) {
+        return new Order(id, customerId, assetName, side, quantity.toBigDecimal(), limitPrice.toBigDecimal(),
+                OrderStatus.PENDING, createdAt, null);
+    }
+
     public static Order from(OrderEntity entity) {
         return new Order(
                 entity.getId(),
@@ -75,10 +122,50 @@ public final class Order {
                 entity.getSize(),
                 entity.getPrice(),
                 entity.getStatus(),
-                entity.getCreatedAt()
+                entity.getCreatedAt(),
+                entity.getIdempotencyKey()
         );
     }
 
+    /**
+     * Copy of this order carrying the client supplied key that makes its creation idempotent.
+     */
+    public Order withIdempotencyKey(String idempotencyKey) {
+        return new Order(id, customerId, assetName, side, size, price, status, createdAt, idempotencyKey);
+    }
+
+    /**
+     * SHA-256 of what the customer asked for: customer, symbol, side, size and price. Equal for
+     * every retry of the same request, whatever the order id, time or number formatting.
+     */
+    public String requestHash() {
+        String request = customerId + "|" + assetName + "|" + side + "|" + quantity.units() + "|" + limitPrice.units();
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * TRY amount reserved by a BUY: limit price times size, rounded to balance precision. Fails with
+     * {@link IllegalArgumentException} when the product does not fit a balance.
+     */
+    public FixedPoint notional() {
+        try {
+            return limitPrice.multiply(quantity, FixedPoint.AMOUNT_SCALE);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("size times price exceeds the supported range");
+        }
+    }
+
+    private static String requireIdempotencyKey(String key) {
+        if (key != null && (key.isBlank() || key.length() > IDEMPOTENCY_KEY_MAX_LENGTH)) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + IDEMPOTENCY_KEY_MAX_LENGTH + " characters");
+        }
+        return key;
+    }
+
     private static BigDecimal requirePositive(BigDecimal v, String field) {
         if (v == null || v.signum() <= 0) {
             throw new IllegalArgumentException(field + " must be > 0");
@@ -100,18 +187,33 @@ public final class Order {
         if (asset == null || asset.isBlank()) {
             throw new IllegalArgumentException("assetName is required");
         }
-        if (!asset.matches("[A-Z0-9_]{2,16}")) {
+        if (!isSymbol(asset)) {
             throw new IllegalArgumentException("assetName must match [A-Z0-9_]{2,16}");
         }
         return asset;
     }
 
-    private static BigDecimal normalizePrice(BigDecimal price) {
-        return price.setScale(4, RoundingMode.HALF_UP);
+    // same rule as [A-Z0-9_]{2,16} without compiling a regex per order
+    private static boolean isSymbol(String asset) {
+        int length = asset.length();
+        if (length < 2 || length > 16) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = asset.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_')) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private static BigDecimal normalizeShareSize(BigDecimal size) {
-        return size.setScale(6, RoundingMode.HALF_UP);
+    private static FixedPoint toFixedPoint(BigDecimal v, int scale, String field) {
+        try {
+            return FixedPoint.of(v, scale);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException(field + " exceeds the supported range");
+        }
     }
 
 }
@@ -0,0 +1,18 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+public record OrderSubmissionResult(
+        Order order,
+        String error
+) {
+    public static OrderSubmissionResult accepted(Order order) {
+        return new OrderSubmissionResult(order, null);
+    }
+
+    public static OrderSubmissionResult rejected(Order order, String error) {
+        return new OrderSubmissionResult(order, error);
+    }
+
+    public boolean isAccepted() {
+        return error == null;
+    }
+}
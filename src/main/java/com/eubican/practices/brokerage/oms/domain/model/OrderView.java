@@ -0,0 +1,21 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-only row of the order history. Selected column by column with a constructor expression, so
+ * listing orders neither loads {@code OrderEntity} instances nor keeps dirty-checking snapshots.
+ */
+public record OrderView(
+        UUID id,
+        UUID customerId,
+        String assetName,
+        OrderStatus status,
+        OrderSide side,
+        BigDecimal size,
+        BigDecimal price,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,21 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a customer's portfolio: the balances held in an asset, zero when the customer only
+ * has pending orders in it, and the pending orders on it with the TRY their BUY orders hold in reserve.
+ * A pending SELL reserves the asset itself, which shows in {@code reserved}.
+ */
+public record PortfolioPosition(
+        String assetName,
+        BigDecimal size,
+        BigDecimal usable,
+        BigDecimal reserved,
+        long pendingOrders,
+        BigDecimal pendingNotional
+) {
+    public PortfolioPosition withBalances(Asset asset) {
+        return new PortfolioPosition(assetName, asset.getSize(), asset.getUsable(), asset.getReserved(), pendingOrders, pendingNotional);
+    }
+}
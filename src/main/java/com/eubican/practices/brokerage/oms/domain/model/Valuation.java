@@ -0,0 +1,26 @@
+package com.eubican.practices.brokerage.oms.domain.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of revaluing every asset row against a price vector. Values are in TRY; TRY itself is
+ * priced at 1 and held assets missing from the price vector are listed as unpriced and valued at 0.
+ */
+public record Valuation(
+        int positions,
+        int customers,
+        BigDecimal totalValue,
+        List<AssetTotal> assets,
+        List<CustomerValue> topCustomers,
+        List<String> unpriced,
+        long loadMillis,
+        long computeMillis
+) {
+    public record AssetTotal(String assetName, BigDecimal usable, BigDecimal reserved, BigDecimal value) {
+    }
+
+    public record CustomerValue(UUID customerId, BigDecimal value) {
+    }
+}
@@ -10,6 +10,10 @@ public final class ControllerPaths {
 
     public static final String API_V_1_ADMIN_ORDERS = "/api/v1/admin/orders";
 
+    public static final String API_V_1_ADMIN_INSTRUMENTS = "/api/v1/admin/instruments";
+
+    public static final String API_V_1_ADMIN_VALUATIONS = "/api/v1/admin/valuations";
+
     private ControllerPaths() {
         throw new AssertionError("Cannot instantiate utility class.");
     }
@@ -0,0 +1,69 @@
+package com.eubican.practices.brokerage.oms.domain.openorder;
+
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+
+import java.util.UUID;
+
+/**
+ * Reusable holder that {@link OpenOrderStore#find(UUID, OpenOrderRecord)} copies a record into.
+ * The primitive accessors do not allocate; the object accessors build a new value on every call.
+ */
+public final class OpenOrderRecord {
+
+    long customerHi;
+
+    long customerLo;
+
+    boolean buy;
+
+    int instrumentId;
+
+    long quantityUnits;
+
+    long priceUnits;
+
+    long createdAtMicros;
+
+    public boolean belongsTo(UUID customerId) {
+        return customerHi == customerId.getMostSignificantBits() && customerLo == customerId.getLeastSignificantBits();
+    }
+
+    public UUID customerId() {
+        return new UUID(customerHi, customerLo);
+    }
+
+    public OrderSide side() {
+        return buy ? OrderSide.BUY : OrderSide.SELL;
+    }
+
+    public int instrumentId() {
+        return instrumentId;
+    }
+
+    /**
+     * Size in units of {@link FixedPoint#SIZE_SCALE}.
+     */
+    public long quantityUnits() {
+        return quantityUnits;
+    }
+
+    /**
+     * Limit price in units of {@link FixedPoint#PRICE_SCALE}.
+     */
+    public long priceUnits() {
+        return priceUnits;
+    }
+
+    public long createdAtMicros() {
+        return createdAtMicros;
+    }
+
+    public FixedPoint quantity() {
+        return FixedPoint.ofUnits(quantityUnits, FixedPoint.SIZE_SCALE);
+    }
+
+    public FixedPoint price() {
+        return FixedPoint.ofUnits(priceUnits, FixedPoint.PRICE_SCALE);
+    }
+}
@@ -0,0 +1,592 @@
+package com.eubican.practices.brokerage.oms.domain.openorder;
+
+import com.eubican.practices.brokerage.oms.config.properties.OpenOrderStoreProperties;
+import com.eubican.practices.brokerage.oms.domain.concurrency.CustomerSequencer;
+import com.eubican.practices.brokerage.oms.domain.instrument.InstrumentRegistry;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.Instrument;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+/**
+ * PENDING orders kept off the heap in a memory-mapped {@link OpenOrderTable} under
+ * {@code application.open-orders.directory}, keyed by order id, together with the TRY notional
+ * reserved by the open BUY orders of each customer and the open quantity of each instrument.
+ * <p>
+ * Like the order books it only reflects committed state: orders are added and removed once the
+ * surrounding transaction commits. A removal that commits before the add of the same order keeps the
+ * order out for {@code withdrawn-retention}. A table closed cleanly is mapped again on the next start
+ * without reading the {@code orders} table; after a crash it is rebuilt from the PENDING rows. A committed
+ * change that cannot be applied is logged rather than failing the request, and leaves the table to be
+ * rebuilt on the next start as after a crash.
+ * <p>
+ * Lookups read the mapping under an optimistic stamp and only fall back to the read lock when a
+ * writer got in between, so {@link #find(UUID, OpenOrderRecord)} and {@link #customerHashOf(UUID)}
+ * neither block nor allocate.
+ * <p>
+ * Once half of the slots are taken the table is rehashed on a background thread, copying one slot at a
+ * time under an optimistic stamp; changes made meanwhile are logged and replayed onto the copy before
+ * it replaces the table. Commits only wait for it when the table gets crowded before the copy is done.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OpenOrderStore implements SmartInitializingSingleton {
+
+    /**
+     * What {@link #customerHashOf(UUID)} returns for an order that is not open.
+     */
+    public static final long NOT_OPEN = -1;
+
+    private static final String FILE_NAME = "open-orders.dat";
+
+    // changes left when the rehash takes the write lock to swap tables
+    private static final int SWAP_BACKLOG = 64;
+
+    private final OpenOrderStoreProperties properties;
+
+    private final InstrumentRegistry instrumentRegistry;
+
+    private final OrderJpaRepository orderRepository;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final StampedLock lock = new StampedLock();
+
+    private final ConcurrentMap<UUID, AtomicLong> reservedNotional = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Integer, AtomicLong> openQuantity = new ConcurrentHashMap<>();
+
+    private final ExecutorService rehasher = newRehasher();
+
+    // removed order ids that were not in the table, with the System.nanoTime() they were removed at
+    private final LinkedHashMap<UUID, Long> withdrawn = new LinkedHashMap<>();
+
+    private volatile OpenOrderTable table;
+
+    // set once a committed change could not be applied, so close() leaves the table to be rebuilt
+    private volatile boolean stale;
+
+    // the running rehash, and the changes made to the table since it started
+    private Future<?> rehash;
+
+    private List<Change> changesDuringRehash;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!isEnabled()) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            Files.createDirectories(properties.getDirectory());
+            OpenOrderTable reopened = OpenOrderTable.reopen(file());
+            if (reopened != null) {
+                table = reopened;
+                table.forEachLive(slot -> count(slot, 1));
+                log.info("Mapped {} open orders from {}", table.size(), file());
+            } else {
+                table = OpenOrderTable.create(file(), initialCapacity());
+                rebuild();
+                log.info("Rebuilt {} open orders from the PENDING orders", table.size());
+            }
+            // a crash from here on leaves the table marked dirty, so the next start rebuilds it
+            table.markClean(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open the open order store", ex);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void add(Order order) {
+        if (isEnabled()) {
+            afterCommit(() -> applyCommitted(order.getId(), () -> insert(order)));
+        }
+    }
+
+    public void remove(UUID orderId) {
+        if (isEnabled()) {
+            afterCommit(() -> applyCommitted(orderId, () -> delete(orderId)));
+        }
+    }
+
+    /**
+     * Copies the open order into {@code into}; returns false when it is not open or the store is off.
+     */
+    public boolean find(UUID orderId, OpenOrderRecord into) {
+        long hi = orderId.getMostSignificantBits();
+        long lo = orderId.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        boolean found = read(table, hi, lo, into);
+        if (lock.validate(stamp)) {
+            return found;
+        }
+        stamp = lock.readLock();
+        try {
+            return read(table, hi, lo, into);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * {@link UUID#hashCode()} of the customer owning the open order, read straight from the mapping,
+     * or {@link #NOT_OPEN}. Enough for the {@link CustomerSequencer} to pick the customer's lane.
+     */
+    public long customerHashOf(UUID orderId) {
+        long hi = orderId.getMostSignificantBits();
+        long lo = orderId.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        long hash = customerHash(table, hi, lo);
+        if (lock.validate(stamp)) {
+            return hash;
+        }
+        stamp = lock.readLock();
+        try {
+            return customerHash(table, hi, lo);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * The open order, for command paths that are about to change it anyway; empty when it is not open
+     * or its instrument is no longer listed.
+     */
+    public Optional<Order> findOrder(UUID orderId) {
+        OpenOrderRecord record = new OpenOrderRecord();
+        if (!find(orderId, record)) {
+            return Optional.empty();
+        }
+        long micros = record.createdAtMicros();
+        Instant createdAt = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000L);
+        return instrumentRegistry.find(record.instrumentId())
+                .map(instrument -> Order.pending(orderId, record.customerId(), instrument.symbol(), record.side(),
+                        record.quantity(), record.price(), createdAt));
+    }
+
+    public int size() {
+        OpenOrderTable current = table;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * TRY held in reserve by the customer's open BUY orders.
+     */
+    public FixedPoint reservedNotional(UUID customerId) {
+        AtomicLong units = reservedNotional.get(customerId);
+        return FixedPoint.ofUnits(units == null ? 0 : units.get(), FixedPoint.AMOUNT_SCALE);
+    }
+
+    /**
+     * Total size of the open orders of both sides for the asset.
+     */
+    public FixedPoint openInterest(String assetName) {
+        AtomicLong units = instrumentRegistry.find(assetName)
+                .map(instrument -> openQuantity.get(instrument.id()))
+                .orElse(null);
+        return FixedPoint.ofUnits(units == null ? 0 : units.get(), FixedPoint.SIZE_SCALE);
+    }
+
+    @PreDestroy
+    public void close() {
+        rehasher.shutdown();
+        try {
+            // the rehash takes the write lock to finish, so it is awaited without holding it
+            if (!rehasher.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Open order store rehash still running at shutdown");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (table != null) {
+                table.markClean(!stale);
+                table.close();
+                table = null;
+            }
+        } catch (IOException ex) {
+            log.warn("Could not close the open order store", ex);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void applyCommitted(UUID orderId, Runnable change) {
+        try {
+            change.run();
+        } catch (RuntimeException ex) {
+            // the database already holds the change, so the request must not fail over the store
+            stale = true;
+            log.error("Could not apply committed order {} to the open order store, rebuilding it on the next start", orderId, ex);
+        }
+    }
+
+    private void insert(Order order) {
+        int instrumentId = instrumentRegistry.require(order.getAssetName()).id();
+        long stamp = lock.writeLock();
+        try {
+            if (table == null || withdrawn.remove(order.getId()) != null) {
+                return;
+            }
+            if (table.isHalfFull()) {
+                startRehash();
+            }
+            while (table != null && table.isCrowded() && rehash != null) {
+                // the rehash fell behind, wait for it rather than filling the table up
+                Future<?> running = rehash;
+                lock.unlockWrite(stamp);
+                try {
+                    running.get();
+                } catch (ExecutionException ex) {
+                    // logged by the rehash
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    stamp = lock.writeLock();
+                }
+            }
+            if (table != null) {
+                put(order.getId(), order.getCustomerId(), order.getSide(), instrumentId,
+                        order.getQuantity(), order.getLimitPrice(), order.getCreatedAt());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void delete(UUID orderId) {
+        long stamp = lock.writeLock();
+        try {
+            if (table == null) {
+                return;
+            }
+            long hi = orderId.getMostSignificantBits();
+            long lo = orderId.getLeastSignificantBits();
+            int slot = table.find(hi, lo);
+            long now = System.nanoTime();
+            if (slot >= 0) {
+                count(slot, -1);
+                table.delete(slot);
+                if (changesDuringRehash != null) {
+                    changesDuringRehash.add(Change.removed(hi, lo));
+                }
+            } else {
+                // the add of this order has not committed yet
+                withdrawn.put(orderId, now);
+            }
+            long retention = properties.getWithdrawnRetention().toNanos();
+            Iterator<Long> oldest = withdrawn.values().iterator();
+            while (oldest.hasNext() && now - oldest.next() > retention) {
+                oldest.remove();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // tombstones are dropped by rehashing at the same capacity, live orders by doubling it
+    private int rehashCapacity() {
+        return table.size() * 2 < table.capacity() ? table.capacity() : table.capacity() * 2;
+    }
+
+    private void startRehash() {
+        if (rehash != null) {
+            return;
+        }
+        int capacity = rehashCapacity();
+        if (capacity > OpenOrderTable.MAX_CAPACITY) {
+            log.warn("Open order store cannot grow beyond {} slots, holding {} orders", table.capacity(), table.size());
+            return;
+        }
+        OpenOrderTable source = table;
+        changesDuringRehash = new ArrayList<>();
+        try {
+            rehash = rehasher.submit(() -> rehash(source, capacity));
+        } catch (RejectedExecutionException ex) {
+            // closing
+            changesDuringRehash = null;
+        }
+    }
+
+    private void rehash(OpenOrderTable source, int capacity) {
+        Path next = properties.getDirectory().resolve(FILE_NAME + ".next");
+        OpenOrderTable target = null;
+        try {
+            target = OpenOrderTable.create(next, capacity);
+            for (int slot = 0; slot < source.capacity(); slot++) {
+                copy(source, slot, target);
+            }
+            List<Change> changes;
+            while ((changes = takeChanges()).size() > SWAP_BACKLOG) {
+                apply(changes, target);
+            }
+            apply(changes, target);
+            long stamp = lock.writeLock();
+            try {
+                if (table != source) {
+                    // closed meanwhile
+                    closeQuietly(target);
+                    return;
+                }
+                apply(changesDuringRehash, target);
+                Files.move(next, file(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                table = target;
+                target = null;
+                log.debug("Open order store rehashed to {} slots in the background", capacity);
+            } finally {
+                changesDuringRehash = null;
+                rehash = null;
+                lock.unlockWrite(stamp);
+            }
+            // optimistic readers may still be on the old mapping; it stays readable until collected
+            closeQuietly(source);
+        } catch (IOException | RuntimeException ex) {
+            log.error("Could not rehash the open order store", ex);
+            long stamp = lock.writeLock();
+            try {
+                changesDuringRehash = null;
+                rehash = null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            if (target != null) {
+                closeQuietly(target);
+            }
+        }
+    }
+
+    private static void closeQuietly(OpenOrderTable table) {
+        try {
+            table.close();
+        } catch (IOException ex) {
+            log.debug("Could not close a retired open order table", ex);
+        }
+    }
+
+    // copies one slot as of a moment no writer was active; later changes to it are in the change log
+    private void copy(OpenOrderTable source, int slot, OpenOrderTable target) {
+        while (true) {
+            long stamp = lock.tryOptimisticRead();
+            boolean live = source.isLive(slot);
+            long orderHi = source.orderHi(slot);
+            long orderLo = source.orderLo(slot);
+            long customerHi = source.customerHi(slot);
+            long customerLo = source.customerLo(slot);
+            boolean buy = source.isBuy(slot);
+            int instrumentId = source.instrumentId(slot);
+            long quantityUnits = source.quantityUnits(slot);
+            long priceUnits = source.priceUnits(slot);
+            long createdAtMicros = source.createdAtMicros(slot);
+            if (lock.validate(stamp)) {
+                if (live) {
+                    target.insert(orderHi, orderLo, customerHi, customerLo, buy, instrumentId, quantityUnits, priceUnits, createdAtMicros);
+                }
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private List<Change> takeChanges() {
+        long stamp = lock.writeLock();
+        try {
+            List<Change> changes = changesDuringRehash;
+            changesDuringRehash = new ArrayList<>();
+            return changes;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // replaying is idempotent, so changes the copy already saw do no harm
+    private static void apply(List<Change> changes, OpenOrderTable target) {
+        for (Change change : changes) {
+            if (change.removed()) {
+                int slot = target.find(change.orderHi(), change.orderLo());
+                if (slot >= 0) {
+                    target.delete(slot);
+                }
+            } else {
+                target.insert(change.orderHi(), change.orderLo(), change.customerHi(), change.customerLo(), change.buy(),
+                        change.instrumentId(), change.quantityUnits(), change.priceUnits(), change.createdAtMicros());
+            }
+        }
+    }
+
+    // startup only, while no commit can be waiting for the lock
+    private void grow() {
+        int capacity = rehashCapacity();
+        if (capacity > OpenOrderTable.MAX_CAPACITY) {
+            throw new IllegalStateException("Open order store is full at " + table.size() + " orders");
+        }
+        Path next = properties.getDirectory().resolve(FILE_NAME + ".next");
+        try {
+            OpenOrderTable rehashed = table.rehash(next, capacity);
+            Files.move(next, file(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // optimistic readers may still be on the old mapping; it stays readable until collected
+            table.close();
+            table = rehashed;
+            log.debug("Open order store rehashed to {} slots", capacity);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not grow the open order store", ex);
+        }
+    }
+
+    private void rebuild() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<OrderView> pending = orderRepository.streamViewsByStatus(OrderStatus.PENDING)) {
+                // orders of delisted instruments stay findable by id but count towards no open interest
+                pending.forEach(view -> {
+                    if (table.isCrowded()) {
+                        grow();
+                    }
+                    put(view.id(), view.customerId(), view.side(),
+                            instrumentRegistry.find(view.assetName()).map(Instrument::id).orElse(-1),
+                            FixedPoint.of(view.size(), FixedPoint.SIZE_SCALE), FixedPoint.of(view.price(), FixedPoint.PRICE_SCALE),
+                            view.createdAt());
+                });
+            }
+        });
+    }
+
+    private void put(UUID orderId, UUID customerId, OrderSide side, int instrumentId,
+                     FixedPoint quantity, FixedPoint price, Instant createdAt) {
+        long hi = orderId.getMostSignificantBits();
+        long lo = orderId.getLeastSignificantBits();
+        long createdAtMicros = createdAt.getEpochSecond() * 1_000_000 + createdAt.getNano() / 1_000;
+        boolean added = table.insert(hi, lo, customerId.getMostSignificantBits(), customerId.getLeastSignificantBits(),
+                OrderSide.BUY == side, instrumentId, quantity.units(), price.units(), createdAtMicros);
+        if (added) {
+            count(table.find(hi, lo), 1);
+            if (changesDuringRehash != null) {
+                changesDuringRehash.add(new Change(false, hi, lo, customerId.getMostSignificantBits(), customerId.getLeastSignificantBits(),
+                        OrderSide.BUY == side, instrumentId, quantity.units(), price.units(), createdAtMicros));
+            }
+        }
+    }
+
+    private void count(int slot, int sign) {
+        OpenOrderTable current = table;
+        long quantity = current.quantityUnits(slot);
+        openQuantity.computeIfAbsent(current.instrumentId(slot), id -> new AtomicLong()).addAndGet(sign * quantity);
+        if (current.isBuy(slot)) {
+            long notional = FixedPoint.ofUnits(current.priceUnits(slot), FixedPoint.PRICE_SCALE)
+                    .multiply(FixedPoint.ofUnits(quantity, FixedPoint.SIZE_SCALE), FixedPoint.AMOUNT_SCALE)
+                    .units();
+            reservedNotional.computeIfAbsent(new UUID(current.customerHi(slot), current.customerLo(slot)), id -> new AtomicLong())
+                    .addAndGet(sign * notional);
+        }
+    }
+
+    private Path file() {
+        return properties.getDirectory().resolve(FILE_NAME);
+    }
+
+    private int initialCapacity() {
+        int requested = Math.max(16, Math.min(properties.getInitialCapacity(), OpenOrderTable.MAX_CAPACITY));
+        return Integer.highestOneBit(requested - 1) << 1;
+    }
+
+    private static long customerHash(OpenOrderTable table, long hi, long lo) {
+        if (table == null) {
+            return NOT_OPEN;
+        }
+        int slot = table.find(hi, lo);
+        if (slot < 0) {
+            return NOT_OPEN;
+        }
+        // as UUID#hashCode() computes it
+        long bits = table.customerHi(slot) ^ table.customerLo(slot);
+        return ((int) (bits >> 32) ^ (int) bits) & 0xFFFFFFFFL;
+    }
+
+    private static boolean read(OpenOrderTable table, long hi, long lo, OpenOrderRecord into) {
+        if (table == null) {
+            return false;
+        }
+        int slot = table.find(hi, lo);
+        if (slot < 0) {
+            return false;
+        }
+        into.customerHi = table.customerHi(slot);
+        into.customerLo = table.customerLo(slot);
+        into.buy = table.isBuy(slot);
+        into.instrumentId = table.instrumentId(slot);
+        into.quantityUnits = table.quantityUnits(slot);
+        into.priceUnits = table.priceUnits(slot);
+        into.createdAtMicros = table.createdAtMicros(slot);
+        return true;
+    }
+
+    private static ExecutorService newRehasher() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "open-order-rehash");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Change(boolean removed, long orderHi, long orderLo, long customerHi, long customerLo, boolean buy,
+                          int instrumentId, long quantityUnits, long priceUnits, long createdAtMicros) {
+        static Change removed(long orderHi, long orderLo) {
+            return new Change(true, orderHi, orderLo, 0, 0, false, 0, 0, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.eubican.practices.brokerage.oms.domain.openorder;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+
+/**
+ * Open-addressing hash table of fixed-width order records in a memory-mapped file. The slot of an
+ * order is found by linear probing from the hash of its id; removed orders leave a tombstone so
+ * probe chains stay intact until the table is rehashed.
+ * <p>
+ * Not thread-safe; {@link OpenOrderStore} guards it.
+ */
+final class OpenOrderTable implements AutoCloseable {
+
+    static final int RECORD_BYTES = 64;
+
+    static final int MAX_CAPACITY = 1 << 24;
+
+    private static final int HEADER_BYTES = 64;
+
+    private static final int MAGIC = 0x4F4F5231;
+
+    private static final int H_MAGIC = 0;
+    private static final int H_RECORD_BYTES = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_CLEAN = 12;
+    private static final int H_LIVE = 16;
+    private static final int H_TOMBSTONES = 20;
+
+    private static final byte EMPTY = 0;
+    private static final byte LIVE = 1;
+    private static final byte TOMBSTONE = 2;
+
+    private static final int STATE = 0;
+    private static final int SIDE = 1;
+    private static final int INSTRUMENT = 4;
+    private static final int ORDER_HI = 8;
+    private static final int ORDER_LO = 16;
+    private static final int CUSTOMER_HI = 24;
+    private static final int CUSTOMER_LO = 32;
+    private static final int QUANTITY = 40;
+    private static final int PRICE = 48;
+    private static final int CREATED_AT = 56;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int capacity;
+
+    private final int mask;
+
+    private int live;
+
+    private int tombstones;
+
+    private OpenOrderTable(FileChannel channel, int capacity) throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+    }
+
+    static OpenOrderTable create(Path path, int capacity) throws IOException {
+        if (Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Open order table capacity must be a power of two up to " + MAX_CAPACITY);
+        }
+        Files.deleteIfExists(path);
+        OpenOrderTable table = new OpenOrderTable(open(path), capacity);
+        table.buffer.putInt(H_MAGIC, MAGIC);
+        table.buffer.putInt(H_RECORD_BYTES, RECORD_BYTES);
+        table.buffer.putInt(H_CAPACITY, capacity);
+        table.writeCounts();
+        return table;
+    }
+
+    /**
+     * Maps a table written by an earlier run, or returns {@code null} when the file is missing,
+     * malformed or was not closed cleanly and so may have missed updates.
+     */
+    static OpenOrderTable reopen(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < HEADER_BYTES) {
+            return null;
+        }
+        FileChannel channel = open(path);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        int capacity = header.getInt(H_CAPACITY);
+        boolean usable = header.getInt(H_MAGIC) == MAGIC
+                && header.getInt(H_RECORD_BYTES) == RECORD_BYTES
+                && header.getInt(H_CLEAN) == 1
+                && Integer.bitCount(capacity) == 1 && capacity <= MAX_CAPACITY
+                && channel.size() == HEADER_BYTES + (long) capacity * RECORD_BYTES;
+        if (!usable) {
+            channel.close();
+            return null;
+        }
+        OpenOrderTable table = new OpenOrderTable(channel, capacity);
+        table.live = header.getInt(H_LIVE);
+        table.tombstones = header.getInt(H_TOMBSTONES);
+        return table;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int size() {
+        return live;
+    }
+
+    /**
+     * Whether live records plus tombstones fill half of the slots, the point to start rehashing.
+     */
+    boolean isHalfFull() {
+        return (long) (live + tombstones) * 2 >= capacity;
+    }
+
+    /**
+     * Whether one more insert would push live records plus tombstones over three quarters of the slots.
+     */
+    boolean isCrowded() {
+        return (long) (live + tombstones + 1) * 4 > (long) capacity * 3;
+    }
+
+    /**
+     * Slot of the order, or -1 when it is not in the table.
+     */
+    int find(long orderHi, long orderLo) {
+        for (int slot = home(orderHi, orderLo), probes = 0; probes < capacity; slot = (slot + 1) & mask, probes++) {
+            int at = offset(slot);
+            byte state = buffer.get(at + STATE);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == LIVE && buffer.getLong(at + ORDER_HI) == orderHi && buffer.getLong(at + ORDER_LO) == orderLo) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns false when the order is already in the table.
+     */
+    boolean insert(long orderHi, long orderLo, long customerHi, long customerLo, boolean buy, int instrumentId,
+                   long quantityUnits, long priceUnits, long createdAtMicros) {
+        int target = -1;
+        for (int slot = home(orderHi, orderLo), probes = 0; probes < capacity; slot = (slot + 1) & mask, probes++) {
+            int at = offset(slot);
+            byte state = buffer.get(at + STATE);
+            if (state == EMPTY) {
+                target = target < 0 ? slot : target;
+                break;
+            }
+            if (state == TOMBSTONE) {
+                target = target < 0 ? slot : target;
+            } else if (buffer.getLong(at + ORDER_HI) == orderHi && buffer.getLong(at + ORDER_LO) == orderLo) {
+                return false;
+            }
+        }
+        if (target < 0) {
+            throw new IllegalStateException("Open order table is full");
+        }
+        int at = offset(target);
+        if (buffer.get(at + STATE) == TOMBSTONE) {
+            tombstones--;
+        }
+        buffer.put(at + SIDE, (byte) (buy ? 1 : 0));
+        buffer.putInt(at + INSTRUMENT, instrumentId);
+        buffer.putLong(at + ORDER_HI, orderHi);
+        buffer.putLong(at + ORDER_LO, orderLo);
+        buffer.putLong(at + CUSTOMER_HI, customerHi);
+        buffer.putLong(at + CUSTOMER_LO, customerLo);
+        buffer.putLong(at + QUANTITY, quantityUnits);
+        buffer.putLong(at + PRICE, priceUnits);
+        buffer.putLong(at + CREATED_AT, createdAtMicros);
+        // the state byte goes last so a reader never sees a half-written live record
+        buffer.put(at + STATE, LIVE);
+        live++;
+        writeCounts();
+        return true;
+    }
+
+    void delete(int slot) {
+        buffer.put(offset(slot) + STATE, TOMBSTONE);
+        live--;
+        tombstones++;
+        writeCounts();
+    }
+
+    boolean isLive(int slot) {
+        return buffer.get(offset(slot) + STATE) == LIVE;
+    }
+
+    void forEachLive(IntConsumer action) {
+        for (int slot = 0; slot < capacity; slot++) {
+            if (buffer.get(offset(slot) + STATE) == LIVE) {
+                action.accept(slot);
+            }
+        }
+    }
+
+    /**
+     * Copies the live records into a new table at {@code path}, dropping all tombstones.
+     */
+    OpenOrderTable rehash(Path path, int newCapacity) throws IOException {
+        OpenOrderTable target = create(path, newCapacity);
+        forEachLive(slot -> target.insert(orderHi(slot), orderLo(slot), customerHi(slot), customerLo(slot), isBuy(slot),
+                instrumentId(slot), quantityUnits(slot), priceUnits(slot), createdAtMicros(slot)));
+        return target;
+    }
+
+    long orderHi(int slot) {
+        return buffer.getLong(offset(slot) + ORDER_HI);
+    }
+
+    long orderLo(int slot) {
+        return buffer.getLong(offset(slot) + ORDER_LO);
+    }
+
+    long customerHi(int slot) {
+        return buffer.getLong(offset(slot) + CUSTOMER_HI);
+    }
+
+    long customerLo(int slot) {
+        return buffer.getLong(offset(slot) + CUSTOMER_LO);
+    }
+
+    boolean isBuy(int slot) {
+        return buffer.get(offset(slot) + SIDE) == 1;
+    }
+
+    int instrumentId(int slot) {
+        return buffer.getInt(offset(slot) + INSTRUMENT);
+    }
+
+    long quantityUnits(int slot) {
+        return buffer.getLong(offset(slot) + QUANTITY);
+    }
+
+    long priceUnits(int slot) {
+        return buffer.getLong(offset(slot) + PRICE);
+    }
+
+    long createdAtMicros(int slot) {
+        return buffer.getLong(offset(slot) + CREATED_AT);
+    }
+
+    /**
+     * A clean table is trusted on the next start; it is marked dirty again while in use.
+     */
+    void markClean(boolean clean) {
+        buffer.putInt(H_CLEAN, clean ? 1 : 0);
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void writeCounts() {
+        buffer.putInt(H_LIVE, live);
+        buffer.putInt(H_TOMBSTONES, tombstones);
+    }
+
+    private int home(long hi, long lo) {
+        long h = (hi ^ lo) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int offset(int slot) {
+        return HEADER_BYTES + slot * RECORD_BYTES;
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
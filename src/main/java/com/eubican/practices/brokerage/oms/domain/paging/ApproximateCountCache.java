@@ -0,0 +1,142 @@
+package com.eubican.practices.brokerage.oms.domain.paging;
+
+import com.eubican.practices.brokerage.oms.config.properties.PagingProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Total counts of paged queries, kept per customer and filter so a page can report a total without
+ * running {@code COUNT(*)} on the request path.
+ * <p>
+ * Counts are taken on a small background pool. A lookup returns the last known count, which may be
+ * behind the table and is therefore only approximate, and schedules a recount once the entry is
+ * older than {@code application.paging.count-cache-refresh-after}. Nothing is returned for a key
+ * that has not been counted yet or whose count is older than {@code count-cache-ttl}.
+ */
+@Slf4j
+@Component
+public class ApproximateCountCache {
+
+    private final PagingProperties properties;
+
+    private final Executor executor;
+
+    // guarded by itself; in access order, so the least recently looked up or recounted key is evicted first
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > Math.max(1, properties.getCountCacheMaxEntries());
+        }
+    };
+
+    private final ConcurrentMap<Key, Boolean> refreshing = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ApproximateCountCache(PagingProperties properties) {
+        this(properties, newExecutor(properties));
+    }
+
+    public ApproximateCountCache(PagingProperties properties, Executor executor) {
+        this.properties = properties;
+        this.executor = executor;
+    }
+
+    public OptionalLong get(Key key, LongSupplier counter) {
+        long now = System.nanoTime();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && now - entry.countedAtNanos() > properties.getCountCacheTtl().toNanos()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null || now - entry.countedAtNanos() > properties.getCountCacheRefreshAfter().toNanos()) {
+            refresh(key, counter);
+        }
+        return entry == null ? OptionalLong.empty() : OptionalLong.of(entry.count());
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    private void refresh(Key key, LongSupplier counter) {
+        if (refreshing.putIfAbsent(key, Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    put(key, counter.getAsLong());
+                } catch (RuntimeException ex) {
+                    log.warn("Counting {} for customer {} failed", key.query(), key.customerId(), ex);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // the pool is saturated; the next lookup tries again
+            refreshing.remove(key);
+        }
+    }
+
+    private void put(Key key, long count) {
+        synchronized (entries) {
+            entries.put(key, new Entry(count, System.nanoTime()));
+        }
+    }
+
+    private static ExecutorService newExecutor(PagingProperties properties) {
+        int threads = Math.max(1, properties.getCountRefreshThreads());
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, properties.getCountRefreshQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "count-refresh-" + sequence.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @param query   the paged query, e.g. {@code orders}
+     * @param filters every other filter of the query, in a fixed order
+     */
+    public record Key(String query, UUID customerId, List<Object> filters) {
+        public static Key of(String query, UUID customerId, Object... filters) {
+            return new Key(query, customerId, Arrays.asList(filters));
+        }
+    }
+
+    private record Entry(long count, long countedAtNanos) {
+    }
+}
@@ -0,0 +1,220 @@
+package com.eubican.practices.brokerage.oms.domain.position;
+
+import com.eubican.practices.brokerage.oms.config.properties.PositionCacheProperties;
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of single asset positions, keyed by customer and asset name.
+ * <p>
+ * Bounded by the estimated heap weight of its entries, {@code application.position-cache.max-weight};
+ * entries leave in insertion order when the cache is over weight and are reloaded once older than
+ * {@code application.position-cache.ttl}.
+ * <p>
+ * Writers invalidate a key once their transaction has completed, which leaves a tombstone numbered
+ * from a global sequence. A reader takes the current number before it loads a row and only stores
+ * the row if no tombstone for that key is newer, so a row read before a commit never overwrites the
+ * invalidation of that commit. Between two loaded rows the higher {@code version} wins. A key
+ * that is neither cached nor being loaded gets no tombstone, so writes to positions nobody reads
+ * cost no memory.
+ * <p>
+ * The cache is local to one node and invalidations are not published to other instances: a commit
+ * on another node is only seen once the entry expires, and until then the asset endpoints, ETag
+ * revalidation included, answer with the older balance. Deployments serving the same customers from
+ * more than one instance must set {@code application.position-cache.enabled=false}.
+ */
+@Component
+public class PositionCache {
+
+    // rough retained size of the map node, key, entry, Asset and its UUIDs and BigDecimals
+    private static final long ENTRY_OVERHEAD = 400;
+
+    private static final long TOMBSTONE_WEIGHT = 120;
+
+    private final PositionCacheProperties properties;
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    // keys being loaded, with the number of readers loading each
+    private final ConcurrentMap<Key, Integer> loading = new ConcurrentHashMap<>();
+
+    private final Queue<Key> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong weight = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // newest tombstone dropped by eviction; readers that started before it cannot tell whether they are stale
+    private final AtomicLong evictedTombstone = new AtomicLong();
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    private final Counter rejected;
+
+    public PositionCache(PositionCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hits = Counter.builder("oms.position-cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("oms.position-cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("oms.position-cache.evictions").register(meterRegistry);
+        this.rejected = Counter.builder("oms.position-cache.stale.rejections").register(meterRegistry);
+        Gauge.builder("oms.position-cache.weight", weight, AtomicLong::get).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("oms.position-cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Asset get(UUID customerId, String assetName, Supplier<Asset> loader) {
+        Key key = new Key(customerId, assetName);
+        long now = System.nanoTime();
+        Entry cached = entries.get(key);
+        if (cached != null && !cached.isTombstone() && !cached.isExpired(now)) {
+            hits.increment();
+            return cached.asset();
+        }
+
+        misses.increment();
+        // registered before the token is taken, so an invalidation either sees this reader or is older than the token
+        loading.merge(key, 1, Integer::sum);
+        try {
+            long token = invalidations.get();
+            Asset loaded = loader.get();
+            put(key, loaded, token, now);
+            return loaded;
+        } finally {
+            loading.computeIfPresent(key, (k, readers) -> readers == 1 ? null : readers - 1);
+        }
+    }
+
+    /**
+     * Invalidates the position when the current transaction completes, or right away outside of one.
+     */
+    public void invalidateAfterCompletion(UUID customerId, String assetName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(customerId, assetName);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(customerId, assetName);
+            }
+        });
+    }
+
+    public void invalidate(UUID customerId, String assetName) {
+        Entry tombstone = Entry.tombstone(invalidations.incrementAndGet());
+        entries.compute(new Key(customerId, assetName), (key, existing) -> {
+            if (existing == null && !loading.containsKey(key)) {
+                // no cached row to drop and no reader that could store a stale one
+                return null;
+            }
+            return replace(key, existing, tombstone);
+        });
+        evict();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long weight() {
+        return weight.get();
+    }
+
+    private void put(Key key, Asset asset, long token, long now) {
+        if (evictedTombstone.get() > token) {
+            rejected.increment();
+            return;
+        }
+        Entry candidate = Entry.of(asset, now + properties.getTtl().toNanos());
+        entries.compute(key, (k, existing) -> {
+            if (existing != null && (existing.isTombstone() ? existing.sequence() > token : existing.isNewerThan(asset))) {
+                rejected.increment();
+                return existing;
+            }
+            return replace(k, existing, candidate);
+        });
+        evict();
+    }
+
+    private Entry replace(Key key, Entry existing, Entry replacement) {
+        if (existing == null) {
+            insertionOrder.add(key);
+        }
+        weight.addAndGet(replacement.weight() - (existing == null ? 0 : existing.weight()));
+        return replacement;
+    }
+
+    private void evict() {
+        long maxWeight = Math.max(1, properties.getMaxWeight().toBytes());
+        Key oldest;
+        while (weight.get() > maxWeight && (oldest = insertionOrder.poll()) != null) {
+            Entry removed = entries.remove(oldest);
+            if (removed == null) {
+                continue;
+            }
+            weight.addAndGet(-removed.weight());
+            if (removed.isTombstone()) {
+                evictedTombstone.accumulateAndGet(removed.sequence(), Math::max);
+            } else {
+                evictions.increment();
+            }
+        }
+    }
+
+    private record Key(UUID customerId, String assetName) {
+    }
+
+    private record Entry(Asset asset, long sequence, long expiresAtNanos, long weight) {
+
+        static Entry of(Asset asset, long expiresAtNanos) {
+            return new Entry(asset, 0, expiresAtNanos, weigh(asset));
+        }
+
+        static Entry tombstone(long sequence) {
+            return new Entry(null, sequence, 0, TOMBSTONE_WEIGHT);
+        }
+
+        boolean isTombstone() {
+            return asset == null;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos > 0;
+        }
+
+        boolean isNewerThan(Asset other) {
+            return asset.getVersion() != null && other.getVersion() != null && asset.getVersion() > other.getVersion();
+        }
+
+        private static long weigh(Asset asset) {
+            return ENTRY_OVERHEAD + 2L * asset.getAssetName().length()
+                    + digits(asset.getSize()) + digits(asset.getUsable()) + digits(asset.getReserved());
+        }
+
+        private static long digits(BigDecimal value) {
+            return value == null ? 0 : value.unscaledValue().bitLength() / 8 + 1;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.eubican.practices.brokerage.oms.domain.service;
+
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+
+/**
+ * Mutable view of one asset of a customer, bound to the current transaction. Changes made through
+ * the handle are written back when the transaction commits, without looking the asset up again.
+ * <p>
+ * The guarded moves return {@code false} and leave the asset untouched when the balance they take
+ * from is too small.
+ */
+public interface AssetHandle {
+
+    Asset asset();
+
+    boolean reserve(FixedPoint amount);
+
+    boolean release(FixedPoint amount);
+
+    boolean consumeReserved(FixedPoint amount, FixedPoint refund);
+
+    void credit(FixedPoint amount);
+
+}
@@ -1,9 +1,15 @@
 package com.eubican.practices.brokerage.oms.domain.service;
 
 import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.AssetView;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.PortfolioPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 public interface AssetService {
@@ -14,6 +20,58 @@ public interface AssetService {
 
     Asset getOrCreateAsset(UUID customerId, String assetName);
 
-    Page<Asset> fetchCustomerAssets(UUID customerId, Instant from, Instant to, int page, int size);
+    /**
+     * Returns a handle on the asset for changes within the current transaction. Opening the same
+     * asset again in that transaction returns a handle on the already loaded row. With
+     * {@code application.asset-ledger.conditional-updates} each change is a single guarded UPDATE
+     * instead, nothing is read until {@link AssetHandle#asset()}, and a missing asset is reported by
+     * the first change.
+     */
+    AssetHandle open(UUID customerId, String assetName);
+
+    /**
+     * Like {@link #open(UUID, String)}, but creates an empty asset if the customer does not hold it.
+     */
+    AssetHandle openOrCreate(UUID customerId, String assetName);
+
+    /**
+     * Moves {@code amount} from usable to reserved. Returns {@code false} without changing anything
+     * when less than {@code amount} is usable.
+     */
+    boolean reserve(UUID customerId, String assetName, FixedPoint amount);
+
+    /**
+     * Moves {@code amount} from reserved back to usable. Returns {@code false} without changing
+     * anything when less than {@code amount} is reserved.
+     */
+    boolean release(UUID customerId, String assetName, FixedPoint amount);
+
+    /**
+     * Removes {@code amount} from reserved and returns {@code refund} of it to usable. Returns
+     * {@code false} without changing anything when less than {@code amount} is reserved.
+     */
+    boolean consumeReserved(UUID customerId, String assetName, FixedPoint amount, FixedPoint refund);
+
+    /**
+     * Adds {@code amount} to usable, creating the asset if the customer does not hold it yet.
+     */
+    void credit(UUID customerId, String assetName, FixedPoint amount);
+
+    Page<AssetView> fetchCustomerAssets(UUID customerId, Instant from, Instant to, int page, int size);
+
+    /**
+     * Same page as {@link #fetchCustomerAssets}, without the count query.
+     */
+    Slice<AssetView> fetchCustomerAssetSlice(UUID customerId, Instant from, Instant to, int page, int size);
+
+    /**
+     * Last known number of assets created in the range, counted in the background.
+     */
+    OptionalLong approximateAssetCount(UUID customerId, Instant from, Instant to);
+
+    /**
+     * Every asset the customer holds or has pending orders in, ordered by asset name.
+     */
+    List<PortfolioPosition> fetchPortfolio(UUID customerId);
 
 }
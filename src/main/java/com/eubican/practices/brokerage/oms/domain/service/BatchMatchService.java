@@ -0,0 +1,15 @@
+package com.eubican.practices.brokerage.oms.domain.service;
+
+import com.eubican.practices.brokerage.oms.domain.model.BatchMatchReport;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface BatchMatchService {
+
+    BatchMatchReport matchOrders(Collection<UUID> orderIds);
+
+    BatchMatchReport matchOrders(String assetName, Instant from, Instant to);
+
+}
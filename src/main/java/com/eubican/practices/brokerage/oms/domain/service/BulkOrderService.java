@@ -0,0 +1,27 @@
+package com.eubican.practices.brokerage.oms.domain.service;
+
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSubmissionResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+
+public interface BulkOrderService {
+
+    List<OrderSubmissionResult> submit(List<Order> orders);
+
+    /**
+     * Reads one order request per line of {@code orders} and writes one ack per line to
+     * {@code acks}, in input order. Orders are placed in chunks of
+     * {@code application.order-service.bulk-submit-chunk-size} and each chunk's acks are flushed as
+     * soon as it has been processed. A line rejected while a chunk is open waits for the chunk and
+     * counts against its size.
+     *
+     * @return the number of orders placed
+     */
+    long submit(UUID customerId, InputStream orders, OutputStream acks) throws IOException;
+
+}
@@ -0,0 +1,26 @@
+package com.eubican.practices.brokerage.oms.domain.service;
+
+import com.eubican.practices.brokerage.oms.domain.model.AssetFilter;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.web.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.UUID;
+
+public interface OrderExportService {
+
+    /**
+     * Writes every order matching the filters to {@code out}, oldest first, in {@code format}. Rows
+     * are written as they are read through {@link OrderService#streamOrders}, so the export is never
+     * held in memory. {@code out} is only flushed once the last row has been written; a failure
+     * leaves whatever has already gone out unterminated.
+     *
+     * @return the number of orders written
+     * @throws IOException when {@code out} can no longer be written to
+     */
+    long export(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter,
+                ExportFormat format, OutputStream out) throws IOException;
+
+}
@@ -1,21 +1,69 @@
 package com.eubican.practices.brokerage.oms.domain.service;
 
+import com.eubican.practices.brokerage.oms.domain.model.AssetFilter;
+import com.eubican.practices.brokerage.oms.domain.model.CursorPage;
 import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
 import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
+    /**
+     * Places the order. If it carries an idempotency key that the customer already placed an order
+     * with, that order is returned instead and nothing is reserved.
+     */
     Order createOrder(Order order);
 
+    List<Order> createOrders(List<Order> orders);
+
     void cancelOrder(UUID orderID);
 
-    Page<Order> fetchOrders(UUID customerId, Instant from, Instant to, OrderStatus status, String assetName, Pageable pageable);
+    /**
+     * Cancels the order. A repeated call with the {@code idempotencyKey} that already canceled it
+     * succeeds without changing anything.
+     */
+    void cancelOrder(UUID orderID, String idempotencyKey);
+
+    Page<OrderView> fetchOrders(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter, Pageable pageable);
+
+    /**
+     * Same page as {@link #fetchOrders}, without the count query.
+     */
+    Slice<OrderView> fetchOrderSlice(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter, Pageable pageable);
+
+    /**
+     * Last known number of orders matching the filters. Counted in the background, so it may lag
+     * behind and is empty until the first count has finished.
+     */
+    OptionalLong approximateOrderCount(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter);
+
+    /**
+     * Returns up to {@code size} orders, newest first, that come after {@code cursor}, or the newest
+     * ones when {@code cursor} is {@code null}. Seeks by {@code (createdAt, id)} instead of skipping
+     * rows, so every page costs the same however deep it is.
+     */
+    CursorPage<Order> scrollOrders(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter, String cursor, int size);
+
+    /**
+     * Hands every order matching the filters to {@code sink}, oldest first, while reading them
+     * through a forward-only cursor. Rows are released as soon as they have been handed over, so
+     * memory use does not grow with the result.
+     *
+     * @return the number of orders handed to {@code sink}
+     */
+    long streamOrders(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter, Consumer<Order> sink);
+
+    void matchOrder(UUID orderID);
 
-    void matchOrder(UUID orderId);
+    void matchOrder(UUID orderID, String idempotencyKey);
 
 }
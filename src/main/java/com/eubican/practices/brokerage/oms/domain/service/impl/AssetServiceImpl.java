@@ -1,82 +1,363 @@
 package com.eubican.practices.brokerage.oms.domain.service.impl;
 
+import com.eubican.practices.brokerage.oms.config.properties.AssetLedgerProperties;
 import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.AssetView;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.PortfolioPosition;
+import com.eubican.practices.brokerage.oms.domain.paging.ApproximateCountCache;
+import com.eubican.practices.brokerage.oms.domain.position.PositionCache;
+import com.eubican.practices.brokerage.oms.domain.service.AssetHandle;
 import com.eubican.practices.brokerage.oms.domain.service.AssetService;
 import com.eubican.practices.brokerage.oms.persistence.entity.AssetEntity;
-import com.eubican.practices.brokerage.oms.persistence.entity.CustomerEntity;
 import com.eubican.practices.brokerage.oms.persistence.repository.AssetJpaRepository;
 import com.eubican.practices.brokerage.oms.persistence.repository.CustomerJpaRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 import com.eubican.practices.brokerage.oms.domain.exception.ResourceNotFoundException;
 
 @Slf4j
 @Service
+@ConditionalOnProperty(prefix = "application.asset-ledger", name = "write-behind", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 class AssetServiceImpl implements AssetService {
 
+    // transaction resource holding the asset rows already loaded by the current transaction
+    private static final Object UNIT_OF_WORK = new Object();
+
     private final AssetJpaRepository assetRepository;
 
     private final CustomerJpaRepository customerRepository;
 
+    private final AssetLedgerProperties assetLedgerProperties;
+
+    private final EntityManager entityManager;
+
+    private final ApproximateCountCache countCache;
+
+    private final PositionCache positionCache;
+
     @Override
     @Transactional
     public void upsertAsset(Asset asset) {
-        AssetEntity entity = assetRepository.findByCustomer_IdAndAssetName(asset.getCustomerId(), asset.getAssetName())
-                .orElseGet(() -> {
-                    AssetEntity e = new AssetEntity();
-                    e.setAssetName(asset.getAssetName());
-                    CustomerEntity ref = customerRepository.getReferenceById(asset.getCustomerId());
-                    e.setCustomer(ref);
-                    return e;
-                });
+        AssetEntity entity = load(asset.getCustomerId(), asset.getAssetName())
+                .orElseGet(() -> newEntity(asset.getCustomerId(), asset.getAssetName()));
 
         entity.setSize(asset.getSize());
         entity.setUsable(asset.getUsable());
         entity.setReserved(asset.getReserved());
 
-        assetRepository.save(entity);
+        persist(entity);
         log.debug("Asset {} saved for customer: {}", asset.getAssetName(), asset.getCustomerId());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Asset retrieveCustomerAsset(UUID customerId, String assetName) {
-        return assetRepository.findByCustomer_IdAndAssetName(customerId, assetName)
-                .map(Asset::from)
-                .orElseThrow(() -> {
-                    log.warn("Asset {} not found for customer {}", assetName, customerId);
-                    return new ResourceNotFoundException(assetName + " asset not found");
-                });
+        // a read-write transaction may have changed the row, so only standalone reads use the cache
+        if (positionCache.isEnabled() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return positionCache.get(customerId, assetName, () -> Asset.from(require(customerId, assetName)));
+        }
+        return Asset.from(require(customerId, assetName));
     }
 
+    @Override
     @Transactional(readOnly = true)
     public Asset getOrCreateAsset(UUID customerId, String assetName) {
-        return assetRepository.findByCustomer_IdAndAssetName(customerId, assetName)
+        return load(customerId, assetName)
                 .map(Asset::from)
                 .orElseGet(() -> Asset.from(customerId, assetName,
                         BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
     }
 
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public AssetHandle open(UUID customerId, String assetName) {
+        if (assetLedgerProperties.isConditionalUpdates()) {
+            return new ConditionalHandle(customerId, assetName);
+        }
+        return new EntityHandle(require(customerId, assetName), true);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public AssetHandle openOrCreate(UUID customerId, String assetName) {
+        if (assetLedgerProperties.isConditionalUpdates()) {
+            // credit() inserts the row when the update finds none
+            return new ConditionalHandle(customerId, assetName);
+        }
+        return load(customerId, assetName)
+                .map(entity -> new EntityHandle(entity, true))
+                // persisted on its first change, so a new asset costs one INSERT
+                .orElseGet(() -> new EntityHandle(newEntity(customerId, assetName), false));
+    }
+
+    @Override
+    @Transactional
+    public boolean reserve(UUID customerId, String assetName, FixedPoint amount) {
+        return open(customerId, assetName).reserve(amount);
+    }
+
+    @Override
+    @Transactional
+    public boolean release(UUID customerId, String assetName, FixedPoint amount) {
+        return open(customerId, assetName).release(amount);
+    }
+
+    @Override
+    @Transactional
+    public boolean consumeReserved(UUID customerId, String assetName, FixedPoint amount, FixedPoint refund) {
+        return open(customerId, assetName).consumeReserved(amount, refund);
+    }
+
+    @Override
+    @Transactional
+    public void credit(UUID customerId, String assetName, FixedPoint amount) {
+        openOrCreate(customerId, assetName).credit(amount);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AssetView> fetchCustomerAssets(UUID customerId, Instant from, Instant to, int page, int size) {
+        return assetRepository.findViews(customerId, from, to, PageRequest.of(page, size));
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public Page<Asset> fetchCustomerAssets(UUID customerId, Instant from, Instant to, int page, int size) {
-        Page<AssetEntity> assetsPage = assetRepository.findByCustomer_IdAndCreatedAtBetween(
-                customerId,
-                from,
-                to,
-                PageRequest.of(page, size)
-        );
-        return assetsPage.map(Asset::from);
+    public Slice<AssetView> fetchCustomerAssetSlice(UUID customerId, Instant from, Instant to, int page, int size) {
+        return assetRepository.findViewSlice(customerId, from, to, PageRequest.of(page, size));
     }
 
+    @Override
+    public OptionalLong approximateAssetCount(UUID customerId, Instant from, Instant to) {
+        return countCache.get(ApproximateCountCache.Key.of("assets", customerId, from, to),
+                () -> assetRepository.countByCustomer_IdAndCreatedAtBetween(customerId, from, to));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PortfolioPosition> fetchPortfolio(UUID customerId) {
+        return assetRepository.findPortfolio(customerId);
+    }
+
+    private AssetEntity require(UUID customerId, String assetName) {
+        return load(customerId, assetName)
+                .orElseThrow(() -> {
+                    log.warn("Asset {} not found for customer {}", assetName, customerId);
+                    return new ResourceNotFoundException(assetName + " asset not found");
+                });
+    }
+
+    // looks the row up once per transaction; later calls get the managed entity without a query
+    private Optional<AssetEntity> load(UUID customerId, String assetName) {
+        Map<AssetKey, AssetEntity> unitOfWork = unitOfWork();
+        if (unitOfWork == null) {
+            return assetRepository.findByCustomer_IdAndAssetName(customerId, assetName);
+        }
+        AssetKey key = new AssetKey(customerId, assetName);
+        AssetEntity cached = unitOfWork.get(key);
+        if (cached != null && entityManager.contains(cached)) {
+            return Optional.of(cached);
+        }
+        Optional<AssetEntity> loaded = assetRepository.findByCustomer_IdAndAssetName(customerId, assetName);
+        loaded.ifPresent(entity -> unitOfWork.put(key, entity));
+        return loaded;
+    }
+
+    private AssetEntity newEntity(UUID customerId, String assetName) {
+        AssetEntity entity = new AssetEntity();
+        entity.setAssetName(assetName);
+        entity.setCustomer(customerRepository.getReferenceById(customerId));
+        return entity;
+    }
+
+    private void persist(AssetEntity entity) {
+        assetRepository.save(entity);
+        Map<AssetKey, AssetEntity> unitOfWork = unitOfWork();
+        if (unitOfWork != null) {
+            unitOfWork.put(new AssetKey(entity.getCustomer().getId(), entity.getAssetName()), entity);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<AssetKey, AssetEntity> unitOfWork() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<AssetKey, AssetEntity> unitOfWork = (Map<AssetKey, AssetEntity>) TransactionSynchronizationManager.getResource(UNIT_OF_WORK);
+        if (unitOfWork == null) {
+            unitOfWork = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(UNIT_OF_WORK, unitOfWork);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(UNIT_OF_WORK);
+                }
+            });
+        }
+        return unitOfWork;
+    }
+
+    // a conditional update that touched no row either lost its guard or has no row to act on
+    private boolean applied(int rows, UUID customerId, String assetName) {
+        if (rows > 0) {
+            evictManaged(customerId, assetName);
+            return true;
+        }
+        if (!assetRepository.existsByCustomer_IdAndAssetName(customerId, assetName)) {
+            log.warn("Asset {} not found for customer {}", assetName, customerId);
+            throw new ResourceNotFoundException(assetName + " asset not found");
+        }
+        return false;
+    }
+
+    // the update bypassed the persistence context, so a copy loaded earlier in this transaction is stale now,
+    // and so is the cached position once the transaction completes. Every asset row this service manages
+    // goes through load() or persist(), so the unit of work holds the only copy that can be stale.
+    private void evictManaged(UUID customerId, String assetName) {
+        positionCache.invalidateAfterCompletion(customerId, assetName);
+        Map<AssetKey, AssetEntity> unitOfWork = unitOfWork();
+        AssetEntity loaded = unitOfWork == null ? null : unitOfWork.remove(new AssetKey(customerId, assetName));
+        if (loaded != null) {
+            entityManager.detach(loaded);
+        }
+    }
+
+    private record AssetKey(UUID customerId, String assetName) {
+    }
+
+    // every move is one guarded UPDATE that reads nothing; the row is only loaded when asked for
+    private final class ConditionalHandle implements AssetHandle {
+
+        private final UUID customerId;
+
+        private final String assetName;
+
+        private ConditionalHandle(UUID customerId, String assetName) {
+            this.customerId = customerId;
+            this.assetName = assetName;
+        }
+
+        @Override
+        public Asset asset() {
+            return Asset.from(require(customerId, assetName));
+        }
+
+        @Override
+        public boolean reserve(FixedPoint amount) {
+            return applied(assetRepository.reserve(customerId, assetName, amount.toBigDecimal()), customerId, assetName);
+        }
+
+        @Override
+        public boolean release(FixedPoint amount) {
+            return applied(assetRepository.release(customerId, assetName, amount.toBigDecimal()), customerId, assetName);
+        }
+
+        @Override
+        public boolean consumeReserved(FixedPoint amount, FixedPoint refund) {
+            int rows = assetRepository.consumeReserved(customerId, assetName, amount.toBigDecimal(), refund.toBigDecimal());
+            return applied(rows, customerId, assetName);
+        }
+
+        @Override
+        public void credit(FixedPoint amount) {
+            if (assetRepository.credit(customerId, assetName, amount.toBigDecimal()) > 0) {
+                evictManaged(customerId, assetName);
+                return;
+            }
+            AssetEntity entity = newEntity(customerId, assetName);
+            entity.setUsable(amount.toBigDecimal());
+            persist(entity);
+            log.debug("Asset {} created for customer: {}", assetName, customerId);
+        }
+    }
+
+    // dirty checking writes a managed entity back on flush, so the handle only saves new ones
+    private final class EntityHandle implements AssetHandle {
+
+        private final AssetEntity entity;
+
+        private boolean managed;
+
+        private EntityHandle(AssetEntity entity, boolean managed) {
+            this.entity = entity;
+            this.managed = managed;
+        }
+
+        @Override
+        public Asset asset() {
+            return Asset.from(entity);
+        }
+
+        @Override
+        public boolean reserve(FixedPoint amount) {
+            Asset asset = asset();
+            if (asset.hasInsufficientFunds(amount)) {
+                return false;
+            }
+            asset.reserve(amount);
+            write(asset);
+            return true;
+        }
+
+        @Override
+        public boolean release(FixedPoint amount) {
+            Asset asset = asset();
+            if (asset.verifyReserved(amount)) {
+                return false;
+            }
+            asset.release(amount);
+            write(asset);
+            return true;
+        }
+
+        @Override
+        public boolean consumeReserved(FixedPoint amount, FixedPoint refund) {
+            Asset asset = asset();
+            if (asset.verifyReserved(amount)) {
+                return false;
+            }
+            asset.consumeReserved(amount);
+            asset.credit(refund);
+            write(asset);
+            return true;
+        }
+
+        @Override
+        public void credit(FixedPoint amount) {
+            Asset asset = asset();
+            asset.credit(amount);
+            write(asset);
+        }
+
+        private void write(Asset asset) {
+            entity.setUsable(asset.getUsable());
+            entity.setReserved(asset.getReserved());
+            entity.setSize(asset.getSize());
+            if (!managed) {
+                persist(entity);
+                managed = true;
+            }
+        }
+    }
 }
@@ -0,0 +1,216 @@
+package com.eubican.practices.brokerage.oms.domain.service.impl;
+
+import com.eubican.practices.brokerage.oms.config.properties.AssetLedgerProperties;
+import com.eubican.practices.brokerage.oms.config.properties.OrderServiceProperties;
+import com.eubican.practices.brokerage.oms.domain.exception.ApplicationException;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderEvent;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderJournal;
+import com.eubican.practices.brokerage.oms.domain.matching.MatchingEngine;
+import com.eubican.practices.brokerage.oms.domain.openorder.OpenOrderStore;
+import com.eubican.practices.brokerage.oms.domain.model.BatchMatchReport;
+import com.eubican.practices.brokerage.oms.domain.model.BatchMatchResult;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.service.BatchMatchService;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.persistence.entity.AssetEntity;
+import com.eubican.practices.brokerage.oms.persistence.entity.OrderEntity;
+import com.eubican.practices.brokerage.oms.persistence.repository.AssetJpaRepository;
+import com.eubican.practices.brokerage.oms.persistence.repository.CustomerJpaRepository;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Settles PENDING orders in chunks. Each chunk loads its orders and every asset row they touch
+ * with two set-based queries, applies the balance moves in memory and lets Hibernate write the
+ * changes back as JDBC batches on commit. A chunk that loses an optimistic lock race is replayed
+ * order by order through {@link OrderService#matchOrder(UUID)}.
+ * <p>
+ * With the write-behind asset ledger the asset rows are owned by the ledger, so every order takes
+ * the single-order path.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+class BatchMatchServiceImpl implements BatchMatchService {
+
+    private final OrderJpaRepository orderRepository;
+
+    private final AssetJpaRepository assetRepository;
+
+    private final CustomerJpaRepository customerRepository;
+
+    private final OrderService orderService;
+
+    private final MatchingEngine matchingEngine;
+
+    private final OrderJournal orderJournal;
+
+    private final OpenOrderStore openOrderStore;
+
+    private final OrderServiceProperties orderServiceProperties;
+
+    private final AssetLedgerProperties assetLedgerProperties;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public BatchMatchReport matchOrders(Collection<UUID> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new IllegalArgumentException("orderIds must not be empty");
+        }
+        return run(List.copyOf(new LinkedHashSet<>(orderIds)));
+    }
+
+    @Override
+    public BatchMatchReport matchOrders(String assetName, Instant from, Instant to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from and to are required");
+        }
+        List<UUID> ids = orderRepository.findIdsByStatusAndCreatedAtBetween(OrderStatus.PENDING, assetName, from, to);
+        return run(ids);
+    }
+
+    private BatchMatchReport run(List<UUID> orderIds) {
+        long started = System.nanoTime();
+        int chunkSize = Math.max(1, orderServiceProperties.getBatchMatchChunkSize());
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        List<BatchMatchResult> results = new ArrayList<>(orderIds.size());
+        for (int i = 0; i < orderIds.size(); i += chunkSize) {
+            List<UUID> chunk = orderIds.subList(i, Math.min(i + chunkSize, orderIds.size()));
+            if (assetLedgerProperties.isWriteBehind()) {
+                chunk.forEach(id -> results.add(matchSingle(id)));
+                continue;
+            }
+            try {
+                results.addAll(Objects.requireNonNull(tx.execute(status -> settleChunk(chunk))));
+            } catch (ConcurrencyFailureException ex) {
+                log.warn("Batch chunk of {} orders hit a concurrent update, falling back to single matches", chunk.size());
+                chunk.forEach(id -> results.add(matchSingle(id)));
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        BatchMatchReport report = new BatchMatchReport(results, elapsedMillis);
+        log.info("Batch match settled {} of {} orders in {} ms", report.matched(), results.size(), elapsedMillis);
+        return report;
+    }
+
+    private List<BatchMatchResult> settleChunk(List<UUID> chunk) {
+        Map<UUID, OrderEntity> orders = orderRepository.findAllById(chunk).stream()
+                .collect(Collectors.toMap(OrderEntity::getId, Function.identity()));
+
+        Set<UUID> customerIds = new HashSet<>();
+        Set<String> assetNames = new HashSet<>();
+        assetNames.add("TRY");
+        orders.values().forEach(o -> {
+            customerIds.add(o.getCustomer().getId());
+            assetNames.add(o.getAssetName());
+        });
+
+        Map<AssetKey, AssetEntity> assets = new HashMap<>();
+        if (!customerIds.isEmpty()) {
+            assetRepository.findByCustomer_IdInAndAssetNameIn(customerIds, assetNames)
+                    .forEach(a -> assets.put(new AssetKey(a.getCustomer().getId(), a.getAssetName()), a));
+        }
+
+        Map<UUID, BatchMatchResult> results = new HashMap<>();
+        orders.values().stream()
+                .sorted(Comparator.comparing(OrderEntity::getCreatedAt).thenComparing(OrderEntity::getId))
+                .forEach(order -> results.put(order.getId(), settle(order, assets)));
+
+        // a cancel that committed since the orders were read must not see its funds settled as well
+        List<UUID> matched = results.values().stream().filter(BatchMatchResult::matched).map(BatchMatchResult::orderId).toList();
+        if (!matched.isEmpty() && orderRepository.transitionPending(matched, OrderStatus.MATCHED, null) != matched.size()) {
+            throw new ConcurrencyFailureException("Orders of the chunk left PENDING concurrently");
+        }
+
+        return chunk.stream()
+                .map(id -> results.getOrDefault(id, BatchMatchResult.rejected(id, String.format("Order %s not found", id))))
+                .toList();
+    }
+
+    private BatchMatchResult settle(OrderEntity order, Map<AssetKey, AssetEntity> assets) {
+        if (OrderStatus.PENDING != order.getStatus()) {
+            return BatchMatchResult.rejected(order.getId(), "Only PENDING orders can be matched");
+        }
+
+        UUID customerId = order.getCustomer().getId();
+        BigDecimal size = order.getSize();
+        Order matched = Order.from(order);
+        // same rounding as the amount reserved when the order was placed
+        BigDecimal amountTRY = matched.notional().toBigDecimal();
+
+        if (OrderSide.BUY == order.getSide()) {
+            AssetEntity cash = assets.get(new AssetKey(customerId, "TRY"));
+            if (cash == null || cash.getReserved().compareTo(amountTRY) < 0) {
+                log.warn("Inconsistent TRY reserved balance to match BUY for customer {}", customerId);
+                return BatchMatchResult.rejected(order.getId(), "Inconsistent TRY reserved balance to match BUY");
+            }
+            cash.setReserved(cash.getReserved().subtract(amountTRY));
+
+            AssetEntity bought = assets.computeIfAbsent(new AssetKey(customerId, order.getAssetName()), this::newAsset);
+            bought.setUsable(bought.getUsable().add(size));
+        } else {
+            AssetEntity sold = assets.get(new AssetKey(customerId, order.getAssetName()));
+            if (sold == null || sold.getReserved().compareTo(size) < 0) {
+                log.warn("Inconsistent {} reserved balance to match SELL for customer {}", order.getAssetName(), customerId);
+                return BatchMatchResult.rejected(order.getId(), "Inconsistent " + order.getAssetName() + " reserved balance to match SELL");
+            }
+            sold.setReserved(sold.getReserved().subtract(size));
+
+            AssetEntity cash = assets.computeIfAbsent(new AssetKey(customerId, "TRY"), this::newAsset);
+            cash.setUsable(cash.getUsable().add(amountTRY));
+        }
+
+        if (matchingEngine.isEnabled()) {
+            matchingEngine.withdraw(order.getAssetName(), order.getId());
+        }
+        openOrderStore.remove(order.getId());
+        orderJournal.record(OrderEvent.matched(matched, matched.getLimitPrice()));
+        return BatchMatchResult.matched(order.getId());
+    }
+
+    private AssetEntity newAsset(AssetKey key) {
+        AssetEntity entity = new AssetEntity();
+        entity.setCustomer(customerRepository.getReferenceById(key.customerId()));
+        entity.setAssetName(key.assetName());
+        return assetRepository.save(entity);
+    }
+
+    private BatchMatchResult matchSingle(UUID orderId) {
+        try {
+            orderService.matchOrder(orderId);
+            return BatchMatchResult.matched(orderId);
+        } catch (ApplicationException | IllegalArgumentException | OptimisticLockingFailureException ex) {
+            return BatchMatchResult.rejected(orderId, ex.getMessage());
+        }
+    }
+
+    private record AssetKey(UUID customerId, String assetName) {
+    }
+}
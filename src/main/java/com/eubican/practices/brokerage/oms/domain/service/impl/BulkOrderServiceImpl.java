@@ -0,0 +1,200 @@
+package com.eubican.practices.brokerage.oms.domain.service.impl;
+
+import com.eubican.practices.brokerage.oms.config.properties.OrderServiceProperties;
+import com.eubican.practices.brokerage.oms.domain.exception.ApplicationException;
+import com.eubican.practices.brokerage.oms.domain.instrument.InstrumentRegistry;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSubmissionResult;
+import com.eubican.practices.brokerage.oms.domain.service.BulkOrderService;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.web.dto.BulkOrderAck;
+import com.eubican.practices.brokerage.oms.web.dto.CreateOrderRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Places a chunk of orders in one transaction through {@link OrderService#createOrders(List)}.
+ * If any order of the chunk fails the whole chunk is rolled back and replayed order by order, so
+ * one rejected order does not take its neighbours down with it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+class BulkOrderServiceImpl implements BulkOrderService {
+
+    private final OrderService orderService;
+
+    private final InstrumentRegistry instrumentRegistry;
+
+    private final OrderServiceProperties orderServiceProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    @Override
+    public List<OrderSubmissionResult> submit(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return orderService.createOrders(orders).stream()
+                    .map(OrderSubmissionResult::accepted)
+                    .toList();
+        } catch (IllegalArgumentException | ApplicationException | TransactionException | DataAccessException ex) {
+            log.warn("Chunk of {} orders rolled back ({}), placing them one by one", orders.size(), ex.getMessage());
+            return orders.stream().map(this::placeSingle).toList();
+        }
+    }
+
+    @Override
+    public long submit(UUID customerId, InputStream orders, OutputStream acks) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(CreateOrderRequest.class);
+        Chunk chunk = new Chunk(Math.max(1, orderServiceProperties.getBulkSubmitChunkSize()), acks);
+        long lineNumber = 0;
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(orders, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(lineNumber, toOrder(customerId, reader.readValue(line)));
+                } catch (JsonProcessingException ex) {
+                    chunk.reject(BulkOrderAck.rejected(lineNumber, "Malformed order: " + ex.getOriginalMessage()));
+                } catch (IllegalArgumentException ex) {
+                    chunk.reject(BulkOrderAck.rejected(lineNumber, ex.getMessage()));
+                }
+                if (chunk.isFull()) {
+                    chunk.submit();
+                }
+            }
+        }
+        chunk.submit();
+        log.info("Bulk submission for customer {} accepted {} orders out of {} lines", customerId, chunk.accepted, lineNumber);
+        return chunk.accepted;
+    }
+
+    private OrderSubmissionResult placeSingle(Order order) {
+        try {
+            return OrderSubmissionResult.accepted(orderService.createOrder(order));
+        } catch (IllegalArgumentException | ApplicationException | TransactionException | DataAccessException ex) {
+            return OrderSubmissionResult.rejected(order, ex.getMessage());
+        }
+    }
+
+    private Order toOrder(UUID customerId, CreateOrderRequest request) {
+        Set<ConstraintViolation<CreateOrderRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<CreateOrderRequest> violation = violations.iterator().next();
+            throw new IllegalArgumentException(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (!customerId.equals(request.customerId())) {
+            throw new IllegalArgumentException("customerId does not match the batch customer");
+        }
+        return Order.from(
+                request.customerId(),
+                instrumentRegistry.require(request.assetName()),
+                request.side(),
+                request.size(),
+                request.price()
+        );
+    }
+
+    /**
+     * The orders read since the last submit, with their line numbers, and the lines rejected while
+     * they were collected. Acks go out merged by line.
+     */
+    private final class Chunk {
+
+        private final int size;
+
+        private final OutputStream acks;
+
+        private final List<Order> orders;
+
+        private final List<Long> lines;
+
+        private final List<BulkOrderAck> rejected;
+
+        private long accepted;
+
+        private Chunk(int size, OutputStream acks) {
+            this.size = size;
+            this.acks = acks;
+            this.orders = new ArrayList<>(size);
+            this.lines = new ArrayList<>(size);
+            this.rejected = new ArrayList<>(size);
+        }
+
+        private void add(long line, Order order) {
+            orders.add(order);
+            lines.add(line);
+        }
+
+        // nothing is waiting ahead of a rejection outside a chunk, so it is acked right away
+        private void reject(BulkOrderAck rejection) throws IOException {
+            if (orders.isEmpty()) {
+                write(rejection);
+            } else {
+                rejected.add(rejection);
+            }
+        }
+
+        private boolean isFull() {
+            return orders.size() + rejected.size() >= size;
+        }
+
+        private void submit() throws IOException {
+            if (orders.isEmpty()) {
+                return;
+            }
+            List<OrderSubmissionResult> results = BulkOrderServiceImpl.this.submit(orders);
+            int next = 0;
+            for (int i = 0; i < results.size(); i++) {
+                long line = lines.get(i);
+                for (; next < rejected.size() && rejected.get(next).line() < line; next++) {
+                    write(rejected.get(next));
+                }
+                OrderSubmissionResult result = results.get(i);
+                write(BulkOrderAck.of(line, result));
+                if (result.isAccepted()) {
+                    accepted++;
+                }
+            }
+            for (; next < rejected.size(); next++) {
+                write(rejected.get(next));
+            }
+            acks.flush();
+            orders.clear();
+            lines.clear();
+            rejected.clear();
+        }
+
+        private void write(BulkOrderAck ack) throws IOException {
+            acks.write(objectMapper.writeValueAsBytes(ack));
+            acks.write('\n');
+        }
+    }
+}
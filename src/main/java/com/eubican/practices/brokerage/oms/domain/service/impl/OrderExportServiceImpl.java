@@ -0,0 +1,82 @@
+package com.eubican.practices.brokerage.oms.domain.service.impl;
+
+import com.eubican.practices.brokerage.oms.domain.model.AssetFilter;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.service.OrderExportService;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.web.dto.ExportFormat;
+import com.eubican.practices.brokerage.oms.web.dto.OrderResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Serializes the orders {@link OrderService#streamOrders} hands over as NDJSON or CSV rows.
+ * Compressing the body is left to the container, see {@code server.compression}.
+ */
+@Service
+@RequiredArgsConstructor
+class OrderExportServiceImpl implements OrderExportService {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final byte[] CSV_HEADER = "orderId,customerId,assetName,status,side,size,price,createdAt\n"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final OrderService orderService;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public long export(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter,
+                       ExportFormat format, OutputStream out) throws IOException {
+        // not closed on failure: flushing the buffer would end a broken export like a complete one
+        BufferedOutputStream body = new BufferedOutputStream(out, BUFFER_SIZE);
+        if (format == ExportFormat.CSV) {
+            body.write(CSV_HEADER);
+        }
+        long exported;
+        try {
+            exported = orderService.streamOrders(customerId, from, to, status, assetFilter, order -> {
+                try {
+                    writeRow(body, format, OrderResponse.of(order));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        body.flush();
+        return exported;
+    }
+
+    private void writeRow(OutputStream out, ExportFormat format, OrderResponse order) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            out.write(objectMapper.writeValueAsBytes(order));
+            out.write('\n');
+            return;
+        }
+        // symbols, enums, numbers and timestamps never contain a separator or a quote
+        String line = String.join(",",
+                order.orderId().toString(),
+                order.customerId().toString(),
+                order.assetName(),
+                order.status().name(),
+                order.side().name(),
+                order.size().toPlainString(),
+                order.price().toPlainString(),
+                order.createdAt().toString()
+        );
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+}
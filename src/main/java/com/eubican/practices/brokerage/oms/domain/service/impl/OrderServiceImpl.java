@@ -1,11 +1,25 @@
 package com.eubican.practices.brokerage.oms.domain.service.impl;
 
 import com.eubican.practices.brokerage.oms.config.properties.OrderServiceProperties;
+import com.eubican.practices.brokerage.oms.domain.concurrency.AssetLock;
+import com.eubican.practices.brokerage.oms.domain.concurrency.ConcurrencyStrategy;
+import com.eubican.practices.brokerage.oms.domain.exception.IdempotencyKeyReusedException;
 import com.eubican.practices.brokerage.oms.domain.exception.OrderNotCancellableException;
 import com.eubican.practices.brokerage.oms.domain.exception.ResourceNotFoundException;
-import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.instrument.InstrumentRegistry;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderEvent;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderJournal;
+import com.eubican.practices.brokerage.oms.domain.matching.MatchingEngine;
+import com.eubican.practices.brokerage.oms.domain.matching.OrderBookEntry;
+import com.eubican.practices.brokerage.oms.domain.openorder.OpenOrderStore;
+import com.eubican.practices.brokerage.oms.domain.model.AssetFilter;
+import com.eubican.practices.brokerage.oms.domain.model.CursorPage;
+import com.eubican.practices.brokerage.oms.domain.paging.ApproximateCountCache;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
 import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderCursor;
 import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
 import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
 import com.eubican.practices.brokerage.oms.domain.service.AssetService;
 import com.eubican.practices.brokerage.oms.domain.service.OrderService;
@@ -15,23 +29,37 @@ import com.eubican.practices.brokerage.oms.persistence.repository.CustomerJpaRep
 import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
 import com.eubican.practices.brokerage.oms.persistence.repository.helper.OrderSpecifications;
 import com.eubican.practices.brokerage.oms.security.AuthorizationGuard;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_SCROLL_SIZE = 1000;
+
     private final OrderJpaRepository orderRepository;
 
     private final AssetService assetService;
@@ -40,35 +68,83 @@ class OrderServiceImpl implements OrderService {
 
     private final CustomerJpaRepository customerRepository;
 
+    private final ConcurrencyStrategy concurrencyStrategy;
+
+    private final MatchingEngine matchingEngine;
+
+    private final InstrumentRegistry instrumentRegistry;
+
+    private final ApproximateCountCache countCache;
+
     private final OrderServiceProperties orderServiceProperties;
 
+    private final EntityManager entityManager;
+
+    private final OrderJournal orderJournal;
+
+    private final OpenOrderStore openOrderStore;
+
     @Override
     @Transactional
     public Order createOrder(Order order) {
-        retrying(() -> {
-            if (OrderSide.BUY == order.getSide()) {
-                BigDecimal neededTRY = order.getPrice().multiply(order.getSize());
-                Asset cash = assetService.retrieveCustomerAsset(order.getCustomerId(), "TRY");
+        if (order.getIdempotencyKey() != null) {
+            Optional<OrderEntity> existing = orderRepository.findByCustomer_IdAndIdempotencyKey(order.getCustomerId(), order.getIdempotencyKey());
+            if (existing.isPresent()) {
+                // orders stored before request hashes were kept are replayed unchecked
+                String requestHash = existing.get().getRequestHash();
+                if (requestHash != null && !requestHash.equals(order.requestHash())) {
+                    log.warn("Idempotency key of order {} reused with a different request by customer {}", existing.get().getId(), order.getCustomerId());
+                    throw new IdempotencyKeyReusedException();
+                }
+                log.debug("Order {} replayed for idempotency key of customer {}", existing.get().getId(), order.getCustomerId());
+                return Order.from(existing.get());
+            }
+        }
+        return place(order);
+    }
+
+    @Override
+    @Transactional
+    public List<Order> createOrders(List<Order> orders) {
+        List<Order> created = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            created.add(place(order));
+        }
+        log.debug("{} orders created in one transaction", created.size());
+        return created;
+    }
+
+    private Order place(Order order) {
+        // reject unknown symbols and off-tick prices before touching any balance
+        instrumentRegistry.validate(order);
 
-                if (cash.hasInsufficientFunds(neededTRY)) {
+        // the counterparty is claimed first, so reserving and settling lock all their rows in one sorted pass
+        Optional<Order> counterparty = matchingEngine.isEnabled() ? claimCounterparty(order) : Optional.empty();
+        List<AssetLock> assets = new ArrayList<>(List.of(reservedAsset(order)));
+        counterparty.ifPresent(resting -> {
+            assets.addAll(settledAssets(order));
+            assets.addAll(settledAssets(resting));
+        });
+
+        Order buy = OrderSide.BUY == order.getSide() ? order : counterparty.orElse(null);
+        Order sell = OrderSide.BUY == order.getSide() ? counterparty.orElse(null) : order;
+        // resting order sets the execution price
+        FixedPoint executionPrice = counterparty.map(Order::getLimitPrice).orElse(null);
+        concurrencyStrategy.execute(assets, () -> {
+            if (OrderSide.BUY == order.getSide()) {
+                if (!assetService.reserve(order.getCustomerId(), "TRY", order.notional())) {
                     log.warn("Insufficient TRY usable balance to place BUY for customer {}", order.getCustomerId());
                     throw new IllegalArgumentException("Insufficient TRY usable balance to place BUY");
                 }
-
-                cash.setUsable(cash.getUsable().subtract(neededTRY));
-                cash.setReserved(cash.getReserved().add(neededTRY));
-                assetService.upsertAsset(cash);
             } else {
-                Asset asset = assetService.retrieveCustomerAsset(order.getCustomerId(), order.getAssetName());
-
-                if (asset.hasInsufficientFunds(order.getSize())) {
+                if (!assetService.reserve(order.getCustomerId(), order.getAssetName(), order.getQuantity())) {
                     log.warn("Insufficient {} usable balance to place SELL for customer {}", order.getAssetName(), order.getCustomerId());
                     throw new IllegalArgumentException("Insufficient " + order.getAssetName() + " usable balance to place SELL");
                 }
-
-                asset.setUsable(asset.getUsable().subtract(order.getSize()));
-                asset.setReserved(asset.getReserved().add(order.getSize()));
-                assetService.upsertAsset(asset);
+            }
+            if (executionPrice != null) {
+                settleBuy(buy, executionPrice);
+                settleSell(sell, executionPrice);
             }
         });
 
@@ -80,18 +156,75 @@ class OrderServiceImpl implements OrderService {
         entity.setSide(order.getSide());
         entity.setSize(order.getSize());
         entity.setPrice(order.getPrice());
-        entity.setStatus(order.getStatus());
+        // nobody else has seen the incoming order yet, so it needs no guarded transition
+        entity.setStatus(counterparty.isPresent() ? OrderStatus.MATCHED : order.getStatus());
         entity.setCreatedAt(order.getCreatedAt());
+        entity.setIdempotencyKey(order.getIdempotencyKey());
+        entity.setRequestHash(order.getIdempotencyKey() != null ? order.requestHash() : null);
 
-        orderRepository.save(entity);
+        OrderEntity saved = orderRepository.save(entity);
         log.debug("Order {} created for customer: {}", order.getId(), order.getCustomerId());
+        orderJournal.record(OrderEvent.created(order));
+        orderJournal.record(OrderEvent.reserved(order));
+
+        if (counterparty.isPresent()) {
+            orderJournal.record(OrderEvent.matched(buy, executionPrice));
+            orderJournal.record(OrderEvent.matched(sell, executionPrice));
+            openOrderStore.remove(counterparty.get().getId());
+            log.debug("Order {} matched against order {} at {}", order.getId(), counterparty.get().getId(), executionPrice);
+        } else {
+            openOrderStore.add(order);
+            if (matchingEngine.isEnabled()) {
+                matchingEngine.rest(order);
+            }
+        }
 
-        return order;
+        return Order.from(saved);
     }
 
     @Override
     @Transactional
     public void cancelOrder(UUID orderID) {
+        cancelOrder(orderID, null);
+    }
+
+    @Override
+    @Transactional
+    public void cancelOrder(UUID orderID, String idempotencyKey) {
+        // open orders are read from the open order store without loading the row
+        Optional<Order> open = openOrderStore.findOrder(orderID);
+        open.ifPresent(order -> authorizationGuard.checkCustomerAccess(order.getCustomerId()));
+        Order order = open.isPresent() && orderRepository.transitionPending(List.of(orderID), OrderStatus.CANCELED, idempotencyKey) == 1
+                ? open.get()
+                : transitionLoaded(orderID, idempotencyKey);
+        if (order == null) {
+            log.debug("Cancel of order {} replayed for idempotency key", orderID);
+            return;
+        }
+
+        concurrencyStrategy.execute(List.of(reservedAsset(order)), () -> {
+            if (OrderSide.BUY == order.getSide()) {
+                if (!assetService.release(order.getCustomerId(), "TRY", order.notional())) {
+                    log.warn("Inconsistent TRY reserved balance to cancel BUY for customer {}", order.getCustomerId());
+                    throw new IllegalArgumentException("Inconsistent TRY reserved balance to cancel BUY");
+                }
+            } else {
+                if (!assetService.release(order.getCustomerId(), order.getAssetName(), order.getQuantity())) {
+                    log.warn("Inconsistent {} reserved balance to cancel SELL for customer {}", order.getAssetName(), order.getCustomerId());
+                    throw new IllegalArgumentException("Inconsistent " + order.getAssetName() + " reserved balance to cancel SELL");
+                }
+            }
+        });
+
+        orderJournal.record(OrderEvent.canceled(order));
+        if (matchingEngine.isEnabled()) {
+            matchingEngine.withdraw(order.getAssetName(), orderID);
+        }
+        openOrderStore.remove(orderID);
+    }
+
+    // cancels the order as loaded from its row; null when the cancel is a replay
+    private Order transitionLoaded(UUID orderID, String idempotencyKey) {
         OrderEntity entity = orderRepository.findById(orderID)
                 .orElseThrow(() -> {
                     log.warn("Order {} not found", orderID);
@@ -101,131 +234,225 @@ class OrderServiceImpl implements OrderService {
         // Enforce authorization: only admin or owner can cancel
         authorizationGuard.checkCustomerAccess(entity.getCustomer().getId());
 
+        if (isReplay(entity, OrderStatus.CANCELED, idempotencyKey)) {
+            return null;
+        }
+
         if (OrderStatus.PENDING != entity.getStatus()) {
             log.warn("Order {} cannot be canceled because it is in status {}", orderID, entity.getStatus());
             throw new OrderNotCancellableException("Only PENDING orders can be canceled");
         }
+        if (orderRepository.transitionPending(List.of(orderID), OrderStatus.CANCELED, idempotencyKey) != 1) {
+            log.warn("Order {} was canceled or matched concurrently", orderID);
+            throw new OrderNotCancellableException("Only PENDING orders can be canceled");
+        }
+        return Order.from(entity);
+    }
 
-        retrying(() -> {
-            if (OrderSide.BUY == entity.getSide()) {
-                BigDecimal amountTRY = entity.getPrice().multiply(entity.getSize());
-                Asset cash = assetService.retrieveCustomerAsset(entity.getCustomer().getId(), "TRY");
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderView> fetchOrders(UUID customerId,
+                                   Instant from,
+                                   Instant to,
+                                   OrderStatus status,
+                                   AssetFilter assetFilter,
+                                   Pageable pageable
+    ) {
+        var spec = filters(customerId, from, to, status, assetFilter);
+        return orderRepository.findViews(spec, pageable);
+    }
 
-                if (cash.verifyReserved(amountTRY)) {
-                    log.warn("Inconsistent TRY reserved balance to cancel BUY for customer {}", entity.getCustomer().getId());
-                    throw new IllegalArgumentException("Inconsistent TRY reserved balance to cancel BUY");
-                }
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<OrderView> fetchOrderSlice(UUID customerId,
+                                        Instant from,
+                                        Instant to,
+                                        OrderStatus status,
+                                        AssetFilter assetFilter,
+                                        Pageable pageable
+    ) {
+        var spec = filters(customerId, from, to, status, assetFilter);
+        return orderRepository.findViewSlice(spec, pageable);
+    }
 
-                cash.setReserved(cash.getReserved().subtract(amountTRY));
-                cash.setUsable(cash.getUsable().add(amountTRY));
-                assetService.upsertAsset(cash);
-            } else {
-                Asset asset = assetService.retrieveCustomerAsset(entity.getCustomer().getId(), entity.getAssetName());
+    @Override
+    public OptionalLong approximateOrderCount(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter) {
+        var spec = filters(customerId, from, to, status, assetFilter);
+        var key = ApproximateCountCache.Key.of("orders", customerId, from, to, status, assetFilter);
+        return countCache.get(key, () -> orderRepository.count(spec));
+    }
 
-                if (asset.verifyReserved(entity.getSize())) {
-                    log.warn("Inconsistent {} reserved balance to cancel SELL for customer {}", entity.getAssetName(), entity.getCustomer().getId());
-                    throw new IllegalArgumentException("Inconsistent " + entity.getAssetName() + " reserved balance to cancel SELL");
-                }
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Order> scrollOrders(UUID customerId,
+                                          Instant from,
+                                          Instant to,
+                                          OrderStatus status,
+                                          AssetFilter assetFilter,
+                                          String cursor,
+                                          int size
+    ) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        var spec = filters(customerId, from, to, status, assetFilter);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(OrderSpecifications.after(OrderCursor.decode(cursor)));
+        }
 
-                asset.setReserved(asset.getReserved().subtract(entity.getSize()));
-                asset.setUsable(asset.getUsable().add(entity.getSize()));
-                assetService.upsertAsset(asset);
-            }
-        });
+        // one extra row tells whether there is a next page without counting
+        List<OrderEntity> rows = orderRepository.findBy(spec, query -> query
+                .sortBy(OrderSpecifications.NEWEST_FIRST)
+                .limit(size + 1)
+                .all());
 
-        entity.setStatus(OrderStatus.CANCELED);
-        // we are not saving explicitly because hibernate dirty checking will automatically update it on txn commit
+        List<Order> content = rows.stream().limit(size).map(Order::from).toList();
+        String next = rows.size() > size ? OrderCursor.of(content.getLast()).encode() : null;
+        return new CursorPage<>(content, next);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Order> fetchOrders(UUID customerId,
-                                   Instant from,
-                                   Instant to,
-                                   OrderStatus status,
-                                   String assetName,
-                                   Pageable pageable
+    public long streamOrders(UUID customerId,
+                             Instant from,
+                             Instant to,
+                             OrderStatus status,
+                             AssetFilter assetFilter,
+                             Consumer<Order> sink
     ) {
-        var spec = OrderSpecifications.byFilters(customerId, from, to, status, assetName);
-        Page<OrderEntity> page = orderRepository.findAll(spec, pageable);
-        return page.map(Order::from);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderEntity> query = cb.createQuery(OrderEntity.class);
+        Root<OrderEntity> root = query.from(OrderEntity.class);
+        query.where(filters(customerId, from, to, status, assetFilter).toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("createdAt")), cb.asc(root.get("id")));
+
+        Session session = entityManager.unwrap(Session.class);
+        long streamed = 0;
+        try (ScrollableResults<OrderEntity> rows = session.createQuery(query)
+                .setReadOnly(true)
+                .setFetchSize(orderServiceProperties.getExportFetchSize())
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                OrderEntity entity = rows.get();
+                sink.accept(Order.from(entity));
+                // nothing keeps a reference to the row once it has been handed over
+                session.detach(entity);
+                streamed++;
+            }
+        }
+        return streamed;
     }
 
     @Override
     @Transactional
     public void matchOrder(UUID orderID) {
+        matchOrder(orderID, null);
+    }
+
+    @Override
+    @Transactional
+    public void matchOrder(UUID orderID, String idempotencyKey) {
         OrderEntity entity = orderRepository.findById(orderID)
                 .orElseThrow(() -> {
                     log.warn("Order {} not found", orderID);
                     return new ResourceNotFoundException(String.format("Order %s not found", orderID));
                 });
 
+        if (isReplay(entity, OrderStatus.MATCHED, idempotencyKey)) {
+            log.debug("Match of order {} replayed for idempotency key", orderID);
+            return;
+        }
+
         if (OrderStatus.PENDING != entity.getStatus()) {
             log.warn("Order {} cannot be matched because it is in status {}", orderID, entity.getStatus());
             throw new IllegalArgumentException("Only PENDING orders can be matched");
         }
+        if (orderRepository.transitionPending(List.of(orderID), OrderStatus.MATCHED, idempotencyKey) != 1) {
+            log.warn("Order {} was canceled or matched concurrently", orderID);
+            throw new IllegalArgumentException("Only PENDING orders can be matched");
+        }
 
-        retrying(() -> {
-            UUID customerId = entity.getCustomer().getId();
-            String assetName = entity.getAssetName();
-            BigDecimal size = entity.getSize();
-            BigDecimal price = entity.getPrice();
-
+        Order order = Order.from(entity);
+        concurrencyStrategy.execute(settledAssets(order), () -> {
             if (OrderSide.BUY == entity.getSide()) {
-                BigDecimal amountTRY = price.multiply(size);
-
-                Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
-                if (cash.verifyReserved(amountTRY)) {
-                    log.warn("Inconsistent TRY reserved balance to match BUY for customer {}", customerId);
-                    throw new IllegalArgumentException("Inconsistent TRY reserved balance to match BUY");
-                }
-                cash.setReserved(cash.getReserved().subtract(amountTRY));
-                assetService.upsertAsset(cash);
-
-                Asset bought = assetService.getOrCreateAsset(customerId, assetName);
-                bought.setUsable(bought.getUsable().add(size));
-                bought.setSize(bought.getUsable().add(bought.getReserved()));
-                assetService.upsertAsset(bought);
-
+                settleBuy(order, order.getLimitPrice());
             } else {
-                Asset sold = assetService.retrieveCustomerAsset(customerId, assetName);
-                if (sold.verifyReserved(size)) {
-                    log.warn("Inconsistent {} reserved balance to match SELL for customer {}", assetName, customerId);
-                    throw new IllegalArgumentException("Inconsistent " + assetName + " reserved balance to match SELL");
-                }
-                sold.setReserved(sold.getReserved().subtract(size));
-                assetService.upsertAsset(sold);
-
-                BigDecimal amountTRY = price.multiply(size);
-                Asset cash = assetService.getOrCreateAsset(customerId, "TRY");
-                cash.setUsable(cash.getUsable().add(amountTRY));
-                cash.setSize(cash.getUsable().add(cash.getReserved()));
-                assetService.upsertAsset(cash);
+                settleSell(order, order.getLimitPrice());
             }
         });
 
-        entity.setStatus(OrderStatus.MATCHED);
-        // hibernate dirty checking will update the order on txn commit
+        orderJournal.record(OrderEvent.matched(order, order.getLimitPrice()));
+        if (matchingEngine.isEnabled()) {
+            matchingEngine.withdraw(entity.getAssetName(), orderID);
+        }
+        openOrderStore.remove(orderID);
     }
 
-    private void retrying(Runnable work) {
-        int maxRetries = orderServiceProperties.getOptimisticLockMaxRetries();
-        if (maxRetries <= 0) {
-            log.debug("No retries configured, running work directly");
-            work.run();
-            return;
+    // takes the best crossing resting order out of the book and moves it out of PENDING
+    private Optional<Order> claimCounterparty(Order order) {
+        Optional<OrderBookEntry> claimed;
+        while ((claimed = matchingEngine.claimCounterparty(order)).isPresent()) {
+            OrderBookEntry entry = claimed.get();
+            OrderEntity resting = orderRepository.findById(entry.orderId()).orElse(null);
+            if (resting == null || OrderStatus.PENDING != resting.getStatus()
+                    || orderRepository.transitionPending(List.of(entry.orderId()), OrderStatus.MATCHED, null) != 1) {
+                log.debug("Dropping stale order book entry {}", entry.orderId());
+                continue;
+            }
+            matchingEngine.restoreOnRollback(order.getAssetName(), entry);
+            return Optional.of(Order.from(resting));
         }
+        return Optional.empty();
+    }
 
-        log.debug("Running work with {} retries", maxRetries);
-        OptimisticLockingFailureException last = null;
-        for (int i = 0; i < maxRetries; i++) {
-            try {
-                work.run();
-                return;
-            } catch (OptimisticLockingFailureException ex) {
-                last = ex;
-            }
+    private void settleBuy(Order order, FixedPoint executionPrice) {
+        UUID customerId = order.getCustomerId();
+        FixedPoint size = order.getQuantity();
+        FixedPoint reservedTRY = order.notional();
+        // a buy filled below its limit gets the difference back
+        FixedPoint refundTRY = reservedTRY.subtract(executionPrice.multiply(size, FixedPoint.AMOUNT_SCALE));
+
+        if (!assetService.consumeReserved(customerId, "TRY", reservedTRY, refundTRY)) {
+            log.warn("Inconsistent TRY reserved balance to match BUY for customer {}", customerId);
+            throw new IllegalArgumentException("Inconsistent TRY reserved balance to match BUY");
+        }
+        assetService.credit(customerId, order.getAssetName(), size);
+    }
+
+    private void settleSell(Order order, FixedPoint executionPrice) {
+        UUID customerId = order.getCustomerId();
+        String assetName = order.getAssetName();
+        FixedPoint size = order.getQuantity();
+
+        if (!assetService.consumeReserved(customerId, assetName, size, FixedPoint.zero(FixedPoint.AMOUNT_SCALE))) {
+            log.warn("Inconsistent {} reserved balance to match SELL for customer {}", assetName, customerId);
+            throw new IllegalArgumentException("Inconsistent " + assetName + " reserved balance to match SELL");
+        }
+        assetService.credit(customerId, "TRY", executionPrice.multiply(size, FixedPoint.AMOUNT_SCALE));
+    }
+
+    // substring filters become an IN list of the known symbols they match
+    private Specification<OrderEntity> filters(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter) {
+        if (assetFilter != null && assetFilter.needsExpansion()) {
+            assetFilter = assetFilter.expandedTo(instrumentRegistry.symbolsContaining(assetFilter.value()));
         }
-        throw last;
+        return OrderSpecifications.byFilters(customerId, from, to, status, assetFilter);
+    }
+
+    private static boolean isReplay(OrderEntity entity, OrderStatus reached, String idempotencyKey) {
+        return idempotencyKey != null
+                && reached == entity.getStatus()
+                && idempotencyKey.equals(entity.getTransitionKey());
+    }
+
+    // the row a PENDING order keeps its reservation in
+    private static AssetLock reservedAsset(Order order) {
+        return OrderSide.BUY == order.getSide()
+                ? AssetLock.of(order.getCustomerId(), "TRY")
+                : AssetLock.of(order.getCustomerId(), order.getAssetName());
+    }
+
+    private static List<AssetLock> settledAssets(Order order) {
+        return List.of(AssetLock.of(order.getCustomerId(), "TRY"), AssetLock.of(order.getCustomerId(), order.getAssetName()));
     }
 }
@@ -0,0 +1,156 @@
+package com.eubican.practices.brokerage.oms.domain.service.impl;
+
+import com.eubican.practices.brokerage.oms.domain.concurrency.ConcurrencyStrategy;
+import com.eubican.practices.brokerage.oms.domain.concurrency.CustomerSequencer;
+import com.eubican.practices.brokerage.oms.domain.openorder.OpenOrderStore;
+import com.eubican.practices.brokerage.oms.domain.model.AssetFilter;
+import com.eubican.practices.brokerage.oms.domain.model.CursorPage;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Routes balance-mutating commands through the {@link CustomerSequencer} before they open
+ * their transaction in {@link OrderServiceImpl}, and lets the {@link ConcurrencyStrategy} retry a
+ * command that lost a race with a new transaction. Reads go straight to the delegate.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+class SequencedOrderService implements OrderService {
+
+    private final OrderServiceImpl delegate;
+
+    private final CustomerSequencer sequencer;
+
+    private final ConcurrencyStrategy concurrencyStrategy;
+
+    private final OrderJpaRepository orderRepository;
+
+    private final OpenOrderStore openOrderStore;
+
+    @Override
+    public Order createOrder(Order order) {
+        try {
+            return sequencer.execute(order.getCustomerId(), () -> concurrencyStrategy.retrying(() -> delegate.createOrder(order)));
+        } catch (DataIntegrityViolationException ex) {
+            if (order.getIdempotencyKey() == null) {
+                throw ex;
+            }
+            // a concurrent request with the same key won the unique index, answer with its order
+            return orderRepository.findByCustomer_IdAndIdempotencyKey(order.getCustomerId(), order.getIdempotencyKey())
+                    .map(Order::from)
+                    .orElseThrow(() -> ex);
+        }
+    }
+
+    @Override
+    public List<Order> createOrders(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        // bulk submissions are authorized for a single customer
+        return sequencer.execute(orders.getFirst().getCustomerId(),
+                () -> concurrencyStrategy.retrying(() -> delegate.createOrders(orders)));
+    }
+
+    @Override
+    public void cancelOrder(UUID orderID) {
+        cancelOrder(orderID, null);
+    }
+
+    @Override
+    public void cancelOrder(UUID orderID, String idempotencyKey) {
+        sequenced(orderID, () -> concurrencyStrategy.retrying(() -> {
+            delegate.cancelOrder(orderID, idempotencyKey);
+            return null;
+        }));
+    }
+
+    @Override
+    public Page<OrderView> fetchOrders(UUID customerId,
+                                   Instant from,
+                                   Instant to,
+                                   OrderStatus status,
+                                   AssetFilter assetFilter,
+                                   Pageable pageable
+    ) {
+        return delegate.fetchOrders(customerId, from, to, status, assetFilter, pageable);
+    }
+
+    @Override
+    public Slice<OrderView> fetchOrderSlice(UUID customerId,
+                                        Instant from,
+                                        Instant to,
+                                        OrderStatus status,
+                                        AssetFilter assetFilter,
+                                        Pageable pageable
+    ) {
+        return delegate.fetchOrderSlice(customerId, from, to, status, assetFilter, pageable);
+    }
+
+    @Override
+    public OptionalLong approximateOrderCount(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter) {
+        return delegate.approximateOrderCount(customerId, from, to, status, assetFilter);
+    }
+
+    @Override
+    public CursorPage<Order> scrollOrders(UUID customerId,
+                                          Instant from,
+                                          Instant to,
+                                          OrderStatus status,
+                                          AssetFilter assetFilter,
+                                          String cursor,
+                                          int size
+    ) {
+        return delegate.scrollOrders(customerId, from, to, status, assetFilter, cursor, size);
+    }
+
+    @Override
+    public long streamOrders(UUID customerId, Instant from, Instant to, OrderStatus status, AssetFilter assetFilter, Consumer<Order> sink) {
+        return delegate.streamOrders(customerId, from, to, status, assetFilter, sink);
+    }
+
+    @Override
+    public void matchOrder(UUID orderId) {
+        matchOrder(orderId, null);
+    }
+
+    @Override
+    public void matchOrder(UUID orderId, String idempotencyKey) {
+        sequenced(orderId, () -> concurrencyStrategy.retrying(() -> {
+            delegate.matchOrder(orderId, idempotencyKey);
+            return null;
+        }));
+    }
+
+    // runs the command on the lane of the customer owning the order
+    private <T> T sequenced(UUID orderId, Supplier<T> command) {
+        if (!sequencer.isEnabled()) {
+            return command.get();
+        }
+        // only open orders can be canceled or matched, so the store usually answers without a query or allocation
+        long customerHash = openOrderStore.customerHashOf(orderId);
+        if (customerHash != OpenOrderStore.NOT_OPEN) {
+            return sequencer.execute((int) customerHash, command);
+        }
+        // unknown orders run unsequenced and fail with not found in the delegate
+        return sequencer.execute(orderRepository.findCustomerIdById(orderId).orElse(null), command);
+    }
+}
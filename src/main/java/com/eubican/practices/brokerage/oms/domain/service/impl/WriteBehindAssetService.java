@@ -0,0 +1,739 @@
+package com.eubican.practices.brokerage.oms.domain.service.impl;
+
+import com.eubican.practices.brokerage.oms.config.properties.AssetLedgerProperties;
+import com.eubican.practices.brokerage.oms.domain.exception.ApplicationException;
+import com.eubican.practices.brokerage.oms.domain.exception.ResourceNotFoundException;
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.AssetView;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.PortfolioPosition;
+import com.eubican.practices.brokerage.oms.domain.paging.ApproximateCountCache;
+import com.eubican.practices.brokerage.oms.domain.service.AssetHandle;
+import com.eubican.practices.brokerage.oms.domain.service.AssetService;
+import com.eubican.practices.brokerage.oms.persistence.entity.AssetEntity;
+import com.eubican.practices.brokerage.oms.persistence.repository.AssetJpaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link AssetService} that keeps the positions of the customers it has served in memory and treats
+ * them as the source of truth. Changes are applied to memory synchronously and written to the
+ * {@code asset} table by a background flusher that coalesces every key changed since its last run
+ * into one JDBC batch.
+ * <p>
+ * Inside a transaction, decreases are held on the position right away, so concurrent transactions
+ * cannot spend the same balance, while increases are only published once the transaction has
+ * committed; a rollback gives the held amounts back. The flusher writes committed balances only,
+ * and a committing transaction does not return before the flush holding its change has. Enabled
+ * with {@code application.asset-ledger.write-behind=true}; all balance writes must then go through
+ * this service.
+ * <p>
+ * Rows are only updated at the version the ledger last wrote or read, so a row changed behind its
+ * back fails the flush instead of being overwritten. After {@code max-flush-attempts} failed flushes
+ * in a row the keys are flushed one by one, and a key that still fails is set aside: its position is
+ * dropped from memory together with the changes not yet flushed, whose callers fail, and is
+ * reloaded from its row on next use. Flushed positions nobody is changing are evicted once more than
+ * {@code max-positions} are held.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "application.asset-ledger", name = "write-behind", havingValue = "true")
+@RequiredArgsConstructor
+class WriteBehindAssetService implements AssetService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO asset (id, customer_id, asset_name, size, usable_size, reserved_size, version, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE asset SET size = ?, usable_size = ?, reserved_size = ?, version = ? WHERE id = ? AND version = ?
+            """;
+
+    private final AssetJpaRepository assetRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final AssetLedgerProperties properties;
+
+    private final ApproximateCountCache countCache;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<AssetKey, Position> positions = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition dirtyAvailable = lock.newCondition();
+
+    private final Condition flushed = lock.newCondition();
+
+    private final Set<AssetKey> dirty = new LinkedHashSet<>();
+
+    private long changeSeq;
+
+    private long flushedSeq;
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    private Counter setAside;
+
+    @PostConstruct
+    void start() {
+        setAside = Counter.builder("oms.asset-ledger.set-aside")
+                .description("Asset positions dropped from the ledger because they could not be flushed")
+                .register(meterRegistry);
+        Gauge.builder("oms.asset-ledger.positions", positions, Map::size)
+                .description("Asset positions held in memory")
+                .register(meterRegistry);
+        running = true;
+        flusher = new Thread(this::runFlusher, "asset-ledger-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Write-behind asset ledger started");
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        lock.lock();
+        try {
+            dirtyAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join(properties.getFlushTimeout().toMillis());
+    }
+
+    @Override
+    public void upsertAsset(Asset asset) {
+        AssetKey key = new AssetKey(asset.getCustomerId(), asset.getAssetName());
+        Position position = existingOrCreated(key);
+
+        synchronized (position) {
+            // an evicted position was reloaded by whoever used the key since, so the asset is stale either way
+            if (position.evicted || !Objects.equals(asset.getVersion(), position.version)) {
+                log.debug("Asset {} of customer {} changed since it was read", key.assetName(), key.customerId());
+                throw new ObjectOptimisticLockingFailureException(AssetEntity.class, position.id);
+            }
+            apply(key, position, asset.getUsable().subtract(position.usable), asset.getReserved().subtract(position.reserved), false);
+        }
+        settle(key, position);
+        log.debug("Asset {} updated in ledger for customer: {}", asset.getAssetName(), asset.getCustomerId());
+    }
+
+    @Override
+    public AssetHandle open(UUID customerId, String assetName) {
+        AssetKey key = new AssetKey(customerId, assetName);
+        return new PositionHandle(key, existing(key));
+    }
+
+    @Override
+    public AssetHandle openOrCreate(UUID customerId, String assetName) {
+        AssetKey key = new AssetKey(customerId, assetName);
+        return new PositionHandle(key, existingOrCreated(key));
+    }
+
+    @Override
+    public boolean reserve(UUID customerId, String assetName, FixedPoint amount) {
+        return open(customerId, assetName).reserve(amount);
+    }
+
+    @Override
+    public boolean release(UUID customerId, String assetName, FixedPoint amount) {
+        return open(customerId, assetName).release(amount);
+    }
+
+    @Override
+    public boolean consumeReserved(UUID customerId, String assetName, FixedPoint amount, FixedPoint refund) {
+        return open(customerId, assetName).consumeReserved(amount, refund);
+    }
+
+    @Override
+    public void credit(UUID customerId, String assetName, FixedPoint amount) {
+        openOrCreate(customerId, assetName).credit(amount);
+    }
+
+    private Position existing(AssetKey key) {
+        return position(key).orElseThrow(() -> {
+            log.warn("Asset {} not found for customer {}", key.assetName(), key.customerId());
+            return new ResourceNotFoundException(key.assetName() + " asset not found");
+        });
+    }
+
+    private Position existingOrCreated(AssetKey key) {
+        return position(key).orElseGet(() -> positions.computeIfAbsent(key, Position::created));
+    }
+
+    // applies the deltas only if neither balance would go negative, checked and applied under the position's monitor
+    private boolean move(AssetKey key, Position position, BigDecimal usableDelta, BigDecimal reservedDelta, boolean checked) {
+        Position current = position;
+        while (true) {
+            synchronized (current) {
+                if (!current.evicted) {
+                    if (!apply(key, current, usableDelta, reservedDelta, checked)) {
+                        return false;
+                    }
+                    break;
+                }
+            }
+            // evicted since the handle was opened, so continue on the position now held for the key
+            current = checked ? existing(key) : existingOrCreated(key);
+        }
+        settle(key, current);
+        return true;
+    }
+
+    // under the position's monitor; outside a transaction the change is committed as it is applied
+    private boolean apply(AssetKey key, Position position, BigDecimal usableDelta, BigDecimal reservedDelta, boolean checked) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            return change(key, position).apply(usableDelta, reservedDelta, checked);
+        }
+        if (checked && (position.usable.add(usableDelta).signum() < 0 || position.reserved.add(reservedDelta).signum() < 0)) {
+            return false;
+        }
+        position.publish(usableDelta, reservedDelta);
+        position.inFlight++;
+        return true;
+    }
+
+    // a change made outside a transaction is durable before the caller goes on; one inside is made durable on commit
+    private void settle(AssetKey key, Position position) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        try {
+            makeDurable(key, position);
+        } finally {
+            synchronized (position) {
+                position.inFlight--;
+            }
+        }
+    }
+
+    // the transaction's change to the position, registered with the transaction on first use
+    private Change change(AssetKey key, Position position) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Change change && change.owner() == this && change.position == position) {
+                return change;
+            }
+        }
+        Change change = new Change(key, position);
+        TransactionSynchronizationManager.registerSynchronization(change);
+        position.inFlight++;
+        return change;
+    }
+
+    private void makeDurable(AssetKey key, Position position) {
+        long seq = markDirty(key);
+        synchronized (position) {
+            position.lastChange = Math.max(position.lastChange, seq);
+        }
+        awaitDurable(seq, position);
+    }
+
+    @Override
+    public Asset retrieveCustomerAsset(UUID customerId, String assetName) {
+        return position(new AssetKey(customerId, assetName))
+                .map(Position::toAsset)
+                .orElseThrow(() -> {
+                    log.warn("Asset {} not found for customer {}", assetName, customerId);
+                    return new ResourceNotFoundException(assetName + " asset not found");
+                });
+    }
+
+    @Override
+    public Asset getOrCreateAsset(UUID customerId, String assetName) {
+        return position(new AssetKey(customerId, assetName))
+                .map(Position::toAsset)
+                .orElseGet(() -> Asset.from(customerId, assetName,
+                        BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
+    }
+
+    @Override
+    public Page<AssetView> fetchCustomerAssets(UUID customerId, Instant from, Instant to, int page, int size) {
+        return assetRepository.findViews(customerId, from, to, PageRequest.of(page, size))
+                .map(this::current);
+    }
+
+    @Override
+    public Slice<AssetView> fetchCustomerAssetSlice(UUID customerId, Instant from, Instant to, int page, int size) {
+        return assetRepository.findViewSlice(customerId, from, to, PageRequest.of(page, size))
+                .map(this::current);
+    }
+
+    @Override
+    public OptionalLong approximateAssetCount(UUID customerId, Instant from, Instant to) {
+        return countCache.get(ApproximateCountCache.Key.of("assets", customerId, from, to),
+                () -> assetRepository.countByCustomer_IdAndCreatedAtBetween(customerId, from, to));
+    }
+
+    // the ledger balances win for positions it holds; an asset created since the last flush is listed once flushed
+    @Override
+    public List<PortfolioPosition> fetchPortfolio(UUID customerId) {
+        return assetRepository.findPortfolio(customerId).stream()
+                .map(line -> {
+                    Position position = positions.get(new AssetKey(customerId, line.assetName()));
+                    return position != null ? line.withBalances(position.toAsset()) : line;
+                })
+                .toList();
+    }
+
+    // the row may be behind the ledger, which is the source of truth for positions it holds
+    private AssetView current(AssetView row) {
+        Position position = positions.get(new AssetKey(row.customerId(), row.assetName()));
+        return position != null ? AssetView.of(position.toAsset()) : row;
+    }
+
+    private Optional<Position> position(AssetKey key) {
+        Position cached = positions.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return assetRepository.findByCustomer_IdAndAssetName(key.customerId(), key.assetName())
+                .map(entity -> {
+                    Position loaded = Position.loaded(key, entity);
+                    Position previous = positions.putIfAbsent(key, loaded);
+                    return previous != null ? previous : loaded;
+                });
+    }
+
+    private long markDirty(AssetKey key) {
+        lock.lock();
+        try {
+            dirty.add(key);
+            dirtyAvailable.signal();
+            return ++changeSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitDurable(long seq, Position position) {
+        long remaining = properties.getFlushTimeout().toNanos();
+        lock.lock();
+        try {
+            while (flushedSeq < seq) {
+                if (remaining <= 0) {
+                    log.error("Asset ledger change {} was not flushed in time", seq);
+                    throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Balance update could not be persisted");
+                }
+                remaining = flushed.awaitNanos(remaining);
+            }
+            if (position.setAside) {
+                throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Balance update could not be persisted");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while persisting balance update");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        int failures = 0;
+        while (true) {
+            long target;
+            List<AssetKey> batch;
+            lock.lock();
+            try {
+                while (dirty.isEmpty() && running) {
+                    dirtyAvailable.await();
+                }
+                if (dirty.isEmpty()) {
+                    return;
+                }
+                target = changeSeq;
+                batch = new ArrayList<>(dirty);
+                dirty.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                write(batch);
+                failures = 0;
+            } catch (RuntimeException ex) {
+                if (++failures < properties.getMaxFlushAttempts()) {
+                    log.warn("Failed to flush {} asset positions, retrying", batch.size(), ex);
+                    lock.lock();
+                    try {
+                        dirty.addAll(batch);
+                    } finally {
+                        lock.unlock();
+                    }
+                    sleepQuietly(properties.getFlushRetryDelay().toMillis());
+                    continue;
+                }
+                log.error("Failed to flush {} asset positions {} times in a row, flushing them one by one", batch.size(), failures, ex);
+                failures = 0;
+                batch.forEach(this::writeOrSetAside);
+            }
+            lock.lock();
+            try {
+                flushedSeq = target;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            evictIdle();
+        }
+    }
+
+    private void writeOrSetAside(AssetKey key) {
+        try {
+            write(List.of(key));
+        } catch (RuntimeException ex) {
+            Position position = positions.get(key);
+            if (position == null) {
+                return;
+            }
+            synchronized (position) {
+                position.evicted = true;
+                position.setAside = true;
+            }
+            positions.remove(key, position);
+            setAside.increment();
+            log.error("Set aside asset {} of customer {} that could not be flushed, dropping its unflushed balances {}/{} "
+                            + "at version {}; it is reloaded from the asset table on next use",
+                    key.assetName(), key.customerId(), position.usable, position.reserved, position.version, ex);
+        }
+    }
+
+    // evicts flushed positions that no transaction is changing; they are reloaded from their rows on next use
+    private void evictIdle() {
+        int excess = positions.size() - properties.getMaxPositions();
+        if (excess <= 0) {
+            return;
+        }
+        long durable;
+        lock.lock();
+        try {
+            durable = flushedSeq;
+        } finally {
+            lock.unlock();
+        }
+        for (Position position : positions.values()) {
+            if (excess <= 0) {
+                break;
+            }
+            synchronized (position) {
+                if (position.inFlight > 0 || position.lastChange > durable) {
+                    continue;
+                }
+                position.evicted = true;
+            }
+            positions.remove(position.key, position);
+            excess--;
+        }
+    }
+
+    private void write(List<AssetKey> batch) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Position> written = new ArrayList<>();
+        List<Long> writtenVersions = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+
+        for (AssetKey key : batch) {
+            Position position = positions.get(key);
+            if (position == null) {
+                // set aside meanwhile
+                continue;
+            }
+            synchronized (position) {
+                // balances held by transactions still open are not committed yet
+                BigDecimal usable = position.usable.add(position.heldUsable);
+                BigDecimal reserved = position.reserved.add(position.heldReserved);
+                if (position.persistedVersion != null) {
+                    updates.add(new Object[]{usable.add(reserved), usable, reserved, position.version,
+                            position.id, position.persistedVersion});
+                } else {
+                    inserts.add(new Object[]{position.id, key.customerId(), key.assetName(),
+                            usable.add(reserved), usable, reserved, position.version, now});
+                }
+                written.add(position);
+                writtenVersions.add(position.version);
+            }
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            }
+            if (!updates.isEmpty()) {
+                int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        throw new ObjectOptimisticLockingFailureException(AssetEntity.class, updates.get(i)[4]);
+                    }
+                }
+            }
+        });
+        for (int i = 0; i < written.size(); i++) {
+            Position position = written.get(i);
+            synchronized (position) {
+                position.persistedVersion = writtenVersions.get(i);
+            }
+        }
+        log.debug("Flushed {} asset positions ({} new)", batch.size(), inserts.size());
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record AssetKey(UUID customerId, String assetName) {
+    }
+
+    private final class PositionHandle implements AssetHandle {
+
+        private final AssetKey key;
+
+        private final Position position;
+
+        private PositionHandle(AssetKey key, Position position) {
+            this.key = key;
+            this.position = position;
+        }
+
+        @Override
+        public Asset asset() {
+            return position.toAsset();
+        }
+
+        @Override
+        public boolean reserve(FixedPoint amount) {
+            BigDecimal delta = amount.toBigDecimal();
+            return move(key, position, delta.negate(), delta, true);
+        }
+
+        @Override
+        public boolean release(FixedPoint amount) {
+            BigDecimal delta = amount.toBigDecimal();
+            return move(key, position, delta, delta.negate(), true);
+        }
+
+        @Override
+        public boolean consumeReserved(FixedPoint amount, FixedPoint refund) {
+            return move(key, position, refund.toBigDecimal(), amount.toBigDecimal().negate(), true);
+        }
+
+        @Override
+        public void credit(FixedPoint amount) {
+            move(key, position, amount.toBigDecimal(), BigDecimal.ZERO, false);
+        }
+    }
+
+    /**
+     * A transaction's change to one position. Decreases its own unpublished increases cannot cover
+     * are held on the position at once; the increases are published after commit and the holds are
+     * given back on rollback.
+     */
+    private final class Change implements TransactionSynchronization {
+
+        private final AssetKey key;
+
+        private final Position position;
+
+        private BigDecimal usableHeld = BigDecimal.ZERO;
+
+        private BigDecimal reservedHeld = BigDecimal.ZERO;
+
+        private BigDecimal usablePending = BigDecimal.ZERO;
+
+        private BigDecimal reservedPending = BigDecimal.ZERO;
+
+        private Change(AssetKey key, Position position) {
+            this.key = key;
+            this.position = position;
+        }
+
+        private WriteBehindAssetService owner() {
+            return WriteBehindAssetService.this;
+        }
+
+        // under the position's monitor
+        private boolean apply(BigDecimal usableDelta, BigDecimal reservedDelta, boolean checked) {
+            BigDecimal usableHold = uncovered(usableDelta, usablePending);
+            BigDecimal reservedHold = uncovered(reservedDelta, reservedPending);
+            if (checked && (position.usable.compareTo(usableHold) < 0 || position.reserved.compareTo(reservedHold) < 0)) {
+                return false;
+            }
+            usablePending = pendingAfter(usableDelta, usablePending);
+            reservedPending = pendingAfter(reservedDelta, reservedPending);
+            usableHeld = usableHeld.add(usableHold);
+            reservedHeld = reservedHeld.add(reservedHold);
+            position.hold(usableHold, reservedHold);
+            return true;
+        }
+
+        @Override
+        public void afterCommit() {
+            synchronized (position) {
+                position.commit(usableHeld, reservedHeld, usablePending, reservedPending);
+            }
+            makeDurable(key, position);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            synchronized (position) {
+                if (STATUS_COMMITTED != status) {
+                    // only held amounts were taken from the position, so giving them back cannot overdraw it
+                    position.giveBack(usableHeld, reservedHeld);
+                }
+                position.inFlight--;
+            }
+        }
+    }
+
+    // the part of a decrease that the transaction's own unpublished increase does not cover
+    private static BigDecimal uncovered(BigDecimal delta, BigDecimal pending) {
+        if (delta.signum() >= 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal decrease = delta.negate();
+        return decrease.subtract(decrease.min(pending));
+    }
+
+    private static BigDecimal pendingAfter(BigDecimal delta, BigDecimal pending) {
+        return delta.signum() >= 0 ? pending.add(delta) : pending.subtract(delta.negate().min(pending));
+    }
+
+    private static final class Position {
+
+        private final AssetKey key;
+
+        private final UUID id;
+
+        private BigDecimal size;
+
+        private BigDecimal usable;
+
+        private BigDecimal reserved;
+
+        private Long version;
+
+        // version of the row as last written or read, null until the row exists
+        private Long persistedVersion;
+
+        // taken from the balances by transactions not yet committed or rolled back
+        private BigDecimal heldUsable = BigDecimal.ZERO;
+
+        private BigDecimal heldReserved = BigDecimal.ZERO;
+
+        // changes applied but not yet committed or rolled back
+        private int inFlight;
+
+        // sequence of the last change, durable once flushed up to it
+        private long lastChange;
+
+        // no longer in the ledger; users of the key load a new position
+        private boolean evicted;
+
+        // dropped without its unflushed changes, which must fail
+        private boolean setAside;
+
+        private Position(AssetKey key, UUID id, BigDecimal usable, BigDecimal reserved, Long version, Long persistedVersion) {
+            this.key = key;
+            this.id = id;
+            this.usable = usable;
+            this.reserved = reserved;
+            this.size = usable.add(reserved);
+            this.version = version;
+            this.persistedVersion = persistedVersion;
+        }
+
+        static Position loaded(AssetKey key, AssetEntity entity) {
+            return new Position(key, entity.getId(), entity.getUsable(), entity.getReserved(), entity.getVersion(), entity.getVersion());
+        }
+
+        static Position created(AssetKey key) {
+            return new Position(key, UUID.randomUUID(), BigDecimal.ZERO, BigDecimal.ZERO, null, null);
+        }
+
+        void publish(BigDecimal usableDelta, BigDecimal reservedDelta) {
+            usable = usable.add(usableDelta).setScale(6, RoundingMode.HALF_UP);
+            reserved = reserved.add(reservedDelta).setScale(6, RoundingMode.HALF_UP);
+            size = usable.add(reserved);
+            version = version == null ? 0L : version + 1;
+        }
+
+        void hold(BigDecimal usableAmount, BigDecimal reservedAmount) {
+            if (usableAmount.signum() == 0 && reservedAmount.signum() == 0) {
+                return;
+            }
+            heldUsable = heldUsable.add(usableAmount);
+            heldReserved = heldReserved.add(reservedAmount);
+            publish(usableAmount.negate(), reservedAmount.negate());
+        }
+
+        void commit(BigDecimal usableHeld, BigDecimal reservedHeld, BigDecimal usableIncrease, BigDecimal reservedIncrease) {
+            heldUsable = heldUsable.subtract(usableHeld);
+            heldReserved = heldReserved.subtract(reservedHeld);
+            publish(usableIncrease, reservedIncrease);
+        }
+
+        void giveBack(BigDecimal usableHeld, BigDecimal reservedHeld) {
+            if (usableHeld.signum() == 0 && reservedHeld.signum() == 0) {
+                return;
+            }
+            heldUsable = heldUsable.subtract(usableHeld);
+            heldReserved = heldReserved.subtract(reservedHeld);
+            publish(usableHeld, reservedHeld);
+        }
+
+        synchronized Asset toAsset() {
+            return Asset.from(id, key.customerId(), key.assetName(), size, usable, reserved, version);
+        }
+    }
+}
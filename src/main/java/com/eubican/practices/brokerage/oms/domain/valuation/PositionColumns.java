@@ -0,0 +1,165 @@
+package com.eubican.practices.brokerage.oms.domain.valuation;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Every asset row as primitive columns, grouped by customer: the rows of customer {@code c} are
+ * {@code customerStart[c]} up to {@code customerStart[c + 1]}. Each row holds the slot of its asset,
+ * its usable and reserved balance in units of 10^-6. Assets get dense slots in order of first
+ * appearance; a slot knows its instrument id, 0 for TRY and -1 for symbols without an instrument.
+ * <p>
+ * Costs 20 bytes per row and 20 per customer, so 10 million rows of a million customers take about 220 MB.
+ */
+final class PositionColumns {
+
+    static final int CASH = 0;
+
+    static final int UNLISTED = -1;
+
+    private static final String COUNT_ROWS_SQL = "select count(*) from asset";
+
+    private static final String COUNT_CUSTOMERS_SQL = "select count(*) from customer";
+
+    // the balances leave the database already scaled, so no row ever becomes a BigDecimal here
+    private static final String LOAD_SQL = """
+            select a.customer_id,
+                   coalesce(i.id, case when a.asset_name = 'TRY' then 0 else -1 end) as instrument_id,
+                   case when i.id is null then a.asset_name end as unlisted_name,
+                   cast(a.usable_size * 1000000 as bigint) as usable_units,
+                   cast(a.reserved_size * 1000000 as bigint) as reserved_units
+              from asset a
+              left join instrument i on i.symbol = a.asset_name
+             order by a.customer_id
+            """;
+
+    int rows;
+
+    int customers;
+
+    int[] customerStart;
+
+    long[] customerHi;
+
+    long[] customerLo;
+
+    int[] asset;
+
+    long[] usable;
+
+    long[] reserved;
+
+    final List<String> assetNames = new ArrayList<>();
+
+    final List<Integer> assetInstruments = new ArrayList<>();
+
+    private final Map<Integer, Integer> slotByInstrument = new HashMap<>();
+
+    private final Map<String, Integer> slotByUnlisted = new HashMap<>();
+
+    private final Map<Integer, String> symbols;
+
+    private PositionColumns(int expectedRows, int expectedCustomers, Map<Integer, String> symbols) {
+        int rowCapacity = Math.max(16, expectedRows + expectedRows / 16);
+        int customerCapacity = Math.max(16, expectedCustomers + expectedCustomers / 16);
+        this.symbols = symbols;
+        this.asset = new int[rowCapacity];
+        this.usable = new long[rowCapacity];
+        this.reserved = new long[rowCapacity];
+        this.customerStart = new int[customerCapacity + 1];
+        this.customerHi = new long[customerCapacity];
+        this.customerLo = new long[customerCapacity];
+    }
+
+    /**
+     * Streams the {@code asset} table through a cursor of {@code fetchSize} rows; {@code symbols} maps
+     * instrument ids to their symbols.
+     */
+    static PositionColumns load(JdbcTemplate jdbcTemplate, int fetchSize, Map<Integer, String> symbols) {
+        Integer expectedRows = jdbcTemplate.queryForObject(COUNT_ROWS_SQL, Integer.class);
+        Integer expectedCustomers = jdbcTemplate.queryForObject(COUNT_CUSTOMERS_SQL, Integer.class);
+        PositionColumns columns = new PositionColumns(expectedRows == null ? 0 : expectedRows,
+                expectedCustomers == null ? 0 : expectedCustomers, symbols);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOAD_SQL);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, columns::append);
+        columns.customerStart[columns.customers] = columns.rows;
+        return columns;
+    }
+
+    int assets() {
+        return assetNames.size();
+    }
+
+    UUID customerId(int customer) {
+        return new UUID(customerHi[customer], customerLo[customer]);
+    }
+
+    private void append(ResultSet rs) throws SQLException {
+        if (rows == asset.length) {
+            growRows();
+        }
+        UUID customerId = rs.getObject(1, UUID.class);
+        if (customers == 0
+                || customerHi[customers - 1] != customerId.getMostSignificantBits()
+                || customerLo[customers - 1] != customerId.getLeastSignificantBits()) {
+            if (customers + 1 == customerStart.length) {
+                growCustomers();
+            }
+            customerStart[customers] = rows;
+            customerHi[customers] = customerId.getMostSignificantBits();
+            customerLo[customers] = customerId.getLeastSignificantBits();
+            customers++;
+        }
+        int instrumentId = rs.getInt(2);
+        asset[rows] = instrumentId == UNLISTED ? unlistedSlot(rs.getString(3)) : instrumentSlot(instrumentId);
+        usable[rows] = rs.getLong(4);
+        reserved[rows] = rs.getLong(5);
+        rows++;
+    }
+
+    private int instrumentSlot(int instrumentId) {
+        Integer slot = slotByInstrument.get(instrumentId);
+        if (slot == null) {
+            slot = newSlot(instrumentId == CASH ? "TRY" : symbols.getOrDefault(instrumentId, "#" + instrumentId), instrumentId);
+            slotByInstrument.put(instrumentId, slot);
+        }
+        return slot;
+    }
+
+    private int unlistedSlot(String assetName) {
+        return slotByUnlisted.computeIfAbsent(assetName, name -> newSlot(name, UNLISTED));
+    }
+
+    private int newSlot(String assetName, int instrumentId) {
+        assetNames.add(assetName);
+        assetInstruments.add(instrumentId);
+        return assetNames.size() - 1;
+    }
+
+    // rows inserted after the count make a column grow by half again
+    private void growRows() {
+        int capacity = asset.length + asset.length / 2;
+        asset = Arrays.copyOf(asset, capacity);
+        usable = Arrays.copyOf(usable, capacity);
+        reserved = Arrays.copyOf(reserved, capacity);
+    }
+
+    private void growCustomers() {
+        int capacity = customerHi.length + customerHi.length / 2;
+        customerStart = Arrays.copyOf(customerStart, capacity + 1);
+        customerHi = Arrays.copyOf(customerHi, capacity);
+        customerLo = Arrays.copyOf(customerLo, capacity);
+    }
+}
@@ -0,0 +1,257 @@
+package com.eubican.practices.brokerage.oms.domain.valuation;
+
+import com.eubican.practices.brokerage.oms.config.properties.ValuationProperties;
+import com.eubican.practices.brokerage.oms.domain.exception.ApplicationException;
+import com.eubican.practices.brokerage.oms.domain.instrument.InstrumentRegistry;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.Instrument;
+import com.eubican.practices.brokerage.oms.domain.model.Valuation;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Revalues every asset row against a price vector. The rows are loaded into {@link PositionColumns}
+ * and summed per customer and per asset by fork-join tasks over ranges of customers, all in scaled
+ * longs; a product only takes the {@link BigInteger} path when it does not fit in 64 bits, and a
+ * sum that would overflow fails the revaluation rather than wrapping around.
+ * <p>
+ * One revaluation runs at a time, so memory use is bounded by a single snapshot of the columns.
+ * {@code application.valuation.parallelism} of 0 runs on the common pool.
+ */
+@Slf4j
+@Component
+public class ValuationEngine {
+
+    private static final long PRICE_ONE = 10_000;
+
+    private static final long UNPRICED = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final InstrumentRegistry instrumentRegistry;
+
+    private final ValuationProperties properties;
+
+    private final ForkJoinPool pool;
+
+    private final ReentrantLock running = new ReentrantLock();
+
+    public ValuationEngine(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           InstrumentRegistry instrumentRegistry,
+                           ValuationProperties properties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.instrumentRegistry = instrumentRegistry;
+        this.properties = properties;
+        this.pool = properties.getParallelism() > 0 ? new ForkJoinPool(properties.getParallelism()) : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * @param prices TRY price of one unit per symbol, at most {@link FixedPoint#PRICE_SCALE} decimals
+     */
+    public Valuation revalue(Map<String, BigDecimal> prices) {
+        Map<String, Long> priceUnits = priceUnits(prices);
+        if (!running.tryLock()) {
+            log.warn("Revaluation requested while another one is running");
+            throw new ApplicationException(HttpStatus.CONFLICT, "A revaluation is already running");
+        }
+        try {
+            long started = System.nanoTime();
+            Map<Integer, String> symbols = instrumentRegistry.instruments().stream()
+                    .collect(Collectors.toMap(Instrument::id, Instrument::symbol));
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            PositionColumns columns = readOnly.execute(status -> PositionColumns.load(jdbcTemplate, properties.getFetchSize(), symbols));
+            long loaded = System.nanoTime();
+
+            Valuation valuation;
+            try {
+                valuation = compute(columns, priceUnits, (loaded - started) / 1_000_000);
+            } catch (ArithmeticException ex) {
+                log.warn("Revaluation overflowed: {}", ex.getMessage());
+                throw new ApplicationException(HttpStatus.UNPROCESSABLE_ENTITY, "Valuation exceeds the supported range");
+            }
+            log.info("Revalued {} positions of {} customers in {} ms (load {} ms)",
+                    valuation.positions(), valuation.customers(), valuation.loadMillis() + valuation.computeMillis(), valuation.loadMillis());
+            return valuation;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != ForkJoinPool.commonPool()) {
+            pool.shutdown();
+        }
+    }
+
+    private Valuation compute(PositionColumns columns, Map<String, Long> priceUnits, long loadMillis) {
+        long computeStarted = System.nanoTime();
+        int assets = columns.assets();
+        long[] price = new long[assets];
+        List<String> unpriced = new ArrayList<>();
+        for (int slot = 0; slot < assets; slot++) {
+            String assetName = columns.assetNames.get(slot);
+            price[slot] = columns.assetInstruments.get(slot) == PositionColumns.CASH ? PRICE_ONE : priceUnits.getOrDefault(assetName, UNPRICED);
+            if (price[slot] == UNPRICED) {
+                unpriced.add(assetName);
+            }
+        }
+
+        long[] customerValue = new long[columns.customers];
+        long[] assetTotals = pool.invoke(new Revaluation(columns, price, customerValue, 0, columns.customers,
+                Math.max(1, properties.getCustomersPerTask())));
+
+        long total = 0;
+        List<Valuation.AssetTotal> assetResults = new ArrayList<>(assets);
+        for (int slot = 0; slot < assets; slot++) {
+            total = Math.addExact(total, assetTotals[slot * 3 + 2]);
+            assetResults.add(new Valuation.AssetTotal(columns.assetNames.get(slot), amount(assetTotals[slot * 3]),
+                    amount(assetTotals[slot * 3 + 1]), amount(assetTotals[slot * 3 + 2])));
+        }
+        assetResults.sort((a, b) -> a.assetName().compareTo(b.assetName()));
+        unpriced.sort(String::compareTo);
+
+        long computeMillis = (System.nanoTime() - computeStarted) / 1_000_000;
+        return new Valuation(columns.rows, columns.customers, amount(total), assetResults,
+                topCustomers(columns, customerValue), unpriced, loadMillis, computeMillis);
+    }
+
+    private List<Valuation.CustomerValue> topCustomers(PositionColumns columns, long[] customerValue) {
+        int limit = Math.max(0, properties.getTopCustomers());
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> Long.compare(customerValue[a], customerValue[b]));
+        for (int customer = 0; customer < customerValue.length && limit > 0; customer++) {
+            if (top.size() < limit) {
+                top.add(customer);
+            } else if (customerValue[customer] > customerValue[top.peek()]) {
+                top.poll();
+                top.add(customer);
+            }
+        }
+        List<Valuation.CustomerValue> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int customer = top.poll();
+            result.add(new Valuation.CustomerValue(columns.customerId(customer), amount(customerValue[customer])));
+        }
+        return result.reversed();
+    }
+
+    private static Map<String, Long> priceUnits(Map<String, BigDecimal> prices) {
+        Map<String, Long> units = new HashMap<>();
+        if (prices == null) {
+            return units;
+        }
+        prices.forEach((symbol, price) -> {
+            if (price == null || price.signum() < 0 || price.stripTrailingZeros().scale() > FixedPoint.PRICE_SCALE) {
+                log.warn("Rejected revaluation price {} for {}", price, symbol);
+                throw new IllegalArgumentException("price of " + symbol + " must be >= 0 with at most "
+                        + FixedPoint.PRICE_SCALE + " decimals");
+            }
+            units.put(symbol, FixedPoint.of(price.setScale(FixedPoint.PRICE_SCALE), FixedPoint.PRICE_SCALE).units());
+        });
+        return units;
+    }
+
+    private static BigDecimal amount(long units) {
+        return BigDecimal.valueOf(units, FixedPoint.AMOUNT_SCALE);
+    }
+
+    // TRY value at balance precision of a balance in 10^-6 units times a price in 10^-4 units, half-up
+    private static long value(long amountUnits, long priceUnits) {
+        long high = Math.multiplyHigh(amountUnits, priceUnits);
+        long low = amountUnits * priceUnits;
+        if (high == (low >> 63) && low > Long.MIN_VALUE + PRICE_ONE && low < Long.MAX_VALUE - PRICE_ONE) {
+            long half = low >= 0 ? PRICE_ONE / 2 : -PRICE_ONE / 2;
+            return (low + half) / PRICE_ONE;
+        }
+        return new BigDecimal(BigInteger.valueOf(amountUnits).multiply(BigInteger.valueOf(priceUnits)))
+                .divide(BigDecimal.valueOf(PRICE_ONE), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    /**
+     * Values the customers {@code from} to {@code to}, writing each customer's total into
+     * {@code customerValue} and returning usable, reserved and value per asset slot.
+     */
+    private static final class Revaluation extends RecursiveTask<long[]> {
+
+        private final PositionColumns columns;
+
+        private final long[] price;
+
+        private final long[] customerValue;
+
+        private final int from;
+
+        private final int to;
+
+        private final int threshold;
+
+        private Revaluation(PositionColumns columns, long[] price, long[] customerValue, int from, int to, int threshold) {
+            this.columns = columns;
+            this.price = price;
+            this.customerValue = customerValue;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                Revaluation left = new Revaluation(columns, price, customerValue, from, middle, threshold);
+                left.fork();
+                long[] right = new Revaluation(columns, price, customerValue, middle, to, threshold).compute();
+                long[] totals = left.join();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] = Math.addExact(totals[i], right[i]);
+                }
+                return totals;
+            }
+
+            long[] totals = new long[price.length * 3];
+            int[] asset = columns.asset;
+            long[] usable = columns.usable;
+            long[] reserved = columns.reserved;
+            for (int customer = from; customer < to; customer++) {
+                long customerTotal = 0;
+                for (int row = columns.customerStart[customer]; row < columns.customerStart[customer + 1]; row++) {
+                    int slot = asset[row];
+                    totals[slot * 3] = Math.addExact(totals[slot * 3], usable[row]);
+                    totals[slot * 3 + 1] = Math.addExact(totals[slot * 3 + 1], reserved[row]);
+                    if (price[slot] != UNPRICED) {
+                        long value = value(Math.addExact(usable[row], reserved[row]), price[slot]);
+                        totals[slot * 3 + 2] = Math.addExact(totals[slot * 3 + 2], value);
+                        customerTotal = Math.addExact(customerTotal, value);
+                    }
+                }
+                customerValue[customer] = customerTotal;
+            }
+            return totals;
+        }
+    }
+}
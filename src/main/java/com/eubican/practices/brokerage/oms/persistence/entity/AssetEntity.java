@@ -58,8 +58,13 @@ public class AssetEntity {
         if (reserved == null) {
             reserved = BigDecimal.ZERO;
         }
-        usable = usable.setScale(6, RoundingMode.HALF_UP);
-        reserved = reserved.setScale(6, RoundingMode.HALF_UP);
-        size = usable.add(reserved).setScale(6, RoundingMode.HALF_UP);
+        usable = normalize(usable);
+        reserved = normalize(reserved);
+        size = usable.add(reserved);
+    }
+
+    // balances coming from the domain are already at scale 6, only rescale the ones that are not
+    private static BigDecimal normalize(BigDecimal value) {
+        return value.scale() == 6 ? value : value.setScale(6, RoundingMode.HALF_UP);
     }
 }
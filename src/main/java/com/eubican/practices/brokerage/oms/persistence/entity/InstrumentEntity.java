@@ -0,0 +1,36 @@
+package com.eubican.practices.brokerage.oms.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "instrument")
+@Data
+public class InstrumentEntity {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private Integer id;
+
+    @Column(name = "symbol", nullable = false, unique = true, length = 16)
+    private String symbol;
+
+    @Column(name = "tick_size", nullable = false, precision = 32, scale = 4)
+    private BigDecimal tickSize;
+
+    @Column(name = "lot_size", nullable = false, precision = 32, scale = 6)
+    private BigDecimal lotSize;
+
+    @Column(name = "active", nullable = false)
+    private boolean active = true;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+}
@@ -4,6 +4,9 @@ import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
 import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -12,7 +15,7 @@ import java.util.UUID;
 @Entity
 @Table(name = "orders")
 @Data
-public class OrderEntity {
+public class OrderEntity implements Persistable<UUID> {
 
     @Id
     @Column(name = "id", nullable = false, columnDefinition = "UUID")
@@ -43,4 +46,32 @@ public class OrderEntity {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    // SHA-256 of the create request the idempotency key was sent with
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    // key of the cancel or match command that moved the order out of PENDING
+    @Column(name = "transition_key", length = 64)
+    private String transitionKey;
+
+    // ids are assigned by the domain, so save() would otherwise merge and select every new order first
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
 }
@@ -1,11 +1,22 @@
 package com.eubican.practices.brokerage.oms.persistence.repository;
 
+import com.eubican.practices.brokerage.oms.domain.model.AssetView;
+import com.eubican.practices.brokerage.oms.domain.model.PortfolioPosition;
 import com.eubican.practices.brokerage.oms.persistence.entity.AssetEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,6 +24,101 @@ public interface AssetJpaRepository extends JpaRepository<AssetEntity, UUID> {
 
     Optional<AssetEntity> findByCustomer_IdAndAssetName(UUID customerId, String assetName);
 
-    Page<AssetEntity> findByCustomer_IdAndCreatedAtBetween(UUID customerId, Instant from, Instant to, Pageable pageable);
+    // takes the row lock without loading the entity, so no stale copy stays managed after a conditional update
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a.id from AssetEntity a where a.customer.id = :customerId and a.assetName = :assetName")
+    Optional<UUID> lockByCustomerIdAndAssetName(@Param("customerId") UUID customerId, @Param("assetName") String assetName);
+
+    boolean existsByCustomer_IdAndAssetName(UUID customerId, String assetName);
+
+    // The conditional updates below check and move a balance in one statement and report through the
+    // row count whether the guard held. They bypass the persistence context, so pending changes are
+    // flushed first and the version is bumped for readers that still do read-modify-write.
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update AssetEntity a
+               set a.usable = a.usable - :amount, a.reserved = a.reserved + :amount, a.version = a.version + 1
+             where a.customer.id = :customerId and a.assetName = :assetName and a.usable >= :amount
+            """)
+    int reserve(@Param("customerId") UUID customerId, @Param("assetName") String assetName, @Param("amount") BigDecimal amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update AssetEntity a
+               set a.reserved = a.reserved - :amount, a.usable = a.usable + :amount, a.version = a.version + 1
+             where a.customer.id = :customerId and a.assetName = :assetName and a.reserved >= :amount
+            """)
+    int release(@Param("customerId") UUID customerId, @Param("assetName") String assetName, @Param("amount") BigDecimal amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update AssetEntity a
+               set a.reserved = a.reserved - :amount, a.usable = a.usable + :refund,
+                   a.size = a.size - :amount + :refund, a.version = a.version + 1
+             where a.customer.id = :customerId and a.assetName = :assetName and a.reserved >= :amount
+            """)
+    int consumeReserved(@Param("customerId") UUID customerId, @Param("assetName") String assetName,
+                        @Param("amount") BigDecimal amount, @Param("refund") BigDecimal refund);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update AssetEntity a
+               set a.usable = a.usable + :amount, a.size = a.size + :amount, a.version = a.version + 1
+             where a.customer.id = :customerId and a.assetName = :assetName
+            """)
+    int credit(@Param("customerId") UUID customerId, @Param("assetName") String assetName, @Param("amount") BigDecimal amount);
+
+    List<AssetEntity> findByCustomer_IdInAndAssetNameIn(Collection<UUID> customerIds, Collection<String> assetNames);
+
+    // read-only rows for the asset list; the constructor expression skips entity hydration
+
+    @Query(value = """
+            select new com.eubican.practices.brokerage.oms.domain.model.AssetView(a.customer.id, a.assetName, a.size, a.usable, a.reserved, a.version)
+              from AssetEntity a
+             where a.customer.id = :customerId and a.createdAt between :from and :to
+            """, countQuery = """
+            select count(a) from AssetEntity a
+             where a.customer.id = :customerId and a.createdAt between :from and :to
+            """)
+    Page<AssetView> findViews(@Param("customerId") UUID customerId, @Param("from") Instant from,
+                              @Param("to") Instant to, Pageable pageable);
+
+    @Query("""
+            select new com.eubican.practices.brokerage.oms.domain.model.AssetView(a.customer.id, a.assetName, a.size, a.usable, a.reserved, a.version)
+              from AssetEntity a
+             where a.customer.id = :customerId and a.createdAt between :from and :to
+            """)
+    Slice<AssetView> findViewSlice(@Param("customerId") UUID customerId, @Param("from") Instant from,
+                                   @Param("to") Instant to, Pageable pageable);
+
+    // balances and pending orders of every asset of the customer in one statement; an asset with only
+    // pending orders shows up with zero balances. Only BUY orders hold TRY, each rounded as Order.notional() does
+    @Query("""
+            select new com.eubican.practices.brokerage.oms.domain.model.PortfolioPosition(
+                       p.assetName, sum(p.size), sum(p.usable), sum(p.reserved), sum(p.pending), sum(p.notional))
+              from (
+                    select a.assetName as assetName, a.size as size, a.usable as usable, a.reserved as reserved,
+                           0L as pending, cast(0 as BigDecimal) as notional
+                      from AssetEntity a
+                     where a.customer.id = :customerId
+                    union all
+                    select o.assetName, cast(0 as BigDecimal), cast(0 as BigDecimal), cast(0 as BigDecimal),
+                           1L, case when o.side = com.eubican.practices.brokerage.oms.domain.model.OrderSide.BUY
+                                    then round(o.size * o.price, 6) else cast(0 as BigDecimal) end
+                      from OrderEntity o
+                     where o.customer.id = :customerId
+                       and o.status = com.eubican.practices.brokerage.oms.domain.model.OrderStatus.PENDING
+                   ) p
+             group by p.assetName
+             order by p.assetName
+            """)
+    List<PortfolioPosition> findPortfolio(@Param("customerId") UUID customerId);
+
+    // symbols held by any customer, also those of delisted instruments and rows stored in another case
+    @Query("select distinct a.assetName from AssetEntity a")
+    List<String> findDistinctAssetNames();
+
+    long countByCustomer_IdAndCreatedAtBetween(UUID customerId, Instant from, Instant to);
 
 }
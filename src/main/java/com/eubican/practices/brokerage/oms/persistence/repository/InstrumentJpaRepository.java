@@ -0,0 +1,17 @@
+package com.eubican.practices.brokerage.oms.persistence.repository;
+
+import com.eubican.practices.brokerage.oms.persistence.entity.InstrumentEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface InstrumentJpaRepository extends JpaRepository<InstrumentEntity, Integer> {
+
+    List<InstrumentEntity> findByActiveTrue();
+
+    // delisted instruments too, whose orders stay searchable
+    @Query("select i.symbol from InstrumentEntity i")
+    List<String> findAllSymbols();
+
+}
@@ -1,12 +1,81 @@
 package com.eubican.practices.brokerage.oms.persistence.repository;
 
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
 import com.eubican.practices.brokerage.oms.persistence.entity.OrderEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface OrderJpaRepository
-        extends JpaRepository<OrderEntity, UUID>, JpaSpecificationExecutor<OrderEntity> {
+        extends JpaRepository<OrderEntity, UUID>, JpaSpecificationExecutor<OrderEntity>, OrderViewRepository {
+
+    // keyset page in (createdAt, id) order, for rebuilding in-process views a page at a time
+    @Query("""
+            select new com.eubican.practices.brokerage.oms.domain.model.OrderView(
+                   o.id, o.customer.id, o.assetName, o.status, o.side, o.size, o.price, o.createdAt)
+              from OrderEntity o
+             where o.status = :status
+               and (o.createdAt > :createdAt or (o.createdAt = :createdAt and o.id > :id))
+             order by o.createdAt, o.id
+            """)
+    List<OrderView> findViewsByStatusAfter(@Param("status") OrderStatus status,
+                                           @Param("createdAt") Instant createdAt,
+                                           @Param("id") UUID id,
+                                           Limit limit);
+
+    long countByStatus(OrderStatus status);
+
+    // read through a cursor, for rebuilding in-process views of every order in a status
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new com.eubican.practices.brokerage.oms.domain.model.OrderView(
+                   o.id, o.customer.id, o.assetName, o.status, o.side, o.size, o.price, o.createdAt)
+              from OrderEntity o
+             where o.status = :status
+            """)
+    Stream<OrderView> streamViewsByStatus(@Param("status") OrderStatus status);
+
+    // moves the orders out of PENDING unless a concurrent cancel or match already has; the row count
+    // tells how many of them this call won, and only the winner may move the reserved funds
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update OrderEntity o
+               set o.status = :status, o.transitionKey = :transitionKey
+             where o.id in :ids and o.status = com.eubican.practices.brokerage.oms.domain.model.OrderStatus.PENDING
+            """)
+    int transitionPending(@Param("ids") Collection<UUID> ids,
+                          @Param("status") OrderStatus status,
+                          @Param("transitionKey") String transitionKey);
+
+    Optional<OrderEntity> findByCustomer_IdAndIdempotencyKey(UUID customerId, String idempotencyKey);
+
+    @Query("select o.customer.id from OrderEntity o where o.id = :id")
+    Optional<UUID> findCustomerIdById(@Param("id") UUID id);
+
+    @Query("""
+            select o.id from OrderEntity o
+             where o.status = :status
+               and o.createdAt between :from and :to
+               and (:assetName is null or o.assetName = :assetName)
+             order by o.createdAt, o.id
+            """)
+    List<UUID> findIdsByStatusAndCreatedAtBetween(@Param("status") OrderStatus status,
+                                                  @Param("assetName") String assetName,
+                                                  @Param("from") Instant from,
+                                                  @Param("to") Instant to);
 
 }
@@ -0,0 +1,19 @@
+package com.eubican.practices.brokerage.oms.persistence.repository;
+
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
+import com.eubican.practices.brokerage.oms.persistence.entity.OrderEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specification queries that select {@link OrderView} rows instead of entities.
+ */
+public interface OrderViewRepository {
+
+    Page<OrderView> findViews(Specification<OrderEntity> spec, Pageable pageable);
+
+    Slice<OrderView> findViewSlice(Specification<OrderEntity> spec, Pageable pageable);
+
+}
@@ -0,0 +1,78 @@
+package com.eubican.practices.brokerage.oms.persistence.repository;
+
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
+import com.eubican.practices.brokerage.oms.persistence.entity.OrderEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class OrderViewRepositoryImpl implements OrderViewRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<OrderView> findViews(Specification<OrderEntity> spec, Pageable pageable) {
+        List<OrderView> content = select(spec, pageable, pageable.isPaged() ? pageable.getPageSize() : -1);
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<OrderView> findViewSlice(Specification<OrderEntity> spec, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(select(spec, pageable, -1), pageable, false);
+        }
+        // one extra row tells whether there is a next slice
+        List<OrderView> rows = select(spec, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    // customer.id is read from the foreign key column, so no join and no customer proxy
+    private List<OrderView> select(Specification<OrderEntity> spec, Pageable pageable, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderView> query = cb.createQuery(OrderView.class);
+        Root<OrderEntity> root = query.from(OrderEntity.class);
+        query.select(cb.construct(OrderView.class,
+                root.get("id"),
+                root.get("customer").get("id"),
+                root.get("assetName"),
+                root.get("status"),
+                root.get("side"),
+                root.get("size"),
+                root.get("price"),
+                root.get("createdAt")
+        ));
+        query.where(spec.toPredicate(root, query, cb));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<OrderView> typed = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typed.setMaxResults(limit);
+        }
+        return typed.getResultList();
+    }
+
+    private long count(Specification<OrderEntity> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<OrderEntity> root = query.from(OrderEntity.class);
+        query.select(cb.count(root)).where(spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -1,8 +1,13 @@
 package com.eubican.practices.brokerage.oms.persistence.repository.helper;
 
+import com.eubican.practices.brokerage.oms.domain.model.AssetFilter;
+import com.eubican.practices.brokerage.oms.domain.model.OrderCursor;
 import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
 import com.eubican.practices.brokerage.oms.persistence.entity.OrderEntity;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
@@ -12,6 +17,9 @@ import java.util.UUID;
 
 public final class OrderSpecifications {
 
+    // keyset order of the order history; id breaks ties between orders created at the same instant
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
     private OrderSpecifications() {
         throw new AssertionError("Cannot instantiate utility class.");
     }
@@ -21,7 +29,7 @@ public final class OrderSpecifications {
             Instant from,
             Instant to,
             OrderStatus status,
-            String assetName
+            AssetFilter assetFilter
     ) {
         return (root, query, cb) -> {
             List<Predicate> preds = new ArrayList<>();
@@ -34,12 +42,53 @@ public final class OrderSpecifications {
             if (status != null) {
                 preds.add(cb.equal(root.get("status"), status));
             }
-            if (assetName != null && !assetName.isBlank()) {
-                String pattern = "%" + assetName.toLowerCase() + "%";
-                preds.add(cb.like(cb.lower(root.get("assetName")), pattern));
+            if (assetFilter != null) {
+                preds.add(asset(root.get("assetName"), cb, assetFilter));
             }
 
             return cb.and(preds.toArray(new Predicate[0]));
         };
     }
+
+    // plain comparisons on the stored symbol, which idx_orders_customer_asset_created serves next to the
+    // customer; a prefix also bounds the symbol as a range, since a bound LIKE pattern gives the planner
+    // no range to seek, and a fragment no known symbol contains matches nothing rather than scanning
+    private static Predicate asset(Path<String> assetName, CriteriaBuilder cb, AssetFilter filter) {
+        return switch (filter.match()) {
+            case EXACT -> cb.equal(assetName, filter.value());
+            case PREFIX -> cb.and(
+                    cb.greaterThanOrEqualTo(assetName, filter.value()),
+                    cb.lessThan(assetName, successor(filter.value())),
+                    cb.like(assetName, escapeLike(filter.value()) + "%", '\\'));
+            case CONTAINS -> {
+                if (filter.needsExpansion()) {
+                    throw new IllegalStateException("Contains filter must be expanded to symbols");
+                }
+                yield filter.symbols().isEmpty() ? cb.disjunction() : assetName.in(filter.symbols());
+            }
+        };
+    }
+
+    // the least string above every string starting with the prefix
+    private static String successor(String prefix) {
+        int last = prefix.length() - 1;
+        return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Orders that come after {@code cursor} in {@link #NEWEST_FIRST} order.
+     */
+    public static Specification<OrderEntity> after(OrderCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                cb.and(
+                        cb.equal(root.get("createdAt"), cursor.createdAt()),
+                        cb.lessThan(root.get("id"), cursor.id())
+                )
+        );
+    }
 }
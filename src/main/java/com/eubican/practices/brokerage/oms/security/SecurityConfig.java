@@ -5,6 +5,7 @@ import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -27,6 +28,8 @@ public class SecurityConfig {
 
     private final ApplicationSecurityProperties props;
 
+    private final AuthorizationGuard authorizationGuard;
+
     private byte[] getSecretKeyBytes() {
         String secret = props.getJwtSecret();
         if (secret == null || secret.isBlank()) {
@@ -62,6 +65,9 @@ public class SecurityConfig {
                         // Carve out actuator health and auth endpoints to be publicly accessible
                         .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
                         .requestMatchers("/api/v1/auth/**").permitAll()
+                        // Remaining actuator endpoints expose operational data, admins only
+                        .requestMatchers("/actuator/**").access((authentication, context) ->
+                                new AuthorizationDecision(authorizationGuard.isAdmin(authentication.get())))
                         // Secure API endpoints
                         .requestMatchers("/api/**").authenticated()
                 );
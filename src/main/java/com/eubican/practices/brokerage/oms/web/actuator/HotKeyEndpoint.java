@@ -0,0 +1,34 @@
+package com.eubican.practices.brokerage.oms.web.actuator;
+
+import com.eubican.practices.brokerage.oms.domain.concurrency.HotKeyTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "hotkeys")
+@RequiredArgsConstructor
+public class HotKeyEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final HotKeyTracker tracker;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys(@Nullable Integer limit) {
+        int top = limit == null ? DEFAULT_LIMIT : Math.max(1, limit);
+        return Map.of(
+                "enabled", tracker.isEnabled(),
+                "serializing", tracker.isSerializing(),
+                "conflictThreshold", tracker.conflictThreshold(),
+                "hot", tracker.hotKeys(),
+                "byConflicts", tracker.topByConflicts(top),
+                "byCommands", tracker.topByCommands(top)
+        );
+    }
+
+}
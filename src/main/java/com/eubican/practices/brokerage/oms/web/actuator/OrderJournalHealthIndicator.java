@@ -0,0 +1,26 @@
+package com.eubican.practices.brokerage.oms.web.actuator;
+
+import com.eubican.practices.brokerage.oms.domain.journal.OrderJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class OrderJournalHealthIndicator implements HealthIndicator {
+
+    private final OrderJournal journal;
+
+    @Override
+    public Health health() {
+        if (!journal.isEnabled()) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        Health.Builder health = journal.isDirty() ? Health.down() : Health.up();
+        return health.withDetail("enabled", true)
+                .withDetail("dirty", journal.isDirty())
+                .build();
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.eubican.practices.brokerage.oms.web.actuator;
+
+import com.eubican.practices.brokerage.oms.domain.concurrency.CustomerSequencer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "sequencer")
+@RequiredArgsConstructor
+public class SequencerEndpoint {
+
+    private final CustomerSequencer sequencer;
+
+    @ReadOperation
+    public Map<String, Object> lanes() {
+        List<CustomerSequencer.LaneStats> stats = sequencer.stats();
+        return Map.of(
+                "enabled", sequencer.isEnabled(),
+                "lanes", stats
+        );
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.eubican.practices.brokerage.oms.web.controller;
+
+import com.eubican.practices.brokerage.oms.domain.instrument.InstrumentRegistry;
+import com.eubican.practices.brokerage.oms.domain.model.Instrument;
+import com.eubican.practices.brokerage.oms.domain.model.constants.ControllerPaths;
+import com.eubican.practices.brokerage.oms.web.dto.InstrumentResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping(ControllerPaths.API_V_1_ADMIN_INSTRUMENTS)
+@RequiredArgsConstructor
+public class AdminInstrumentController {
+
+    private final InstrumentRegistry instrumentRegistry;
+
+    @PreAuthorize("@authorizationGuard.isAdmin(authentication)")
+    @GetMapping
+    @ResponseStatus(code = HttpStatus.OK)
+    public List<InstrumentResponse> fetchInstruments() {
+        return instrumentRegistry.instruments().stream()
+                .sorted(Comparator.comparingInt(Instrument::id))
+                .map(InstrumentResponse::of)
+                .toList();
+    }
+
+    /**
+     * Reloads the registry from the {@code instrument} table, e.g. after a listing was added.
+     */
+    @PreAuthorize("@authorizationGuard.isAdmin(authentication)")
+    @PostMapping("/refresh")
+    @ResponseStatus(code = HttpStatus.OK)
+    public List<InstrumentResponse> refreshInstruments() {
+        instrumentRegistry.refresh();
+        return fetchInstruments();
+    }
+
+}
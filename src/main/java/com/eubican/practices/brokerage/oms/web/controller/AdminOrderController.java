@@ -1,12 +1,20 @@
 package com.eubican.practices.brokerage.oms.web.controller;
 
+import com.eubican.practices.brokerage.oms.domain.idempotency.IdempotencyCache;
+import com.eubican.practices.brokerage.oms.domain.model.BatchMatchReport;
 import com.eubican.practices.brokerage.oms.domain.model.constants.ControllerPaths;
+import com.eubican.practices.brokerage.oms.domain.service.BatchMatchService;
 import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.web.dto.BatchMatchRequest;
+import com.eubican.practices.brokerage.oms.web.dto.BatchMatchResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -20,11 +28,39 @@ public class AdminOrderController {
 
     private final OrderService orderService;
 
+    private final BatchMatchService batchMatchService;
+
+    private final IdempotencyCache idempotencyCache;
+
     @PreAuthorize("@authorizationGuard.isAdmin(authentication)")
     @PostMapping("/{orderId}/match")
     @ResponseStatus(code = HttpStatus.ACCEPTED)
-    public void matchOrder(@PathVariable UUID orderId) {
-        orderService.matchOrder(orderId);
+    public void matchOrder(
+            @PathVariable UUID orderId,
+            @RequestHeader(name = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+            Authentication authentication
+    ) {
+        if (idempotencyKey == null) {
+            orderService.matchOrder(orderId);
+            return;
+        }
+        IdempotencyCache.Key cacheKey = new IdempotencyCache.Key("match", authentication.getName(), orderId, idempotencyKey);
+        if (idempotencyCache.get(cacheKey, Boolean.class).isPresent()) {
+            return;
+        }
+        orderService.matchOrder(orderId, idempotencyKey);
+        idempotencyCache.put(cacheKey, Boolean.TRUE);
+    }
+
+    @PreAuthorize("@authorizationGuard.isAdmin(authentication)")
+    @PostMapping("/match")
+    @ResponseStatus(code = HttpStatus.OK)
+    public BatchMatchResponse matchOrders(@RequestBody BatchMatchRequest request) {
+        BatchMatchReport report = request.orderIds() != null && !request.orderIds().isEmpty()
+                ? batchMatchService.matchOrders(request.orderIds())
+                : batchMatchService.matchOrders(request.assetName(), request.from(), request.to());
+
+        return BatchMatchResponse.of(report);
     }
 
 }
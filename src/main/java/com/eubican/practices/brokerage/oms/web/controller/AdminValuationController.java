@@ -0,0 +1,33 @@
+package com.eubican.practices.brokerage.oms.web.controller;
+
+import com.eubican.practices.brokerage.oms.domain.model.constants.ControllerPaths;
+import com.eubican.practices.brokerage.oms.domain.valuation.ValuationEngine;
+import com.eubican.practices.brokerage.oms.web.dto.ValuationRequest;
+import com.eubican.practices.brokerage.oms.web.dto.ValuationResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(ControllerPaths.API_V_1_ADMIN_VALUATIONS)
+@RequiredArgsConstructor
+public class AdminValuationController {
+
+    private final ValuationEngine valuationEngine;
+
+    /**
+     * Revalues every asset row against the given TRY prices per symbol.
+     */
+    @PreAuthorize("@authorizationGuard.isAdmin(authentication)")
+    @PostMapping
+    @ResponseStatus(code = HttpStatus.OK)
+    public ValuationResponse revalue(@RequestBody ValuationRequest request) {
+        return ValuationResponse.of(valuationEngine.revalue(request.prices()));
+    }
+
+}
@@ -1,19 +1,28 @@
 package com.eubican.practices.brokerage.oms.web.controller;
 
+import com.eubican.practices.brokerage.oms.domain.coalescing.SingleFlight;
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.AssetView;
 import com.eubican.practices.brokerage.oms.domain.model.constants.ControllerPaths;
 import com.eubican.practices.brokerage.oms.domain.service.AssetService;
 import com.eubican.practices.brokerage.oms.web.dto.AssetResponse;
 import com.eubican.practices.brokerage.oms.web.dto.PagedResponse;
+import com.eubican.practices.brokerage.oms.web.dto.PortfolioResponse;
+import com.eubican.practices.brokerage.oms.web.dto.Totals;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 @RestController
@@ -23,31 +32,70 @@ public class AssetController {
 
     private final AssetService assetService;
 
+    private final SingleFlight singleFlight;
+
+    /**
+     * Tagged with the versions of the listed rows; a matching {@code If-None-Match} gets 304.
+     */
     @PreAuthorize("@authorizationGuard.canAccessCustomer(#customerId)")
     @GetMapping
-    @ResponseStatus(code = HttpStatus.OK)
-    public PagedResponse<AssetResponse> fetchCustomerAssets(
+    public ResponseEntity<PagedResponse<AssetResponse>> fetchCustomerAssets(
             @RequestParam UUID customerId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
-            @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable
+            @RequestParam(defaultValue = "EXACT") Totals totals,
+            @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        var page = assetService.fetchCustomerAssets(
-                customerId,
-                from,
-                to,
-                pageable.getPageNumber(),
-                pageable.getPageSize()
-        ).map(AssetResponse::of);
-
-        return PagedResponse.of(page);
+        PagedResponse<AssetView> views;
+        if (Totals.EXACT != totals) {
+            var slice = assetService.fetchCustomerAssetSlice(
+                    customerId,
+                    from,
+                    to,
+                    pageable.getPageNumber(),
+                    pageable.getPageSize()
+            );
+            views = PagedResponse.of(slice, Totals.APPROXIMATE == totals
+                    ? assetService.approximateAssetCount(customerId, from, to)
+                    : OptionalLong.empty());
+        } else {
+            views = PagedResponse.of(assetService.fetchCustomerAssets(
+                    customerId,
+                    from,
+                    to,
+                    pageable.getPageNumber(),
+                    pageable.getPageSize()
+            ));
+        }
+
+        return ETags.conditional(ifNoneMatch, ETags.ofAssets(views), () -> views.map(AssetResponse::of));
     }
 
+    /**
+     * Everything the customer holds now, with the pending orders per asset, from a single query.
+     */
     @PreAuthorize("@authorizationGuard.canAccessCustomer(#customerId)")
-    @GetMapping("/{assetName}")
+    @GetMapping("/portfolio")
     @ResponseStatus(code = HttpStatus.OK)
-    public AssetResponse fetchCustomerAsset(@RequestParam UUID customerId, @PathVariable String assetName) {
-        return AssetResponse.of(assetService.retrieveCustomerAsset(customerId, assetName));
+    public PortfolioResponse fetchPortfolio(@RequestParam UUID customerId) {
+        return PortfolioResponse.of(customerId, assetService.fetchPortfolio(customerId));
+    }
+
+    /**
+     * Tagged with the row version. A cached position answers a matching {@code If-None-Match} with
+     * 304 without reading the database.
+     */
+    @PreAuthorize("@authorizationGuard.canAccessCustomer(#customerId)")
+    @GetMapping("/{assetName}")
+    public ResponseEntity<AssetResponse> fetchCustomerAsset(
+            @RequestParam UUID customerId,
+            @PathVariable String assetName,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        Asset asset = singleFlight.execute(SingleFlight.ASSET, List.of(customerId, assetName),
+                () -> assetService.retrieveCustomerAsset(customerId, assetName));
+        return ETags.conditional(ifNoneMatch, ETags.of(asset), () -> AssetResponse.of(asset));
     }
 
 }
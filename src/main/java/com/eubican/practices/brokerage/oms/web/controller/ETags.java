@@ -0,0 +1,120 @@
+package com.eubican.practices.brokerage.oms.web.controller;
+
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.AssetView;
+import com.eubican.practices.brokerage.oms.web.dto.OrderResponse;
+import com.eubican.practices.brokerage.oms.web.dto.PagedResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Strong entity tags for the polled reads. A position is tagged with its row and {@code @Version},
+ * a page with a fingerprint of the versions it contains and of its totals, so a tag can be checked
+ * against {@code If-None-Match} before the body is mapped or serialised.
+ * <p>
+ * Orders carry no version column; their status only ever moves forward from PENDING, so id and
+ * status identify the state of an order.
+ */
+final class ETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ETags() {
+    }
+
+    static String of(Asset asset) {
+        return tag(new Fingerprint().add(asset.getCustomerId()).add(asset.getAssetName()).add(version(asset.getVersion())));
+    }
+
+    static String ofAssets(PagedResponse<AssetView> page) {
+        Fingerprint fingerprint = totals(page);
+        for (AssetView asset : page.content()) {
+            fingerprint.add(asset.assetName()).add(version(asset.version()));
+        }
+        return tag(fingerprint);
+    }
+
+    static String ofOrders(PagedResponse<OrderResponse> page) {
+        Fingerprint fingerprint = totals(page);
+        for (OrderResponse order : page.content()) {
+            fingerprint.add(order.orderId()).add(order.status().ordinal());
+        }
+        return tag(fingerprint);
+    }
+
+    /**
+     * 304 with the tag when {@code If-None-Match} lists it, otherwise 200 with the tag and the body,
+     * which is only built in that case.
+     */
+    static <T> ResponseEntity<T> conditional(String ifNoneMatch, String etag, Supplier<T> body) {
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(body.get());
+    }
+
+    /**
+     * Whether {@code If-None-Match} lists the tag. The comparison is weak, as RFC 9110 asks for this
+     * header, so a {@code W/} prefix added by a proxy still matches.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Fingerprint totals(PagedResponse<?> page) {
+        return new Fingerprint()
+                .add(page.page())
+                .add(page.size())
+                .add(page.totalElements() == null ? -1 : page.totalElements())
+                .add(page.last() ? 1 : 0)
+                .add(page.content().size());
+    }
+
+    private static long version(Long version) {
+        return version == null ? -1 : version;
+    }
+
+    private static String tag(Fingerprint fingerprint) {
+        return "\"" + Long.toHexString(fingerprint.hash) + "\"";
+    }
+
+    // 64-bit FNV-1a over the bytes of the added values
+    private static final class Fingerprint {
+
+        private long hash = FNV_OFFSET;
+
+        Fingerprint add(long value) {
+            for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+                hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+            }
+            return this;
+        }
+
+        Fingerprint add(UUID value) {
+            return add(value.getMostSignificantBits()).add(value.getLeastSignificantBits());
+        }
+
+        Fingerprint add(String value) {
+            value.chars().forEach(this::add);
+            // ends every string, so adjacent strings cannot shift into each other
+            return add(-1);
+        }
+    }
+}
@@ -1,76 +1,269 @@
 package com.eubican.practices.brokerage.oms.web.controller;
 
+import com.eubican.practices.brokerage.oms.domain.coalescing.SingleFlight;
+import com.eubican.practices.brokerage.oms.domain.idempotency.IdempotencyCache;
+import com.eubican.practices.brokerage.oms.domain.instrument.InstrumentRegistry;
+import com.eubican.practices.brokerage.oms.domain.model.AssetFilter;
+import com.eubican.practices.brokerage.oms.domain.model.AssetMatch;
 import com.eubican.practices.brokerage.oms.domain.model.Order;
 import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
 import com.eubican.practices.brokerage.oms.domain.model.constants.ControllerPaths;
+import com.eubican.practices.brokerage.oms.domain.service.BulkOrderService;
+import com.eubican.practices.brokerage.oms.domain.service.OrderExportService;
 import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.web.dto.BulkOrderAck;
 import com.eubican.practices.brokerage.oms.web.dto.CreateOrderRequest;
 import com.eubican.practices.brokerage.oms.web.dto.OrderResponse;
+import com.eubican.practices.brokerage.oms.web.dto.CursorResponse;
+import com.eubican.practices.brokerage.oms.web.dto.ExportFormat;
 import com.eubican.practices.brokerage.oms.web.dto.PagedResponse;
+import com.eubican.practices.brokerage.oms.web.dto.Totals;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 
+@Slf4j
 @RestController
 @RequestMapping(ControllerPaths.API_V_1_ORDERS)
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final String SORTABLE = "createdAt";
+
     private final OrderService orderService;
 
+    private final BulkOrderService bulkOrderService;
+
+    private final OrderExportService orderExportService;
+
+    private final InstrumentRegistry instrumentRegistry;
+
+    private final IdempotencyCache idempotencyCache;
+
+    private final SingleFlight singleFlight;
+
     @PreAuthorize("@authorizationGuard.canAccessCustomer(#request.customerId())")
     @PostMapping
     @ResponseStatus(code = HttpStatus.CREATED)
-    public OrderResponse createOrder(@Valid @RequestBody CreateOrderRequest request) {
-        Order order = orderService.createOrder(
-                Order.from(
-                        request.customerId(),
-                        request.assetName(),
-                        request.side(),
-                        request.size(),
-                        request.price()
-                )
-        );
-
-        return OrderResponse.of(order);
+    public OrderResponse createOrder(
+            @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(name = IdempotencyCache.HEADER, required = false) String idempotencyKey
+    ) {
+        IdempotencyCache.Key cacheKey = idempotencyKey == null ? null
+                : new IdempotencyCache.Key("create", request.customerId().toString(), null, idempotencyKey);
+        Order requested = Order.from(
+                request.customerId(),
+                instrumentRegistry.require(request.assetName()),
+                request.side(),
+                request.size(),
+                request.price()
+        ).withIdempotencyKey(idempotencyKey);
+        String requestHash = cacheKey != null ? requested.requestHash() : null;
+        if (cacheKey != null) {
+            Optional<OrderResponse> replayed = idempotencyCache.get(cacheKey, requestHash, OrderResponse.class);
+            if (replayed.isPresent()) {
+                return replayed.get();
+            }
+        }
+
+        Order order = orderService.createOrder(requested);
+
+        OrderResponse response = OrderResponse.of(order);
+        if (cacheKey != null) {
+            idempotencyCache.put(cacheKey, requestHash, response);
+        }
+        return response;
+    }
+
+    /**
+     * Accepts one {@link CreateOrderRequest} per line and answers with one {@link BulkOrderAck} per
+     * line, see {@link BulkOrderService}.
+     */
+    @PreAuthorize("@authorizationGuard.canAccessCustomer(#customerId)")
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void createOrders(
+            @RequestParam UUID customerId,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        bulkOrderService.submit(customerId, request.getInputStream(), response.getOutputStream());
     }
 
     @PostMapping("/{orderId}/cancel")
     @ResponseStatus(code = HttpStatus.NO_CONTENT)
-    public void cancelOrder(@PathVariable UUID orderId) {
-        orderService.cancelOrder(orderId);
+    public void cancelOrder(
+            @PathVariable UUID orderId,
+            @RequestHeader(name = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+            Authentication authentication
+    ) {
+        if (idempotencyKey == null) {
+            orderService.cancelOrder(orderId);
+            return;
+        }
+        // scoped to the caller, ownership is only checked by the service
+        IdempotencyCache.Key cacheKey = new IdempotencyCache.Key("cancel", authentication.getName(), orderId, idempotencyKey);
+        if (idempotencyCache.get(cacheKey, Boolean.class).isPresent()) {
+            return;
+        }
+        orderService.cancelOrder(orderId, idempotencyKey);
+        idempotencyCache.put(cacheKey, Boolean.TRUE);
     }
 
+    /**
+     * Tagged with the ids and statuses of the listed orders; a matching {@code If-None-Match} gets 304.
+     */
     @PreAuthorize("@authorizationGuard.canAccessCustomer(#customerId)")
     @GetMapping
-    @ResponseStatus(code = HttpStatus.OK)
-    public PagedResponse<OrderResponse> fetchOrders(
+    public ResponseEntity<PagedResponse<OrderResponse>> fetchOrders(
             @RequestParam UUID customerId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
             @RequestParam(required = false) OrderStatus status,
             @RequestParam(required = false) String assetName,
-            @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable
+            @RequestParam(defaultValue = "CONTAINS") AssetMatch assetMatch,
+            @RequestParam(defaultValue = "EXACT") Totals totals,
+            @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
+        Pageable indexed = indexBacked(pageable);
+        // market-open bursts ask for the same first page many times within milliseconds
+        OrdersQuery query = new OrdersQuery(customerId, from, to, status, assetName, assetMatch, totals, indexed);
+        PagedResponse<OrderResponse> page = singleFlight.execute(SingleFlight.ORDERS, query, () -> loadOrders(query));
+        return ETags.conditional(ifNoneMatch, ETags.ofOrders(page), () -> page);
+    }
+
+    private PagedResponse<OrderResponse> loadOrders(OrdersQuery query) {
+        AssetFilter assetFilter = AssetFilter.of(query.assetName(), query.assetMatch());
+        if (Totals.EXACT != query.totals()) {
+            var slice = orderService.fetchOrderSlice(query.customerId(), query.from(), query.to(), query.status(), assetFilter, query.pageable())
+                    .map(OrderResponse::of);
+            return PagedResponse.of(slice, Totals.APPROXIMATE == query.totals()
+                    ? orderService.approximateOrderCount(query.customerId(), query.from(), query.to(), query.status(), assetFilter)
+                    : OptionalLong.empty());
+        }
+
         var page = orderService.fetchOrders(
+                query.customerId(),
+                query.from(),
+                query.to(),
+                query.status(),
+                assetFilter,
+                query.pageable()
+        ).map(OrderResponse::of);
+
+        return PagedResponse.of(page);
+    }
+
+    /**
+     * Streams every order of the customer in the date range, oldest first, as NDJSON or CSV, see
+     * {@link OrderExportService}. Compression is negotiated by the container.
+     * <p>
+     * A failure before anything was sent is answered as an error. Once the status has gone out, the
+     * connection is aborted without ending the body, so the client sees a broken transfer rather than
+     * a short but complete-looking export.
+     */
+    @PreAuthorize("@authorizationGuard.canAccessCustomer(#customerId)")
+    @GetMapping("/export")
+    public void exportOrders(
+            @RequestParam UUID customerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String assetName,
+            @RequestParam(defaultValue = "CONTAINS") AssetMatch assetMatch,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(format.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + format.extension() + "\"");
+
+        long exported;
+        try {
+            exported = orderExportService.export(customerId, from, to, status, AssetFilter.of(assetName, assetMatch),
+                    format, response.getOutputStream());
+        } catch (IOException ex) {
+            // the client went away, there is nobody left to answer
+            log.warn("Order export for customer {} aborted: {}", customerId, ex.getMessage());
+            return;
+        } catch (RuntimeException ex) {
+            log.error("Order export for customer {} failed", customerId, ex);
+            if (!response.isCommitted()) {
+                // nothing was sent yet, so the error is answered like any other
+                response.reset();
+            }
+            // on a committed response the container drops the connection instead of ending the body
+            throw ex;
+        }
+        log.info("Exported {} orders of customer {} as {}", exported, customerId, format);
+    }
+
+    // keyset mode, selected by the cursor parameter; an empty cursor asks for the first page
+    @PreAuthorize("@authorizationGuard.canAccessCustomer(#customerId)")
+    @GetMapping(params = "cursor")
+    @ResponseStatus(code = HttpStatus.OK)
+    public CursorResponse<OrderResponse> scrollOrders(
+            @RequestParam UUID customerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String assetName,
+            @RequestParam(defaultValue = "CONTAINS") AssetMatch assetMatch,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        var page = orderService.scrollOrders(
                 customerId,
                 from,
                 to,
                 status,
-                assetName,
-                pageable
+                AssetFilter.of(assetName, assetMatch),
+                cursor,
+                size
         ).map(OrderResponse::of);
 
-        return PagedResponse.of(page);
+        return CursorResponse.of(page);
     }
 
+    // only orderings the order indexes can serve are accepted; id keeps equal timestamps in a stable order
+    private Pageable indexBacked(Pageable pageable) {
+        Sort.Direction direction = Sort.Direction.DESC;
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE.equals(order.getProperty())) {
+                log.warn("Rejected order sort on {}", order.getProperty());
+                throw new IllegalArgumentException("Orders can only be sorted by " + SORTABLE);
+            }
+            direction = order.getDirection();
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(direction, SORTABLE, "id"));
+    }
+
+    private record OrdersQuery(UUID customerId, Instant from, Instant to, OrderStatus status, String assetName,
+                               AssetMatch assetMatch, Totals totals, Pageable pageable) {
+    }
 }
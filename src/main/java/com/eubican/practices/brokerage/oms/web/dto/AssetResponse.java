@@ -2,6 +2,8 @@ package com.eubican.practices.brokerage.oms.web.dto;
 
 import com.eubican.practices.brokerage.oms.domain.model.Asset;
 
+import com.eubican.practices.brokerage.oms.domain.model.AssetView;
+
 import java.math.BigDecimal;
 import java.util.UUID;
 
@@ -12,6 +14,16 @@ public record AssetResponse(
         BigDecimal usable,
         BigDecimal reserved
 ) {
+    public static AssetResponse of(AssetView asset) {
+        return new AssetResponse(
+                asset.customerId(),
+                asset.assetName(),
+                asset.size(),
+                asset.usable(),
+                asset.reserved()
+        );
+    }
+
     public static AssetResponse of(Asset asset) {
         return new AssetResponse(
                 asset.getCustomerId(),
@@ -0,0 +1,13 @@
+package com.eubican.practices.brokerage.oms.web.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record BatchMatchRequest(
+        List<UUID> orderIds,
+        String assetName,
+        Instant from,
+        Instant to
+) {
+}
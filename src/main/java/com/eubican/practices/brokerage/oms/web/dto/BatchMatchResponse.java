@@ -0,0 +1,26 @@
+package com.eubican.practices.brokerage.oms.web.dto;
+
+import com.eubican.practices.brokerage.oms.domain.model.BatchMatchReport;
+import com.eubican.practices.brokerage.oms.domain.model.BatchMatchResult;
+
+import java.util.List;
+
+public record BatchMatchResponse(
+        List<BatchMatchResult> results,
+        int requested,
+        long matched,
+        long rejected,
+        long elapsedMillis,
+        double ordersPerSecond
+) {
+    public static BatchMatchResponse of(BatchMatchReport report) {
+        return new BatchMatchResponse(
+                report.results(),
+                report.results().size(),
+                report.matched(),
+                report.rejected(),
+                report.elapsedMillis(),
+                report.ordersPerSecond()
+        );
+    }
+}
@@ -0,0 +1,25 @@
+package com.eubican.practices.brokerage.oms.web.dto;
+
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSubmissionResult;
+
+import java.util.UUID;
+
+public record BulkOrderAck(
+        long line,
+        boolean accepted,
+        UUID orderId,
+        OrderStatus status,
+        String error
+) {
+    public static BulkOrderAck of(long line, OrderSubmissionResult result) {
+        if (!result.isAccepted()) {
+            return rejected(line, result.error());
+        }
+        return new BulkOrderAck(line, true, result.order().getId(), result.order().getStatus(), null);
+    }
+
+    public static BulkOrderAck rejected(long line, String error) {
+        return new BulkOrderAck(line, false, null, null, error);
+    }
+}
@@ -6,11 +6,12 @@ import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 import java.util.UUID;
 
+// integer digits are capped so that sizes and prices fit the long units of FixedPoint
 public record CreateOrderRequest(
         @NotNull UUID customerId,
         @NotBlank @Pattern(regexp = "[A-Z0-9_]{2,16}") String assetName,
         @NotNull OrderSide side,
-        @NotNull @DecimalMin(value = "0.000001") @Digits(integer = 26, fraction = 6) BigDecimal size,
-        @NotNull @DecimalMin(value = "0.0001") @Digits(integer = 28, fraction = 4) BigDecimal price
+        @NotNull @DecimalMin(value = "0.000001") @Digits(integer = 12, fraction = 6) BigDecimal size,
+        @NotNull @DecimalMin(value = "0.0001") @Digits(integer = 14, fraction = 4) BigDecimal price
 ) {
 }
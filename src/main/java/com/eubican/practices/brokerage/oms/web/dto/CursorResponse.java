@@ -0,0 +1,21 @@
+package com.eubican.practices.brokerage.oms.web.dto;
+
+import com.eubican.practices.brokerage.oms.domain.model.CursorPage;
+
+import java.util.List;
+
+public record CursorResponse<T>(
+        List<T> content,
+        int size,
+        String nextCursor,
+        boolean last
+) {
+    public static <T> CursorResponse<T> of(CursorPage<T> page) {
+        return new CursorResponse<>(
+                page.content(),
+                page.content().size(),
+                page.nextCursor(),
+                !page.hasNext()
+        );
+    }
+}
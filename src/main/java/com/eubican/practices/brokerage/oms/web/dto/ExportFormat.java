@@ -0,0 +1,30 @@
+package com.eubican.practices.brokerage.oms.web.dto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Body format of an order export.
+ */
+public enum ExportFormat {
+    /** One {@link OrderResponse} JSON object per line. */
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE, "ndjson"),
+    /** A header line followed by one comma-separated line per order. */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
@@ -0,0 +1,21 @@
+package com.eubican.practices.brokerage.oms.web.dto;
+
+import com.eubican.practices.brokerage.oms.domain.model.Instrument;
+
+import java.math.BigDecimal;
+
+public record InstrumentResponse(
+        int id,
+        String symbol,
+        BigDecimal tickSize,
+        BigDecimal lotSize
+) {
+    public static InstrumentResponse of(Instrument instrument) {
+        return new InstrumentResponse(
+                instrument.id(),
+                instrument.symbol(),
+                instrument.tickSize().toBigDecimal(),
+                instrument.lotSize().toBigDecimal()
+        );
+    }
+}
@@ -2,6 +2,7 @@ package com.eubican.practices.brokerage.oms.web.dto;
 
 import com.eubican.practices.brokerage.oms.domain.model.Order;
 import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
 import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
 
 import java.math.BigDecimal;
@@ -18,6 +19,18 @@ public record OrderResponse(
         BigDecimal price,
         Instant createdAt
 ) {
+    public static OrderResponse of(OrderView order) {
+        return new OrderResponse(order.id(),
+                order.customerId(),
+                order.assetName(),
+                order.status(),
+                order.side(),
+                order.size(),
+                order.price(),
+                order.createdAt()
+        );
+    }
+
     public static OrderResponse of(Order order) {
         return new OrderResponse(order.getId(),
                 order.getCustomerId(),
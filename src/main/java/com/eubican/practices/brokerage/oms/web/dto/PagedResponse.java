@@ -1,17 +1,26 @@
 package com.eubican.practices.brokerage.oms.web.dto;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Function;
 
+/**
+ * One page of a paged endpoint. {@code totalElements} and {@code totalPages} are {@code null} when
+ * the client asked for no totals or no count is known yet; {@code approximate} marks totals taken
+ * from the count cache rather than counted for this request.
+ */
 public record PagedResponse<T>(
         List<T> content,
         int page,
         int size,
-        long totalElements,
-        int totalPages,
+        Long totalElements,
+        Integer totalPages,
         boolean first,
-        boolean last
+        boolean last,
+        boolean approximate
 ) {
     public static <T> PagedResponse<T> of(Page<T> page) {
         return new PagedResponse<>(
@@ -21,7 +30,28 @@ public record PagedResponse<T>(
                 page.getTotalElements(),
                 page.getTotalPages(),
                 page.isFirst(),
-                page.isLast()
+                page.isLast(),
+                false
         );
     }
-}
\ No newline at end of file
+
+    public static <T> PagedResponse<T> of(Slice<T> slice, OptionalLong approximateTotal) {
+        Long total = approximateTotal.isPresent() ? approximateTotal.getAsLong() : null;
+        Integer totalPages = total == null ? null : (int) ((total + slice.getSize() - 1) / Math.max(1, slice.getSize()));
+        return new PagedResponse<>(
+                slice.getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                total,
+                totalPages,
+                slice.isFirst(),
+                slice.isLast(),
+                total != null
+        );
+    }
+
+    public <R> PagedResponse<R> map(Function<? super T, ? extends R> mapper) {
+        return new PagedResponse<>(content.stream().<R>map(mapper).toList(), page, size, totalElements, totalPages,
+                first, last, approximate);
+    }
+}
@@ -0,0 +1,36 @@
+package com.eubican.practices.brokerage.oms.web.dto;
+
+import com.eubican.practices.brokerage.oms.domain.model.PortfolioPosition;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+public record PortfolioResponse(
+        UUID customerId,
+        List<Position> positions
+) {
+    public static PortfolioResponse of(UUID customerId, List<PortfolioPosition> positions) {
+        return new PortfolioResponse(customerId, positions.stream().map(Position::of).toList());
+    }
+
+    public record Position(
+            String assetName,
+            BigDecimal size,
+            BigDecimal usable,
+            BigDecimal reserved,
+            long pendingOrders,
+            BigDecimal pendingNotional
+    ) {
+        static Position of(PortfolioPosition position) {
+            return new Position(
+                    position.assetName(),
+                    position.size(),
+                    position.usable(),
+                    position.reserved(),
+                    position.pendingOrders(),
+                    position.pendingNotional()
+            );
+        }
+    }
+}
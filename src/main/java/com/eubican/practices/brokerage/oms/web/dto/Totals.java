@@ -0,0 +1,13 @@
+package com.eubican.practices.brokerage.oms.web.dto;
+
+/**
+ * How a paged endpoint reports totals.
+ */
+public enum Totals {
+    /** Counted for every request. */
+    EXACT,
+    /** Not reported; the page only tells whether it is the last one. */
+    NONE,
+    /** Last count from the count cache, refreshed in the background. */
+    APPROXIMATE
+}
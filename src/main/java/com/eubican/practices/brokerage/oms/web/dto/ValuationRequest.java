@@ -0,0 +1,9 @@
+package com.eubican.practices.brokerage.oms.web.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public record ValuationRequest(
+        Map<String, BigDecimal> prices
+) {
+}
@@ -0,0 +1,30 @@
+package com.eubican.practices.brokerage.oms.web.dto;
+
+import com.eubican.practices.brokerage.oms.domain.model.Valuation;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ValuationResponse(
+        int positions,
+        int customers,
+        BigDecimal totalValue,
+        List<Valuation.AssetTotal> assets,
+        List<Valuation.CustomerValue> topCustomers,
+        List<String> unpriced,
+        long loadMillis,
+        long computeMillis
+) {
+    public static ValuationResponse of(Valuation valuation) {
+        return new ValuationResponse(
+                valuation.positions(),
+                valuation.customers(),
+                valuation.totalValue(),
+                valuation.assets(),
+                valuation.topCustomers(),
+                valuation.unpriced(),
+                valuation.loadMillis(),
+                valuation.computeMillis()
+        );
+    }
+}
@@ -6,8 +6,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import java.time.Instant;
+import java.util.UUID;
 
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -19,6 +30,9 @@ class ActuatorIT {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private JwtEncoder jwtEncoder;
+
     @Test
     void healthEndpointIsPublicAndReturnsUp() {
         String url = "http://localhost:" + port + "/actuator/health";
@@ -40,4 +54,44 @@ class ActuatorIT {
             Assertions.assertThat(response.getBody()).doesNotContain("metrics");
         }
     }
+
+    @Test
+    void sequencerEndpointIsRestrictedToAdmins() {
+        String url = "http://localhost:" + port + "/actuator/sequencer";
+
+        ResponseEntity<String> anonymous = restTemplate.getForEntity(url, String.class);
+        Assertions.assertThat(anonymous.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerTokenAdmin());
+        ResponseEntity<String> admin = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        Assertions.assertThat(admin.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(admin.getBody()).contains("\"enabled\"");
+    }
+
+    @Test
+    void hotKeysEndpointIsRestrictedToAdmins() {
+        String url = "http://localhost:" + port + "/actuator/hotkeys";
+
+        ResponseEntity<String> anonymous = restTemplate.getForEntity(url, String.class);
+        Assertions.assertThat(anonymous.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerTokenAdmin());
+        ResponseEntity<String> admin = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        Assertions.assertThat(admin.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(admin.getBody()).contains("\"byConflicts\"", "\"byCommands\"", "\"hot\"");
+    }
+
+    private String bearerTokenAdmin() {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .claim("role", "ROLE_ADMIN")
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims)).getTokenValue();
+        return "Bearer " + token;
+    }
 }
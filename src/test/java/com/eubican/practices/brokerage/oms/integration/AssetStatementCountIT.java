@@ -0,0 +1,127 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.service.AssetHandle;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.persistence.entity.AssetEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Counts the JDBC statements of the read-modify-write asset path, where each command should read
+ * every asset row once and write it once.
+ */
+@SpringBootTest(properties = {
+        "application.asset-ledger.conditional-updates=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class AssetStatementCountIT extends IntegrationTestSupport {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        authenticateAsAdmin();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void placingAnOrderReadsAndWritesTheReservedAssetOnce() {
+        UUID customerId = newCustomer();
+        seedAsset(customerId, "TRY", "100");
+
+        statistics.clear();
+        orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10")));
+
+        // select asset, update asset, insert order
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        Assertions.assertThat(assetStatistics().getLoadCount()).isEqualTo(1);
+        Assertions.assertThat(assetStatistics().getUpdateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelingAnOrderReadsAndWritesTheReservedAssetOnce() {
+        UUID customerId = newCustomer();
+        seedAsset(customerId, "TRY", "100");
+        Order order = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10")));
+
+        statistics.clear();
+        orderService.cancelOrder(order.getId());
+
+        // select order, select asset, update asset, update order
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        Assertions.assertThat(assetStatistics().getLoadCount()).isEqualTo(1);
+        Assertions.assertThat(assetStatistics().getUpdateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void matchingAnOrderReadsEachSettledAssetOnce() {
+        UUID customerId = newCustomer();
+        seedAsset(customerId, "TRY", "100");
+        Order order = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10")));
+
+        statistics.clear();
+        orderService.matchOrder(order.getId());
+
+        // select order, select and update TRY, select and insert SQA, update order
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+        Assertions.assertThat(assetStatistics().getLoadCount()).isEqualTo(1);
+        Assertions.assertThat(assetStatistics().getUpdateCount()).isEqualTo(1);
+        Assertions.assertThat(assetStatistics().getInsertCount()).isEqualTo(1);
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "SQA").getUsable()).isEqualByComparingTo("2");
+    }
+
+    @Test
+    void assetOpenedTwiceInOneTransactionIsLoadedOnce() {
+        UUID customerId = newCustomer();
+        seedAsset(customerId, "TRY", "100");
+
+        statistics.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+            cash.setUsable(new BigDecimal("90"));
+            cash.setReserved(BigDecimal.TEN);
+            assetService.upsertAsset(cash);
+
+            AssetHandle handle = assetService.open(customerId, "TRY");
+            Assertions.assertThat(handle.reserve(FixedPoint.of(new BigDecimal("40"), FixedPoint.AMOUNT_SCALE))).isTrue();
+            Assertions.assertThat(handle.reserve(FixedPoint.of(new BigDecimal("60"), FixedPoint.AMOUNT_SCALE))).isFalse();
+        });
+
+        // the read, the upsert and the handle share one select and are flushed as one update
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("50");
+        Assertions.assertThat(cash.getReserved()).isEqualByComparingTo("50");
+        Assertions.assertThat(cash.getSize()).isEqualByComparingTo("100");
+    }
+
+    private EntityStatistics assetStatistics() {
+        return statistics.getEntityStatistics(AssetEntity.class.getName());
+    }
+}
@@ -0,0 +1,91 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.BatchMatchReport;
+import com.eubican.practices.brokerage.oms.domain.model.BatchMatchResult;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.service.BatchMatchService;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@SpringBootTest
+class BatchMatchIT extends IntegrationTestSupport {
+
+    @Autowired
+    BatchMatchService batchMatchService;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderJpaRepository orderRepository;
+
+    private UUID customerId;
+
+    @BeforeEach
+    void setUp() {
+        authenticateAsAdmin();
+        customerId = newCustomer();
+    }
+
+    @Test
+    void matchesListedOrdersAndReportsUnknownOnes() {
+        seedAsset(customerId, "TRY", "1000");
+        seedAsset(customerId, "BMA", "10");
+
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(orderService.createOrder(Order.from(customerId, "BMA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10"))).getId());
+        }
+        ids.add(orderService.createOrder(Order.from(customerId, "BMA", OrderSide.SELL, new BigDecimal("5"), new BigDecimal("100"))).getId());
+        UUID unknown = UUID.randomUUID();
+        ids.add(unknown);
+
+        BatchMatchReport report = batchMatchService.matchOrders(ids);
+
+        Assertions.assertThat(report.results()).hasSize(5);
+        Assertions.assertThat(report.matched()).isEqualTo(4);
+        Assertions.assertThat(report.results()).filteredOn(r -> !r.matched())
+                .extracting(BatchMatchResult::orderId).containsExactly(unknown);
+
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getReserved()).isZero();
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("1440");
+
+        Asset shares = assetService.retrieveCustomerAsset(customerId, "BMA");
+        Assertions.assertThat(shares.getReserved()).isZero();
+        Assertions.assertThat(shares.getUsable()).isEqualByComparingTo("11");
+        Assertions.assertThat(shares.getSize()).isEqualByComparingTo("11");
+    }
+
+    @Test
+    void matchesPendingOrdersSelectedByFilterAndSkipsNonPending() {
+        seedAsset(customerId, "TRY", "1000");
+
+        Instant from = Instant.now();
+        Order first = orderService.createOrder(Order.from(customerId, "BMB", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("10")));
+        Order second = orderService.createOrder(Order.from(customerId, "BMB", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("20")));
+        Order canceled = orderService.createOrder(Order.from(customerId, "BMB", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("30")));
+        orderService.cancelOrder(canceled.getId());
+
+        BatchMatchReport report = batchMatchService.matchOrders("BMB", from, Instant.now());
+
+        Assertions.assertThat(report.results()).extracting(BatchMatchResult::orderId)
+                .containsExactly(first.getId(), second.getId());
+        Assertions.assertThat(orderRepository.findById(first.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.MATCHED);
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "BMB").getUsable()).isEqualByComparingTo("2");
+    }
+}
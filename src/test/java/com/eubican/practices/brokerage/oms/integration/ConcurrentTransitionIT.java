@@ -0,0 +1,136 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.domain.exception.OrderNotCancellableException;
+import com.eubican.practices.brokerage.oms.domain.matching.MatchingEngine;
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+class ConcurrentTransitionIT extends IntegrationTestSupport {
+
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderJpaRepository orderRepository;
+
+    @Autowired
+    MatchingEngine matchingEngine;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        authenticateAsAdmin();
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void racingCancelsReleaseTheReservationOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            UUID customerId = newCustomer("TRY", "100");
+            Order order = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, BigDecimal.ONE, new BigDecimal("10")));
+
+            List<Throwable> failures = race(() -> orderService.cancelOrder(order.getId()), () -> orderService.cancelOrder(order.getId()));
+
+            Assertions.assertThat(failures).singleElement().isInstanceOf(OrderNotCancellableException.class);
+            Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+            Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("100");
+            Assertions.assertThat(cash.getReserved()).isEqualByComparingTo("0");
+        }
+    }
+
+    @Test
+    void cancelRacingMatchMovesTheFundsOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            UUID customerId = newCustomer("TRY", "100");
+            Order order = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, BigDecimal.ONE, new BigDecimal("10")));
+
+            List<Throwable> failures = race(() -> orderService.cancelOrder(order.getId()), () -> orderService.matchOrder(order.getId()));
+
+            Assertions.assertThat(failures).singleElement()
+                    .isInstanceOfAny(OrderNotCancellableException.class, IllegalArgumentException.class);
+            OrderStatus status = orderRepository.findById(order.getId()).orElseThrow().getStatus();
+            Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+            Assertions.assertThat(cash.getReserved()).isEqualByComparingTo("0");
+            if (OrderStatus.CANCELED == status) {
+                Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("100");
+            } else {
+                Assertions.assertThat(status).isEqualTo(OrderStatus.MATCHED);
+                Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("90");
+                Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "SQA").getUsable()).isEqualByComparingTo("1");
+            }
+        }
+    }
+
+    @Test
+    void cancelAndMatchLeaveNoBooksWhileTheEngineIsOff() {
+        UUID customerId = newCustomer("TRY", "100");
+        Order canceled = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, BigDecimal.ONE, new BigDecimal("10")));
+        Order matched = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, BigDecimal.ONE, new BigDecimal("10")));
+
+        orderService.cancelOrder(canceled.getId());
+        orderService.matchOrder(matched.getId());
+
+        Assertions.assertThat(matchingEngine.isEnabled()).isFalse();
+        Assertions.assertThat(matchingEngine.book("SQA")).isEmpty();
+    }
+
+    // runs both commands at once and returns what they threw
+    private List<Throwable> race(Runnable first, Runnable second) throws InterruptedException {
+        CyclicBarrier start = new CyclicBarrier(2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Runnable command : List.of(first, second)) {
+            futures.add(executor.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new TestingAuthenticationToken("admin", "password", "ROLE_ADMIN")
+                );
+                try {
+                    start.await();
+                    command.run();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                failures.add(ex.getCause());
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,141 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.domain.exception.ResourceNotFoundException;
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.service.AssetHandle;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+class ConditionalReservationIT extends IntegrationTestSupport {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setAdminAuth() {
+        authenticateAsAdmin();
+    }
+
+    @Test
+    void concurrentReservationsNeverOverdrawAndNeverConflict() throws Exception {
+        UUID customerId = newCustomer();
+        seedAsset(customerId, "TRY", "100");
+        double conflictsBefore = counter("oms.concurrency.conflicts");
+
+        int threads = 16;
+        List<Callable<Order>> commands = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            commands.add(() -> orderService.createOrder(
+                    Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("10"))));
+        }
+
+        int placed = 0;
+        int rejected = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Order> future : executor.invokeAll(commands)) {
+                try {
+                    future.get();
+                    placed++;
+                } catch (ExecutionException ex) {
+                    Assertions.assertThat(ex.getCause())
+                            .isInstanceOf(IllegalArgumentException.class)
+                            .hasMessage("Insufficient TRY usable balance to place BUY");
+                    rejected++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertThat(placed).isEqualTo(10);
+        Assertions.assertThat(rejected).isEqualTo(6);
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("0");
+        Assertions.assertThat(cash.getReserved()).isEqualByComparingTo("100");
+        Assertions.assertThat(cash.getSize()).isEqualByComparingTo("100");
+        Assertions.assertThat(counter("oms.concurrency.conflicts") - conflictsBefore).isZero();
+    }
+
+    @Test
+    void cancelAndMatchMoveBalancesAndKeepSizeInSync() {
+        UUID customerId = newCustomer();
+        seedAsset(customerId, "TRY", "100");
+
+        Order canceled = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10")));
+        orderService.cancelOrder(canceled.getId());
+        Order matched = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("3"), new BigDecimal("10")));
+        orderService.matchOrder(matched.getId());
+
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("70");
+        Assertions.assertThat(cash.getReserved()).isEqualByComparingTo("0");
+        Assertions.assertThat(cash.getSize()).isEqualByComparingTo("70");
+        // the bought asset did not exist before the match
+        Asset bought = assetService.retrieveCustomerAsset(customerId, "SQA");
+        Assertions.assertThat(bought.getUsable()).isEqualByComparingTo("3");
+        Assertions.assertThat(bought.getSize()).isEqualByComparingTo("3");
+    }
+
+    @Test
+    void reservingFromMissingAssetIsNotFound() {
+        UUID customerId = newCustomer();
+
+        Assertions.assertThatThrownBy(() -> orderService.createOrder(
+                        Order.from(customerId, "SQA", OrderSide.SELL, new BigDecimal("1"), new BigDecimal("10"))))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("SQA asset not found");
+    }
+
+    @Test
+    void handlesMoveBalancesWithGuardedUpdates() {
+        UUID customerId = newCustomer();
+        seedAsset(customerId, "TRY", "100");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            AssetHandle cash = assetService.open(customerId, "TRY");
+            Assertions.assertThat(cash.reserve(FixedPoint.of(new BigDecimal("30"), FixedPoint.AMOUNT_SCALE))).isTrue();
+            Assertions.assertThat(cash.reserve(FixedPoint.of(new BigDecimal("80"), FixedPoint.AMOUNT_SCALE))).isFalse();
+            Assertions.assertThat(cash.asset().getUsable()).isEqualByComparingTo("70");
+            Assertions.assertThat(cash.asset().getReserved()).isEqualByComparingTo("30");
+
+            assetService.openOrCreate(customerId, "SQA").credit(FixedPoint.of(new BigDecimal("2"), FixedPoint.AMOUNT_SCALE));
+            Assertions.assertThatThrownBy(() -> assetService.open(customerId, "MEA").release(FixedPoint.of(BigDecimal.ONE, FixedPoint.AMOUNT_SCALE)))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        });
+
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "SQA").getUsable()).isEqualByComparingTo("2");
+    }
+
+    private double counter(String name) {
+        var counter = meterRegistry.find(name).tag("strategy", "optimistic").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
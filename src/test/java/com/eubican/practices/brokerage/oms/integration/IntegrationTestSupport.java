@@ -0,0 +1,63 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.service.AssetService;
+import com.eubican.practices.brokerage.oms.persistence.entity.CustomerEntity;
+import com.eubican.practices.brokerage.oms.persistence.repository.CustomerJpaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Fixtures shared by the service-level integration tests. Tests seed customers of their own, so
+ * tests sharing the in-memory database never see each other's balances or orders. Subclasses
+ * declare their own {@code @SpringBootTest} with the properties they need.
+ */
+abstract class IntegrationTestSupport {
+
+    @Autowired
+    protected AssetService assetService;
+
+    @Autowired
+    protected CustomerJpaRepository customerRepository;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    protected UUID newCustomer() {
+        CustomerEntity customer = new CustomerEntity();
+        customer.setId(UUID.randomUUID());
+        customer.setEmail(customer.getId() + "@test.local");
+        customer.setRole("ROLE_CUSTOMER");
+        customer.setPassword("dummy-hash");
+        customer.setCreatedAt(Instant.now());
+        customerRepository.save(customer);
+        return customer.getId();
+    }
+
+    // a new customer holding usable of the asset and nothing else
+    protected UUID newCustomer(String assetName, String usable) {
+        UUID customerId = newCustomer();
+        seedAsset(customerId, assetName, usable);
+        return customerId;
+    }
+
+    protected void seedAsset(UUID owner, String assetName, String usable) {
+        BigDecimal amount = new BigDecimal(usable);
+        assetService.upsertAsset(Asset.from(owner, assetName, amount, amount, BigDecimal.ZERO));
+    }
+
+    // lets the test call services directly; cleared again after each test
+    protected static void authenticateAsAdmin() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("admin", "password", "ROLE_ADMIN")
+        );
+    }
+}
@@ -0,0 +1,112 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.config.properties.MatchingEngineProperties;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderJournal;
+import com.eubican.practices.brokerage.oms.domain.matching.MatchingEngine;
+import com.eubican.practices.brokerage.oms.domain.matching.OrderBook;
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@SpringBootTest(properties = "application.matching-engine.enabled=true")
+class MatchingEngineIT extends IntegrationTestSupport {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderJpaRepository orderRepository;
+
+    @Autowired
+    OrderJournal orderJournal;
+
+    private UUID buyerId;
+    private UUID sellerId;
+
+    @BeforeEach
+    void setUp() {
+        authenticateAsAdmin();
+        buyerId = newCustomer();
+        sellerId = newCustomer();
+    }
+
+    @Test
+    void crossingOrdersFromDifferentCustomersAreSettledAtRestingPrice() {
+        seedAsset(buyerId, "TRY", "1000");
+        seedAsset(sellerId, "MEA", "10");
+
+        Order sell = orderService.createOrder(Order.from(sellerId, "MEA", OrderSide.SELL, new BigDecimal("4"), new BigDecimal("20")));
+        Assertions.assertThat(sell.getStatus()).isEqualTo(OrderStatus.PENDING);
+
+        Order buy = orderService.createOrder(Order.from(buyerId, "MEA", OrderSide.BUY, new BigDecimal("4"), new BigDecimal("25")));
+        Assertions.assertThat(buy.getStatus()).isEqualTo(OrderStatus.MATCHED);
+        Assertions.assertThat(orderRepository.findById(sell.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.MATCHED);
+
+        // buyer paid 4 x 20 and got the 4 x 5 limit surplus back
+        Asset buyerCash = assetService.retrieveCustomerAsset(buyerId, "TRY");
+        Assertions.assertThat(buyerCash.getUsable()).isEqualByComparingTo("920");
+        Assertions.assertThat(buyerCash.getReserved()).isZero();
+        Assertions.assertThat(assetService.retrieveCustomerAsset(buyerId, "MEA").getUsable()).isEqualByComparingTo("4");
+
+        Asset sellerShares = assetService.retrieveCustomerAsset(sellerId, "MEA");
+        Assertions.assertThat(sellerShares.getUsable()).isEqualByComparingTo("6");
+        Assertions.assertThat(sellerShares.getReserved()).isZero();
+        Assertions.assertThat(assetService.retrieveCustomerAsset(sellerId, "TRY").getUsable()).isEqualByComparingTo("80");
+    }
+
+    @Test
+    void canceledOrderLeavesTheBook() {
+        seedAsset(buyerId, "TRY", "1000");
+        seedAsset(sellerId, "MEB", "10");
+
+        Order sell = orderService.createOrder(Order.from(sellerId, "MEB", OrderSide.SELL, new BigDecimal("1"), new BigDecimal("10")));
+        orderService.cancelOrder(sell.getId());
+
+        Order buy = orderService.createOrder(Order.from(buyerId, "MEB", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("10")));
+        Assertions.assertThat(buy.getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void ordersOfTheSameCustomerDoNotCross() {
+        seedAsset(sellerId, "TRY", "1000");
+        seedAsset(sellerId, "MEC", "10");
+
+        orderService.createOrder(Order.from(sellerId, "MEC", OrderSide.SELL, new BigDecimal("1"), new BigDecimal("10")));
+        Order buy = orderService.createOrder(Order.from(sellerId, "MEC", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("10")));
+
+        Assertions.assertThat(buy.getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void recoveryPagesThroughEveryPendingOrder() {
+        seedAsset(sellerId, "MEC", "10");
+        Order first = orderService.createOrder(Order.from(sellerId, "MEC", OrderSide.SELL, new BigDecimal("1"), new BigDecimal("50")));
+        Order second = orderService.createOrder(Order.from(sellerId, "MEC", OrderSide.SELL, new BigDecimal("1"), new BigDecimal("40")));
+        Order third = orderService.createOrder(Order.from(sellerId, "MEC", OrderSide.SELL, new BigDecimal("1"), new BigDecimal("30")));
+
+        MatchingEngineProperties properties = new MatchingEngineProperties();
+        properties.setEnabled(true);
+        properties.setRecoveryPageSize(2);
+        MatchingEngine recovered = new MatchingEngine(orderRepository, properties, orderJournal);
+        recovered.afterSingletonsInstantiated();
+
+        OrderBook book = recovered.book("MEC").orElseThrow();
+        Assertions.assertThat(book.size()).isEqualTo((int) orderRepository.findAll().stream()
+                .filter(o -> "MEC".equals(o.getAssetName()) && OrderStatus.PENDING == o.getStatus())
+                .count());
+        Assertions.assertThat(List.of(first.getId(), second.getId(), third.getId()))
+                .allSatisfy(id -> Assertions.assertThat(book.remove(id)).isPresent());
+    }
+}
@@ -0,0 +1,65 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.openorder.OpenOrderStore;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.UUID;
+
+@SpringBootTest(properties = "application.open-orders.enabled=true")
+class OpenOrderStoreIT extends IntegrationTestSupport {
+
+    @DynamicPropertySource
+    static void storeDirectory(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("application.open-orders.directory", Files.createTempDirectory("open-orders")::toString);
+    }
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OpenOrderStore openOrderStore;
+
+    @BeforeEach
+    void setUp() {
+        authenticateAsAdmin();
+    }
+
+    @Test
+    void followsOrdersThroughCreateCancelAndMatch() {
+        UUID buyerId = newCustomer("TRY", "100");
+        UUID sellerId = newCustomer("SQA", "5");
+        // other tests leave SQA orders behind, so only the change is ours
+        BigDecimal interest = openOrderStore.openInterest("SQA").toBigDecimal();
+
+        Order matched = orderService.createOrder(Order.from(sellerId, "SQA", OrderSide.SELL, new BigDecimal("2"), new BigDecimal("10")));
+        Order canceled = orderService.createOrder(Order.from(sellerId, "SQA", OrderSide.SELL, new BigDecimal("1"), new BigDecimal("30")));
+        Order open = orderService.createOrder(Order.from(buyerId, "SQA", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("8")));
+
+        Assertions.assertThat(openOrderStore.findOrder(canceled.getId())).get().extracting(Order::getCustomerId).isEqualTo(sellerId);
+        Assertions.assertThat(openOrderStore.reservedNotional(buyerId).toBigDecimal()).isEqualByComparingTo("8");
+        Assertions.assertThat(openOrderStore.openInterest("SQA").toBigDecimal().subtract(interest)).isEqualByComparingTo("4");
+
+        orderService.cancelOrder(canceled.getId());
+        orderService.matchOrder(matched.getId());
+
+        Assertions.assertThat(openOrderStore.customerHashOf(canceled.getId())).isEqualTo(OpenOrderStore.NOT_OPEN);
+        Assertions.assertThat(openOrderStore.customerHashOf(matched.getId())).isEqualTo(OpenOrderStore.NOT_OPEN);
+        Assertions.assertThat(openOrderStore.findOrder(open.getId())).get().extracting(Order::getCustomerId).isEqualTo(buyerId);
+        Assertions.assertThat(openOrderStore.openInterest("SQA").toBigDecimal().subtract(interest)).isEqualByComparingTo("1");
+
+        orderService.cancelOrder(open.getId());
+        Assertions.assertThat(openOrderStore.reservedNotional(buyerId).signum()).isZero();
+    }
+}
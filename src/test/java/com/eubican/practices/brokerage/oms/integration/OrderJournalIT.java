@@ -0,0 +1,71 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.domain.journal.OrderJournal;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@SpringBootTest(properties = "application.journal.enabled=true")
+class OrderJournalIT extends IntegrationTestSupport {
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("application.journal.directory", Files.createTempDirectory("order-journal")::toString);
+    }
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderJournal orderJournal;
+
+    @BeforeEach
+    void setUp() {
+        authenticateAsAdmin();
+    }
+
+    @Test
+    void committedLifecycleEventsAreJournaledAndRejectedOrdersAreNot() {
+        UUID buyerId = newCustomer("TRY", "100");
+        UUID sellerId = newCustomer("SQA", "5");
+        long from = orderJournal.state().lastSequence() + 1;
+
+        Order sell = orderService.createOrder(Order.from(sellerId, "SQA", OrderSide.SELL, new BigDecimal("2"), new BigDecimal("10")));
+        Order canceled = orderService.createOrder(Order.from(sellerId, "SQA", OrderSide.SELL, new BigDecimal("1"), new BigDecimal("30")));
+        orderService.cancelOrder(canceled.getId());
+        Order buy = orderService.createOrder(Order.from(buyerId, "SQA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10")));
+        orderService.matchOrder(buy.getId());
+        orderService.matchOrder(sell.getId());
+        Assertions.assertThatThrownBy(() -> orderService.createOrder(
+                        Order.from(buyerId, "SQA", OrderSide.BUY, new BigDecimal("100"), new BigDecimal("12"))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        List<String> events = new ArrayList<>();
+        orderJournal.replay(from, event -> events.add(event.type() + " " + (event.orderId().equals(sell.getId()) ? "sell"
+                : event.orderId().equals(canceled.getId()) ? "canceled" : event.orderId().equals(buy.getId()) ? "buy" : "other")));
+
+        Assertions.assertThat(events).containsExactly(
+                "CREATED sell", "RESERVED sell",
+                "CREATED canceled", "RESERVED canceled", "CANCELED canceled",
+                "CREATED buy", "RESERVED buy", "MATCHED buy", "MATCHED sell");
+        Assertions.assertThat(orderJournal.state().openOrders()).doesNotContainKeys(sell.getId(), canceled.getId(), buy.getId());
+        Assertions.assertThat(orderJournal.state().balanceChange(buyerId, "TRY").orElseThrow().usable().toBigDecimal())
+                .isEqualByComparingTo("-20");
+        Assertions.assertThat(orderJournal.state().balanceChange(sellerId, "TRY").orElseThrow().usable().toBigDecimal())
+                .isEqualByComparingTo("20");
+    }
+}
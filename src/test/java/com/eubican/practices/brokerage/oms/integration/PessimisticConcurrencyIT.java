@@ -0,0 +1,90 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest(properties = {
+        "application.order-service.concurrency-strategy=pessimistic",
+        "application.matching-engine.enabled=true"
+})
+class PessimisticConcurrencyIT extends IntegrationTestSupport {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderJpaRepository orderRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentReservationsOnOneAccountAllSucceedWithoutConflicts() throws Exception {
+        UUID customerId = newCustomer();
+        seedAsset(customerId, "TRY", "1000");
+        double attemptsBefore = counter("oms.concurrency.attempts");
+        double conflictsBefore = counter("oms.concurrency.conflicts");
+
+        int threads = 8;
+        List<Callable<Order>> commands = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            commands.add(() -> orderService.createOrder(
+                    Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("10"))));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Order> future : executor.invokeAll(commands)) {
+                Assertions.assertThat(future.get().getStatus()).isEqualTo(OrderStatus.PENDING);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getReserved()).isEqualByComparingTo("80");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("920");
+        Assertions.assertThat(counter("oms.concurrency.attempts") - attemptsBefore).isEqualTo(threads);
+        Assertions.assertThat(counter("oms.concurrency.conflicts") - conflictsBefore).isZero();
+    }
+
+    @Test
+    void crossingOrdersOfTwoCustomersSettleUnderRowLocks() {
+        UUID buyer = newCustomer();
+        UUID seller = newCustomer();
+        seedAsset(buyer, "TRY", "100");
+        seedAsset(seller, "MEB", "5");
+
+        Order sell = orderService.createOrder(Order.from(seller, "MEB", OrderSide.SELL, new BigDecimal("5"), new BigDecimal("9")));
+        Order buy = orderService.createOrder(Order.from(buyer, "MEB", OrderSide.BUY, new BigDecimal("5"), new BigDecimal("10")));
+
+        Assertions.assertThat(buy.getStatus()).isEqualTo(OrderStatus.MATCHED);
+        Assertions.assertThat(orderRepository.findById(sell.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.MATCHED);
+        Assertions.assertThat(assetService.retrieveCustomerAsset(buyer, "TRY").getUsable()).isEqualByComparingTo("55");
+        Assertions.assertThat(assetService.retrieveCustomerAsset(buyer, "MEB").getUsable()).isEqualByComparingTo("5");
+        Assertions.assertThat(assetService.retrieveCustomerAsset(seller, "TRY").getUsable()).isEqualByComparingTo("45");
+    }
+
+    private double counter(String name) {
+        var counter = meterRegistry.find(name).tag("strategy", "pessimistic").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,71 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class PositionCacheIT extends IntegrationTestSupport {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private UUID customerId;
+
+    @BeforeEach
+    void setUp() {
+        authenticateAsAdmin();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        customerId = newCustomer("TRY", "100");
+    }
+
+    @Test
+    void repeatedReadsAreServedWithoutQueries() {
+        assetService.retrieveCustomerAsset(customerId, "TRY");
+
+        statistics.clear();
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isZero();
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void committedChangesInvalidateThePosition() {
+        assetService.retrieveCustomerAsset(customerId, "TRY");
+
+        // conditional update, which bypasses the persistence context
+        orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10")));
+        Asset reserved = assetService.retrieveCustomerAsset(customerId, "TRY");
+
+        // entity update through the persistence context
+        assetService.upsertAsset(Asset.from(customerId, "TRY", new BigDecimal("500"), new BigDecimal("480"), new BigDecimal("20")));
+        Asset upserted = assetService.retrieveCustomerAsset(customerId, "TRY");
+
+        Assertions.assertThat(reserved.getUsable()).isEqualByComparingTo("80");
+        Assertions.assertThat(reserved.getReserved()).isEqualByComparingTo("20");
+        Assertions.assertThat(upserted.getUsable()).isEqualByComparingTo("480");
+        Assertions.assertThat(upserted.getVersion()).isGreaterThan(reserved.getVersion());
+    }
+}
@@ -0,0 +1,55 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.domain.concurrency.CustomerSequencer;
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@SpringBootTest(properties = "application.sequencer.enabled=true")
+class SequencedOrderFlowIT extends IntegrationTestSupport {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    CustomerSequencer sequencer;
+
+    @Test
+    void ownerCanCreateAndCancelThroughTheSequencer() {
+        UUID customerId = newCustomer("TRY", "100");
+        authenticateAs(customerId);
+
+        Order order = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10")));
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "TRY").getReserved()).isEqualByComparingTo("20");
+
+        // cancel checks ownership on the lane thread, so the caller's security context must travel with it
+        orderService.cancelOrder(order.getId());
+
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("100");
+        Assertions.assertThat(cash.getReserved()).isZero();
+        Assertions.assertThat(sequencer.stats()).extracting(CustomerSequencer.LaneStats::submitted)
+                .contains(2L);
+    }
+
+    private void authenticateAs(UUID customerId) {
+        Jwt jwt = new Jwt("token", Instant.now(), Instant.now().plusSeconds(60),
+                Map.of("alg", "HS256"), Map.of("sub", customerId.toString()));
+        TestingAuthenticationToken auth = new TestingAuthenticationToken(jwt, "n/a", "ROLE_CUSTOMER");
+        auth.setAuthenticated(true);
+        SecurityContextHolder.getContext().setAuthentication(auth);
+    }
+}
@@ -0,0 +1,196 @@
+package com.eubican.practices.brokerage.oms.integration;
+
+import com.eubican.practices.brokerage.oms.config.properties.AssetLedgerProperties;
+import com.eubican.practices.brokerage.oms.domain.exception.ApplicationException;
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.persistence.entity.AssetEntity;
+import com.eubican.practices.brokerage.oms.persistence.repository.AssetJpaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@SpringBootTest(properties = "application.asset-ledger.write-behind=true")
+class WriteBehindAssetLedgerIT extends IntegrationTestSupport {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    AssetJpaRepository assetRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    AssetLedgerProperties properties;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private UUID customerId;
+
+    @BeforeEach
+    void setUp() {
+        authenticateAsAdmin();
+        customerId = newCustomer("TRY", "500");
+    }
+
+    @Test
+    void reservationIsPersistedBeforeOrderIsAcknowledged() {
+        orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("3"), new BigDecimal("10")));
+
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("470");
+        Assertions.assertThat(cash.getReserved()).isEqualByComparingTo("30");
+
+        AssetEntity row = assetRepository.findByCustomer_IdAndAssetName(customerId, "TRY").orElseThrow();
+        Assertions.assertThat(row.getUsable()).isEqualByComparingTo("470");
+        Assertions.assertThat(row.getReserved()).isEqualByComparingTo("30");
+        Assertions.assertThat(row.getSize()).isEqualByComparingTo("500");
+        Assertions.assertThat(row.getVersion()).isEqualTo(cash.getVersion());
+    }
+
+    @Test
+    void rolledBackChangeIsUndoneInMemory() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        Assertions.assertThatThrownBy(() -> tx.executeWithoutResult(status -> {
+            Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+            cash.setUsable(cash.getUsable().subtract(new BigDecimal("100")));
+            cash.setReserved(cash.getReserved().add(new BigDecimal("100")));
+            assetService.upsertAsset(cash);
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("500");
+        Assertions.assertThat(cash.getReserved()).isZero();
+    }
+
+    @Test
+    void uncommittedChangeIsNeitherPublishedNorFlushed() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        Assertions.assertThatThrownBy(() -> tx.executeWithoutResult(status -> {
+            Assertions.assertThat(assetService.reserve(customerId, "TRY", FixedPoint.of(new BigDecimal("100"), 6))).isTrue();
+
+            // the hold on usable shows at once, the reserved increase only after commit
+            Asset held = assetService.retrieveCustomerAsset(customerId, "TRY");
+            Assertions.assertThat(held.getUsable()).isEqualByComparingTo("400");
+            Assertions.assertThat(held.getReserved()).isZero();
+
+            // a change committed meanwhile flushes the key without the hold
+            CompletableFuture.runAsync(() -> assetService.credit(customerId, "TRY", FixedPoint.of(BigDecimal.TEN, 6))).join();
+            AssetEntity row = assetRepository.findByCustomer_IdAndAssetName(customerId, "TRY").orElseThrow();
+            Assertions.assertThat(row.getUsable()).isEqualByComparingTo("510");
+            Assertions.assertThat(row.getReserved()).isZero();
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("510");
+        Assertions.assertThat(cash.getReserved()).isZero();
+    }
+
+    @Test
+    void increaseIsPublishedAndFlushedOnCommit() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> {
+            Assertions.assertThat(assetService.reserve(customerId, "TRY", FixedPoint.of(new BigDecimal("100"), 6))).isTrue();
+            // the transaction's own reserved increase covers what it consumes, so nothing is taken from others
+            Assertions.assertThat(assetService.consumeReserved(customerId, "TRY",
+                    FixedPoint.of(new BigDecimal("60"), 6), FixedPoint.of(BigDecimal.ZERO, 6))).isTrue();
+            Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "TRY").getReserved()).isZero();
+        });
+
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("400");
+        Assertions.assertThat(cash.getReserved()).isEqualByComparingTo("40");
+        AssetEntity row = assetRepository.findByCustomer_IdAndAssetName(customerId, "TRY").orElseThrow();
+        Assertions.assertThat(row.getUsable()).isEqualByComparingTo("400");
+        Assertions.assertThat(row.getReserved()).isEqualByComparingTo("40");
+    }
+
+    @Test
+    void staleWriteIsRejected() {
+        Asset first = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Asset second = assetService.retrieveCustomerAsset(customerId, "TRY");
+
+        first.setUsable(first.getUsable().subtract(BigDecimal.ONE));
+        assetService.upsertAsset(first);
+
+        second.setUsable(second.getUsable().subtract(BigDecimal.TEN));
+        Assertions.assertThatThrownBy(() -> assetService.upsertAsset(second))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "TRY").getUsable()).isEqualByComparingTo("499");
+    }
+
+    @Test
+    void rowChangedBehindTheLedgerIsNotOverwritten() {
+        assetService.retrieveCustomerAsset(customerId, "TRY");
+        jdbcTemplate.update("UPDATE asset SET size = 7, usable_size = 7, reserved_size = 0, version = version + 10 "
+                + "WHERE customer_id = ? AND asset_name = 'TRY'", customerId);
+        double setAside = meterRegistry.get("oms.asset-ledger.set-aside").counter().count();
+
+        Assertions.assertThatThrownBy(() -> assetService.credit(customerId, "TRY", FixedPoint.of(BigDecimal.ONE, 6)))
+                .isInstanceOf(ApplicationException.class)
+                .extracting("status").isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        Assertions.assertThat(meterRegistry.get("oms.asset-ledger.set-aside").counter().count()).isEqualTo(setAside + 1);
+        AssetEntity row = assetRepository.findByCustomer_IdAndAssetName(customerId, "TRY").orElseThrow();
+        Assertions.assertThat(row.getUsable()).isEqualByComparingTo("7");
+        // the position set aside is reloaded from the row
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("7");
+        Assertions.assertThat(cash.getVersion()).isEqualTo(row.getVersion());
+    }
+
+    @Test
+    void evictedPositionsAreReloadedFromTheirRows() throws InterruptedException {
+        int maxPositions = properties.getMaxPositions();
+        properties.setMaxPositions(1);
+        try {
+            assetService.credit(customerId, "SQA", FixedPoint.of(new BigDecimal("4"), 6));
+            Assertions.assertThat(assetService.reserve(customerId, "TRY", FixedPoint.of(new BigDecimal("25"), 6))).isTrue();
+            awaitPositionsHeld(1);
+
+            Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+            Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("475");
+            Assertions.assertThat(cash.getReserved()).isEqualByComparingTo("25");
+            Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "SQA").getUsable()).isEqualByComparingTo("4");
+            Assertions.assertThat(assetService.release(customerId, "TRY", FixedPoint.of(new BigDecimal("25"), 6))).isTrue();
+            Assertions.assertThat(assetRepository.findByCustomer_IdAndAssetName(customerId, "TRY").orElseThrow().getUsable())
+                    .isEqualByComparingTo("500");
+        } finally {
+            properties.setMaxPositions(maxPositions);
+        }
+    }
+
+    // eviction follows the flush that acknowledged the change
+    private void awaitPositionsHeld(int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && meterRegistry.get("oms.asset-ledger.positions").gauge().value() > expected; i++) {
+            Thread.sleep(20);
+        }
+        Assertions.assertThat(meterRegistry.get("oms.asset-ledger.positions").gauge().value()).isLessThanOrEqualTo(expected);
+    }
+}
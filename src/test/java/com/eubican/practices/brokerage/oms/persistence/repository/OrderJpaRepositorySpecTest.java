@@ -1,12 +1,16 @@
 package com.eubican.practices.brokerage.oms.persistence.repository;
 
+import com.eubican.practices.brokerage.oms.domain.model.AssetFilter;
+import com.eubican.practices.brokerage.oms.domain.model.AssetMatch;
 import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
 import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
 import com.eubican.practices.brokerage.oms.persistence.entity.CustomerEntity;
 import com.eubican.practices.brokerage.oms.persistence.entity.OrderEntity;
 import com.eubican.practices.brokerage.oms.persistence.repository.helper.OrderSpecifications;
 import jakarta.persistence.EntityManager;
 import org.assertj.core.api.Assertions;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,11 +18,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Set;
 import java.util.UUID;
 
 @DataJpaTest
@@ -84,9 +90,9 @@ class OrderJpaRepositorySpecTest {
     }
 
     @Test
-    void findByAssetNameContainsCaseInsensitive() {
+    void findByAssetNameContainsExpandedToSymbols() {
         var spec = OrderSpecifications.byFilters(
-                customerAId, t0, t3, null, "btc"
+                customerAId, t0, t3, null, contains("btc", "BTCUSDT", "btcusdt")
         );
 
         Page<OrderEntity> page = orderRepository.findAll(spec, PageRequest.of(0, 10));
@@ -94,10 +100,45 @@ class OrderJpaRepositorySpecTest {
         Assertions.assertThat(page.getContent()).allMatch(o -> o.getAssetName().toLowerCase().contains("btc"));
     }
 
+    @Test
+    void findByAssetNameContainsMatchesNothingWhenNoSymbolIsKnown() {
+        // no substring scan, even though stored symbols contain the fragment
+        var spec = OrderSpecifications.byFilters(
+                customerAId, t0, t3, null, contains("btc")
+        );
+
+        Page<OrderEntity> page = orderRepository.findAll(spec, PageRequest.of(0, 10));
+        Assertions.assertThat(page).isEmpty();
+    }
+
+    @Test
+    void findByAssetNameExactIgnoresInputCase() {
+        var spec = OrderSpecifications.byFilters(
+                customerAId, t0, t3, null, AssetFilter.of("btcusdt", AssetMatch.EXACT)
+        );
+
+        Page<OrderEntity> page = orderRepository.findAll(spec, PageRequest.of(0, 10));
+        Assertions.assertThat(page.getContent()).extracting(OrderEntity::getAssetName).containsExactly("BTCUSDT");
+    }
+
+    @Test
+    void findByAssetNamePrefix() {
+        var spec = OrderSpecifications.byFilters(
+                customerAId, t0, t3, null, AssetFilter.of("BTC", AssetMatch.PREFIX)
+        );
+        var none = OrderSpecifications.byFilters(
+                customerAId, t0, t3, null, AssetFilter.of("USDT", AssetMatch.PREFIX)
+        );
+
+        Assertions.assertThat(orderRepository.findAll(spec, PageRequest.of(0, 10)).getContent())
+                .extracting(OrderEntity::getAssetName).containsExactly("BTCUSDT");
+        Assertions.assertThat(orderRepository.findAll(none, PageRequest.of(0, 10))).isEmpty();
+    }
+
     @Test
     void findByStatusAndAssetNameContains() {
         var spec = OrderSpecifications.byFilters(
-                customerAId, t0, t3, OrderStatus.PENDING, "btc"
+                customerAId, t0, t3, OrderStatus.PENDING, contains("btc", "BTCUSDT", "btcusdt")
         );
 
         Page<OrderEntity> page = orderRepository.findAll(spec, PageRequest.of(0, 10));
@@ -126,7 +167,7 @@ class OrderJpaRepositorySpecTest {
                 customerAId,
                 t0, t3,
                 null,
-                "dogecoin"
+                contains("dogecoin")
         );
 
         Page<OrderEntity> page = orderRepository.findAll(spec, PageRequest.of(0, 10));
@@ -134,6 +175,25 @@ class OrderJpaRepositorySpecTest {
         Assertions.assertThat(page).isEmpty();
     }
 
+    @Test
+    void viewsAreSelectedWithoutManagingEntities() {
+        var spec = OrderSpecifications.byFilters(customerAId, t0, t3, null, null);
+        Pageable pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+
+        Page<OrderView> page = orderRepository.findViews(spec, pageable);
+        Slice<OrderView> last = orderRepository.findViewSlice(spec, pageable.next());
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(3);
+        Assertions.assertThat(page.getContent()).extracting(OrderView::assetName).containsExactly("btcusdt", "ETHUSDT");
+        Assertions.assertThat(page.getContent()).allMatch(o -> o.customerId().equals(customerAId));
+        Assertions.assertThat(last.getContent()).extracting(OrderView::assetName).containsExactly("BTCUSDT");
+        Assertions.assertThat(last.hasNext()).isFalse();
+        Assertions.assertThat(em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities()).isZero();
+    }
+
+    private static AssetFilter contains(String fragment, String... symbols) {
+        return AssetFilter.of(fragment, AssetMatch.CONTAINS).expandedTo(Set.of(symbols));
+    }
 
     private CustomerEntity persistCustomer(Instant createdAt) {
         var customer = new CustomerEntity();
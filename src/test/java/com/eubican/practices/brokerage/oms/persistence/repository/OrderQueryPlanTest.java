@@ -0,0 +1,167 @@
+package com.eubican.practices.brokerage.oms.persistence.repository;
+
+import com.eubican.practices.brokerage.oms.domain.model.AssetFilter;
+import com.eubican.practices.brokerage.oms.domain.model.AssetMatch;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.persistence.repository.helper.OrderSpecifications;
+import org.assertj.core.api.Assertions;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Asserts on H2's EXPLAIN output that the statements the order repositories send are served by the
+ * indexes of {@code 006-add-order-indexes.yaml} and {@code 008-add-order-customer-asset-index.yaml}
+ * rather than by scanning the table. The statements are
+ * captured as Hibernate renders them and explained with their parameters unbound.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.eubican.practices.brokerage.oms.persistence.repository.OrderQueryPlanTest$CapturedStatements")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderQueryPlanTest {
+
+    private static final UUID CUSTOMER = UUID.fromString("00000000-0000-0000-0001-000000000001");
+
+    private static final Instant FROM = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static final Instant TO = Instant.parse("2025-02-01T00:00:00Z");
+
+    // the order history sort the controller sends, see OrderController#indexBacked
+    private static final PageRequest NEWEST_PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+
+    @Autowired
+    private OrderJpaRepository orderRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // H2 picks among indexes by estimated cost, which needs rows and fresh selectivity statistics;
+    // ANALYZE commits, so the rows are seeded once and removed again after the last test
+    @BeforeAll
+    void seedAndAnalyze() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("""
+                INSERT INTO customer (id, email, role, password_hash, created_at)
+                SELECT CAST('00000000-0000-0000-0001-' || LPAD(TO_CHAR(X), 12, '0') AS UUID), 'plan-' || X || '@test.local',
+                       'ROLE_CUSTOMER', 'dummy-hash', TIMESTAMP '2025-01-01 00:00:00'
+                  FROM SYSTEM_RANGE(1, 20)
+                """);
+        jdbc.update("""
+                INSERT INTO orders (id, customer_id, asset_name, side, size, price, status, created_at)
+                SELECT RANDOM_UUID(), CAST('00000000-0000-0000-0001-' || LPAD(TO_CHAR(MOD(X, 20) + 1), 12, '0') AS UUID),
+                       CASEWHEN(MOD(X, 3) = 0, 'XYZ', 'SQA'), 'BUY', 1, 1,
+                       CASEWHEN(MOD(X, 4) = 0, 'PENDING', CASEWHEN(MOD(X, 4) = 1, 'MATCHED', 'CANCELED')),
+                       DATEADD('MINUTE', X * 15, TIMESTAMP '2024-10-01 00:00:00')
+                  FROM SYSTEM_RANGE(1, 2000)
+                """);
+        jdbc.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void removeSeed() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("DELETE FROM orders WHERE CAST(customer_id AS VARCHAR) LIKE '00000000-0000-0000-0001-%'");
+        jdbc.update("DELETE FROM customer WHERE email LIKE 'plan-%@test.local'");
+    }
+
+    @BeforeEach
+    void forgetStatements() {
+        CapturedStatements.SQL.clear();
+    }
+
+    @Test
+    void orderHistoryUsesCustomerCreatedIndex() {
+        orderRepository.findViewSlice(OrderSpecifications.byFilters(CUSTOMER, FROM, TO, null, null), NEWEST_PAGE);
+
+        Assertions.assertThat(explainLast()).containsIgnoringCase("IDX_ORDERS_CUSTOMER_CREATED").doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void orderHistoryByStatusUsesCustomerStatusCreatedIndex() {
+        orderRepository.findViewSlice(OrderSpecifications.byFilters(CUSTOMER, FROM, TO, OrderStatus.CANCELED, null), NEWEST_PAGE);
+
+        Assertions.assertThat(explainLast()).containsIgnoringCase("IDX_ORDERS_CUSTOMER_STATUS_CREATED").doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void orderHistoryOfAnAssetUsesCustomerAssetCreatedIndex() {
+        orderRepository.findViewSlice(OrderSpecifications.byFilters(CUSTOMER, FROM, TO, null,
+                AssetFilter.of("XYZ", AssetMatch.EXACT)), NEWEST_PAGE);
+
+        Assertions.assertThat(explainLast()).containsIgnoringCase("IDX_ORDERS_CUSTOMER_ASSET_CREATED").doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void orderHistoryOfAnAssetPrefixUsesCustomerAssetCreatedIndex() {
+        orderRepository.findViewSlice(OrderSpecifications.byFilters(CUSTOMER, FROM, TO, null,
+                AssetFilter.of("XY", AssetMatch.PREFIX)), NEWEST_PAGE);
+
+        Assertions.assertThat(explainLast()).containsIgnoringCase("IDX_ORDERS_CUSTOMER_ASSET_CREATED").doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void orderHistoryOfExpandedSymbolsUsesCustomerAssetCreatedIndex() {
+        orderRepository.findViewSlice(OrderSpecifications.byFilters(CUSTOMER, FROM, TO, null,
+                AssetFilter.of("Y", AssetMatch.CONTAINS).expandedTo(Set.of("XYZ", "YYY"))), NEWEST_PAGE);
+
+        Assertions.assertThat(explainLast()).containsIgnoringCase("IDX_ORDERS_CUSTOMER_ASSET_CREATED").doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void pendingOrdersOfAnAssetUseStatusAssetCreatedIndex() {
+        orderRepository.findIdsByStatusAndCreatedAtBetween(OrderStatus.PENDING, "XYZ", FROM, TO);
+
+        Assertions.assertThat(explainLast()).containsIgnoringCase("IDX_ORDERS_STATUS_ASSET_CREATED").doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void orderBookRecoveryPageUsesStatusIndex() {
+        orderRepository.findViewsByStatusAfter(OrderStatus.PENDING, Instant.EPOCH, new UUID(0, 0), Limit.of(500));
+
+        Assertions.assertThat(explainLast()).containsIgnoringCase("IDX_ORDERS_STATUS_ASSET_CREATED").doesNotContainIgnoringCase("tableScan");
+    }
+
+    private String explainLast() {
+        Assertions.assertThat(CapturedStatements.SQL).isNotEmpty();
+        String sql = "EXPLAIN " + CapturedStatements.SQL.getLast();
+        return new JdbcTemplate(dataSource).execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql); ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        });
+    }
+
+    /**
+     * Records every statement Hibernate prepares, as sent to the database.
+     */
+    public static class CapturedStatements implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+}
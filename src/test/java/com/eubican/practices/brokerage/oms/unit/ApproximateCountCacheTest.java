@@ -0,0 +1,143 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.config.properties.PagingProperties;
+import com.eubican.practices.brokerage.oms.domain.paging.ApproximateCountCache;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ApproximateCountCacheTest {
+
+    private final List<Runnable> pending = new ArrayList<>();
+
+    @Test
+    void firstLookupSchedulesACountAndLaterLookupsReturnIt() {
+        ApproximateCountCache cache = new ApproximateCountCache(new PagingProperties(), pending::add);
+        AtomicLong counted = new AtomicLong();
+
+        Assertions.assertThat(cache.get(key("a"), () -> counted.incrementAndGet() * 10)).isEmpty();
+        // a second miss does not queue another count while one is in flight
+        Assertions.assertThat(cache.get(key("a"), () -> counted.incrementAndGet() * 10)).isEmpty();
+        Assertions.assertThat(pending).hasSize(1);
+
+        runPending();
+
+        Assertions.assertThat(cache.get(key("a"), () -> counted.incrementAndGet() * 10)).hasValue(10);
+        Assertions.assertThat(pending).isEmpty();
+        Assertions.assertThat(counted).hasValue(1);
+    }
+
+    @Test
+    void staleEntriesAreServedWhileTheyAreRecounted() throws InterruptedException {
+        PagingProperties properties = new PagingProperties();
+        properties.setCountCacheRefreshAfter(Duration.ofMillis(1));
+        ApproximateCountCache cache = new ApproximateCountCache(properties, pending::add);
+        AtomicLong rows = new AtomicLong(5);
+
+        cache.get(key("a"), rows::get);
+        runPending();
+        rows.set(7);
+        Thread.sleep(5);
+
+        Assertions.assertThat(cache.get(key("a"), rows::get)).hasValue(5);
+        runPending();
+        Assertions.assertThat(cache.get(key("a"), rows::get)).hasValue(7);
+    }
+
+    @Test
+    void expiredEntriesAreNotServed() throws InterruptedException {
+        PagingProperties properties = new PagingProperties();
+        properties.setCountCacheTtl(Duration.ofMillis(1));
+        ApproximateCountCache cache = new ApproximateCountCache(properties, pending::add);
+
+        cache.get(key("a"), () -> 3);
+        runPending();
+        Thread.sleep(5);
+
+        Assertions.assertThat(cache.get(key("a"), () -> 3)).isEmpty();
+    }
+
+    @Test
+    void evictsOldestEntriesBeyondCapacity() {
+        PagingProperties properties = new PagingProperties();
+        properties.setCountCacheMaxEntries(2);
+        ApproximateCountCache cache = new ApproximateCountCache(properties, pending::add);
+
+        cache.get(key("a"), () -> 1);
+        cache.get(key("b"), () -> 2);
+        cache.get(key("c"), () -> 3);
+        runPending();
+
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void frequentlyPolledEntriesOutliveIdleOnes() {
+        PagingProperties properties = new PagingProperties();
+        properties.setCountCacheMaxEntries(2);
+        ApproximateCountCache cache = new ApproximateCountCache(properties, pending::add);
+
+        cache.get(key("a"), () -> 1);
+        cache.get(key("b"), () -> 2);
+        runPending();
+        Assertions.assertThat(cache.get(key("a"), () -> 1)).hasValue(1);
+        cache.get(key("c"), () -> 3);
+        runPending();
+
+        Assertions.assertThat(cache.get(key("a"), () -> 1)).hasValue(1);
+        Assertions.assertThat(cache.get(key("b"), () -> 2)).isEmpty();
+    }
+
+    @Test
+    void recountedExpiredEntriesAreNotEvictedBeforeOlderOnes() throws InterruptedException {
+        PagingProperties properties = new PagingProperties();
+        properties.setCountCacheMaxEntries(2);
+        properties.setCountCacheTtl(Duration.ofMillis(200));
+        ApproximateCountCache cache = new ApproximateCountCache(properties, pending::add);
+
+        cache.get(key("a"), () -> 1);
+        runPending();
+        Thread.sleep(250);
+        cache.get(key("b"), () -> 2);
+        runPending();
+        // a has expired and is counted again, which makes it younger than b
+        Assertions.assertThat(cache.get(key("a"), () -> 1)).isEmpty();
+        runPending();
+        cache.get(key("c"), () -> 3);
+        runPending();
+
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+        Assertions.assertThat(cache.get(key("a"), () -> 1)).hasValue(1);
+        Assertions.assertThat(cache.get(key("c"), () -> 3)).hasValue(3);
+        Assertions.assertThat(cache.get(key("b"), () -> 2)).isEmpty();
+    }
+
+    @Test
+    void failedCountsAreRetriedOnTheNextLookup() {
+        ApproximateCountCache cache = new ApproximateCountCache(new PagingProperties(), pending::add);
+
+        cache.get(key("a"), () -> {
+            throw new IllegalStateException("database down");
+        });
+        runPending();
+
+        Assertions.assertThat(cache.get(key("a"), () -> 4)).isEmpty();
+        runPending();
+        Assertions.assertThat(cache.get(key("a"), () -> 4)).hasValue(4);
+    }
+
+    private void runPending() {
+        List<Runnable> tasks = new ArrayList<>(pending);
+        pending.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private static ApproximateCountCache.Key key(String filter) {
+        return ApproximateCountCache.Key.of("orders", UUID.fromString("00000000-0000-0000-0000-000000000001"), filter, null);
+    }
+}
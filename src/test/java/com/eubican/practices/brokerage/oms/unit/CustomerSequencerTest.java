@@ -0,0 +1,77 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.config.properties.SequencerProperties;
+import com.eubican.practices.brokerage.oms.domain.concurrency.CustomerSequencer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CustomerSequencerTest {
+
+    @Test
+    void commandsOfOneCustomerNeverRunConcurrently() {
+        CustomerSequencer sequencer = sequencer(true);
+        UUID customerId = UUID.randomUUID();
+        int[] unsafeCounter = {0};
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                futures.add(CompletableFuture.runAsync(
+                        () -> sequencer.execute(customerId, () -> unsafeCounter[0]++), callers));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } finally {
+            callers.shutdown();
+        }
+
+        Assertions.assertThat(unsafeCounter[0]).isEqualTo(1000);
+        Assertions.assertThat(sequencer.stats()).extracting(CustomerSequencer.LaneStats::submitted)
+                .contains(1000L);
+    }
+
+    @Test
+    void commandRunsOnLaneThreadAndReturnsItsResult() {
+        CustomerSequencer sequencer = sequencer(true);
+
+        String thread = sequencer.execute(UUID.randomUUID(), () -> Thread.currentThread().getName());
+
+        Assertions.assertThat(thread).startsWith("sequencer-lane-");
+    }
+
+    @Test
+    void exceptionsAreRethrownToTheCaller() {
+        CustomerSequencer sequencer = sequencer(true);
+
+        Assertions.assertThatThrownBy(() -> sequencer.execute(UUID.randomUUID(), () -> {
+                    throw new IllegalArgumentException("Insufficient TRY usable balance to place BUY");
+                }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Insufficient TRY usable balance to place BUY");
+    }
+
+    @Test
+    void disabledSequencerRunsOnCallerThread() {
+        CustomerSequencer sequencer = sequencer(false);
+
+        String thread = sequencer.execute(UUID.randomUUID(), () -> Thread.currentThread().getName());
+
+        Assertions.assertThat(thread).isEqualTo(Thread.currentThread().getName());
+        Assertions.assertThat(sequencer.stats()).isEmpty();
+    }
+
+    private static CustomerSequencer sequencer(boolean enabled) {
+        SequencerProperties properties = new SequencerProperties();
+        properties.setEnabled(enabled);
+        properties.setLanes(4);
+        return new CustomerSequencer(properties, new SimpleMeterRegistry());
+    }
+}
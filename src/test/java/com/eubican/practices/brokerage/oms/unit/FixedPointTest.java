@@ -0,0 +1,63 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.UUID;
+
+public class FixedPointTest {
+
+    @Test
+    void convertsExactlyAtTheBoundary() {
+        FixedPoint price = FixedPoint.of(new BigDecimal("12.5"), FixedPoint.PRICE_SCALE);
+
+        Assertions.assertThat(price.units()).isEqualTo(125_000L);
+        Assertions.assertThat(price.toBigDecimal()).isEqualTo(new BigDecimal("12.5000"));
+        Assertions.assertThatThrownBy(() -> FixedPoint.of(new BigDecimal("1.00001"), FixedPoint.PRICE_SCALE))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void multiplyRoundsHalfUpLikeBigDecimal() {
+        FixedPoint price = FixedPoint.of(new BigDecimal("10.0005"), FixedPoint.PRICE_SCALE);
+        FixedPoint size = FixedPoint.of(new BigDecimal("0.123457"), FixedPoint.SIZE_SCALE);
+
+        BigDecimal expected = new BigDecimal("10.0005").multiply(new BigDecimal("0.123457")).setScale(6, RoundingMode.HALF_UP);
+
+        Assertions.assertThat(price.multiply(size, FixedPoint.AMOUNT_SCALE).toBigDecimal()).isEqualTo(expected);
+    }
+
+    @Test
+    void multiplyFallsBackToExactPathBeyondSixtyFourBits() {
+        FixedPoint price = FixedPoint.of(new BigDecimal("500000"), FixedPoint.PRICE_SCALE);
+        FixedPoint size = FixedPoint.of(new BigDecimal("1000000"), FixedPoint.SIZE_SCALE);
+
+        Assertions.assertThat(price.multiply(size, FixedPoint.AMOUNT_SCALE).toBigDecimal())
+                .isEqualByComparingTo("500000000000");
+    }
+
+    @Test
+    void overflowIsReportedInsteadOfWrappingAround() {
+        FixedPoint max = FixedPoint.ofUnits(Long.MAX_VALUE, FixedPoint.AMOUNT_SCALE);
+
+        Assertions.assertThatThrownBy(() -> max.add(FixedPoint.ofUnits(1, FixedPoint.AMOUNT_SCALE)))
+                .isInstanceOf(ArithmeticException.class);
+        Assertions.assertThatThrownBy(() -> max.multiply(FixedPoint.of(BigDecimal.TEN, FixedPoint.SIZE_SCALE), FixedPoint.AMOUNT_SCALE))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void notionalBeyondTheBalanceRangeIsInvalidInput() {
+        Order order = Order.from(UUID.randomUUID(), "SQA", OrderSide.BUY,
+                new BigDecimal("999999999999.999999"), new BigDecimal("99999999999999.9999"));
+
+        Assertions.assertThatThrownBy(order::notional)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exceeds the supported range");
+    }
+}
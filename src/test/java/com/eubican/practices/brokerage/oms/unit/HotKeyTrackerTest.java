@@ -0,0 +1,100 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.config.properties.HotKeyProperties;
+import com.eubican.practices.brokerage.oms.domain.concurrency.AssetLock;
+import com.eubican.practices.brokerage.oms.domain.concurrency.HotKey;
+import com.eubican.practices.brokerage.oms.domain.concurrency.HotKeyTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HotKeyTrackerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AssetLock algo = AssetLock.of(UUID.randomUUID(), "TRY");
+
+    @Test
+    void heavyHitterSurvivesAStreamOfOneOffKeys() {
+        HotKeyTracker tracker = tracker(properties(16, 5, false));
+
+        for (int i = 0; i < 1000; i++) {
+            tracker.recordCommand(List.of(AssetLock.of(UUID.randomUUID(), "TRY")));
+            if (i % 4 == 0) {
+                tracker.recordCommand(List.of(algo));
+            }
+        }
+
+        List<HotKey> top = tracker.topByCommands(3);
+        Assertions.assertThat(top.getFirst().customerId()).isEqualTo(algo.customerId());
+        Assertions.assertThat(top.getFirst().count() - top.getFirst().overestimate()).isGreaterThanOrEqualTo(200);
+        Assertions.assertThat(meterRegistry.get("oms.hotkeys.tracked").tag("summary", "commands").gauge().value())
+                .isEqualTo(16);
+    }
+
+    @Test
+    void rowIsHotAtTheThresholdUntilDecayHalvesItBelow() {
+        HotKeyTracker tracker = tracker(properties(16, 4, false));
+
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertThat(tracker.isHot(algo)).isFalse();
+            tracker.recordConflict(List.of(algo));
+        }
+
+        Assertions.assertThat(tracker.isHot(algo)).isTrue();
+        Assertions.assertThat(tracker.hotKeys()).extracting(HotKey::assetName).containsExactly("TRY");
+        tracker.decay();
+        Assertions.assertThat(tracker.isHot(algo)).isFalse();
+        Assertions.assertThat(tracker.topByConflicts(1)).extracting(HotKey::count).containsExactly(2L);
+    }
+
+    @Test
+    void commandsOnAHotRowRunOneAtATime() {
+        HotKeyTracker tracker = tracker(properties(16, 1, true));
+        tracker.recordConflict(List.of(algo));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(CompletableFuture.runAsync(() -> tracker.serialize(List.of(algo), () -> {
+                    if (running.incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    Thread.onSpinWait();
+                    running.decrementAndGet();
+                }), callers));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } finally {
+            callers.shutdown();
+        }
+
+        Assertions.assertThat(overlaps).hasValue(0);
+        Assertions.assertThat(meterRegistry.get("oms.hotkeys.serialized").counter().count()).isEqualTo(200);
+    }
+
+    private HotKeyTracker tracker(HotKeyProperties properties) {
+        return new HotKeyTracker(properties, meterRegistry);
+    }
+
+    private static HotKeyProperties properties(int capacity, long conflictThreshold, boolean serialize) {
+        HotKeyProperties properties = new HotKeyProperties();
+        properties.setCapacity(capacity);
+        properties.setConflictThreshold(conflictThreshold);
+        properties.setSerializeHotKeys(serialize);
+        properties.setSerializeTimeout(Duration.ofSeconds(5));
+        return properties;
+    }
+}
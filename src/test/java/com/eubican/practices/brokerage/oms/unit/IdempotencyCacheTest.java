@@ -0,0 +1,60 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.config.properties.IdempotencyProperties;
+import com.eubican.practices.brokerage.oms.domain.exception.IdempotencyKeyReusedException;
+import com.eubican.practices.brokerage.oms.domain.idempotency.IdempotencyCache;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class IdempotencyCacheTest {
+
+    @Test
+    void evictsOldestEntriesBeyondCapacity() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(2);
+        IdempotencyCache cache = new IdempotencyCache(properties);
+
+        cache.put(key("a"), "first");
+        cache.put(key("b"), "second");
+        cache.put(key("c"), "third");
+
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+        Assertions.assertThat(cache.get(key("a"), String.class)).isEmpty();
+        Assertions.assertThat(cache.get(key("c"), String.class)).contains("third");
+    }
+
+    @Test
+    void expiredEntriesAreNotReplayed() throws InterruptedException {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setTtl(Duration.ofMillis(1));
+        IdempotencyCache cache = new IdempotencyCache(properties);
+
+        cache.put(key("a"), "first");
+        Thread.sleep(5);
+
+        Assertions.assertThat(cache.get(key("a"), String.class)).isEmpty();
+    }
+
+    @Test
+    void replaysOnlyTheRequestTheResultWasKeptFor() {
+        IdempotencyCache cache = new IdempotencyCache(new IdempotencyProperties());
+
+        cache.put(key("a"), "hash-1", "first");
+
+        Assertions.assertThat(cache.get(key("a"), "hash-1", String.class)).contains("first");
+        Assertions.assertThatThrownBy(() -> cache.get(key("a"), "hash-2", String.class))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    @Test
+    void rejectsBlankKeys() {
+        Assertions.assertThatThrownBy(() -> key(" "))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static IdempotencyCache.Key key(String idempotencyKey) {
+        return new IdempotencyCache.Key("create", "customer", null, idempotencyKey);
+    }
+}
@@ -0,0 +1,114 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.domain.instrument.InstrumentRegistry;
+import com.eubican.practices.brokerage.oms.domain.model.Instrument;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.persistence.entity.InstrumentEntity;
+import com.eubican.practices.brokerage.oms.persistence.repository.AssetJpaRepository;
+import com.eubican.practices.brokerage.oms.persistence.repository.InstrumentJpaRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@ExtendWith(MockitoExtension.class)
+public class InstrumentRegistryTest {
+
+    @Mock
+    private InstrumentJpaRepository instrumentRepository;
+
+    @Mock
+    private AssetJpaRepository assetRepository;
+
+    private InstrumentRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new InstrumentRegistry(instrumentRepository, assetRepository);
+        Mockito.when(instrumentRepository.findByActiveTrue())
+                .thenReturn(List.of(entity(1, "XYZ", "0.0100", "1")));
+        registry.refresh();
+    }
+
+    @Test
+    void resolvesSymbolsAndIdsToTheSameInstance() {
+        Instrument bySymbol = registry.require("XYZ");
+
+        Assertions.assertThat(bySymbol.id()).isEqualTo(1);
+        Assertions.assertThat(registry.find(1)).containsSame(bySymbol);
+        Assertions.assertThat(registry.find(2)).isEmpty();
+        Assertions.assertThatThrownBy(() -> registry.require("ABC"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown instrument");
+    }
+
+    @Test
+    void enforcesTickAndLotSize() {
+        Instrument xyz = registry.require("XYZ");
+        UUID customerId = UUID.randomUUID();
+
+        Assertions.assertThat(Order.from(customerId, xyz, OrderSide.BUY, new BigDecimal("3"), new BigDecimal("10.25")).getAssetName())
+                .isSameAs(xyz.symbol());
+        Assertions.assertThatThrownBy(() -> Order.from(customerId, xyz, OrderSide.BUY, new BigDecimal("3"), new BigDecimal("10.255")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("price");
+        Assertions.assertThatThrownBy(() -> Order.from(customerId, xyz, OrderSide.BUY, new BigDecimal("0.5"), new BigDecimal("10")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("size");
+    }
+
+    @Test
+    void refreshSwapsInNewListings() {
+        Mockito.when(instrumentRepository.findByActiveTrue())
+                .thenReturn(List.of(entity(1, "XYZ", "0.0100", "1"), entity(7, "ABC", "0.0001", "0.000001")));
+
+        Assertions.assertThat(registry.refresh()).isEqualTo(2);
+        Assertions.assertThat(registry.require("ABC").id()).isEqualTo(7);
+        Assertions.assertThat(registry.find(7)).isPresent();
+    }
+
+    @Test
+    void findsSymbolsContainingAFragment() {
+        Mockito.when(instrumentRepository.findByActiveTrue())
+                .thenReturn(List.of(entity(1, "BTCUSDT", "0.01", "0.0001"), entity(2, "ETHUSDT", "0.01", "0.0001"),
+                        entity(3, "BTCTRY", "1", "0.0001"), entity(4, "XYZ", "0.0100", "1")));
+        registry.refresh();
+
+        Assertions.assertThat(registry.symbolsContaining("btc")).containsExactlyInAnyOrder("BTCUSDT", "BTCTRY");
+        Assertions.assertThat(registry.symbolsContaining("USDT")).containsExactlyInAnyOrder("BTCUSDT", "ETHUSDT");
+        Assertions.assertThat(registry.symbolsContaining("T")).containsExactlyInAnyOrder("BTCUSDT", "ETHUSDT", "BTCTRY");
+        Assertions.assertThat(registry.symbolsContaining("tcus")).containsExactly("BTCUSDT");
+        // every trigram occurs in some symbol, the whole fragment in none
+        Assertions.assertThat(registry.symbolsContaining("BTCUSDTRY")).isEmpty();
+        Assertions.assertThat(registry.symbolsContaining("DOGE")).isEmpty();
+    }
+
+    @Test
+    void findsDelistedAndHeldSymbols() {
+        Mockito.when(instrumentRepository.findAllSymbols()).thenReturn(List.of("XYZ", "DOGETRY"));
+        Mockito.when(assetRepository.findDistinctAssetNames()).thenReturn(List.of("TRY", "XYZ", "btcusdt"));
+        registry.refresh();
+
+        // as stored, so the expanded list matches the rows
+        Assertions.assertThat(registry.symbolsContaining("BTC")).containsExactly("btcusdt");
+        Assertions.assertThat(registry.symbolsContaining("doge")).containsExactly("DOGETRY");
+        Assertions.assertThat(registry.find("DOGETRY")).isEmpty();
+    }
+
+    private static InstrumentEntity entity(int id, String symbol, String tick, String lot) {
+        InstrumentEntity entity = new InstrumentEntity();
+        entity.setId(id);
+        entity.setSymbol(symbol);
+        entity.setTickSize(new BigDecimal(tick));
+        entity.setLotSize(new BigDecimal(lot));
+        return entity;
+    }
+}
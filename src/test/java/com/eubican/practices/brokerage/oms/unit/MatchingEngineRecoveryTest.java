@@ -0,0 +1,87 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.config.properties.JournalProperties;
+import com.eubican.practices.brokerage.oms.config.properties.MatchingEngineProperties;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderEvent;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderJournal;
+import com.eubican.practices.brokerage.oms.domain.matching.MatchingEngine;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+public class MatchingEngineRecoveryTest {
+
+    @TempDir
+    private Path directory;
+
+    private final OrderJpaRepository orderRepository = Mockito.mock(OrderJpaRepository.class);
+
+    private OrderJournal journal;
+
+    private MatchingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        JournalProperties journalProperties = new JournalProperties();
+        journalProperties.setEnabled(true);
+        journalProperties.setDirectory(directory);
+        journal = new OrderJournal(journalProperties);
+        journal.recover();
+
+        MatchingEngineProperties properties = new MatchingEngineProperties();
+        properties.setEnabled(true);
+        engine = new MatchingEngine(orderRepository, properties, journal);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void rebuildsTheBooksFromTheJournalWithoutScanningOrders() {
+        Order open = order();
+        Order canceled = order();
+        journal.record(OrderEvent.created(open));
+        journal.record(OrderEvent.canceled(canceled));
+        // a cancel whose batch overtook the create must not resurrect the order
+        journal.record(OrderEvent.created(canceled));
+        Mockito.when(orderRepository.countByStatus(OrderStatus.PENDING)).thenReturn(1L);
+
+        engine.afterSingletonsInstantiated();
+
+        Assertions.assertThat(engine.book("MEA").orElseThrow().remove(open.getId())).isPresent();
+        Assertions.assertThat(engine.book("MEA").orElseThrow().size()).isZero();
+        Mockito.verify(orderRepository, Mockito.never())
+                .findViewsByStatusAfter(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    void fallsBackToTheDatabaseWhenTheJournalDisagrees() {
+        journal.record(OrderEvent.created(order()));
+        Mockito.when(orderRepository.countByStatus(OrderStatus.PENDING)).thenReturn(2L);
+        Mockito.when(orderRepository.findViewsByStatusAfter(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(List.of());
+
+        engine.afterSingletonsInstantiated();
+
+        Assertions.assertThat(engine.book("MEA")).isEmpty();
+    }
+
+    private static Order order() {
+        return Order.from(UUID.randomUUID(), "MEA", OrderSide.SELL, BigDecimal.ONE, BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,286 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.config.properties.OpenOrderStoreProperties;
+import com.eubican.practices.brokerage.oms.domain.instrument.InstrumentRegistry;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.domain.model.OrderView;
+import com.eubican.practices.brokerage.oms.domain.openorder.OpenOrderRecord;
+import com.eubican.practices.brokerage.oms.domain.openorder.OpenOrderStore;
+import com.eubican.practices.brokerage.oms.persistence.entity.InstrumentEntity;
+import com.eubican.practices.brokerage.oms.persistence.repository.AssetJpaRepository;
+import com.eubican.practices.brokerage.oms.persistence.repository.InstrumentJpaRepository;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+public class OpenOrderStoreTest {
+
+    private final UUID customerId = UUID.randomUUID();
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private InstrumentJpaRepository instrumentRepository;
+
+    @Mock
+    private OrderJpaRepository orderRepository;
+
+    @Mock
+    private AssetJpaRepository assetRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OpenOrderStoreProperties properties;
+
+    private InstrumentRegistry registry;
+
+    private OpenOrderStore store;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(instrumentRepository.findByActiveTrue()).thenReturn(List.of(instrument(1, "MEA"), instrument(2, "XYZ")));
+        registry = new InstrumentRegistry(instrumentRepository, assetRepository);
+        registry.refresh();
+
+        properties = new OpenOrderStoreProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setInitialCapacity(16);
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void tracksOpenOrdersAndTheirTotals() {
+        Order buy = order(OrderSide.BUY, "MEA", "2", "10.5");
+        Order sell = order(OrderSide.SELL, "MEA", "3", "7");
+        store.add(buy);
+        store.add(sell);
+
+        OpenOrderRecord record = new OpenOrderRecord();
+        Assertions.assertThat(store.find(buy.getId(), record)).isTrue();
+        Assertions.assertThat(record.belongsTo(customerId)).isTrue();
+        Assertions.assertThat(record.side()).isEqualTo(OrderSide.BUY);
+        Assertions.assertThat(record.instrumentId()).isEqualTo(1);
+        Assertions.assertThat(record.quantity()).isEqualTo(buy.getQuantity());
+        Assertions.assertThat(record.price()).isEqualTo(buy.getLimitPrice());
+        Assertions.assertThat(store.reservedNotional(customerId).toBigDecimal()).isEqualByComparingTo("21");
+        Assertions.assertThat(store.openInterest("MEA").toBigDecimal()).isEqualByComparingTo("5");
+
+        store.remove(buy.getId());
+
+        Assertions.assertThat(store.find(buy.getId(), record)).isFalse();
+        Assertions.assertThat(store.customerHashOf(sell.getId())).isEqualTo(customerHash());
+        Assertions.assertThat(store.reservedNotional(customerId).signum()).isZero();
+        Assertions.assertThat(store.openInterest("MEA").toBigDecimal()).isEqualByComparingTo("3");
+        Assertions.assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void growsAndReusesRemovedSlots() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Order order = order(OrderSide.SELL, "XYZ", "1", "1");
+            orders.add(order);
+            store.add(order);
+        }
+        orders.subList(0, 150).forEach(order -> store.remove(order.getId()));
+        for (int i = 0; i < 200; i++) {
+            Order order = order(OrderSide.SELL, "XYZ", "1", "1");
+            orders.add(order);
+            store.add(order);
+        }
+
+        OpenOrderRecord record = new OpenOrderRecord();
+        Assertions.assertThat(store.size()).isEqualTo(250);
+        Assertions.assertThat(orders.subList(0, 150)).noneMatch(order -> store.find(order.getId(), record));
+        Assertions.assertThat(orders.subList(150, 400)).allMatch(order -> store.find(order.getId(), record));
+        Assertions.assertThat(store.openInterest("XYZ").toBigDecimal()).isEqualByComparingTo("250");
+    }
+
+    @Test
+    void keepsEveryChangeMadeWhileRehashingInTheBackground() throws Exception {
+        int writers = 4;
+        int perWriter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<List<Order>>> kept = new ArrayList<>();
+        try {
+            for (int w = 0; w < writers; w++) {
+                kept.add(executor.submit(() -> {
+                    List<Order> open = new ArrayList<>();
+                    for (int i = 0; i < perWriter; i++) {
+                        Order order = order(OrderSide.SELL, "XYZ", "1", "1");
+                        store.add(order);
+                        if (i % 2 == 0) {
+                            store.remove(order.getId());
+                        } else {
+                            open.add(order);
+                        }
+                    }
+                    return open;
+                }));
+            }
+            OpenOrderRecord record = new OpenOrderRecord();
+            for (Future<List<Order>> future : kept) {
+                Assertions.assertThat(future.get()).allMatch(order -> store.find(order.getId(), record));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertThat(store.size()).isEqualTo(writers * perWriter / 2);
+        Assertions.assertThat(store.openInterest("XYZ").toBigDecimal()).isEqualByComparingTo(String.valueOf(writers * perWriter / 2));
+        store.close();
+        store = open();
+        Assertions.assertThat(store.size()).isEqualTo(writers * perWriter / 2);
+    }
+
+    @Test
+    void mapsACleanlyClosedStoreWithoutReadingOrders() {
+        Order buy = order(OrderSide.BUY, "MEA", "1", "4");
+        store.add(buy);
+        store.close();
+        Mockito.clearInvocations(orderRepository);
+
+        store = open();
+
+        Assertions.assertThat(store.findOrder(buy.getId())).get().extracting(Order::getCustomerId).isEqualTo(customerId);
+        Assertions.assertThat(store.reservedNotional(customerId).toBigDecimal()).isEqualByComparingTo("4");
+        Mockito.verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void rebuildsFromPendingOrdersAfterACrash() {
+        Order lost = order(OrderSide.BUY, "MEA", "1", "4");
+        store.add(lost);
+        OrderView pending = new OrderView(UUID.randomUUID(), customerId, "MEA", OrderStatus.PENDING, OrderSide.BUY,
+                new BigDecimal("2"), new BigDecimal("3"), Instant.now());
+        Mockito.when(orderRepository.streamViewsByStatus(OrderStatus.PENDING)).thenReturn(Stream.of(pending));
+
+        // the first store is never closed
+        store = open();
+
+        Assertions.assertThat(store.customerHashOf(lost.getId())).isEqualTo(OpenOrderStore.NOT_OPEN);
+        Assertions.assertThat(store.customerHashOf(pending.id())).isEqualTo(customerHash());
+        Assertions.assertThat(store.reservedNotional(customerId).toBigDecimal()).isEqualByComparingTo("6");
+    }
+
+    @Test
+    void committedChangeThatCannotBeAppliedIsRebuiltOnTheNextStart() {
+        Order delisted = order(OrderSide.BUY, "DLS", "1", "4");
+        OrderView pending = new OrderView(delisted.getId(), customerId, "DLS", OrderStatus.PENDING, OrderSide.BUY,
+                new BigDecimal("1"), new BigDecimal("4"), Instant.now());
+        Mockito.when(orderRepository.streamViewsByStatus(OrderStatus.PENDING)).thenReturn(Stream.of(pending));
+
+        Assertions.assertThatCode(() -> store.add(delisted)).doesNotThrowAnyException();
+        Assertions.assertThat(store.size()).isZero();
+        store.close();
+
+        store = open();
+
+        Assertions.assertThat(store.customerHashOf(delisted.getId())).isEqualTo(customerHash());
+    }
+
+    @Test
+    void lookupsDoNotAllocate() {
+        Order order = order(OrderSide.SELL, "MEA", "1", "1");
+        store.add(order);
+        OpenOrderRecord record = new OpenOrderRecord();
+        UUID id = order.getId();
+        for (int i = 0; i < 20_000; i++) {
+            store.find(id, record);
+        }
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        long hashes = 0;
+        for (int i = 0; i < 10_000; i++) {
+            store.find(id, record);
+            hashes += store.customerHashOf(id);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        Assertions.assertThat(allocated).isLessThan(4096);
+        Assertions.assertThat(hashes).isEqualTo(10_000 * customerHash());
+    }
+
+    @Test
+    void removalThatOvertakesTheAddKeepsTheOrderOut() {
+        Order canceled = order(OrderSide.BUY, "MEA", "1", "4");
+
+        store.remove(canceled.getId());
+        store.add(canceled);
+
+        Assertions.assertThat(store.customerHashOf(canceled.getId())).isEqualTo(OpenOrderStore.NOT_OPEN);
+        Assertions.assertThat(store.reservedNotional(customerId).signum()).isZero();
+        Assertions.assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void rebuildsOpenOrdersForTheCancelPath() {
+        Order sell = order(OrderSide.SELL, "XYZ", "1.5", "7.25");
+        store.add(sell);
+
+        Order found = store.findOrder(sell.getId()).orElseThrow();
+
+        Assertions.assertThat(found.getCustomerId()).isEqualTo(customerId);
+        Assertions.assertThat(found.getAssetName()).isEqualTo("XYZ");
+        Assertions.assertThat(found.getSide()).isEqualTo(OrderSide.SELL);
+        Assertions.assertThat(found.getQuantity()).isEqualTo(sell.getQuantity());
+        Assertions.assertThat(found.getLimitPrice()).isEqualTo(sell.getLimitPrice());
+        Assertions.assertThat(found.getStatus()).isEqualTo(OrderStatus.PENDING);
+        Assertions.assertThat(store.findOrder(UUID.randomUUID())).isEmpty();
+    }
+
+    private long customerHash() {
+        return customerId.hashCode() & 0xFFFFFFFFL;
+    }
+
+    private OpenOrderStore open() {
+        OpenOrderStore opened = new OpenOrderStore(properties, registry, orderRepository, transactionManager);
+        opened.afterSingletonsInstantiated();
+        return opened;
+    }
+
+    private Order order(OrderSide side, String assetName, String size, String price) {
+        return Order.from(customerId, assetName, side, new BigDecimal(size), new BigDecimal(price));
+    }
+
+    private static InstrumentEntity instrument(int id, String symbol) {
+        InstrumentEntity entity = new InstrumentEntity();
+        entity.setId(id);
+        entity.setSymbol(symbol);
+        entity.setTickSize(new BigDecimal("0.0001"));
+        entity.setLotSize(new BigDecimal("0.000001"));
+        return entity;
+    }
+}
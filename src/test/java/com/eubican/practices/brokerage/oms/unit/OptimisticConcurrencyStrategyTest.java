@@ -0,0 +1,88 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.config.properties.HotKeyProperties;
+import com.eubican.practices.brokerage.oms.config.properties.OrderServiceProperties;
+import com.eubican.practices.brokerage.oms.domain.concurrency.AssetLock;
+import com.eubican.practices.brokerage.oms.domain.concurrency.HotKey;
+import com.eubican.practices.brokerage.oms.domain.concurrency.HotKeyTracker;
+import com.eubican.practices.brokerage.oms.domain.concurrency.OptimisticConcurrencyStrategy;
+import com.eubican.practices.brokerage.oms.persistence.entity.AssetEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OptimisticConcurrencyStrategyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<AssetLock> assets = List.of(AssetLock.of(UUID.randomUUID(), "TRY"));
+
+    private final UUID assetId = UUID.randomUUID();
+
+    private final HotKeyTracker hotKeys = new HotKeyTracker(new HotKeyProperties(), meterRegistry);
+
+    @Test
+    void retriesConflictsWithBackoffAndCountsThem() {
+        OptimisticConcurrencyStrategy strategy = new OptimisticConcurrencyStrategy(properties(3), hotKeys, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        strategy.retrying(() -> {
+            strategy.execute(assets, () -> {
+                if (calls.incrementAndGet() < 3) {
+                    // what Hibernate raises when the stale asset row is flushed
+                    throw new ObjectOptimisticLockingFailureException(AssetEntity.class, assetId);
+                }
+            });
+            return null;
+        });
+
+        Assertions.assertThat(calls).hasValue(3);
+        Assertions.assertThat(meterRegistry.get("oms.concurrency.attempts").counter().count()).isEqualTo(3);
+        Assertions.assertThat(meterRegistry.get("oms.concurrency.conflicts").counter().count()).isEqualTo(2);
+        Assertions.assertThat(meterRegistry.get("oms.concurrency.wait").timer().count()).isEqualTo(2);
+        Assertions.assertThat(hotKeys.topByConflicts(1)).singleElement().extracting(HotKey::count).isEqualTo(2L);
+        Assertions.assertThat(hotKeys.topByCommands(1)).singleElement().extracting(HotKey::count).isEqualTo(3L);
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() {
+        OptimisticConcurrencyStrategy strategy = new OptimisticConcurrencyStrategy(properties(2), hotKeys, meterRegistry);
+
+        Assertions.assertThatThrownBy(() -> strategy.retrying(() -> {
+            strategy.execute(assets, () -> {
+                throw new OptimisticLockingFailureException("conflict");
+            });
+            return null;
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        Assertions.assertThat(meterRegistry.get("oms.concurrency.exhausted").counter().count()).isEqualTo(1);
+        // the last conflict is charged to the row too, not left to the exception handler
+        Assertions.assertThat(hotKeys.topByConflicts(1)).singleElement().extracting(HotKey::count).isEqualTo(2L);
+    }
+
+    @Test
+    void executeLeavesTheRetryToTheCaller() {
+        OptimisticConcurrencyStrategy strategy = new OptimisticConcurrencyStrategy(properties(3), hotKeys, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        Assertions.assertThatThrownBy(() -> strategy.execute(assets, () -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        Assertions.assertThat(calls).hasValue(1);
+    }
+
+    private static OrderServiceProperties properties(int maxRetries) {
+        OrderServiceProperties properties = new OrderServiceProperties();
+        properties.setOptimisticLockMaxRetries(maxRetries);
+        properties.setOptimisticBackoffInitial(Duration.ofMillis(1));
+        properties.setOptimisticBackoffMax(Duration.ofMillis(4));
+        return properties;
+    }
+}
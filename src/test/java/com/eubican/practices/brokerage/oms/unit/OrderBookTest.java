@@ -0,0 +1,99 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.domain.matching.OrderBook;
+import com.eubican.practices.brokerage.oms.domain.matching.OrderBookEntry;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public class OrderBookTest {
+
+    private static final UUID BUYER = UUID.randomUUID();
+    private static final UUID SELLER = UUID.randomUUID();
+
+    private final Instant t0 = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Test
+    void buyCrossesLowestAskFirst() {
+        OrderBook book = new OrderBook("XYZ");
+        OrderBookEntry expensive = entry(SELLER, OrderSide.SELL, "1", "11", t0);
+        OrderBookEntry cheap = entry(SELLER, OrderSide.SELL, "1", "10", t0.plusSeconds(1));
+        book.add(expensive);
+        book.add(cheap);
+
+        var matched = book.pollCrossing(entry(BUYER, OrderSide.BUY, "1", "12", t0.plusSeconds(2)));
+
+        Assertions.assertThat(matched).contains(cheap);
+        Assertions.assertThat(book.size()).isEqualTo(1);
+        Assertions.assertThat(book.bestAsk()).contains(expensive);
+    }
+
+    @Test
+    void samePriceIsServedInTimePriority() {
+        OrderBook book = new OrderBook("XYZ");
+        OrderBookEntry later = entry(BUYER, OrderSide.BUY, "1", "10", t0.plusSeconds(5));
+        OrderBookEntry earlier = entry(BUYER, OrderSide.BUY, "1", "10", t0);
+        book.add(later);
+        book.add(earlier);
+
+        var matched = book.pollCrossing(entry(SELLER, OrderSide.SELL, "1", "9", t0.plusSeconds(10)));
+
+        Assertions.assertThat(matched).contains(earlier);
+    }
+
+    @Test
+    void doesNotCrossWhenPricesDoNotOverlap() {
+        OrderBook book = new OrderBook("XYZ");
+        book.add(entry(SELLER, OrderSide.SELL, "1", "10", t0));
+
+        Assertions.assertThat(book.pollCrossing(entry(BUYER, OrderSide.BUY, "1", "9.9999", t0.plusSeconds(1)))).isEmpty();
+        Assertions.assertThat(book.size()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsOwnOrdersAndDifferentSizes() {
+        OrderBook book = new OrderBook("XYZ");
+        book.add(entry(BUYER, OrderSide.SELL, "1", "9", t0));
+        book.add(entry(SELLER, OrderSide.SELL, "2", "9", t0.plusSeconds(1)));
+        OrderBookEntry eligible = entry(SELLER, OrderSide.SELL, "1", "10", t0.plusSeconds(2));
+        book.add(eligible);
+
+        var matched = book.pollCrossing(entry(BUYER, OrderSide.BUY, "1", "10", t0.plusSeconds(3)));
+
+        Assertions.assertThat(matched).contains(eligible);
+        Assertions.assertThat(book.size()).isEqualTo(2);
+    }
+
+    @Test
+    void removeTakesOrderOffTheBook() {
+        OrderBook book = new OrderBook("XYZ");
+        OrderBookEntry resting = entry(SELLER, OrderSide.SELL, "1", "10", t0);
+        book.add(resting);
+
+        Assertions.assertThat(book.remove(resting.orderId())).contains(resting);
+        Assertions.assertThat(book.remove(resting.orderId())).isEmpty();
+        Assertions.assertThat(book.pollCrossing(entry(BUYER, OrderSide.BUY, "1", "10", t0.plusSeconds(1)))).isEmpty();
+    }
+
+    @Test
+    void withdrawalThatOvertakesTheAddKeepsTheOrderOut() {
+        OrderBook book = new OrderBook("XYZ");
+        OrderBookEntry canceled = entry(SELLER, OrderSide.SELL, "1", "10", t0);
+
+        Assertions.assertThat(book.withdraw(canceled.orderId())).isEmpty();
+        book.add(canceled);
+
+        Assertions.assertThat(book.size()).isZero();
+        // the tombstone is spent by the late add, so the id is not remembered forever
+        book.add(canceled);
+        Assertions.assertThat(book.size()).isEqualTo(1);
+    }
+
+    private static OrderBookEntry entry(UUID customerId, OrderSide side, String size, String price, Instant createdAt) {
+        return new OrderBookEntry(UUID.randomUUID(), customerId, side, new BigDecimal(size), new BigDecimal(price), createdAt);
+    }
+}
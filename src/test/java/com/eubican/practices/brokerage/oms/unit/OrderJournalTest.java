@@ -0,0 +1,209 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.config.properties.JournalProperties;
+import com.eubican.practices.brokerage.oms.domain.journal.BalanceDelta;
+import com.eubican.practices.brokerage.oms.domain.journal.JournalState;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderEvent;
+import com.eubican.practices.brokerage.oms.domain.journal.OrderJournal;
+import com.eubican.practices.brokerage.oms.domain.model.FixedPoint;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class OrderJournalTest {
+
+    private final UUID customerId = UUID.randomUUID();
+
+    @TempDir
+    private Path directory;
+
+    private JournalProperties properties;
+
+    private OrderJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setSegmentSize(DataSize.ofBytes(1024));
+        properties.setSnapshotEvery(1000);
+        journal = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void foldsOrderFlowIntoOpenOrdersAndBalanceChanges() {
+        Order buy = order(OrderSide.BUY, "2", "10.5");
+        Order sell = order(OrderSide.SELL, "3", "7");
+
+        place(buy);
+        place(sell);
+        journal.record(OrderEvent.matched(buy, FixedPoint.of(new BigDecimal("10"), FixedPoint.PRICE_SCALE)));
+
+        JournalState state = journal.state();
+        Assertions.assertThat(state.lastSequence()).isEqualTo(5);
+        Assertions.assertThat(state.openOrders()).containsOnlyKeys(sell.getId());
+        // 21 reserved, 20 spent and 1 refunded
+        assertChange(state, "TRY", "-20", "-20", "0");
+        // 2 bought, 3 reserved for the open sell
+        assertChange(state, "MEA", "2", "-1", "3");
+    }
+
+    @Test
+    void rollsSegmentsAndReplaysFromAnySequence() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            place(order(OrderSide.BUY, "1", "1"));
+        }
+
+        List<Long> all = new ArrayList<>();
+        List<Long> tail = new ArrayList<>();
+        Assertions.assertThat(journal.replay(1, event -> all.add(event.sequence()))).isEqualTo(20);
+        Assertions.assertThat(journal.replay(15, event -> tail.add(event.sequence()))).isEqualTo(6);
+
+        Assertions.assertThat(segments()).hasSizeGreaterThan(1);
+        Assertions.assertThat(all).isSorted().hasSize(20).startsWith(1L).endsWith(20L);
+        Assertions.assertThat(tail).containsExactly(15L, 16L, 17L, 18L, 19L, 20L);
+    }
+
+    @Test
+    void recoversFromTheLatestSnapshotAndTheEventsAfterIt() throws IOException {
+        properties.setSnapshotEvery(4);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Order order = order(OrderSide.SELL, "1", "5");
+            orders.add(order);
+            place(order);
+        }
+        journal.record(OrderEvent.canceled(orders.getFirst()));
+        JournalState before = journal.state();
+        journal.close();
+
+        journal = open();
+        JournalState after = journal.state();
+
+        // written in the background, so which sequence it covers depends on timing
+        Assertions.assertThat(snapshots()).isNotEmpty();
+        Assertions.assertThat(after.lastSequence()).isEqualTo(11);
+        Assertions.assertThat(after.openOrders()).containsExactlyEntriesOf(before.openOrders());
+        Assertions.assertThat(after.balanceChange(customerId, "MEA")).isEqualTo(before.balanceChange(customerId, "MEA"));
+        assertChange(after, "MEA", "0", "-4", "4");
+    }
+
+    @Test
+    void discardsATornRecordAtTheEndOfTheJournal() throws IOException {
+        place(order(OrderSide.BUY, "1", "1"));
+        place(order(OrderSide.BUY, "1", "1"));
+        journal.close();
+
+        // flip a byte inside the last record
+        Path last = segments().getLast();
+        try (RandomAccessFile file = new RandomAccessFile(last.toFile(), "rw")) {
+            long end = 0;
+            while (true) {
+                file.seek(end);
+                int length = file.readInt();
+                if (length == 0) {
+                    break;
+                }
+                end += 8 + length;
+            }
+            file.seek(end - 3);
+            int b = file.read();
+            file.seek(end - 3);
+            file.write(b ^ 0xFF);
+        }
+
+        journal = open();
+        Assertions.assertThat(journal.state().lastSequence()).isEqualTo(3);
+
+        place(order(OrderSide.BUY, "1", "1"));
+        List<Long> sequences = new ArrayList<>();
+        journal.replay(1, event -> sequences.add(event.sequence()));
+        Assertions.assertThat(sequences).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void cancelThatOvertookItsCreateKeepsTheOrderClosedAcrossASnapshot() {
+        Order order = order(OrderSide.SELL, "1", "5");
+        journal.record(OrderEvent.canceled(order));
+        journal.snapshot();
+        journal.close();
+
+        journal = open();
+        journal.record(OrderEvent.created(order));
+
+        Assertions.assertThat(journal.state().openOrders()).isEmpty();
+    }
+
+    @Test
+    void failedAppendMarksTheJournalDirtyAcrossRestarts() {
+        place(order(OrderSide.BUY, "1", "1"));
+        OrderEvent tooLarge = new OrderEvent(0, Instant.now(), OrderEvent.Type.CREATED, UUID.randomUUID(), customerId,
+                "X".repeat(2000), OrderSide.BUY, FixedPoint.of(BigDecimal.ONE, FixedPoint.SIZE_SCALE),
+                FixedPoint.of(BigDecimal.ONE, FixedPoint.PRICE_SCALE), List.of());
+
+        Assertions.assertThatThrownBy(() -> journal.record(tooLarge)).isInstanceOf(IllegalStateException.class);
+        place(order(OrderSide.BUY, "1", "1"));
+
+        Assertions.assertThat(journal.isDirty()).isTrue();
+        Assertions.assertThat(journal.state().lastSequence()).isEqualTo(2);
+        journal.close();
+        journal = open();
+        Assertions.assertThat(journal.isDirty()).isTrue();
+    }
+
+    private OrderJournal open() {
+        OrderJournal opened = new OrderJournal(properties);
+        opened.recover();
+        return opened;
+    }
+
+    private void place(Order order) {
+        journal.record(OrderEvent.created(order));
+        journal.record(OrderEvent.reserved(order));
+    }
+
+    private Order order(OrderSide side, String size, String price) {
+        return Order.from(customerId, "MEA", side, new BigDecimal(size), new BigDecimal(price));
+    }
+
+    private void assertChange(JournalState state, String assetName, String size, String usable, String reserved) {
+        BalanceDelta change = state.balanceChange(customerId, assetName).orElseThrow();
+        Assertions.assertThat(change.size().toBigDecimal()).isEqualByComparingTo(size);
+        Assertions.assertThat(change.usable().toBigDecimal()).isEqualByComparingTo(usable);
+        Assertions.assertThat(change.reserved().toBigDecimal()).isEqualByComparingTo(reserved);
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".snap")).toList();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.config.properties.PositionCacheProperties;
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.position.PositionCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PositionCacheTest {
+
+    private final UUID customerId = UUID.randomUUID();
+
+    private PositionCacheProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PositionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PositionCacheProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new PositionCache(properties, meterRegistry);
+    }
+
+    @Test
+    void loadsOnceAndServesHitsUntilInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(customerId, "TRY", () -> asset("100", 1L, loads));
+        Asset hit = cache.get(customerId, "TRY", () -> asset("100", 1L, loads));
+        cache.invalidate(customerId, "TRY");
+        Asset reloaded = cache.get(customerId, "TRY", () -> asset("90", 2L, loads));
+
+        Assertions.assertThat(hit.getUsable()).isEqualByComparingTo("100");
+        Assertions.assertThat(reloaded.getUsable()).isEqualByComparingTo("90");
+        Assertions.assertThat(loads).hasValue(2);
+        Assertions.assertThat(count("oms.position-cache.requests", "hit")).isEqualTo(1);
+        Assertions.assertThat(count("oms.position-cache.requests", "miss")).isEqualTo(2);
+    }
+
+    @Test
+    void rowReadBeforeAnInvalidationIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        // a writer commits while the reader is still loading the previous row
+        cache.get(customerId, "TRY", () -> {
+            cache.invalidate(customerId, "TRY");
+            return asset("100", 1L, loads);
+        });
+        Asset next = cache.get(customerId, "TRY", () -> asset("90", 2L, loads));
+
+        Assertions.assertThat(next.getUsable()).isEqualByComparingTo("90");
+        Assertions.assertThat(loads).hasValue(2);
+        Assertions.assertThat(meterRegistry.counter("oms.position-cache.stale.rejections").count()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidatingAPositionNobodyReadsLeavesNothingBehind() {
+        for (int i = 0; i < 100; i++) {
+            cache.invalidate(UUID.randomUUID(), "TRY");
+        }
+
+        Assertions.assertThat(cache.size()).isZero();
+        Assertions.assertThat(cache.weight()).isZero();
+    }
+
+    @Test
+    void olderVersionNeverReplacesNewerOne() throws InterruptedException {
+        properties.setTtl(Duration.ofMillis(1));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(customerId, "TRY", () -> asset("90", 2L, loads));
+        Thread.sleep(5);
+
+        // expired, but a row with an older version, e.g. from a slower reader, must not replace it
+        cache.get(customerId, "TRY", () -> asset("100", 1L, loads));
+        properties.setTtl(Duration.ofMinutes(5));
+        Asset cached = cache.get(customerId, "TRY", () -> asset("80", 3L, loads));
+
+        Assertions.assertThat(cached.getUsable()).isEqualByComparingTo("80");
+        Assertions.assertThat(meterRegistry.counter("oms.position-cache.stale.rejections").count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsOldestPositionsBeyondTheWeightBound() {
+        properties.setMaxWeight(DataSize.ofBytes(1_000));
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            UUID customer = UUID.randomUUID();
+            cache.get(customer, "TRY", () -> asset("100", 1L, loads));
+        }
+
+        Assertions.assertThat(cache.weight()).isLessThanOrEqualTo(1_000);
+        Assertions.assertThat(cache.size()).isLessThan(10);
+        Assertions.assertThat(meterRegistry.counter("oms.position-cache.evictions").count()).isEqualTo(10 - cache.size());
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.counter(name, "result", result).count();
+    }
+
+    private Asset asset(String usable, long version, AtomicInteger loads) {
+        loads.incrementAndGet();
+        BigDecimal amount = new BigDecimal(usable);
+        return Asset.from(null, customerId, "TRY", amount, amount, BigDecimal.ZERO, version);
+    }
+}
@@ -0,0 +1,118 @@
+package com.eubican.practices.brokerage.oms.unit;
+
+import com.eubican.practices.brokerage.oms.config.properties.SingleFlightProperties;
+import com.eubican.practices.brokerage.oms.domain.coalescing.SingleFlight;
+import com.eubican.practices.brokerage.oms.domain.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentIdenticalReadsShareOneExecution() throws Exception {
+        SingleFlight singleFlight = singleFlight(Set.of(SingleFlight.ORDERS));
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> singleFlight.execute(SingleFlight.ORDERS, List.of("first-page"), () -> {
+                    reads.incrementAndGet();
+                    await(release);
+                    return "page";
+                }), callers));
+            }
+            waitUntilCalls(7);
+            release.countDown();
+
+            Assertions.assertThat(results).allSatisfy(result -> Assertions.assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("page"));
+        } finally {
+            callers.shutdown();
+        }
+
+        Assertions.assertThat(reads).hasValue(1);
+        Assertions.assertThat(calls("executed")).isEqualTo(1);
+        Assertions.assertThat(singleFlight.inFlight()).isZero();
+
+        // completed reads are not remembered
+        singleFlight.execute(SingleFlight.ORDERS, List.of("first-page"), reads::incrementAndGet);
+        Assertions.assertThat(reads).hasValue(2);
+    }
+
+    @Test
+    void waitingCallersGetTheExceptionOfTheSharedRead() throws Exception {
+        SingleFlight singleFlight = singleFlight(Set.of(SingleFlight.ASSET));
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<CompletableFuture<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> singleFlight.execute(SingleFlight.ASSET, List.of("ABC"), () -> {
+                    await(release);
+                    throw new ResourceNotFoundException("ABC asset not found");
+                }), callers));
+            }
+            waitUntilCalls(1);
+            release.countDown();
+
+            Assertions.assertThat(results).allSatisfy(result -> Assertions.assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(ResourceNotFoundException.class));
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void endpointsThatDidNotOptInRunEveryRead() {
+        SingleFlight singleFlight = singleFlight(Set.of());
+        AtomicInteger reads = new AtomicInteger();
+
+        singleFlight.execute(SingleFlight.ASSET, List.of("ABC"), reads::incrementAndGet);
+        singleFlight.execute(SingleFlight.ASSET, List.of("ABC"), reads::incrementAndGet);
+
+        Assertions.assertThat(reads).hasValue(2);
+        Assertions.assertThat(meterRegistry.find("oms.single-flight.calls").counters()).isEmpty();
+    }
+
+    private SingleFlight singleFlight(Set<String> endpoints) {
+        SingleFlightProperties properties = new SingleFlightProperties();
+        properties.setEndpoints(endpoints);
+        return new SingleFlight(properties, meterRegistry);
+    }
+
+    private void waitUntilCalls(int collapsed) throws InterruptedException {
+        for (int i = 0; i < 500 && calls("collapsed") < collapsed; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertThat(calls("collapsed")).isEqualTo(collapsed);
+    }
+
+    private double calls(String outcome) {
+        var counter = meterRegistry.find("oms.single-flight.calls").tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
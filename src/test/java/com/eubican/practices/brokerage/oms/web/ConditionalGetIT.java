@@ -0,0 +1,94 @@
+package com.eubican.practices.brokerage.oms.web;
+
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+class ConditionalGetIT extends WebIntegrationTestSupport {
+
+    @BeforeEach
+    void authenticate() {
+        authenticateAsAdmin();
+    }
+
+    @Test
+    void positionIsNotResentUntilItsVersionChanges() {
+        URI uri = customerUri("/api/v1/assets/TRY").build().toUri();
+
+        ResponseEntity<String> first = get(uri, null);
+        String etag = first.getHeaders().getETag();
+        Assertions.assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(etag).startsWith("\"").endsWith("\"");
+
+        ResponseEntity<String> unchanged = get(uri, etag);
+        Assertions.assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        Assertions.assertThat(unchanged.getHeaders().getETag()).isEqualTo(etag);
+        Assertions.assertThat(unchanged.getBody()).isNull();
+        Assertions.assertThat(get(uri, "\"other\", W/" + etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, BigDecimal.ONE, BigDecimal.ONE));
+
+        ResponseEntity<String> changed = get(uri, etag);
+        Assertions.assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        Assertions.assertThat(changed.getBody()).contains("\"reserved\":1");
+    }
+
+    @Test
+    void orderPageIsNotResentUntilAnOrderOnItChanges() {
+        Order order = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, BigDecimal.ONE, BigDecimal.ONE));
+        URI uri = customerUri("/api/v1/orders")
+                .queryParam("from", Instant.now().minus(1, ChronoUnit.HOURS))
+                .queryParam("to", Instant.now().plus(1, ChronoUnit.HOURS))
+                .encode().build().toUri();
+
+        String etag = get(uri, null).getHeaders().getETag();
+        Assertions.assertThat(get(uri, etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        orderService.cancelOrder(order.getId());
+
+        ResponseEntity<String> changed = get(uri, etag);
+        Assertions.assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(changed.getBody()).contains("CANCELED");
+    }
+
+    @Test
+    void assetPageIsTaggedWithTheVersionsItLists() {
+        URI uri = customerUri("/api/v1/assets")
+                .queryParam("from", Instant.now().minus(1, ChronoUnit.HOURS))
+                .queryParam("to", Instant.now().plus(1, ChronoUnit.HOURS))
+                .encode().build().toUri();
+
+        String etag = get(uri, null).getHeaders().getETag();
+        Assertions.assertThat(get(uri, etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, BigDecimal.ONE, BigDecimal.ONE));
+
+        Assertions.assertThat(get(uri, etag).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private UriComponentsBuilder customerUri(String path) {
+        return uri(path).queryParam("customerId", customerId);
+    }
+
+    private ResponseEntity<String> get(URI uri, String ifNoneMatch) {
+        HttpHeaders headers = customerHeaders();
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
@@ -0,0 +1,105 @@
+package com.eubican.practices.brokerage.oms.web;
+
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.model.OrderStatus;
+import com.eubican.practices.brokerage.oms.persistence.repository.OrderJpaRepository;
+import com.eubican.practices.brokerage.oms.web.dto.BulkOrderAck;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "application.order-service.bulk-submit-chunk-size=2"
+)
+class OrderBulkSubmitIT extends WebIntegrationTestSupport {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderJpaRepository orderRepository;
+
+    @Test
+    void acksEachLineAndIsolatesRejectedOrdersFromTheirChunk() throws Exception {
+        String body = String.join("\n",
+                order(customerId, "SQA", "2", "10"),
+                "{not json",
+                order(UUID.randomUUID(), "SQA", "1", "10"),
+                order(customerId, "SQA", "3", "10"),
+                order(customerId, "SQA", "10", "10"),
+                "",
+                order(customerId, "SQA", "1", "10"),
+                order(customerId, "bad-name", "1", "10")
+        );
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                uri("/api/v1/orders/bulk").queryParam("customerId", customerId).toUriString(),
+                HttpMethod.POST,
+                new HttpEntity<>(body, ndjson(bearerToken(customerId, "ROLE_CUSTOMER"))),
+                String.class
+        );
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(response.getBody()).isNotNull();
+
+        List<BulkOrderAck> acks = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            acks.add(objectMapper.readValue(line, BulkOrderAck.class));
+        }
+
+        // in input order, although line 2 is rejected before line 1 is placed
+        Assertions.assertThat(acks).extracting(BulkOrderAck::line).containsExactly(1L, 2L, 3L, 4L, 5L, 7L, 8L);
+        Assertions.assertThat(acks).extracting(BulkOrderAck::accepted)
+                .containsExactly(true, false, false, true, false, true, false);
+        Assertions.assertThat(acks.get(2).error()).contains("customerId");
+        Assertions.assertThat(acks.get(4).error()).contains("Insufficient TRY");
+        Assertions.assertThat(acks.get(6).error()).contains("assetName");
+
+        acks.stream().filter(BulkOrderAck::accepted).forEach(ack -> {
+            Assertions.assertThat(ack.status()).isEqualTo(OrderStatus.PENDING);
+            Assertions.assertThat(orderRepository.findById(ack.orderId())).isPresent();
+        });
+
+        Asset cash = assetService.retrieveCustomerAsset(customerId, "TRY");
+        Assertions.assertThat(cash.getUsable()).isEqualByComparingTo("40");
+        Assertions.assertThat(cash.getReserved()).isEqualByComparingTo("60");
+    }
+
+    @Test
+    void rejectsBatchForAnotherCustomer() {
+        ResponseEntity<String> response = restTemplate.exchange(
+                uri("/api/v1/orders/bulk").queryParam("customerId", customerId).toUriString(),
+                HttpMethod.POST,
+                new HttpEntity<>(order(customerId, "SQA", "1", "10"), ndjson(bearerToken(UUID.randomUUID(), "ROLE_CUSTOMER"))),
+                String.class
+        );
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "TRY").getReserved()).isEqualByComparingTo("0");
+    }
+
+    private static String order(UUID customerId, String assetName, String size, String price) {
+        return String.format("{\"customerId\":\"%s\",\"assetName\":\"%s\",\"side\":\"BUY\",\"size\":%s,\"price\":%s}",
+                customerId, assetName, size, price);
+    }
+
+    private static HttpHeaders ndjson(String token) {
+        HttpHeaders headers = headers(token);
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+        return headers;
+    }
+}
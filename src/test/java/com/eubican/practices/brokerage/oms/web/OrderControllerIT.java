@@ -94,4 +94,22 @@ public class OrderControllerIT {
                 restTemplate.exchange(cancelUrl, HttpMethod.POST, new HttpEntity<>(headers), Void.class);
         Assertions.assertThat(cancelResponse.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
+
+    @Test
+    void rejectsSizesAndPricesBeyondTheFixedPointRange() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerTokenAdmin());
+        String createUrl = baseUrl("/api/v1/orders");
+
+        CreateOrderRequest tooLarge = new CreateOrderRequest(CUSTOMER_ID, "XYZ", OrderSide.BUY,
+                new BigDecimal("10000000000000"), BigDecimal.ONE);
+        Assertions.assertThat(restTemplate.exchange(createUrl, HttpMethod.POST, new HttpEntity<>(tooLarge, headers), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        // each fits on its own, their product does not
+        CreateOrderRequest overflowing = new CreateOrderRequest(CUSTOMER_ID, "XYZ", OrderSide.BUY,
+                new BigDecimal("999999999999"), new BigDecimal("99999999999999"));
+        Assertions.assertThat(restTemplate.exchange(createUrl, HttpMethod.POST, new HttpEntity<>(overflowing, headers), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
 }
@@ -0,0 +1,92 @@
+package com.eubican.practices.brokerage.oms.web;
+
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class OrderCursorPaginationIT extends WebIntegrationTestSupport {
+
+    private final List<UUID> canceled = new ArrayList<>();
+
+    @BeforeEach
+    void placeOrders() {
+        authenticateAsAdmin();
+        for (int i = 0; i < 25; i++) {
+            Order order = orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, BigDecimal.ONE, BigDecimal.ONE));
+            if (i % 5 == 0) {
+                orderService.cancelOrder(order.getId());
+                canceled.add(order.getId());
+            }
+        }
+    }
+
+    @Test
+    void walksTheWholeHistoryNewestFirstWithoutGapsOrDuplicates() {
+        List<JsonNode> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = "";
+        do {
+            JsonNode page = scroll(cursor, null).getBody();
+            page.get("content").forEach(seen::add);
+            pageSizes.add(page.get("size").asInt());
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            Assertions.assertThat(page.get("last").asBoolean()).isEqualTo(cursor == null);
+        } while (cursor != null);
+
+        Assertions.assertThat(pageSizes).containsExactly(10, 10, 5);
+        Assertions.assertThat(seen.stream().map(o -> o.get("orderId").asText()).distinct()).hasSize(25);
+        List<Instant> createdAt = seen.stream().map(o -> Instant.parse(o.get("createdAt").asText())).toList();
+        Assertions.assertThat(createdAt).isSortedAccordingTo((a, b) -> b.compareTo(a));
+    }
+
+    @Test
+    void keepsTheStatusFilterAcrossPages() {
+        JsonNode first = scroll("", "CANCELED").getBody();
+        Assertions.assertThat(first.get("size").asInt()).isEqualTo(5);
+        Assertions.assertThat(first.get("nextCursor").isNull()).isTrue();
+        List<String> ids = new ArrayList<>();
+        first.get("content").forEach(o -> ids.add(o.get("orderId").asText()));
+        Assertions.assertThat(ids).containsExactlyInAnyOrderElementsOf(canceled.stream().map(UUID::toString).toList());
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        ResponseEntity<JsonNode> response = scroll("not-a-cursor", null);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<JsonNode> scroll(String cursor, String status) {
+        Instant now = Instant.now();
+        UriComponentsBuilder uri = uri("/api/v1/orders")
+                .queryParam("customerId", customerId)
+                .queryParam("from", now.minus(1, ChronoUnit.HOURS))
+                .queryParam("to", now.plus(1, ChronoUnit.HOURS))
+                .queryParam("cursor", cursor)
+                .queryParam("size", 10);
+        if (status != null) {
+            uri.queryParam("status", status);
+        }
+        URI target = uri.encode().build().toUri();
+
+        HttpHeaders headers = customerHeaders();
+        return restTemplate.exchange(target, HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class);
+    }
+}
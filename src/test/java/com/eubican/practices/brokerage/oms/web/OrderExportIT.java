@@ -0,0 +1,158 @@
+package com.eubican.practices.brokerage.oms.web;
+
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.RestClientException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+// compression as configured in application-prod.yml
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "application.order-service.export-fetch-size=7",
+        "server.compression.enabled=true",
+        "server.compression.mime-types=application/json,application/x-ndjson,text/csv",
+        "server.compression.min-response-size=1024"
+})
+class OrderExportIT extends WebIntegrationTestSupport {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void placeOrders() {
+        authenticateAsAdmin();
+        for (int i = 0; i < 30; i++) {
+            orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, BigDecimal.ONE, BigDecimal.ONE));
+        }
+    }
+
+    @Test
+    void streamsEveryOrderAsNdjsonOldestFirst() throws IOException {
+        ResponseEntity<byte[]> response = export("NDJSON", false);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(response.getHeaders().getContentType().toString()).startsWith("application/x-ndjson");
+        List<JsonNode> orders = new ArrayList<>();
+        for (String line : lines(response.getBody())) {
+            orders.add(objectMapper.readTree(line));
+        }
+        Assertions.assertThat(orders).hasSize(30);
+        Assertions.assertThat(orders).allMatch(o -> o.get("customerId").asText().equals(customerId.toString()));
+        List<Instant> createdAt = orders.stream().map(o -> Instant.parse(o.get("createdAt").asText())).toList();
+        Assertions.assertThat(createdAt).isSorted();
+    }
+
+    @Test
+    void streamsCsvWithAHeaderLine() throws IOException {
+        List<String> lines = lines(export("CSV", false).getBody());
+
+        Assertions.assertThat(lines).hasSize(31);
+        Assertions.assertThat(lines.getFirst()).isEqualTo("orderId,customerId,assetName,status,side,size,price,createdAt");
+        Assertions.assertThat(lines.get(1).split(",")).hasSize(8).contains(customerId.toString(), "SQA", "PENDING", "BUY");
+    }
+
+    @Test
+    void compressesWhenTheClientAcceptsGzip() throws IOException {
+        ResponseEntity<byte[]> response = export("NDJSON", true);
+
+        Assertions.assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            Assertions.assertThat(lines(in.readAllBytes())).hasSize(30);
+        }
+    }
+
+    @Test
+    void doesNotCompressWhenTheClientRefusesGzip() throws IOException {
+        ResponseEntity<byte[]> response = export("NDJSON", "gzip;q=0, identity");
+
+        Assertions.assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        Assertions.assertThat(lines(response.getBody())).hasSize(30);
+    }
+
+    @Test
+    void failureBeforeAnythingWasSentIsAnsweredAsAnError() {
+        UUID unreadable = insertUnreadableOrder(Instant.now());
+        try {
+            ResponseEntity<byte[]> response = export("NDJSON", "gzip");
+
+            Assertions.assertThat(response.getStatusCode().isError()).isTrue();
+            Assertions.assertThat(response.getHeaders().getContentType().toString()).doesNotStartWith("application/x-ndjson");
+        } finally {
+            jdbcTemplate.update("DELETE FROM orders WHERE id = ?", unreadable);
+        }
+    }
+
+    @Test
+    void failureMidStreamBreaksTheTransfer() {
+        Timestamp earlier = Timestamp.from(Instant.now().minus(10, ChronoUnit.MINUTES));
+        for (int i = 0; i < 200; i++) {
+            jdbcTemplate.update("INSERT INTO orders (id, customer_id, asset_name, side, size, price, status, created_at) "
+                    + "VALUES (?, ?, 'SQA', 'BUY', 1, 1, 'CANCELED', ?)", UUID.randomUUID(), customerId, earlier);
+        }
+        UUID unreadable = insertUnreadableOrder(Instant.now());
+        try {
+            // the rows ahead of the broken one fill the buffer, so the status has gone out when it is reached
+            Assertions.assertThatThrownBy(() -> export("NDJSON", "identity"))
+                    .isInstanceOf(RestClientException.class);
+        } finally {
+            jdbcTemplate.update("DELETE FROM orders WHERE id = ?", unreadable);
+        }
+    }
+
+    // a row whose status no longer maps to an OrderStatus fails the export when it is reached
+    private UUID insertUnreadableOrder(Instant createdAt) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO orders (id, customer_id, asset_name, side, size, price, status, created_at) "
+                + "VALUES (?, ?, 'SQA', 'BUY', 1, 1, 'ARCHIVED', ?)", id, customerId, Timestamp.from(createdAt));
+        return id;
+    }
+
+    private static List<String> lines(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private ResponseEntity<byte[]> export(String format, boolean gzip) {
+        return export(format, gzip ? "gzip" : "identity");
+    }
+
+    private ResponseEntity<byte[]> export(String format, String acceptEncoding) {
+        Instant now = Instant.now();
+        var uri = uri("/api/v1/orders/export")
+                .queryParam("customerId", customerId)
+                .queryParam("from", now.minus(1, ChronoUnit.HOURS))
+                .queryParam("to", now.plus(1, ChronoUnit.HOURS))
+                .queryParam("format", format)
+                .encode().build().toUri();
+
+        HttpHeaders headers = customerHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+}
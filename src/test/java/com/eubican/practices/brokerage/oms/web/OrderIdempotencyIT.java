@@ -0,0 +1,106 @@
+package com.eubican.practices.brokerage.oms.web;
+
+import com.eubican.practices.brokerage.oms.domain.exception.IdempotencyKeyReusedException;
+import com.eubican.practices.brokerage.oms.domain.exception.OrderNotCancellableException;
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.eubican.practices.brokerage.oms.web.dto.CreateOrderRequest;
+import com.eubican.practices.brokerage.oms.web.dto.OrderResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+class OrderIdempotencyIT extends WebIntegrationTestSupport {
+
+    @Test
+    void retriedCreateAndCancelAreReplayed() {
+        String key = UUID.randomUUID().toString();
+        CreateOrderRequest request = new CreateOrderRequest(customerId, "SQA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10"));
+
+        ResponseEntity<OrderResponse> first = post("/api/v1/orders", request, key, OrderResponse.class);
+        ResponseEntity<OrderResponse> retry = post("/api/v1/orders", request, key, OrderResponse.class);
+
+        Assertions.assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(retry.getBody().orderId()).isEqualTo(first.getBody().orderId());
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "TRY").getReserved()).isEqualByComparingTo("20");
+
+        UUID orderId = first.getBody().orderId();
+        String cancelKey = UUID.randomUUID().toString();
+        Assertions.assertThat(post("/api/v1/orders/" + orderId + "/cancel", null, cancelKey, Void.class).getStatusCode())
+                .isEqualTo(HttpStatus.NO_CONTENT);
+        Assertions.assertThat(post("/api/v1/orders/" + orderId + "/cancel", null, cancelKey, Void.class).getStatusCode())
+                .isEqualTo(HttpStatus.NO_CONTENT);
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "TRY").getUsable()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void keysStoredWithTheOrderAnswerRetriesThatMissTheCache() {
+        authenticateAsAdmin();
+        String key = UUID.randomUUID().toString();
+
+        Order first = orderService.createOrder(
+                Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("10")).withIdempotencyKey(key));
+        Order retry = orderService.createOrder(
+                Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("10")).withIdempotencyKey(key));
+
+        Assertions.assertThat(retry.getId()).isEqualTo(first.getId());
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "TRY").getReserved()).isEqualByComparingTo("10");
+
+        orderService.cancelOrder(first.getId(), "cancel-1");
+        orderService.cancelOrder(first.getId(), "cancel-1");
+        Assertions.assertThatThrownBy(() -> orderService.cancelOrder(first.getId(), "cancel-2"))
+                .isInstanceOf(OrderNotCancellableException.class);
+    }
+
+    @Test
+    void keyReusedForADifferentOrderIsRejected() {
+        String key = UUID.randomUUID().toString();
+        CreateOrderRequest request = new CreateOrderRequest(customerId, "SQA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10"));
+        CreateOrderRequest changed = new CreateOrderRequest(customerId, "SQA", OrderSide.BUY, new BigDecimal("3"), new BigDecimal("10"));
+        CreateOrderRequest reformatted = new CreateOrderRequest(customerId, "SQA", OrderSide.BUY, new BigDecimal("2.00"), new BigDecimal("10.0"));
+
+        ResponseEntity<OrderResponse> first = post("/api/v1/orders", request, key, OrderResponse.class);
+
+        Assertions.assertThat(post("/api/v1/orders", changed, key, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        Assertions.assertThat(post("/api/v1/orders", reformatted, key, OrderResponse.class).getBody().orderId())
+                .isEqualTo(first.getBody().orderId());
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "TRY").getReserved()).isEqualByComparingTo("20");
+    }
+
+    @Test
+    void keyStoredWithTheOrderIsCheckedAgainstTheRetry() {
+        authenticateAsAdmin();
+        String key = UUID.randomUUID().toString();
+        orderService.createOrder(
+                Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("10")).withIdempotencyKey(key));
+
+        Assertions.assertThatThrownBy(() -> orderService.createOrder(
+                        Order.from(customerId, "SQA", OrderSide.SELL, new BigDecimal("1"), new BigDecimal("10")).withIdempotencyKey(key)))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        Assertions.assertThat(assetService.retrieveCustomerAsset(customerId, "TRY").getReserved()).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void rejectsOverlongKeys() {
+        CreateOrderRequest request = new CreateOrderRequest(customerId, "SQA", OrderSide.BUY, new BigDecimal("1"), new BigDecimal("10"));
+
+        ResponseEntity<String> response = post("/api/v1/orders", request, "k".repeat(65), String.class);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private <T> ResponseEntity<T> post(String path, Object body, String idempotencyKey, Class<T> type) {
+        HttpHeaders headers = customerHeaders();
+        headers.set("Idempotency-Key", idempotencyKey);
+        return restTemplate.exchange(uri(path).toUriString(), HttpMethod.POST, new HttpEntity<>(body, headers), type);
+    }
+}
@@ -0,0 +1,109 @@
+package com.eubican.practices.brokerage.oms.web;
+
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+class PagedTotalsIT extends WebIntegrationTestSupport {
+
+    private final Instant from = Instant.now().minus(1, ChronoUnit.HOURS);
+
+    private final Instant to = Instant.now().plus(1, ChronoUnit.HOURS);
+
+    @BeforeEach
+    void placeOrders() {
+        authenticateAsAdmin();
+        for (int i = 0; i < 12; i++) {
+            orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, BigDecimal.ONE, BigDecimal.ONE));
+        }
+    }
+
+    @Test
+    void exactTotalsAreCountedPerRequest() {
+        JsonNode page = get("/api/v1/orders", "EXACT", 0);
+
+        Assertions.assertThat(page.get("totalElements").asLong()).isEqualTo(12);
+        Assertions.assertThat(page.get("totalPages").asInt()).isEqualTo(3);
+        Assertions.assertThat(page.get("approximate").asBoolean()).isFalse();
+    }
+
+    @Test
+    void sliceModeReportsOnlyWhetherMorePagesExist() {
+        JsonNode first = get("/api/v1/orders", "NONE", 0);
+        JsonNode last = get("/api/v1/orders", "NONE", 2);
+
+        Assertions.assertThat(first.get("content")).hasSize(5);
+        Assertions.assertThat(first.get("totalElements").isNull()).isTrue();
+        Assertions.assertThat(first.get("totalPages").isNull()).isTrue();
+        Assertions.assertThat(first.get("last").asBoolean()).isFalse();
+        Assertions.assertThat(last.get("content")).hasSize(2);
+        Assertions.assertThat(last.get("last").asBoolean()).isTrue();
+
+        JsonNode assets = get("/api/v1/assets", "NONE", 0);
+        Assertions.assertThat(assets.get("content")).hasSize(1);
+        Assertions.assertThat(assets.get("last").asBoolean()).isTrue();
+    }
+
+    @Test
+    void approximateTotalsArriveFromTheCountCache() throws InterruptedException {
+        JsonNode page = get("/api/v1/orders", "APPROXIMATE", 0);
+        for (int i = 0; i < 50 && page.get("totalElements").isNull(); i++) {
+            Thread.sleep(100);
+            page = get("/api/v1/orders", "APPROXIMATE", 0);
+        }
+
+        Assertions.assertThat(page.get("content")).hasSize(5);
+        Assertions.assertThat(page.get("totalElements").asLong()).isEqualTo(12);
+        Assertions.assertThat(page.get("totalPages").asInt()).isEqualTo(3);
+        Assertions.assertThat(page.get("approximate").asBoolean()).isTrue();
+    }
+
+    @Test
+    void ordersSortOnlyByCreationTime() {
+        JsonNode ascending = sorted("createdAt,asc").getBody();
+        List<Instant> createdAt = new ArrayList<>();
+        ascending.get("content").forEach(o -> createdAt.add(Instant.parse(o.get("createdAt").asText())));
+        Assertions.assertThat(createdAt).hasSize(5).isSorted();
+
+        ResponseEntity<JsonNode> rejected = sorted("price,desc");
+        Assertions.assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private JsonNode get(String path, String totals, int page) {
+        return exchange(path, totals, page, null).getBody();
+    }
+
+    private ResponseEntity<JsonNode> sorted(String sort) {
+        return exchange("/api/v1/orders", "EXACT", 0, sort);
+    }
+
+    private ResponseEntity<JsonNode> exchange(String path, String totals, int page, String sort) {
+        var uri = uri(path)
+                .queryParam("customerId", customerId)
+                .queryParam("from", from)
+                .queryParam("to", to)
+                .queryParam("totals", totals)
+                .queryParam("page", page)
+                .queryParam("size", 5);
+        if (sort != null) {
+            uri.queryParam("sort", sort);
+        }
+
+        HttpHeaders headers = customerHeaders();
+        return restTemplate.exchange(uri.encode().build().toUri(), HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class);
+    }
+}
@@ -0,0 +1,98 @@
+package com.eubican.practices.brokerage.oms.web;
+
+import com.eubican.practices.brokerage.oms.domain.model.Order;
+import com.eubican.practices.brokerage.oms.domain.model.OrderSide;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class PortfolioIT extends WebIntegrationTestSupport {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void placeOrders() {
+        seedAsset(customerId, "XYZ", "5", "0");
+
+        authenticateAsAdmin();
+        orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("2"), new BigDecimal("10")));
+        orderService.createOrder(Order.from(customerId, "XYZ", OrderSide.SELL, new BigDecimal("2"), new BigDecimal("3")));
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void listsBalancesAndPendingOrdersOfEveryAsset() {
+        ResponseEntity<JsonNode> response = portfolio();
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<JsonNode> positions = new ArrayList<>();
+        response.getBody().get("positions").forEach(positions::add);
+        Assertions.assertThat(positions).extracting(p -> p.get("assetName").asText()).containsExactly("SQA", "TRY", "XYZ");
+
+        // only a pending buy, nothing held yet
+        JsonNode sqa = positions.get(0);
+        Assertions.assertThat(sqa.get("size").decimalValue()).isEqualByComparingTo("0");
+        Assertions.assertThat(sqa.get("pendingOrders").asLong()).isEqualTo(1);
+        Assertions.assertThat(sqa.get("pendingNotional").decimalValue()).isEqualByComparingTo("20");
+
+        JsonNode cash = positions.get(1);
+        Assertions.assertThat(cash.get("usable").decimalValue()).isEqualByComparingTo("80");
+        Assertions.assertThat(cash.get("reserved").decimalValue()).isEqualByComparingTo("20");
+        Assertions.assertThat(cash.get("pendingOrders").asLong()).isZero();
+
+        JsonNode xyz = positions.get(2);
+        Assertions.assertThat(xyz.get("usable").decimalValue()).isEqualByComparingTo("3");
+        Assertions.assertThat(xyz.get("reserved").decimalValue()).isEqualByComparingTo("2");
+        Assertions.assertThat(xyz.get("pendingOrders").asLong()).isEqualTo(1);
+        // a SELL reserves XYZ, not TRY
+        Assertions.assertThat(xyz.get("pendingNotional").decimalValue()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void pendingNotionalIsTheCashTheBuyOrdersReserve() {
+        authenticateAsAdmin();
+        // 0.333333 x 0.0003 = 0.0000999999, reserved as 0.000100
+        orderService.createOrder(Order.from(customerId, "SQA", OrderSide.BUY, new BigDecimal("0.333333"), new BigDecimal("0.0003")));
+        SecurityContextHolder.clearContext();
+
+        JsonNode positions = portfolio().getBody().get("positions");
+
+        Assertions.assertThat(positions.get(0).get("pendingNotional").decimalValue())
+                .isEqualByComparingTo(positions.get(1).get("reserved").decimalValue())
+                .isEqualByComparingTo("20.0001");
+    }
+
+    @Test
+    void portfolioIsOneStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Assertions.assertThat(assetService.fetchPortfolio(customerId)).hasSize(3);
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private ResponseEntity<JsonNode> portfolio() {
+        return restTemplate.exchange(uri("/api/v1/assets/portfolio").queryParam("customerId", customerId).toUriString(),
+                HttpMethod.GET, new HttpEntity<>(customerHeaders()), JsonNode.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.eubican.practices.brokerage.oms.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+class ValuationIT extends WebIntegrationTestSupport {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedPositions() {
+        // far richer than any other test customer, so it leads the ranking
+        seedAsset(customerId, "TRY", "1000000000", "0");
+        seedAsset(customerId, "VALX", "4", "1");
+        seedAsset(customerId, "VALY", "7", "0");
+    }
+
+    @Test
+    void revaluesEveryPositionAgainstThePriceVector() {
+        ResponseEntity<JsonNode> response = revalue(Map.of("VALX", new BigDecimal("2.5")));
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode body = response.getBody();
+        Assertions.assertThat(body.get("positions").asInt()).isGreaterThanOrEqualTo(3);
+        Assertions.assertThat(body.get("customers").asInt()).isGreaterThanOrEqualTo(1);
+
+        JsonNode valx = asset(body, "VALX");
+        Assertions.assertThat(valx.get("usable").decimalValue()).isEqualByComparingTo("4");
+        Assertions.assertThat(valx.get("reserved").decimalValue()).isEqualByComparingTo("1");
+        Assertions.assertThat(valx.get("value").decimalValue()).isEqualByComparingTo("12.5");
+        Assertions.assertThat(asset(body, "VALY").get("value").decimalValue()).isZero();
+        Assertions.assertThat(body.get("unpriced").toString()).contains("VALY").doesNotContain("VALX");
+
+        JsonNode top = body.get("topCustomers").get(0);
+        Assertions.assertThat(top.get("customerId").asText()).isEqualTo(customerId.toString());
+        Assertions.assertThat(top.get("value").decimalValue()).isEqualByComparingTo("1000000012.5");
+    }
+
+    @Test
+    void pricesFinerThanTheTickPrecisionAreRejected() {
+        ResponseEntity<JsonNode> response = revalue(Map.of("VALX", new BigDecimal("2.00001")));
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void totalsBeyondTheAmountRangeAreRejectedInsteadOfWrapping() {
+        // each row fits a long at balance precision, their sum does not
+        seedAsset(customerId, "VALZ", "5000000000000", "0");
+        seedAsset(newCustomer(), "VALZ", "5000000000000", "0");
+        try {
+            ResponseEntity<JsonNode> response = revalue(Map.of("VALX", BigDecimal.ONE));
+
+            Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        } finally {
+            // later revaluations in this context would overflow too
+            jdbcTemplate.update("DELETE FROM asset WHERE asset_name = 'VALZ'");
+        }
+    }
+
+    private ResponseEntity<JsonNode> revalue(Map<String, BigDecimal> prices) {
+        return restTemplate.exchange(uri("/api/v1/admin/valuations").toUriString(), HttpMethod.POST,
+                new HttpEntity<>(Map.of("prices", prices), adminHeaders()), JsonNode.class);
+    }
+
+    private static JsonNode asset(JsonNode body, String assetName) {
+        for (JsonNode asset : body.get("assets")) {
+            if (assetName.equals(asset.get("assetName").asText())) {
+                return asset;
+            }
+        }
+        throw new AssertionError(assetName + " not valued");
+    }
+}
@@ -0,0 +1,120 @@
+package com.eubican.practices.brokerage.oms.web;
+
+import com.eubican.practices.brokerage.oms.domain.model.Asset;
+import com.eubican.practices.brokerage.oms.domain.service.AssetService;
+import com.eubican.practices.brokerage.oms.domain.service.OrderService;
+import com.eubican.practices.brokerage.oms.persistence.entity.CustomerEntity;
+import com.eubican.practices.brokerage.oms.persistence.repository.CustomerJpaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Fixtures shared by the web integration tests. Every test gets a fresh customer holding 100 TRY,
+ * so tests sharing the in-memory database never see each other's balances or orders.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+abstract class WebIntegrationTestSupport {
+
+    @LocalServerPort
+    protected int port;
+
+    @Autowired
+    protected TestRestTemplate restTemplate;
+
+    @Autowired
+    protected AssetService assetService;
+
+    @Autowired
+    protected OrderService orderService;
+
+    @Autowired
+    private JwtEncoder jwtEncoder;
+
+    @Autowired
+    private CustomerJpaRepository customerRepository;
+
+    protected UUID customerId;
+
+    @BeforeEach
+    void seedCustomer() {
+        customerId = newCustomer();
+        seedAsset(customerId, "TRY", "100", "0");
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    protected UUID newCustomer() {
+        CustomerEntity customer = new CustomerEntity();
+        customer.setId(UUID.randomUUID());
+        customer.setEmail(customer.getId() + "@test.local");
+        customer.setRole("ROLE_CUSTOMER");
+        customer.setPassword("dummy-hash");
+        customer.setCreatedAt(Instant.now());
+        customerRepository.save(customer);
+        return customer.getId();
+    }
+
+    protected void seedAsset(UUID owner, String assetName, String usable, String reserved) {
+        BigDecimal u = new BigDecimal(usable);
+        BigDecimal r = new BigDecimal(reserved);
+        assetService.upsertAsset(Asset.from(owner, assetName, u.add(r), u, r));
+    }
+
+    // lets the test call services directly; cleared again after each test
+    protected static void authenticateAsAdmin() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("admin", "password", "ROLE_ADMIN")
+        );
+    }
+
+    protected UriComponentsBuilder uri(String path) {
+        return UriComponentsBuilder.fromUriString("http://localhost:" + port + path);
+    }
+
+    // headers of a request made by the test customer
+    protected HttpHeaders customerHeaders() {
+        return headers(bearerToken(customerId, "ROLE_CUSTOMER"));
+    }
+
+    protected HttpHeaders adminHeaders() {
+        return headers(bearerToken(UUID.randomUUID(), "ROLE_ADMIN"));
+    }
+
+    protected static HttpHeaders headers(String bearerToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, bearerToken);
+        return headers;
+    }
+
+    protected String bearerToken(UUID subject, String role) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject(subject.toString())
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .claim("role", role)
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims)).getTokenValue();
+        return "Bearer " + token;
+    }
+}